@@ -0,0 +1,56 @@
+package com.concours.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Caches applicatifs en mémoire (Caffeine), bornés en taille et en durée.
+ * Les statistiques de hit/miss sont exposées par l'actuator (/actuator/metrics/cache.gets).
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String STATISTIQUES = "statistiques";
+    public static final String STATISTIQUES_LOCAL = "statistiques-local";
+
+    @Value("${app.cache.statistiques.max-size:100}")
+    private long statistiquesTailleMax;
+
+    @Value("${app.cache.statistiques.ttl:10m}")
+    private Duration statistiquesTtl;
+
+    @Value("${app.cache.statistiques-local.max-size:1000}")
+    private long statistiquesLocalTailleMax;
+
+    @Value("${app.cache.statistiques-local.ttl:30s}")
+    private Duration statistiquesLocalTtl;
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        // Pas de création à la volée de caches non configurés
+        cacheManager.setCacheNames(List.of());
+        // Caches déclarés au démarrage : ils sont ainsi enregistrés dans les métriques
+        cacheManager.registerCustomCache(STATISTIQUES, Caffeine.newBuilder()
+                .maximumSize(statistiquesTailleMax)
+                .expireAfterWrite(statistiquesTtl)
+                .recordStats()
+                .build());
+        // Une entrée par centre, durée courte : les tableaux de bord locaux sont rafraîchis en continu
+        cacheManager.registerCustomCache(STATISTIQUES_LOCAL, Caffeine.newBuilder()
+                .maximumSize(statistiquesLocalTailleMax)
+                .expireAfterWrite(statistiquesLocalTtl)
+                .recordStats()
+                .build());
+        return cacheManager;
+    }
+}
@@ -44,6 +44,7 @@ public class SecurityConfig {
                         .ignoringRequestMatchers(
                                 "/public/candidature",
                                 "/public/suivi",
+                                "/public/uploads/**",  // Upload repris (authentifié par numéro + CIN)
                                 "/auth/**",
                                 "/api/auth/**",
                                 "/documents/public/**"  // Ajout pour les documents publics
@@ -56,6 +57,13 @@ public class SecurityConfig {
                         .requestMatchers("/documents/public/**").permitAll()
                         // Endpoints spécifiques sans CSRF
                         .requestMatchers("/public/candidature", "/public/suivi").permitAll()
+                        // Anciens emplacements des fichiers privés sous file.upload.dir
+                        .requestMatchers(
+                                "/uploads/documents/**",
+                                "/uploads/archives/**",
+                                "/uploads/resumable/**",
+                                "/uploads/exports/**"
+                        ).denyAll()
                         // Ressources statiques
                         .requestMatchers(
                                 "/error",
@@ -73,6 +81,9 @@ public class SecurityConfig {
                         .requestMatchers("/gestionnaire-local/**").hasAnyRole("ADMIN", "GESTIONNAIRE_GLOBAL", "GESTIONNAIRE_LOCAL")
                         // Dashboard et autres pages nécessitent une authentification
                         .requestMatchers("/dashboard/**").authenticated()
+                        // Métriques et caches (actuator)
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Candidatures admin
                         .requestMatchers("/admin/candidatures/**").hasAnyRole("ADMIN", "GESTIONNAIRE_GLOBAL", "GESTIONNAIRE_LOCAL")
                         // Toutes les autres requêtes nécessitent une authentification
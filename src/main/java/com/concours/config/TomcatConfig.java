@@ -1,13 +1,18 @@
 package com.concours.config;
 
 import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 @Configuration
 public class TomcatConfig {
 
+    @Value("${spring.servlet.multipart.max-request-size:35MB}")
+    private DataSize maxRequestSize;
+
     @Bean
     public TomcatServletWebServerFactory tomcatFactory() {
         return new TomcatServletWebServerFactory() {
@@ -16,9 +21,10 @@ public class TomcatConfig {
                 super.customizeConnector(connector);
 
                 // Configuration simplifiée - laissez Spring gérer les limites
-                // Ces valeurs doivent être cohérentes avec application.properties
-                connector.setMaxPostSize(500 * 1024 * 1024); // 500MB
-                connector.setMaxSavePostSize(500 * 1024 * 1024); // 500MB
+                // Mêmes limites que la configuration multipart d'application.properties
+                int maxPostSize = (int) maxRequestSize.toBytes();
+                connector.setMaxPostSize(maxPostSize);
+                connector.setMaxSavePostSize(maxPostSize);
 
                 // ⚡ SUPPRIMEZ ces lignes qui causent des conflits :
                 // connector.setProperty("maxParameterCount", "10000");
@@ -315,18 +315,6 @@ public class AdminController {
         stats.setCandidaturesParMois(new HashMap<>());
     }
 
-    @GetMapping("/reporting/statistiques/refresh")
-    public String refreshStatistiques(RedirectAttributes redirectAttributes) {
-        try {
-            statistiquesService.invaliderCacheStatistiques();
-            redirectAttributes.addFlashAttribute("success", "Statistiques actualisées avec succès");
-        } catch (Exception e) {
-            log.error("Erreur lors de l'actualisation des statistiques", e);
-            redirectAttributes.addFlashAttribute("error", "Erreur lors de l'actualisation : " + e.getMessage());
-        }
-        return "redirect:/admin/reporting/statistiques";
-    }
-
     @Autowired
     private ExportService exportService;
 
@@ -6,12 +6,13 @@ import com.concours.entity.StatutCandidature;
 import com.concours.exception.BusinessException;
 import com.concours.repository.CandidatureRepository;
 import com.concours.service.*;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
@@ -24,7 +25,13 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
 @Slf4j
@@ -41,12 +48,17 @@ public class CandidatureController {
     private final UtilisateurService utilisateurService;
     private final DocumentService documentService;
     private final CandidatureRepository candidatureRepository;
+    private final CandidatureExportService candidatureExportService;
+    private final RechercheCandidatureService rechercheCandidatureService;
+    private final DiplomeService diplomeService;
+
+    private static final int TAILLE_MAX_API = 200;
 
     /**
      * Liste des candidatures avec filtres
      */
     @GetMapping("/list")
-    public String listeCandidatures(@RequestParam(defaultValue = "0") int page,
+    public String listeCandidatures(@RequestParam(required = false) String curseur,
                                     @RequestParam(defaultValue = "10") int size,
                                     @RequestParam(required = false) Long concoursId,
                                     @RequestParam(required = false) Long specialiteId,
@@ -56,8 +68,7 @@ public class CandidatureController {
                                     Model model,
                                     Authentication authentication) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<CandidatureDTO> candidatures;
+            PageCurseurDTO<CandidatureDTO> candidatures;
 
             log.info("Filtres - concoursId: {}, specialiteId: {}, centreId: {}, statut: {}, diplome: {}",
                     concoursId, specialiteId, centreId, statut, diplome);
@@ -79,10 +90,10 @@ public class CandidatureController {
             }
 
             // Utiliser la méthode de service avec tous les filtres
-            candidatures = candidatureService.getCandidaturesWithFilters(
-                    concoursId, specialiteId, centreId, statut, diplome, pageable);
+            candidatures = candidatureService.getCandidaturesParCurseur(null, diplome, centreId, concoursId,
+                    specialiteId, statut, curseur, size, false, CandidatureService.ModeTotal.ESTIME);
 
-            log.info("Candidatures trouvées: {}", candidatures.getTotalElements());
+            log.info("Candidatures trouvées: {}", candidatures.getTotal());
 
             // Charger les données pour les filtres
             model.addAttribute("candidatures", candidatures);
@@ -98,9 +109,7 @@ public class CandidatureController {
             model.addAttribute("diplome", diplome);
 
             // Pagination
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", candidatures.getTotalPages());
-            model.addAttribute("totalElements", candidatures.getTotalElements());
+            model.addAttribute("size", size);
 
             // Dans votre service ou contrôleur
             if (!candidatures.isEmpty()) {
@@ -119,12 +128,42 @@ public class CandidatureController {
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des candidatures", e);
             model.addAttribute("error", "Erreur lors du chargement des candidatures");
-            model.addAttribute("candidatures", Page.empty());
+            model.addAttribute("candidatures", new PageCurseurDTO<CandidatureDTO>());
         }
 
         return "admin/candidatures/list";
     }
 
+    /**
+     * Export Excel des candidatures filtrées, écrit en flux dans la réponse
+     */
+    @GetMapping("/export/excel")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
+    public void exportExcel(@RequestParam(required = false) Long concoursId,
+                            @RequestParam(required = false) Long specialiteId,
+                            @RequestParam(required = false) Long centreId,
+                            @RequestParam(required = false) String statut,
+                            @RequestParam(required = false) String diplome,
+                            HttpServletResponse response) throws IOException {
+        StatutCandidature statutEnum = null;
+        if (statut != null && !statut.isEmpty()) {
+            try {
+                statutEnum = StatutCandidature.valueOf(statut);
+            } catch (IllegalArgumentException e) {
+                response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Statut invalide: " + statut);
+                return;
+            }
+        }
+
+        String filename = "candidatures_" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + ".xlsx";
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename, StandardCharsets.UTF_8).build().toString());
+
+        candidatureExportService.exporterExcel(concoursId, specialiteId, centreId, statutEnum, diplome,
+                response.getOutputStream());
+    }
+
     /**
      * Détails d'une candidature
      */
@@ -213,19 +252,14 @@ public class CandidatureController {
     }
 
     /**
-     * Téléchargement d'un document
+     * Téléchargement d'un document (lecture en flux depuis le stockage)
      */
     @GetMapping("/documents/download/{documentId}")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(document.getContentType()));
-            headers.setContentDispositionFormData("attachment", document.getNom());
-            headers.setContentLength(document.getTaille());
-
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.attachment(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.error("Document non trouvé: {}", documentId, e);
@@ -237,10 +271,10 @@ public class CandidatureController {
     }
 
     /**
-     * Visualisation d'un document PDF
+     * Visualisation d'un document PDF (lecture en flux, requêtes Range supportées)
      */
     @GetMapping("/documents/view/{documentId}")
-    public ResponseEntity<byte[]> viewDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
@@ -248,11 +282,7 @@ public class CandidatureController {
                 return ResponseEntity.badRequest().build();
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("inline", document.getNom());
-
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.inline(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.error("Document non trouvé: {}", documentId, e);
@@ -326,33 +356,122 @@ public class CandidatureController {
      */
     @GetMapping("/api/list")
     @ResponseBody
-    public ResponseEntity<Page<CandidatureDTO>> apiListeCandidatures(
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<PageCurseurDTO<CandidatureDTO>> apiListeCandidatures(
+            @RequestParam(required = false) String curseur,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) Long centreId,
-            @RequestParam(required = false) String statut) {
+            @RequestParam(required = false) String statut,
+            @RequestParam(defaultValue = "AUCUN") CandidatureService.ModeTotal total) {
 
+        if (size < 1 || size > TAILLE_MAX_API) {
+            return ResponseEntity.badRequest().build();
+        }
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<CandidatureDTO> candidatures;
-
-            if (centreId != null && statut != null) {
-                StatutCandidature statutEnum = StatutCandidature.valueOf(statut);
-                candidatures = candidatureService.getCandidaturesByCentreAndStatut(centreId, statutEnum, pageable);
-            } else if (centreId != null) {
-                candidatures = candidatureService.getCandidaturesByCentre(centreId, pageable);
+            PageCurseurDTO<CandidatureDTO> candidatures;
+
+            if (centreId != null) {
+                if (statut != null) {
+                    StatutCandidature.valueOf(statut); // Statut inconnu : 400 plutôt qu'une liste non filtrée
+                }
+                candidatures = candidatureService.getCandidaturesParCurseur(null, null, centreId, null, null,
+                        statut, curseur, size, false, total);
             } else {
-                candidatures = Page.empty();
+                candidatures = new PageCurseurDTO<>();
             }
 
             return ResponseEntity.ok(candidatures);
 
+        } catch (IllegalArgumentException | BusinessException e) {
+            // Statut inconnu ou curseur invalide
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des candidatures via API", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
 
+    /**
+     * Flux des candidatures filtrées pour les intégrations (NDJSON ou CSV), écrit à mesure
+     * de la lecture. Pour reprendre après une interruption, passer dans {@code reprise}
+     * la dateDepot et le numero de la dernière candidature reçue : "2025-03-01,CAND-20250301-A1B2".
+     */
+    @GetMapping("/api/export")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
+    public void apiExportCandidatures(@RequestParam(defaultValue = "NDJSON") String format,
+                                      @RequestParam(required = false) Long concoursId,
+                                      @RequestParam(required = false) Long specialiteId,
+                                      @RequestParam(required = false) Long centreId,
+                                      @RequestParam(required = false) String statut,
+                                      @RequestParam(required = false) String diplome,
+                                      @RequestParam(required = false) String reprise,
+                                      @RequestParam(required = false) Integer limite,
+                                      HttpServletResponse response) throws IOException {
+        CandidatureExportService.FormatFlux formatFlux;
+        StatutCandidature statutEnum = null;
+        LocalDate repriseDate = null;
+        String repriseNumero = null;
+        try {
+            formatFlux = CandidatureExportService.FormatFlux.valueOf(format.toUpperCase());
+            if (statut != null && !statut.isEmpty()) {
+                statutEnum = StatutCandidature.valueOf(statut);
+            }
+            if (reprise != null && !reprise.isBlank()) {
+                int virgule = reprise.indexOf(',');
+                if (virgule < 0) {
+                    throw new IllegalArgumentException("Jeton de reprise invalide: " + reprise);
+                }
+                repriseDate = LocalDate.parse(reprise.substring(0, virgule).trim());
+                repriseNumero = reprise.substring(virgule + 1).trim();
+            }
+            if (limite != null && limite <= 0) {
+                throw new IllegalArgumentException("Limite invalide: " + limite);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+            return;
+        }
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        if (formatFlux == CandidatureExportService.FormatFlux.CSV) {
+            response.setContentType("text/csv");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    ContentDisposition.attachment().filename("candidatures.csv").build().toString());
+        } else {
+            response.setContentType("application/x-ndjson");
+        }
+
+        candidatureExportService.exporterFlux(concoursId, specialiteId, centreId, statutEnum, diplome,
+                repriseDate, repriseNumero, limite, formatFlux, response.getOutputStream());
+    }
+
+    /**
+     * Reconstruit l'index de recherche plein texte des candidatures (admin seulement)
+     */
+    @PostMapping("/api/recherche/reconstruction")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<String> reconstruireIndexRecherche() {
+        if (!rechercheCandidatureService.lancerReconstruction()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Reconstruction déjà en cours");
+        }
+        log.info("Reconstruction de l'index de recherche lancée manuellement");
+        return ResponseEntity.accepted().body("Reconstruction lancée");
+    }
+
+    /**
+     * Rattache à leur diplôme canonique les candidats qui n'en ont pas (admin seulement)
+     */
+    @PostMapping("/api/diplomes/normalisation")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<String> normaliserDiplomes() {
+        if (!diplomeService.lancerNormalisation()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Normalisation déjà en cours");
+        }
+        log.info("Normalisation des diplômes lancée manuellement");
+        return ResponseEntity.accepted().body("Normalisation lancée");
+    }
+
     /**
      * Gestion des erreurs
      */
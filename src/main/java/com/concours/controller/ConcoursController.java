@@ -1,10 +1,13 @@
 package com.concours.controller;
 
 import com.concours.dto.ConcoursDTO;
+import com.concours.dto.PlacesCentreDTO;
+import com.concours.service.CandidatureService;
 import com.concours.service.ConcoursService;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -15,9 +18,11 @@ import java.util.List;
 public class ConcoursController {
 
     private final ConcoursService concoursService;
+    private final CandidatureService candidatureService;
 
-    public ConcoursController(ConcoursService concoursService) {
+    public ConcoursController(ConcoursService concoursService, CandidatureService candidatureService) {
         this.concoursService = concoursService;
+        this.candidatureService = candidatureService;
     }
 
     @PostMapping
@@ -69,6 +74,15 @@ public class ConcoursController {
         return ResponseEntity.ok(concours);
     }
 
+    /**
+     * Places par centre et par spécialité pour un concours (planification des capacités)
+     */
+    @GetMapping("/{id}/places")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
+    public ResponseEntity<List<PlacesCentreDTO>> getPlacesParCentre(@PathVariable Long id) {
+        return ResponseEntity.ok(candidatureService.getPlacesParCentre(id));
+    }
+
     @GetMapping("/specialite/{specialiteId}")
     public ResponseEntity<List<ConcoursDTO>> getConcoursParSpecialite(@PathVariable Long specialiteId) {
         List<ConcoursDTO> concours = concoursService.getConcoursParSpecialite(specialiteId);
@@ -3,7 +3,11 @@ package com.concours.controller;
 import com.concours.entity.Document;
 import com.concours.entity.TypeDocument;
 import com.concours.exception.BusinessException;
+import com.concours.service.DocumentArchiveJob;
+import com.concours.service.DocumentBlobService;
+import com.concours.service.DocumentMigrationJob;
 import com.concours.service.DocumentService;
+import com.concours.service.StaticDocumentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.ByteArrayResource;
@@ -27,24 +31,23 @@ import java.nio.charset.StandardCharsets;
 public class DocumentController {
 
     private final DocumentService documentService;
+    private final DocumentMigrationJob documentMigrationJob;
+    private final DocumentArchiveJob documentArchiveJob;
+    private final DocumentBlobService documentBlobService;
+    private final StaticDocumentService staticDocumentService;
 
     /**
-     * Télécharge un document par son ID
+     * Télécharge un document par son ID (lecture en flux, requêtes Range et conditionnelles supportées)
      */
     @GetMapping("/download/{documentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL', 'GESTIONNAIRE_LOCAL')")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(document.getContentType()));
-            headers.setContentDispositionFormData("attachment", document.getNom());
-            headers.setContentLength(document.getTaille());
-
             log.info("Téléchargement du document {} par utilisateur authentifié", documentId);
 
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.attachment(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.error("Document non trouvé: {}", documentId, e);
@@ -60,7 +63,7 @@ public class DocumentController {
      */
     @GetMapping("/view/{documentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL', 'GESTIONNAIRE_LOCAL')")
-    public ResponseEntity<byte[]> viewDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
@@ -69,13 +72,9 @@ public class DocumentController {
                 return generateStaticPDF(documentId);
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("inline", document.getNom());
-
             log.info("Visualisation du document {} par utilisateur authentifié", documentId);
 
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.inline(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.warn("Document non trouvé: {}, génération d'un PDF statique", documentId, e);
@@ -89,86 +88,18 @@ public class DocumentController {
     /**
      * Génère un PDF statique quand le document réel n'est pas disponible
      */
-    private ResponseEntity<byte[]> generateStaticPDF(Long documentId) {
+    private ResponseEntity<Resource> generateStaticPDF(Long documentId) {
         try {
-            // Contenu PDF minimal avec du texte
-            String pdfContent = String.format(
-                    "%PDF-1.4\n" +
-                            "1 0 obj\n" +
-                            "<<\n" +
-                            "/Type /Catalog\n" +
-                            "/Pages 2 0 R\n" +
-                            ">>\n" +
-                            "endobj\n" +
-                            "2 0 obj\n" +
-                            "<<\n" +
-                            "/Type /Pages\n" +
-                            "/Kids [3 0 R]\n" +
-                            "/Count 1\n" +
-                            ">>\n" +
-                            "endobj\n" +
-                            "3 0 obj\n" +
-                            "<<\n" +
-                            "/Type /Page\n" +
-                            "/Parent 2 0 R\n" +
-                            "/MediaBox [0 0 612 792]\n" +
-                            "/Contents 4 0 R\n" +
-                            "/Resources <<\n" +
-                            "/Font <<\n" +
-                            "/F1 5 0 R\n" +
-                            ">>\n" +
-                            ">>\n" +
-                            ">>\n" +
-                            "endobj\n" +
-                            "4 0 obj\n" +
-                            "<<\n" +
-                            "/Length 100\n" +
-                            ">>\n" +
-                            "stream\n" +
-                            "BT\n" +
-                            "/F1 12 Tf\n" +
-                            "100 700 Td\n" +
-                            "(Document ID: %d) Tj\n" +
-                            "0 -20 Td\n" +
-                            "(Document de test genere automatiquement) Tj\n" +
-                            "ET\n" +
-                            "endstream\n" +
-                            "endobj\n" +
-                            "5 0 obj\n" +
-                            "<<\n" +
-                            "/Type /Font\n" +
-                            "/Subtype /Type1\n" +
-                            "/BaseFont /Helvetica\n" +
-                            ">>\n" +
-                            "endobj\n" +
-                            "xref\n" +
-                            "0 6\n" +
-                            "0000000000 65535 f \n" +
-                            "0000000010 00000 n \n" +
-                            "0000000053 00000 n \n" +
-                            "0000000109 00000 n \n" +
-                            "0000000158 00000 n \n" +
-                            "0000000369 00000 n \n" +
-                            "trailer\n" +
-                            "<<\n" +
-                            "/Size 6\n" +
-                            "/Root 1 0 R\n" +
-                            ">>\n" +
-                            "startxref\n" +
-                            "456\n" +
-                            "%%EOF",
-                    documentId);
-
-            byte[] pdfBytes = pdfContent.getBytes();
+            byte[] pdfBytes = staticDocumentService.generatePlaceholderPDF(documentId);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
             headers.setContentDispositionFormData("inline", "document_" + documentId + ".pdf");
             headers.setContentLength(pdfBytes.length);
 
-            log.info("Génération d'un PDF statique pour le document {}", documentId);
+            log.debug("Génération d'un PDF statique pour le document {}", documentId);
 
-            return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
+            return new ResponseEntity<>(new ByteArrayResource(pdfBytes), headers, HttpStatus.OK);
 
         } catch (Exception e) {
             log.error("Erreur lors de la génération du PDF statique", e);
@@ -181,7 +112,7 @@ public class DocumentController {
      * Utilisée pour le suivi public des candidatures
      */
     @GetMapping("/public/view/{documentId}")
-    public ResponseEntity<byte[]> viewDocumentPublic(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> viewDocumentPublic(@PathVariable Long documentId) {
         // Pour la version publique, toujours retourner un PDF statique
         return generateStaticPDF(documentId);
     }
@@ -190,7 +121,7 @@ public class DocumentController {
      * Version publique pour télécharger les documents (sans authentification)
      */
     @GetMapping("/public/download/{documentId}")
-    public ResponseEntity<byte[]> downloadDocumentPublic(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> downloadDocumentPublic(@PathVariable Long documentId) {
         return generateStaticPDF(documentId);
     }
 
@@ -287,6 +218,45 @@ public class DocumentController {
         }
     }
 
+    /**
+     * Lance la migration des anciens contenus LONGBLOB vers le stockage (admin seulement)
+     */
+    @PostMapping("/api/migration")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<String> lancerMigrationStockage() {
+        if (!documentMigrationJob.lancer()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Migration déjà en cours");
+        }
+        log.info("Migration des documents vers le stockage lancée manuellement");
+        return ResponseEntity.accepted().body("Migration lancée");
+    }
+
+    /**
+     * Lance l'archivage en segments des documents des concours passés (admin seulement)
+     */
+    @PostMapping("/api/archivage")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<String> lancerArchivage() {
+        if (!documentArchiveJob.lancer()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("Archivage déjà en cours");
+        }
+        log.info("Archivage des documents lancé manuellement");
+        return ResponseEntity.accepted().body("Archivage lancé");
+    }
+
+    /**
+     * Recalcule les références des contenus partagés à partir des documents (admin seulement)
+     */
+    @PostMapping("/api/blobs/recalcul")
+    @PreAuthorize("hasRole('ADMIN')")
+    @ResponseBody
+    public ResponseEntity<String> recalculerReferences() {
+        documentBlobService.recalculerReferences();
+        return ResponseEntity.ok("Références recalculées");
+    }
+
     // === Méthodes utilitaires ===
 
     /**
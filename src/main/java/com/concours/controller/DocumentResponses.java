@@ -0,0 +1,60 @@
+package com.concours.controller;
+
+import com.concours.entity.Document;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction des réponses de téléchargement/visualisation des documents.
+ * Le corps est une {@link Resource} lue en flux : Spring MVC gère alors les
+ * requêtes Range (206 Partial Content) et, grâce à l'ETag et au Last-Modified,
+ * les requêtes conditionnelles If-None-Match / If-Modified-Since (304).
+ */
+final class DocumentResponses {
+
+    private DocumentResponses() {
+        // Classe utilitaire - constructeur privé
+    }
+
+    static ResponseEntity<Resource> attachment(Document document, Resource contenu) {
+        return build(document, contenu, ContentDisposition.attachment());
+    }
+
+    static ResponseEntity<Resource> inline(Document document, Resource contenu) {
+        return build(document, contenu, ContentDisposition.inline());
+    }
+
+    private static ResponseEntity<Resource> build(Document document, Resource contenu,
+                                                  ContentDisposition.Builder disposition) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(document.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        disposition.filename(document.getNom(), StandardCharsets.UTF_8).build().toString())
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                // Un identifiant de document désigne toujours le même contenu
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS).cachePrivate())
+                .eTag(etag(document));
+
+        if (document.getDateUpload() != null) {
+            builder.lastModified(document.getDateUpload().atZone(ZoneId.systemDefault()));
+        }
+
+        return builder.body(contenu);
+    }
+
+    /**
+     * L'ETag est l'identifiant et la taille du document (un identifiant désigne toujours le
+     * même contenu), jamais la clé de stockage : elle ne doit pas sortir de l'application
+     */
+    private static String etag(Document document) {
+        return "\"doc-" + document.getId() + "-" + document.getTaille() + "\"";
+    }
+}
@@ -0,0 +1,116 @@
+package com.concours.controller;
+
+import com.concours.dto.ExportJobDTO;
+import com.concours.entity.FormatExport;
+import com.concours.entity.StatutCandidature;
+import com.concours.entity.TypeExport;
+import com.concours.exception.BusinessException;
+import com.concours.service.ExportJobService;
+import com.concours.util.ApplicationConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Exports en arrière-plan :
+ * <ol>
+ *     <li>POST /api/exports (type, format, filtres) : place l'export en file, 202 avec son identifiant</li>
+ *     <li>GET /api/exports/{id} : statut et progression</li>
+ *     <li>GET /api/exports/{id}/fichier : téléchargement du fichier une fois l'export terminé</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/api/exports")
+@PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobController {
+
+    private final ExportJobService exportJobService;
+
+    @PostMapping
+    public ResponseEntity<?> soumettre(@RequestParam TypeExport type,
+                                       @RequestParam(defaultValue = "EXCEL") FormatExport format,
+                                       @RequestParam(required = false) Long concoursId,
+                                       @RequestParam(required = false) Long specialiteId,
+                                       @RequestParam(required = false) Long centreId,
+                                       @RequestParam(required = false) StatutCandidature statut,
+                                       @RequestParam(required = false) String diplome,
+                                       Authentication authentication) {
+        try {
+            ExportJobDTO export = exportJobService.soumettre(type, format, concoursId, specialiteId, centreId,
+                    statut, diplome, authentication.getName());
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/exports/" + export.getId()))
+                    .body(export);
+        } catch (ExportJobService.FileAttentePleineException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(e.getMessage());
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public List<ExportJobDTO> mesExports(Authentication authentication) {
+        return exportJobService.getExports(authentication.getName());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ExportJobDTO> getExport(@PathVariable String id, Authentication authentication) {
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    .body(exportJobService.getExport(id, authentication.getName(), estAdmin(authentication)));
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @GetMapping("/{id}/fichier")
+    public ResponseEntity<Resource> telecharger(@PathVariable String id, Authentication authentication) {
+        boolean admin = estAdmin(authentication);
+        ExportJobDTO export;
+        Path fichier;
+        try {
+            export = exportJobService.getExport(id, authentication.getName(), admin);
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+        try {
+            fichier = exportJobService.getFichier(id, authentication.getName(), admin);
+        } catch (BusinessException e) {
+            log.debug("Export {} non téléchargeable: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        MediaType type = export.getFormat() == FormatExport.PDF
+                ? MediaType.APPLICATION_PDF
+                : MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(export.getNomFichier(), StandardCharsets.UTF_8).build().toString())
+                .contentType(type)
+                .body(new FileSystemResource(fichier));
+    }
+
+    private boolean estAdmin(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals(ApplicationConstants.ROLE_ADMIN));
+    }
+}
@@ -1,9 +1,9 @@
 package com.concours.controller;
 
+import com.concours.service.FileServingService;
 import com.concours.service.FileStorageService;
-import org.springframework.core.io.Resource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
@@ -16,9 +16,11 @@ import java.io.IOException;
 public class FileController {
 
     private final FileStorageService fileStorageService;
+    private final FileServingService fileServingService;
 
-    public FileController(FileStorageService fileStorageService) {
+    public FileController(FileStorageService fileStorageService, FileServingService fileServingService) {
         this.fileStorageService = fileStorageService;
+        this.fileServingService = fileServingService;
     }
 
     @PostMapping("/upload")
@@ -30,17 +32,8 @@ public class FileController {
     }
 
     @GetMapping("/download/{subDirectory}/{filename:.+}")
-    public ResponseEntity<Resource> downloadFile(
-            @PathVariable String subDirectory, @PathVariable String filename) {
-        try {
-            Resource resource = fileStorageService.loadFileAsResource(subDirectory + "/" + filename);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                    .header(HttpHeaders.CONTENT_DISPOSITION,
-                            "attachment; filename=\"" + resource.getFilename() + "\"")
-                    .body(resource);
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
-        }
+    public void downloadFile(@PathVariable String subDirectory, @PathVariable String filename,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        fileServingService.serve(subDirectory + "/" + filename, request, response);
     }
 }
\ No newline at end of file
@@ -376,13 +376,6 @@ public class GestionnaireGlobalController {
         return "gestionnaire-global/reporting/statistiques";
     }
 
-    @GetMapping("/reporting/statistiques/refresh")
-    public String refreshStatistiques(RedirectAttributes redirectAttributes) {
-        statistiquesService.invaliderCacheStatistiques();
-        redirectAttributes.addFlashAttribute("success", "Statistiques actualisées avec succès");
-        return "redirect:/gestionnaire-global/reporting/statistiques";
-    }
-
     @GetMapping("/reporting/statistiques/export/excel")
     public ResponseEntity<Resource> exportExcel() throws IOException {
         StatistiquesDTO stats = statistiquesService.getStatistiquesGlobales();
@@ -529,7 +522,7 @@ public class GestionnaireGlobalController {
      */
     @GetMapping("/gestion-candidatures/list")
     @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
-    public String listeCandidatures(@RequestParam(defaultValue = "0") int page,
+    public String listeCandidatures(@RequestParam(required = false) String curseur,
                                     @RequestParam(defaultValue = "10") int size,
                                     @RequestParam(required = false) Long concoursId,
                                     @RequestParam(required = false) Long specialiteId,
@@ -539,17 +532,16 @@ public class GestionnaireGlobalController {
                                     Model model,
                                     Authentication authentication) {
         try {
-            Pageable pageable = PageRequest.of(page, size);
-            Page<CandidatureDTO> candidatures;
+            PageCurseurDTO<CandidatureDTO> candidatures;
 
             log.info("Filtres - concoursId: {}, specialiteId: {}, centreId: {}, statut: {}, diplome: {}",
                     concoursId, specialiteId, centreId, statut, diplome);
 
             // Utiliser la méthode de service avec tous les filtres
-            candidatures = candidatureService.getCandidaturesWithFilters(
-                    concoursId, specialiteId, centreId, statut, diplome, pageable);
+            candidatures = candidatureService.getCandidaturesParCurseur(null, diplome, centreId, concoursId,
+                    specialiteId, statut, curseur, size, false, CandidatureService.ModeTotal.ESTIME);
 
-            log.info("Candidatures trouvées: {}", candidatures.getTotalElements());
+            log.info("Candidatures trouvées: {}", candidatures.getTotal());
 
             // Charger les données pour les filtres
             model.addAttribute("candidatures", candidatures);
@@ -565,14 +557,12 @@ public class GestionnaireGlobalController {
             model.addAttribute("diplome", diplome);
 
             // Pagination
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", candidatures.getTotalPages());
-            model.addAttribute("totalElements", candidatures.getTotalElements());
+            model.addAttribute("size", size);
 
         } catch (Exception e) {
             log.error("Erreur lors de la récupération des candidatures", e);
             model.addAttribute("error", "Erreur lors du chargement des candidatures");
-            model.addAttribute("candidatures", Page.empty());
+            model.addAttribute("candidatures", new PageCurseurDTO<CandidatureDTO>());
         }
 
         return "gestionnaire-global/gestion-candidatures/list";
@@ -670,20 +660,15 @@ public class GestionnaireGlobalController {
     }
 
     /**
-     * Téléchargement d'un document
+     * Téléchargement d'un document (lecture en flux depuis le stockage)
      */
     @GetMapping("/gestion-candidatures/documents/download/{documentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
-    public ResponseEntity<byte[]> downloadDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> downloadDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.parseMediaType(document.getContentType()));
-            headers.setContentDispositionFormData("attachment", document.getNom());
-            headers.setContentLength(document.getTaille());
-
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.attachment(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.error("Document non trouvé: {}", documentId, e);
@@ -695,11 +680,11 @@ public class GestionnaireGlobalController {
     }
 
     /**
-     * Visualisation d'un document PDF
+     * Visualisation d'un document PDF (lecture en flux, requêtes Range supportées)
      */
     @GetMapping("/gestion-candidatures/documents/view/{documentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
-    public ResponseEntity<byte[]> viewDocument(@PathVariable Long documentId) {
+    public ResponseEntity<Resource> viewDocument(@PathVariable Long documentId) {
         try {
             com.concours.entity.Document document = documentService.getDocumentById(documentId);
 
@@ -707,11 +692,7 @@ public class GestionnaireGlobalController {
                 return ResponseEntity.badRequest().build();
             }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_PDF);
-            headers.setContentDispositionFormData("inline", document.getNom());
-
-            return new ResponseEntity<>(document.getContenu(), headers, HttpStatus.OK);
+            return DocumentResponses.inline(document, documentService.getContenuResource(document));
 
         } catch (BusinessException e) {
             log.error("Document non trouvé: {}", documentId, e);
@@ -7,10 +7,7 @@ import com.concours.service.*;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -43,6 +40,9 @@ public class GestionnaireLocalController {
     @Autowired
     private CentreExamenService centreExamenService;
 
+    @Autowired
+    private StatistiquesLocalService statistiquesLocalService;
+
     @Autowired
     private DocumentService documentService;
 
@@ -64,14 +64,13 @@ public class GestionnaireLocalController {
 
             // Prendre le premier centre affecté
             Long centreId = utilisateur.getCentresAffectes().get(0).getId();
-            CentreExamenDTO centre = centreExamenService.getCentreExamenById(centreId);
 
-            // Obtenir les statistiques spécifiques au centre
-            StatistiquesLocalDTO stats = getStatistiquesLocal(centreId);
+            // Statistiques du centre (une requête, en cache quelques secondes)
+            StatistiquesLocalDTO stats = statistiquesLocalService.getStatistiquesLocal(centreId);
 
             model.addAttribute("stats", stats);
+            model.addAttribute("centreId", centreId);
             model.addAttribute("utilisateur", utilisateur);
-            model.addAttribute("centre", centre);
 
             return "gestionnaire-local/dashboard";
         } catch (Exception e) {
@@ -89,7 +88,7 @@ public class GestionnaireLocalController {
                                     @RequestParam(required = false) String statut,
                                     @RequestParam(required = false) String diplome,
                                     @RequestParam(required = false) String search,
-                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(required = false) String curseur,
                                     @RequestParam(defaultValue = "10") int size) {
         try {
             String username = principal.getName();
@@ -102,24 +101,14 @@ public class GestionnaireLocalController {
                 return "gestionnaire-local/candidatures/list";
             }
 
-            Pageable pageable = PageRequest.of(page, size, Sort.by("dateDepot").descending());
-            Page<CandidatureDTO> candidatures;
-
-            // Recherche par texte si search est fourni
-            if (search != null && !search.trim().isEmpty()) {
-                // Implémenter cette méthode dans le service si nécessaire
-                candidatures = candidatureService.getCandidaturesWithFilters(
-                        null, null, centreId, statut, diplome, pageable);
-            } else {
-                // Filtrage standard pour le centre
-                candidatures = candidatureService.getCandidaturesByCentreWithFilters(
-                        centreId, concoursId, specialiteId, statut, diplome, pageable);
-            }
+            // Recherche plein texte (nom, prénom, CIN, email, téléphone, numéro) et filtres dans le centre,
+            // page lue à partir du curseur
+            PageCurseurDTO<CandidatureDTO> candidatures = candidatureService.getCandidaturesParCurseur(
+                    search, diplome, centreId, concoursId, specialiteId, statut, curseur, size, false,
+                    CandidatureService.ModeTotal.ESTIME);
 
             model.addAttribute("candidatures", candidatures);
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", candidatures.getTotalPages());
-            model.addAttribute("totalElements", candidatures.getTotalElements());
+            model.addAttribute("totalElements", candidatures.getTotal());
             model.addAttribute("pageSize", size);
 
             // Données pour les filtres
@@ -162,7 +151,7 @@ public class GestionnaireLocalController {
     public String validationCandidatures(Model model,
                                          Principal principal,
                                          @RequestParam(defaultValue = "EN_ATTENTE") String statutFiltre,
-                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(required = false) String curseur,
                                          @RequestParam(defaultValue = "15") int size) {
         try {
             String username = principal.getName();
@@ -175,24 +164,27 @@ public class GestionnaireLocalController {
                 return "gestionnaire-local/candidatures/validation";
             }
 
-            Pageable pageable = PageRequest.of(page, size, Sort.by("dateDepot").ascending());
-            StatutCandidature statut = StatutCandidature.valueOf(statutFiltre);
+            StatutCandidature statut;
+            try {
+                statut = StatutCandidature.valueOf(statutFiltre);
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", "Statut invalide: " + statutFiltre);
+                return "gestionnaire-local/candidatures/details";
+            }
 
-            Page<CandidatureDTO> candidatures = candidatureService.getCandidaturesByCentreAndStatut(
-                    centreId, statut, pageable);
+            // File de traitement : les plus anciennes d'abord
+            PageCurseurDTO<CandidatureDTO> candidatures = candidatureService.getCandidaturesParCurseur(
+                    null, null, centreId, null, null, statut.name(), curseur, size, true,
+                    CandidatureService.ModeTotal.AUCUN);
 
-            // Statistiques pour le header
-            long totalEnAttente = candidatureService.countCandidaturesEnAttenteByCentre(centreId);
-            long totalValidees = candidatureService.countCandidaturesValideesByCentre(centreId);
-            long totalRejetees = candidatureService.countCandidaturesRejeteesByCentre(centreId);
+            // Statistiques pour le header (celles du tableau de bord, en cache)
+            StatistiquesLocalDTO stats = statistiquesLocalService.getStatistiquesLocal(centreId);
 
             model.addAttribute("candidatures", candidatures);
-            model.addAttribute("currentPage", page);
-            model.addAttribute("totalPages", candidatures.getTotalPages());
             model.addAttribute("statutFiltre", statutFiltre);
-            model.addAttribute("totalEnAttente", totalEnAttente);
-            model.addAttribute("totalValidees", totalValidees);
-            model.addAttribute("totalRejetees", totalRejetees);
+            model.addAttribute("totalEnAttente", stats.getNbCandidaturesEnAttente());
+            model.addAttribute("totalValidees", stats.getNbCandidaturesValidees());
+            model.addAttribute("totalRejetees", stats.getNbCandidaturesRejetees());
 
             return "gestionnaire-local/candidatures/details";
         } catch (Exception e) {
@@ -386,73 +378,4 @@ public class GestionnaireLocalController {
         }
         return null;
     }
-
-    private StatistiquesLocalDTO getStatistiquesLocal(Long centreExamenId) {
-        StatistiquesLocalDTO stats = new StatistiquesLocalDTO();
-
-        try {
-            CentreExamenDTO centre = centreExamenService.getCentreExamenById(centreExamenId);
-
-            // Candidatures dans le centre
-            long nbCandidaturesCentre = candidatureService.countCandidaturesByCentre(centreExamenId);
-            stats.setNbCandidatsCentre(nbCandidaturesCentre);
-
-            // Spécialités disponibles dans le centre
-            int nbSpecialitesCentre = centreExamenService.countSpecialitesByCentre(centreExamenId);
-            stats.setNbSpecialitesCentre(nbSpecialitesCentre);
-
-            // Places restantes (capacité - candidatures validées)
-            long candidaturesValidees = candidatureService.countCandidaturesValideesByCentre(centreExamenId);
-            long placesRestantes = Math.max(0, centre.getCapacite() - candidaturesValidees);
-            stats.setNbPlacesRestantes(placesRestantes);
-
-            // Candidatures en attente de traitement
-            long candidaturesEnAttente = candidatureService.countCandidaturesEnAttenteByCentre(centreExamenId);
-            stats.setNbCandidaturesEnAttente(candidaturesEnAttente);
-
-            // Candidatures validées
-            stats.setNbCandidaturesValidees(candidaturesValidees);
-
-            // Candidatures rejetées
-            long candidaturesRejetees = candidatureService.countCandidaturesRejeteesByCentre(centreExamenId);
-            stats.setNbCandidaturesRejetees(candidaturesRejetees);
-
-            // Informations du centre
-            stats.setNomCentre(centre.getVilleNom());
-            stats.setVilleCentre(centre.getVilleNom());
-            stats.setCapaciteTotale(centre.getCapacite());
-
-            // Taux de remplissage
-            double tauxRemplissage = centre.getCapacite() > 0 ?
-                    (candidaturesValidees * 100.0) / centre.getCapacite() : 0;
-            stats.setTauxRemplissage((int) Math.min(100, Math.round(tauxRemplissage)));
-
-        } catch (Exception e) {
-            log.warn("Erreur lors du calcul des statistiques locales", e);
-            // Valeurs par défaut en cas d'erreur
-            stats.setNbCandidatsCentre(0);
-            stats.setNbSpecialitesCentre(0);
-            stats.setNbPlacesRestantes(0);
-            stats.setNbCandidaturesEnAttente(0);
-            stats.setNbCandidaturesValidees(0);
-            stats.setNbCandidaturesRejetees(0);
-            stats.setTauxRemplissage(0);
-        }
-
-        return stats;
-    }
-
-    // Méthode pour compter les candidatures rejetées par centre (à ajouter au service si nécessaire)
-    private long countCandidaturesRejeteesByCentre(Long centreId) {
-        try {
-            // Cette méthode devrait être implémentée dans CandidatureService
-            // Pour l'instant, on utilise une approximation
-            return candidatureService.countCandidaturesByCentre(centreId) -
-                    candidatureService.countCandidaturesValideesByCentre(centreId) -
-                    candidatureService.countCandidaturesEnAttenteByCentre(centreId);
-        } catch (Exception e) {
-            log.error("Erreur lors du comptage des candidatures rejetées", e);
-            return 0;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,153 @@
+package com.concours.controller;
+
+import com.concours.entity.Document;
+import com.concours.entity.TypeDocument;
+import com.concours.entity.UploadSession;
+import com.concours.exception.BusinessException;
+import com.concours.service.ResumableUploadService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Upload repris des documents de candidature, pour les connexions instables :
+ * <ol>
+ *     <li>POST /public/uploads (numero, cin, type, nomFichier + en-tête Upload-Length) : crée la session</li>
+ *     <li>HEAD /public/uploads/{id} : renvoie l'offset où reprendre (Upload-Offset)</li>
+ *     <li>PATCH /public/uploads/{id} (Upload-Offset, Upload-Checksum optionnel "sha256 base64") : ajoute un morceau</li>
+ *     <li>POST /public/uploads/{id}/finalisation (sha256 optionnel) : rattache le document à la candidature</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/public/uploads")
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+    private static final String UPLOAD_LENGTH = "Upload-Length";
+    private static final String UPLOAD_EXPIRES = "Upload-Expires";
+    private static final String UPLOAD_CHECKSUM = "Upload-Checksum";
+
+    private final ResumableUploadService resumableUploadService;
+
+    @PostMapping
+    public ResponseEntity<?> creerSession(@RequestParam String numero,
+                                          @RequestParam String cin,
+                                          @RequestParam TypeDocument type,
+                                          @RequestParam String nomFichier,
+                                          @RequestHeader(UPLOAD_LENGTH) long tailleTotale) {
+        try {
+            UploadSession session = resumableUploadService.creerSession(numero, cin, type, nomFichier, tailleTotale);
+            return ResponseEntity.created(URI.create("/public/uploads/" + session.getId()))
+                    .header(UPLOAD_OFFSET, "0")
+                    .header(UPLOAD_LENGTH, String.valueOf(session.getTailleTotale()))
+                    .header(UPLOAD_EXPIRES, expiration(session))
+                    .body(toMap(session));
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> getOffset(@PathVariable String id) {
+        try {
+            UploadSession session = resumableUploadService.getSession(id);
+            return ResponseEntity.ok()
+                    .header(UPLOAD_OFFSET, String.valueOf(session.getOctetsRecus()))
+                    .header(UPLOAD_LENGTH, String.valueOf(session.getTailleTotale()))
+                    .header(UPLOAD_EXPIRES, expiration(session))
+                    .header("Cache-Control", "no-store")
+                    .build();
+        } catch (BusinessException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> ajouterMorceau(@PathVariable String id,
+                                            @RequestHeader(UPLOAD_OFFSET) long offset,
+                                            @RequestHeader(value = UPLOAD_CHECKSUM, required = false) String checksum,
+                                            HttpServletRequest request) throws IOException {
+        try {
+            long nouvelOffset = resumableUploadService.ajouterMorceau(
+                    id, offset, request.getInputStream(), parseChecksum(checksum));
+            return ResponseEntity.noContent()
+                    .header(UPLOAD_OFFSET, String.valueOf(nouvelOffset))
+                    .build();
+        } catch (ResumableUploadService.OffsetInvalideException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(UPLOAD_OFFSET, String.valueOf(e.getOffsetAttendu()))
+                    .body(e.getMessage());
+        } catch (BusinessException e) {
+            log.warn("Morceau refusé pour la session {}: {}", id, e.getMessage());
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PostMapping("/{id}/finalisation")
+    public ResponseEntity<?> finaliser(@PathVariable String id,
+                                       @RequestParam(required = false) String sha256) {
+        try {
+            Document document = resumableUploadService.finaliser(id, sha256);
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("documentId", document.getId());
+            body.put("type", document.getType());
+            body.put("nom", document.getNom());
+            body.put("taille", document.getTaille());
+            return ResponseEntity.ok(body);
+        } catch (BusinessException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> annuler(@PathVariable String id) {
+        resumableUploadService.annuler(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * En-tête Upload-Checksum au format "sha256 &lt;base64&gt;"
+     */
+    private byte[] parseChecksum(String header) {
+        if (header == null || header.isBlank()) {
+            return null;
+        }
+        String[] parts = header.trim().split("\\s+");
+        if (parts.length != 2 || !"sha256".equalsIgnoreCase(parts[0])) {
+            throw new BusinessException("Algorithme d'empreinte non supporté, utiliser sha256");
+        }
+        try {
+            return Base64.getDecoder().decode(parts[1]);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Empreinte du morceau mal formée");
+        }
+    }
+
+    private String expiration(UploadSession session) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(session.getDateExpiration().atZone(ZoneId.systemDefault()));
+    }
+
+    private Map<String, Object> toMap(UploadSession session) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", session.getId());
+        body.put("type", session.getType());
+        body.put("offset", session.getOctetsRecus());
+        body.put("tailleTotale", session.getTailleTotale());
+        body.put("expiration", session.getDateExpiration());
+        return body;
+    }
+}
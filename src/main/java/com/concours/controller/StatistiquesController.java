@@ -1,27 +1,129 @@
 package com.concours.controller;
 
+import com.concours.dto.FacettesCandidaturesDTO;
+import com.concours.dto.SerieTemporelleDTO;
 import com.concours.dto.StatistiquesDTO;
+import com.concours.dto.UtilisateurDTO;
+import com.concours.entity.StatutCandidature;
+import com.concours.service.CandidatureService;
+import com.concours.service.DiffusionCompteursService;
+import com.concours.service.IndexFacettesService;
+import com.concours.service.SerieTemporelleService;
 import com.concours.service.StatistiquesService;
+import com.concours.service.UtilisateurService;
+import com.concours.util.ApplicationConstants;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/statistiques")
-@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
 public class StatistiquesController {
 
-    private final StatistiquesService statistiquesService;
+    private static final int APERCU_MAX = 50;
 
-    public StatistiquesController(StatistiquesService statistiquesService) {
-        this.statistiquesService = statistiquesService;
-    }
+    private final StatistiquesService statistiquesService;
+    private final SerieTemporelleService serieTemporelleService;
+    private final DiffusionCompteursService diffusionCompteursService;
+    private final UtilisateurService utilisateurService;
+    private final CandidatureService candidatureService;
 
     @GetMapping
+    @CrossOrigin(origins = "*")
     public ResponseEntity<StatistiquesDTO> getStatistiquesGlobales() {
         StatistiquesDTO stats = statistiquesService.getStatistiquesGlobales();
         return ResponseEntity.ok(stats);
     }
-}
\ No newline at end of file
+
+    /**
+     * Dépôts de candidatures par jour, semaine ou mois sur une période,
+     * pour un concours et/ou un centre (intervalles sans dépôt à zéro)
+     */
+    @GetMapping("/depots")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL')")
+    public ResponseEntity<SerieTemporelleDTO> getDepots(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate debut,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fin,
+            @RequestParam(defaultValue = "JOUR") SerieTemporelleDTO.Granularite granularite,
+            @RequestParam(required = false) Long concoursId,
+            @RequestParam(required = false) Long centreId) {
+        return ResponseEntity.ok(serieTemporelleService.getSerie(debut, fin, granularite, concoursId, centreId));
+    }
+
+    /**
+     * Flux SSE des variations des compteurs de candidatures (événement "compteurs"),
+     * pour tous les centres ou pour un centre. Un gestionnaire local ne peut suivre
+     * que ses centres affectés.
+     */
+    @GetMapping(value = "/flux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL', 'GESTIONNAIRE_LOCAL')")
+    public ResponseEntity<SseEmitter> getFlux(@RequestParam(required = false) Long centreId,
+                                              Authentication authentication) {
+        if (!estGestionnaireGlobal(authentication) && !estCentreAffecte(authentication.getName(), centreId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        SseEmitter emitter = diffusionCompteursService.abonner(centreId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Nombre de candidatures correspondant aux filtres et leur répartition par statut,
+     * concours, spécialité et centre (ex. candidatures EN_ATTENTE par spécialité d'un centre),
+     * avec au plus {@code apercu} candidatures parmi les plus récentes.
+     * Un gestionnaire local doit préciser l'un de ses centres affectés.
+     */
+    @GetMapping("/facettes")
+    @PreAuthorize("hasAnyRole('ADMIN', 'GESTIONNAIRE_GLOBAL', 'GESTIONNAIRE_LOCAL')")
+    public ResponseEntity<FacettesCandidaturesDTO> getFacettes(
+            @RequestParam(required = false) Long concoursId,
+            @RequestParam(required = false) Long specialiteId,
+            @RequestParam(required = false) Long centreId,
+            @RequestParam(required = false) StatutCandidature statut,
+            @RequestParam(defaultValue = "0") int apercu,
+            Authentication authentication) {
+        if (!estGestionnaireGlobal(authentication) && !estCentreAffecte(authentication.getName(), centreId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (apercu < 0 || apercu > APERCU_MAX) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(candidatureService.getFacettes(concoursId, specialiteId, centreId, statut, apercu));
+        } catch (IndexFacettesService.IndexIndisponibleException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+
+    private boolean estGestionnaireGlobal(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals(ApplicationConstants.ROLE_ADMIN)
+                        || a.getAuthority().equals(ApplicationConstants.ROLE_GESTIONNAIRE_GLOBAL));
+    }
+
+    private boolean estCentreAffecte(String username, Long centreId) {
+        if (centreId == null) {
+            return false;
+        }
+        UtilisateurDTO utilisateur = utilisateurService.getUtilisateurById(utilisateurService.getUserIdByUsername(username));
+        return utilisateur.getCentresAffectes() != null
+                && utilisateur.getCentresAffectes().stream().anyMatch(c -> centreId.equals(c.getId()));
+    }
+}
@@ -0,0 +1,23 @@
+package com.concours.dto;
+
+import com.concours.entity.FormatExport;
+import com.concours.entity.StatutExport;
+import com.concours.entity.TypeExport;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+public class ExportJobDTO {
+    private String id;
+    private TypeExport type;
+    private FormatExport format;
+    private StatutExport statut;
+    private int progression; // Pourcentage
+    private String nomFichier;
+    private Long taille;
+    private String erreur;
+    private LocalDateTime dateCreation;
+    private LocalDateTime dateFin;
+    private LocalDateTime dateExpiration;
+}
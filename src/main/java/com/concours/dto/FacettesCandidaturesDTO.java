@@ -0,0 +1,21 @@
+package com.concours.dto;
+
+import com.concours.entity.StatutCandidature;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Candidatures correspondant à des filtres : leur nombre, leur répartition par facette
+ * (identifiant -> nombre, valeurs à zéro omises) et un aperçu des plus récentes
+ */
+@Data
+public class FacettesCandidaturesDTO {
+    private long total;
+    private Map<StatutCandidature, Long> parStatut;
+    private Map<Long, Long> parConcours;
+    private Map<Long, Long> parSpecialite;
+    private Map<Long, Long> parCentre;
+    private List<CandidatureDTO> candidatures = List.of();
+}
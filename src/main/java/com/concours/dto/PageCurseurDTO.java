@@ -0,0 +1,24 @@
+package com.concours.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Page d'une liste parcourue par curseur (dateDepot, numero) : pas de numéro de page
+ * ni de COUNT(*) par page, mais les jetons des pages voisines.
+ * Le total n'est renseigné que s'il est demandé, exact ou estimé selon {@code totalEstime}.
+ */
+@Data
+public class PageCurseurDTO<T> {
+    private List<T> content = List.of();
+    private int taille;
+    private String suivant;   // Jeton de la page suivante, null sur la dernière page
+    private String precedent; // Jeton de la page précédente, null sur la première page
+    private Long total;
+    private boolean totalEstime;
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+}
@@ -0,0 +1,30 @@
+package com.concours.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class PlacesCentreDTO {
+    private Long centreId;
+    private String centreCode;
+    private String villeNom;
+    private int capacite;
+    private List<PlacesSpecialiteDTO> specialites = new ArrayList<>();
+
+    // Total des candidatures validées du centre pour le concours
+    public long getNbCandidaturesValidees() {
+        return specialites.stream().mapToLong(PlacesSpecialiteDTO::getNbCandidaturesValidees).sum();
+    }
+
+    // Total des candidatures en attente du centre pour le concours
+    public long getNbCandidaturesEnAttente() {
+        return specialites.stream().mapToLong(PlacesSpecialiteDTO::getNbCandidaturesEnAttente).sum();
+    }
+
+    // Places restantes par rapport à la capacité du centre
+    public long getPlacesRestantes() {
+        return Math.max(0, capacite - getNbCandidaturesValidees());
+    }
+}
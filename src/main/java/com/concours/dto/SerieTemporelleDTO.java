@@ -0,0 +1,37 @@
+package com.concours.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class SerieTemporelleDTO {
+
+    public enum Granularite {
+        JOUR,
+        SEMAINE,
+        MOIS
+    }
+
+    private Granularite granularite;
+    private LocalDate debut;
+    private LocalDate fin;
+    private Long concoursId;
+    private Long centreId;
+    private long total;
+    // Un point par intervalle de la période, y compris les intervalles sans dépôt
+    private List<Point> points = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        private LocalDate debut; // Premier jour de l'intervalle
+        private String libelle;
+        private long nombre;
+    }
+}
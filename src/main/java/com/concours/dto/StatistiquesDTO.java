@@ -1,5 +1,6 @@
 package com.concours.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 import lombok.Getter;
 import lombok.Setter;
@@ -22,5 +23,9 @@ public class StatistiquesDTO {
     private Map<String, Long> candidaturesParCentre;
     private Map<String, Long> candidaturesParMois;
 
+    // Valeurs de repli après une erreur de calcul : à ne pas mettre en cache
+    @JsonIgnore
+    private boolean parDefaut;
+
 
 }
\ No newline at end of file
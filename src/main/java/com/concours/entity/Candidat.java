@@ -6,6 +6,7 @@ import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_candidat_diplome", columnList = "diplome_id"))
 @Data @NoArgsConstructor @AllArgsConstructor
 public class Candidat {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +41,12 @@ public class Candidat {
     @Column(length = 100)
     private String diplome;
 
+    // Diplôme canonique de la saisie libre ci-dessus (filtre des listes)
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "diplome_id")
+    @ToString.Exclude @EqualsAndHashCode.Exclude
+    private Diplome diplomeNormalise;
+
     @Column(columnDefinition = "TEXT")
     private String experience;
 
@@ -7,6 +7,11 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_candidature_centre_specialite_statut", columnList = "centre_examen_id, specialite_id, statut"),
+        @Index(name = "idx_candidature_date_depot_numero", columnList = "date_depot, numero"),
+        @Index(name = "idx_candidature_centre_date_depot", columnList = "centre_examen_id, date_depot, numero")
+})
 @Data @NoArgsConstructor @AllArgsConstructor
 public class Candidature {
     @Id
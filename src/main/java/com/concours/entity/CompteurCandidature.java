@@ -0,0 +1,38 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Nombre de candidatures par concours, spécialité, centre et statut.
+ * Tenu à jour dans la même transaction que les candidatures (voir
+ * CompteurCandidatureService) : les tableaux de bord lisent quelques lignes
+ * au lieu de compter la table candidature.
+ */
+@Entity
+@Table(name = "compteur_candidature", uniqueConstraints = @UniqueConstraint(
+        name = "uk_compteur_candidature",
+        columnNames = {"concours_id", "specialite_id", "centre_examen_id", "statut"}),
+        indexes = @Index(name = "idx_compteur_candidature_centre", columnList = "centre_examen_id, specialite_id, statut"))
+@Data @NoArgsConstructor @AllArgsConstructor
+public class CompteurCandidature {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "concours_id", nullable = false)
+    private Long concoursId;
+
+    @Column(name = "specialite_id", nullable = false)
+    private Long specialiteId;
+
+    @Column(name = "centre_examen_id", nullable = false)
+    private Long centreExamenId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutCandidature statut;
+
+    @Column(nullable = false)
+    private Long nombre;
+}
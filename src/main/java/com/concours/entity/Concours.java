@@ -38,6 +38,9 @@ public class Concours {
 
     private boolean publie = false;
 
+    // Date d'archivage des documents en segments (null tant que non archivé)
+    private java.time.LocalDateTime dateArchivage;
+
     @OneToMany(mappedBy = "concours")
     private List<Candidature> candidatures = new ArrayList<>();
 
@@ -0,0 +1,39 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Nombre de candidatures déposées par jour, concours et centre.
+ * Alimenté à chaque dépôt (et décrémenté à la suppression) : les séries
+ * temporelles se calculent sur un nombre de lignes proportionnel au nombre
+ * de jours, pas au nombre de candidatures.
+ */
+@Entity
+@Table(name = "depot_journalier", uniqueConstraints = @UniqueConstraint(
+        name = "uk_depot_journalier",
+        columnNames = {"jour", "concours_id", "centre_examen_id"}),
+        indexes = {
+                @Index(name = "idx_depot_journalier_concours", columnList = "concours_id, jour"),
+                @Index(name = "idx_depot_journalier_centre", columnList = "centre_examen_id, jour")
+        })
+@Data @NoArgsConstructor @AllArgsConstructor
+public class DepotJournalier {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate jour;
+
+    @Column(name = "concours_id", nullable = false)
+    private Long concoursId;
+
+    @Column(name = "centre_examen_id", nullable = false)
+    private Long centreExamenId;
+
+    @Column(nullable = false)
+    private Long nombre;
+}
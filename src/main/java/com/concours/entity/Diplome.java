@@ -0,0 +1,25 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Diplôme canonique : toutes les saisies libres de même forme normalisée
+ * (voir NormalisationDiplome) partagent le même code et le même identifiant,
+ * sur lequel les listes de candidatures filtrent.
+ */
+@Entity
+@Table(name = "diplome", uniqueConstraints = @UniqueConstraint(name = "uk_diplome_code", columnNames = "code"))
+@Data @NoArgsConstructor @AllArgsConstructor
+public class Diplome {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String code;
+
+    // Première saisie rencontrée pour ce code, pour l'affichage
+    @Column(nullable = false, length = 100)
+    private String libelle;
+}
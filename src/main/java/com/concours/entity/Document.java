@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
+@Table(indexes = @Index(name = "idx_document_blob_key", columnList = "blob_key"))
 @Data @NoArgsConstructor @AllArgsConstructor
 public class Document {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,9 +23,21 @@ public class Document {
     @Column(nullable = false)
     private Long taille; // Taille du fichier en octets
 
-    @Lob
-    @Column(name = "contenu", nullable = false, columnDefinition = "LONGBLOB")
-    private byte[] contenu;
+    // Clé du contenu dans le DocumentStore (empreinte SHA-256).
+    // Null pour les anciens documents dont le contenu est encore dans DocumentContent
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
+
+    // Emplacement dans un segment d'archive (concours archivé), blobKey est alors null
+    @Column(name = "segment", length = 40)
+    private String segment;
+
+    @Column(name = "segment_offset")
+    private Long segmentOffset;
+
+    // Taille stockée / taille d'origine (1.0 = non compressé, null = non mesuré)
+    @Column(name = "taux_compression")
+    private Double tauxCompression;
 
     @Column(name = "date_upload", nullable = false)
     private java.time.LocalDateTime dateUpload = java.time.LocalDateTime.now();
@@ -34,12 +47,12 @@ public class Document {
     private Candidature candidature;
 
     // Constructeur utilitaire
-    public Document(TypeDocument type, String nom, String contentType, byte[] contenu, Candidature candidature) {
+    public Document(TypeDocument type, String nom, String contentType, String blobKey, long taille, Candidature candidature) {
         this.type = type;
         this.nom = nom;
         this.contentType = contentType;
-        this.contenu = contenu;
-        this.taille = contenu != null ? (long) contenu.length : 0L;
+        this.blobKey = blobKey;
+        this.taille = taille;
         this.candidature = candidature;
         this.dateUpload = java.time.LocalDateTime.now();
     }
@@ -0,0 +1,36 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Contenu partagé du DocumentStore : plusieurs documents identiques (même
+ * empreinte) pointent vers le même blob. Le compteur de références est tenu
+ * par des mises à jour atomiques ; un blob sans référence est supprimé par
+ * le collecteur après un délai de grâce.
+ */
+@Entity
+@Table(name = "document_blob", indexes = @Index(name = "idx_document_blob_ref_count", columnList = "ref_count, date_maj"))
+@Data @NoArgsConstructor @AllArgsConstructor
+public class DocumentBlob {
+    @Id
+    @Column(name = "blob_key", length = 64)
+    private String blobKey;
+
+    @Column(nullable = false)
+    private Long taille; // Taille du contenu en octets
+
+    @Column(name = "taille_stockee", nullable = false)
+    private Long tailleStockee; // Taille occupée dans le stockage (après compression)
+
+    @Column(name = "ref_count", nullable = false)
+    private Integer refCount;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation;
+
+    @Column(name = "date_maj", nullable = false)
+    private LocalDateTime dateMaj;
+}
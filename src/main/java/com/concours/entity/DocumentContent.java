@@ -0,0 +1,38 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+/**
+ * Contenu binaire d'un document encore stocké en base (ancien stockage LONGBLOB).
+ * Séparé de {@link Document} pour que les listes et pages de détail ne chargent
+ * que les métadonnées ; il n'est lu qu'au téléchargement explicite.
+ */
+@Entity
+@Table(name = "document_content")
+@Data @NoArgsConstructor
+public class DocumentContent {
+    @Id
+    @Column(name = "document_id")
+    private Long documentId;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "document_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Document document;
+
+    @Lob
+    @Column(name = "contenu", nullable = false, columnDefinition = "LONGBLOB")
+    @ToString.Exclude
+    private byte[] contenu;
+
+    public DocumentContent(Document document, byte[] contenu) {
+        this.document = document;
+        this.contenu = contenu;
+    }
+}
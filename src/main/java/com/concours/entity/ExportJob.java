@@ -0,0 +1,75 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Export demandé par un gestionnaire et exécuté en arrière-plan : le fichier produit
+ * est conservé sur disque jusqu'à la date d'expiration.
+ */
+@Entity
+@Table(name = "export_job", indexes = {
+        @Index(name = "idx_export_job_demandeur", columnList = "demandeur, date_creation"),
+        @Index(name = "idx_export_job_expiration", columnList = "date_expiration")
+})
+@Data @NoArgsConstructor @AllArgsConstructor
+public class ExportJob {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private TypeExport type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private FormatExport format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatutExport statut = StatutExport.EN_ATTENTE;
+
+    @Column(nullable = false, length = 50)
+    private String demandeur; // Username de l'utilisateur qui a demandé l'export
+
+    // Filtres des exports de candidatures
+    @Column(name = "concours_id")
+    private Long concoursId;
+
+    @Column(name = "specialite_id")
+    private Long specialiteId;
+
+    @Column(name = "centre_examen_id")
+    private Long centreId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "statut_candidature", length = 20)
+    private StatutCandidature statutCandidature;
+
+    @Column(length = 100)
+    private String diplome;
+
+    @Column(nullable = false)
+    private Integer progression = 0; // Pourcentage
+
+    @Column(name = "nom_fichier", length = 255)
+    private String nomFichier;
+
+    @Column(name = "taille")
+    private Long taille;
+
+    @Column(length = 500)
+    private String erreur;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation = LocalDateTime.now();
+
+    @Column(name = "date_fin")
+    private LocalDateTime dateFin;
+
+    @Column(name = "date_expiration", nullable = false)
+    private LocalDateTime dateExpiration;
+}
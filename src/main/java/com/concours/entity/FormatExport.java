@@ -0,0 +1,6 @@
+package com.concours.entity;
+
+public enum FormatExport {
+    EXCEL,
+    PDF
+}
@@ -0,0 +1,8 @@
+package com.concours.entity;
+
+public enum StatutExport {
+    EN_ATTENTE,
+    EN_COURS,
+    TERMINE,
+    ECHEC
+}
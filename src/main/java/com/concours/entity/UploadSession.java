@@ -0,0 +1,49 @@
+package com.concours.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * Upload repris par morceaux : les octets reçus sont ajoutés à un fichier
+ * .part sur disque, l'offset en base indique où reprendre.
+ */
+@Entity
+@Table(name = "upload_session", indexes = @Index(name = "idx_upload_session_expiration", columnList = "date_expiration"))
+@Data @NoArgsConstructor @AllArgsConstructor
+public class UploadSession {
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "candidature_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Candidature candidature;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TypeDocument type;
+
+    @Column(name = "nom_fichier", nullable = false, length = 255)
+    private String nomFichier;
+
+    @Column(name = "taille_totale", nullable = false)
+    private Long tailleTotale; // Taille annoncée par le client
+
+    @Column(name = "octets_recus", nullable = false)
+    private Long octetsRecus = 0L;
+
+    @Column(name = "date_creation", nullable = false)
+    private LocalDateTime dateCreation = LocalDateTime.now();
+
+    @Column(name = "date_expiration", nullable = false)
+    private LocalDateTime dateExpiration;
+
+    public boolean isComplet() {
+        return octetsRecus != null && octetsRecus.equals(tailleTotale);
+    }
+}
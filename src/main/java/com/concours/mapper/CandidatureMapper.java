@@ -4,6 +4,7 @@ import com.concours.dto.CandidatureDTO;
 import com.concours.dto.CandidatureCreateDTO;
 import com.concours.entity.Candidat;
 import com.concours.entity.Candidature;
+import com.concours.repository.CandidatureRepository;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
@@ -27,6 +28,11 @@ public interface CandidatureMapper {
     @Mapping(source = "utilisateurTraitant.username", target = "utilisateurTraitant")
     CandidatureDTO toDTO(Candidature candidature);
 
+    /**
+     * Ligne de liste : les propriétés portent les mêmes noms que celles du DTO
+     */
+    CandidatureDTO toDTO(CandidatureRepository.LigneCandidature ligne);
+
     Candidat toCandidat(CandidatureCreateDTO candidatureDTO);
 
     default CandidatureDTO mapToDTO(Candidature candidature) {
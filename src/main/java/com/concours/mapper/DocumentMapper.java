@@ -15,7 +15,6 @@ public interface DocumentMapper {
     @Mapping(target = "tailleFormatee", expression = "java(formatTaille(document.getTaille()))")
     DocumentDTO toDTO(Document document);
 
-    @Mapping(target = "contenu", ignore = true) // Le contenu sera géré séparément
     @Mapping(target = "candidature", ignore = true) // La relation sera gérée par le service
     @Mapping(target = "dateUpload", expression = "java(java.time.LocalDateTime.now())")
     Document toEntity(DocumentDTO documentDTO);
@@ -79,8 +78,8 @@ public interface DocumentMapper {
         document.setType(type);
         document.setNom(file.getOriginalFilename());
         document.setContentType(file.getContentType());
-        document.setContenu(file.getBytes());
-        document.setTaille((long) file.getBytes().length);
+        // Le contenu est écrit dans le DocumentStore par le DocumentService
+        document.setTaille(file.getSize());
         document.setCandidature(candidature);
         document.setDateUpload(java.time.LocalDateTime.now());
 
@@ -1,9 +1,15 @@
 package com.concours.repository;
 
 import com.concours.entity.Candidat;
+import com.concours.entity.Diplome;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -12,4 +18,24 @@ public interface CandidatRepository extends JpaRepository<Candidat, Long> {
     Optional<Candidat> findByEmail(String email);
     boolean existsByCin(String cin);
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    boolean existsByDiplomeIsNotNullAndDiplomeNormaliseIsNull();
+
+    /**
+     * Intitulés de diplôme distincts, postérieurs à {@code apres} dans l'ordre alphabétique,
+     * portés par des candidats sans diplôme canonique
+     */
+    @Query("""
+    SELECT DISTINCT c.diplome FROM Candidat c
+    WHERE c.diplomeNormalise IS NULL AND c.diplome > :apres
+    ORDER BY c.diplome
+    """)
+    List<String> findDiplomesANormaliser(@Param("apres") String apres, Pageable limite);
+
+    /**
+     * Rattache au diplôme canonique les candidats de cet intitulé qui n'en ont pas encore
+     */
+    @Modifying
+    @Query("UPDATE Candidat c SET c.diplomeNormalise = :diplome WHERE c.diplome = :intitule AND c.diplomeNormalise IS NULL")
+    int rattacherDiplome(@Param("intitule") String intitule, @Param("diplome") Diplome diplome);
+}
@@ -4,13 +4,17 @@ import com.concours.entity.*;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface CandidatureRepository extends JpaRepository<Candidature, String> {
@@ -30,53 +34,36 @@ public interface CandidatureRepository extends JpaRepository<Candidature, String
 
     long countByStatut(StatutCandidature statut);
 
-    @Query("SELECT new map(c.concours.titre as concours, count(*) as count) " +
-            "FROM Candidature c GROUP BY c.concours.titre")
-    List<Map<String, Object>> getCandidaturesParConcours();
-
-    @Query("SELECT c FROM Candidature c WHERE " +
-            "(:concoursId IS NULL OR c.concours.id = :concoursId) AND " +
-            "(:specialiteId IS NULL OR c.specialite.id = :specialiteId) AND " +
-            "(:centreId IS NULL OR c.centreExamen.id = :centreId) AND " +
-            "(:statut IS NULL OR c.statut = :statut) AND " +
-            "(:diplome IS NULL OR LOWER(c.candidat.diplome) LIKE LOWER(CONCAT('%', :diplome, '%')))")
-    Page<Candidature> findByFilters(@Param("concoursId") Long concoursId,
-                                    @Param("specialiteId") Long specialiteId,
-                                    @Param("centreId") Long centreId,
-                                    @Param("statut") StatutCandidature statut,
-                                    @Param("diplome") String diplome,
-                                    Pageable pageable);
-
-    @Query("SELECT new map(c.specialite.libelle as specialite, count(*) as count) " +
-            "FROM Candidature c WHERE c.specialite IS NOT NULL GROUP BY c.specialite.libelle")
-    List<Map<String, Object>> getCandidaturesParSpecialite();
-
-    @Query("SELECT new map(c.centreExamen.code as centre, count(*) as count) " +
-            "FROM Candidature c WHERE c.centreExamen IS NOT NULL GROUP BY c.centreExamen.code")
-    List<Map<String, Object>> getCandidaturesParCentre();
+    /**
+     * Change le statut si la candidature est toujours dans le statut lu
+     *
+     * @return 0 si la candidature a été traitée entre-temps
+     */
+    @Modifying
+    @Query("""
+        UPDATE Candidature c SET c.statut = :nouveau, c.utilisateurTraitant = :utilisateur
+        WHERE c.numero = :numero AND c.statut = :ancien
+        """)
+    int changerStatut(@Param("numero") String numero, @Param("ancien") StatutCandidature ancien,
+                      @Param("nouveau") StatutCandidature nouveau, @Param("utilisateur") Utilisateur utilisateur);
 
-    @Query("SELECT new map(FUNCTION('DATE_FORMAT', c.dateDepot, '%m-%Y') as mois, count(*) as count) " +
-            "FROM Candidature c WHERE c.dateDepot IS NOT NULL GROUP BY FUNCTION('DATE_FORMAT', c.dateDepot, '%m-%Y')")
-    List<Map<String, Object>> getCandidaturesParMois();
+    /**
+     * Statut lu en base, indépendamment de l'entité éventuellement chargée dans la transaction
+     */
+    @Query("SELECT c.statut FROM Candidature c WHERE c.numero = :numero")
+    Optional<StatutCandidature> findStatutByNumero(@Param("numero") String numero);
 
     /**
-     * Trouve les candidatures par centre avec filtres
+     * Nombre de candidatures par concours, spécialité, centre et statut : toutes les
+     * répartitions des statistiques globales (hors série mensuelle) se déduisent de ces lignes
      */
     @Query("""
-    SELECT c FROM Candidature c 
-    WHERE c.centreExamen = :centre
-    AND (:concoursId IS NULL OR c.concours.id = :concoursId)
-    AND (:specialiteId IS NULL OR c.specialite.id = :specialiteId)
-    AND (:statut IS NULL OR c.statut = :statut)
-    AND (:diplome IS NULL OR LOWER(c.candidat.diplome) LIKE LOWER(CONCAT('%', :diplome, '%')))
-    ORDER BY c.dateDepot DESC
+    SELECT c.concours.titre AS concours, c.specialite.libelle AS specialite, c.centreExamen.code AS centre,
+           c.statut AS statut, COUNT(c) AS nombre
+    FROM Candidature c
+    GROUP BY c.concours.titre, c.specialite.libelle, c.centreExamen.code, c.statut
     """)
-    Page<Candidature> findByCentreWithFilters(@Param("centre") CentreExamen centre,
-                                              @Param("concoursId") Long concoursId,
-                                              @Param("specialiteId") Long specialiteId,
-                                              @Param("statut") String statut,
-                                              @Param("diplome") String diplome,
-                                              Pageable pageable);
+    List<AgregatCandidature> agregerCandidatures();
 
     /**
      * Compte les candidatures par centre
@@ -98,24 +85,84 @@ public interface CandidatureRepository extends JpaRepository<Candidature, String
      */
     long countByCentreExamenAndSpecialiteAndStatut(CentreExamen centreExamen, Specialite specialite, StatutCandidature statut);
 
-    /**
-     * Trouve les candidatures par centre avec filtres (utilisant l'ID du centre)
-     */
-    @Query("""
-    SELECT c FROM Candidature c 
-    WHERE c.centreExamen.id = :centreId
+    // diplomeIds (diplômes canoniques acceptés) n'est lu que si filtreDiplome est vrai, jamais vide
+    String FILTRES_LISTE = """
+    (:centreId IS NULL OR c.centreExamen.id = :centreId)
     AND (:concoursId IS NULL OR c.concours.id = :concoursId)
     AND (:specialiteId IS NULL OR c.specialite.id = :specialiteId)
     AND (:statut IS NULL OR c.statut = :statut)
-    AND (:diplome IS NULL OR LOWER(c.candidat.diplome) LIKE LOWER(CONCAT('%', :diplome, '%')))
-    ORDER BY c.dateDepot DESC
+    AND (:filtreDiplome = false OR c.candidat.diplomeNormalise.id IN :diplomeIds)
+    """;
+
+    /**
+     * Colonnes affichées dans les listes de candidatures, lues en une seule requête jointe
+     * (voir {@link LigneCandidature}) au lieu de charger les relations de chaque ligne
+     */
+    String REQUETE_LIGNES = """
+    SELECT c.numero AS numero, c.statut AS statut, c.dateDepot AS dateDepot,
+           c.notifications AS notifications, c.accepter AS accepter,
+           ca.nom AS candidatNom, ca.prenom AS candidatPrenom, ca.cin AS candidatCin,
+           ca.email AS candidatEmail, ca.telephone AS candidatTelephone, ca.diplome AS candidatDiplome,
+           co.id AS concoursId, co.titre AS concoursTitre, co.reference AS concoursReference,
+           s.id AS specialiteId, s.libelle AS specialiteLibelle, s.code AS specialiteCode,
+           ce.id AS centreId, ce.code AS centreCode, v.nom AS centreVille,
+           u.id AS utilisateurTraitantId, u.username AS utilisateurTraitant
+    FROM Candidature c
+    JOIN c.candidat ca
+    JOIN c.concours co
+    JOIN c.specialite s
+    JOIN c.centreExamen ce
+    LEFT JOIN ce.ville v
+    LEFT JOIN c.utilisateurTraitant u
+    """;
+
+    /**
+     * Page suivant la ligne (dateDepot, numero) dans l'ordre décroissant, ou première page
+     * si dateDepot est null : lecture d'index à partir de la position, sans OFFSET ni COUNT
+     */
+    @Query(REQUETE_LIGNES + "WHERE " + FILTRES_LISTE + """
+    AND (:dateDepot IS NULL OR c.dateDepot < :dateDepot
+         OR (c.dateDepot = :dateDepot AND c.numero < :numero))
+    ORDER BY c.dateDepot DESC, c.numero DESC
+    """)
+    List<LigneCandidature> findPageDecroissante(@Param("centreId") Long centreId,
+                                                @Param("concoursId") Long concoursId,
+                                                @Param("specialiteId") Long specialiteId,
+                                                @Param("statut") StatutCandidature statut,
+                                                @Param("filtreDiplome") boolean filtreDiplome,
+                                                @Param("diplomeIds") List<Long> diplomeIds,
+                                                @Param("dateDepot") LocalDate dateDepot,
+                                                @Param("numero") String numero,
+                                                Pageable limite);
+
+    /**
+     * Page suivant la ligne (dateDepot, numero) dans l'ordre croissant
+     */
+    @Query(REQUETE_LIGNES + "WHERE " + FILTRES_LISTE + """
+    AND (:dateDepot IS NULL OR c.dateDepot > :dateDepot
+         OR (c.dateDepot = :dateDepot AND c.numero > :numero))
+    ORDER BY c.dateDepot ASC, c.numero ASC
     """)
-    Page<Candidature> findByCentreWithFilters(@Param("centreId") Long centreId,
+    List<LigneCandidature> findPageCroissante(@Param("centreId") Long centreId,
                                               @Param("concoursId") Long concoursId,
                                               @Param("specialiteId") Long specialiteId,
                                               @Param("statut") StatutCandidature statut,
-                                              @Param("diplome") String diplome,
-                                              Pageable pageable);
+                                              @Param("filtreDiplome") boolean filtreDiplome,
+                                              @Param("diplomeIds") List<Long> diplomeIds,
+                                              @Param("dateDepot") LocalDate dateDepot,
+                                              @Param("numero") String numero,
+                                              Pageable limite);
+
+    /**
+     * Nombre exact de candidatures correspondant aux filtres des listes
+     */
+    @Query("SELECT COUNT(c) FROM Candidature c WHERE " + FILTRES_LISTE)
+    long countByFiltres(@Param("centreId") Long centreId,
+                        @Param("concoursId") Long concoursId,
+                        @Param("specialiteId") Long specialiteId,
+                        @Param("statut") StatutCandidature statut,
+                        @Param("filtreDiplome") boolean filtreDiplome,
+                        @Param("diplomeIds") List<Long> diplomeIds);
 
     /**
      * Compte les candidatures par centre ID
@@ -127,11 +174,6 @@ public interface CandidatureRepository extends JpaRepository<Candidature, String
      */
     long countByCentreExamenIdAndStatut(Long centreExamenId, StatutCandidature statut);
 
-    /**
-     * Trouve les candidatures par centre ID et statut avec pagination
-     */
-    Page<Candidature> findByCentreExamenIdAndStatut(Long centreExamenId, StatutCandidature statut, Pageable pageable);
-
     /**
      * Compte les candidatures par centre ID, spécialité ID et statut
      */
@@ -166,5 +208,106 @@ public interface CandidatureRepository extends JpaRepository<Candidature, String
     """)
     List<Map<String, Object>> getStatistiquesByCentre(@Param("centreId") Long centreId);
 
+    /**
+     * Lignes de liste d'une liste de numéros (résultats de recherche), en une requête
+     */
+    @Query(REQUETE_LIGNES + "WHERE c.numero IN :numeros")
+    List<LigneCandidature> findLignesByNumeroIn(@Param("numeros") Collection<String> numeros);
+
+    String REQUETE_FACETTES = """
+    SELECT c.numero AS numero, c.concours.id AS concoursId, c.specialite.id AS specialiteId,
+           c.centreExamen.id AS centreId, c.statut AS statut
+    FROM Candidature c
+    """;
+
+    /**
+     * Facettes (concours, spécialité, centre, statut) d'une candidature
+     */
+    @Query(REQUETE_FACETTES + "WHERE c.numero = :numero")
+    Optional<FacettesCandidature> findFacettes(@Param("numero") String numero);
+
+    /**
+     * Facettes de toutes les candidatures dans l'ordre de dépôt, lues en flux
+     */
+    @Query(REQUETE_FACETTES + "ORDER BY c.dateDepot, c.numero")
+    Stream<FacettesCandidature> streamFacettes();
+
+    String REQUETE_DONNEES_RECHERCHE = """
+    SELECT c.numero AS numero, c.centreExamen.id AS centreId, c.concours.id AS concoursId,
+           c.specialite.id AS specialiteId, c.statut AS statut, c.dateDepot AS dateDepot,
+           ca.nom AS nom, ca.prenom AS prenom, ca.cin AS cin, ca.email AS email,
+           ca.telephone AS telephone, ca.diplome AS diplome
+    FROM Candidature c JOIN c.candidat ca
+    """;
+
+    /**
+     * Champs indexés pour la recherche plein texte d'une candidature
+     */
+    @Query(REQUETE_DONNEES_RECHERCHE + "WHERE c.numero = :numero")
+    Optional<DonneesRecherche> findDonneesRecherche(@Param("numero") String numero);
+
+    /**
+     * Champs indexés de toutes les candidatures, lus en flux (reconstruction de l'index)
+     */
+    @Query(REQUETE_DONNEES_RECHERCHE)
+    Stream<DonneesRecherche> streamDonneesRecherche();
+
+    /**
+     * Ligne d'une liste de candidatures : les champs de CandidatureDTO affichés dans les listes
+     */
+    interface LigneCandidature {
+        String getNumero();
+        StatutCandidature getStatut();
+        LocalDate getDateDepot();
+        TypeNotification getNotifications();
+        boolean isAccepter();
+        String getCandidatNom();
+        String getCandidatPrenom();
+        String getCandidatCin();
+        String getCandidatEmail();
+        String getCandidatTelephone();
+        String getCandidatDiplome();
+        Long getConcoursId();
+        String getConcoursTitre();
+        String getConcoursReference();
+        Long getSpecialiteId();
+        String getSpecialiteLibelle();
+        String getSpecialiteCode();
+        Long getCentreId();
+        String getCentreCode();
+        String getCentreVille();
+        Long getUtilisateurTraitantId();
+        String getUtilisateurTraitant();
+    }
+
+    interface FacettesCandidature {
+        String getNumero();
+        Long getConcoursId();
+        Long getSpecialiteId();
+        Long getCentreId();
+        StatutCandidature getStatut();
+    }
+
+    interface DonneesRecherche {
+        String getNumero();
+        Long getCentreId();
+        Long getConcoursId();
+        Long getSpecialiteId();
+        StatutCandidature getStatut();
+        LocalDate getDateDepot();
+        String getNom();
+        String getPrenom();
+        String getCin();
+        String getEmail();
+        String getTelephone();
+        String getDiplome();
+    }
 
+    interface AgregatCandidature {
+        String getConcours();
+        String getSpecialite();
+        String getCentre();
+        StatutCandidature getStatut();
+        Long getNombre();
+    }
 }
\ No newline at end of file
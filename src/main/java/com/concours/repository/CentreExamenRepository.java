@@ -1,6 +1,7 @@
 package com.concours.repository;
 
 import com.concours.entity.CentreExamen;
+import com.concours.entity.StatutCandidature;
 import com.concours.entity.Ville;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -27,4 +28,39 @@ public interface CentreExamenRepository extends JpaRepository<CentreExamen, Long
     Page<CentreExamen> findByVilleAndSpecialites_Id(@Param("ville") Ville ville, @Param("specialiteId") Long specialiteId, Pageable pageable);
 
     long count();
+
+    /**
+     * Centres d'un concours avec leur ville et leurs spécialités chargées
+     */
+    @Query("""
+    SELECT DISTINCT ce FROM Concours c JOIN c.centresExamen ce
+    LEFT JOIN FETCH ce.ville
+    LEFT JOIN FETCH ce.specialites
+    WHERE c.id = :concoursId
+    ORDER BY ce.code
+    """)
+    List<CentreExamen> findByConcoursWithSpecialites(@Param("concoursId") Long concoursId);
+
+    /**
+     * Capacité, ville, nombre de spécialités et candidatures par statut d'un centre,
+     * en une requête : une ligne par statut (statut null si le centre n'a aucune candidature)
+     */
+    @Query("""
+    SELECT c.capacite AS capacite, v.nom AS ville, SIZE(c.specialites) AS nbSpecialites,
+           k.statut AS statut, SUM(k.nombre) AS nombre
+    FROM CentreExamen c
+    LEFT JOIN c.ville v
+    LEFT JOIN CompteurCandidature k ON k.centreExamenId = c.id
+    WHERE c.id = :centreId
+    GROUP BY c.id, c.capacite, v.nom, k.statut
+    """)
+    List<StatistiqueLocale> getStatistiquesLocales(@Param("centreId") Long centreId);
+
+    interface StatistiqueLocale {
+        Integer getCapacite();
+        String getVille();
+        Integer getNbSpecialites();
+        StatutCandidature getStatut();
+        Long getNombre();
+    }
 }
@@ -0,0 +1,121 @@
+package com.concours.repository;
+
+import com.concours.entity.CompteurCandidature;
+import com.concours.entity.StatutCandidature;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CompteurCandidatureRepository extends JpaRepository<CompteurCandidature, Long> {
+
+    /**
+     * Ajoute delta (positif ou négatif) au compteur, en le créant s'il n'existe pas (upsert atomique MySQL)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO compteur_candidature (concours_id, specialite_id, centre_examen_id, statut, nombre)
+        VALUES (:concoursId, :specialiteId, :centreId, :statut, :delta)
+        ON DUPLICATE KEY UPDATE nombre = nombre + :delta
+        """, nativeQuery = true)
+    int ajouter(@Param("concoursId") Long concoursId, @Param("specialiteId") Long specialiteId,
+                @Param("centreId") Long centreId, @Param("statut") String statut, @Param("delta") long delta);
+
+    /**
+     * Nombre de candidatures par statut
+     */
+    @Query("SELECT c.statut AS statut, SUM(c.nombre) AS nombre FROM CompteurCandidature c GROUP BY c.statut")
+    List<CompteurStatut> sommeParStatut();
+
+    /**
+     * Nombre de candidatures par statut pour un centre
+     */
+    @Query("""
+        SELECT c.statut AS statut, SUM(c.nombre) AS nombre FROM CompteurCandidature c
+        WHERE c.centreExamenId = :centreId GROUP BY c.statut
+        """)
+    List<CompteurStatut> sommeParStatutPourCentre(@Param("centreId") Long centreId);
+
+    /**
+     * Nombre de candidatures par spécialité et statut pour un centre
+     */
+    @Query("""
+        SELECT c.centreExamenId AS centreId, c.specialiteId AS specialiteId, c.statut AS statut, SUM(c.nombre) AS nombre
+        FROM CompteurCandidature c WHERE c.centreExamenId = :centreId
+        GROUP BY c.centreExamenId, c.specialiteId, c.statut
+        """)
+    List<CompteurSpecialite> sommeParSpecialitePourCentre(@Param("centreId") Long centreId);
+
+    /**
+     * Nombre de candidatures par centre, spécialité et statut pour un concours
+     */
+    @Query("""
+        SELECT c.centreExamenId AS centreId, c.specialiteId AS specialiteId, c.statut AS statut, SUM(c.nombre) AS nombre
+        FROM CompteurCandidature c WHERE c.concoursId = :concoursId
+        GROUP BY c.centreExamenId, c.specialiteId, c.statut
+        """)
+    List<CompteurSpecialite> sommeParCentreEtSpecialitePourConcours(@Param("concoursId") Long concoursId);
+
+    /**
+     * Nombre de candidatures correspondant aux filtres (chacun optionnel)
+     */
+    @Query("""
+        SELECT COALESCE(SUM(c.nombre), 0) FROM CompteurCandidature c
+        WHERE (:concoursId IS NULL OR c.concoursId = :concoursId)
+        AND (:specialiteId IS NULL OR c.specialiteId = :specialiteId)
+        AND (:centreId IS NULL OR c.centreExamenId = :centreId)
+        AND (:statut IS NULL OR c.statut = :statut)
+        """)
+    long somme(@Param("concoursId") Long concoursId, @Param("specialiteId") Long specialiteId,
+               @Param("centreId") Long centreId, @Param("statut") StatutCandidature statut);
+
+    /**
+     * Concours ayant des candidatures ou des compteurs
+     */
+    @Query(value = "SELECT id FROM concours UNION SELECT concours_id FROM compteur_candidature", nativeQuery = true)
+    List<Long> findConcoursAReconcilier();
+
+    /**
+     * Recalcule en place les compteurs d'un concours à partir de la table candidature
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO compteur_candidature (concours_id, specialite_id, centre_examen_id, statut, nombre)
+        SELECT c.concours_id, c.specialite_id, c.centre_examen_id, c.statut, COUNT(*)
+        FROM candidature c WHERE c.concours_id = :concoursId
+        GROUP BY c.concours_id, c.specialite_id, c.centre_examen_id, c.statut
+        ON DUPLICATE KEY UPDATE nombre = VALUES(nombre)
+        """, nativeQuery = true)
+    int reconcilier(@Param("concoursId") Long concoursId);
+
+    /**
+     * Retire les compteurs d'un concours qui ne correspondent plus à aucune candidature
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM compteur_candidature
+        WHERE concours_id = :concoursId
+        AND NOT EXISTS (SELECT 1 FROM candidature c
+            WHERE c.concours_id = compteur_candidature.concours_id
+            AND c.specialite_id = compteur_candidature.specialite_id
+            AND c.centre_examen_id = compteur_candidature.centre_examen_id
+            AND c.statut = compteur_candidature.statut)
+        """, nativeQuery = true)
+    int retirerObsoletes(@Param("concoursId") Long concoursId);
+
+    interface CompteurStatut {
+        StatutCandidature getStatut();
+        Long getNombre();
+    }
+
+    interface CompteurSpecialite {
+        Long getCentreId();
+        Long getSpecialiteId();
+        StatutCandidature getStatut();
+        Long getNombre();
+    }
+}
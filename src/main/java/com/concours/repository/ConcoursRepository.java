@@ -4,6 +4,7 @@ import com.concours.entity.Concours;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -39,6 +40,16 @@ public interface ConcoursRepository extends JpaRepository<Concours, Long> {
     @Query("SELECT c FROM Concours c WHERE c.dateCloture < CURRENT_DATE AND c.publie = true")
     Page<Concours> findConcoursFermes(Pageable pageable);
 
+    /**
+     * Concours passés depuis la date donnée dont les documents ne sont pas encore archivés
+     */
+    @Query("SELECT c.id FROM Concours c WHERE c.dateConcours < :date AND c.dateArchivage IS NULL ORDER BY c.dateConcours")
+    List<Long> findIdsConcoursAArchiver(@Param("date") LocalDate date);
+
+    @Modifying
+    @Query("UPDATE Concours c SET c.dateArchivage = CURRENT_TIMESTAMP WHERE c.id = :id")
+    int marquerArchive(@Param("id") Long id);
+
     List<Concours> findBySpecialitesIdAndPublieTrue(Long specialiteId);
 
     @Query("SELECT COUNT(c) FROM Concours c WHERE c.publie = true")
@@ -68,4 +79,20 @@ public interface ConcoursRepository extends JpaRepository<Concours, Long> {
     List<Concours> findByDateOuvertureBeforeAndDateClotureAfterAndPublieTrue(
             @Param("today") LocalDate dateOuverture,
             @Param("today") LocalDate dateCloture);
-}
\ No newline at end of file
+
+    /**
+     * Nombre de concours, d'utilisateurs et de centres en une requête
+     */
+    @Query("""
+        SELECT (SELECT COUNT(c) FROM Concours c) AS nbConcours,
+               (SELECT COUNT(u) FROM Utilisateur u) AS nbUtilisateurs,
+               (SELECT COUNT(ce) FROM CentreExamen ce) AS nbCentres
+        """)
+    CompteursReferentiel compterReferentiel();
+
+    interface CompteursReferentiel {
+        Long getNbConcours();
+        Long getNbUtilisateurs();
+        Long getNbCentres();
+    }
+}
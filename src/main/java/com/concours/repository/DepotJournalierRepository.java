@@ -0,0 +1,73 @@
+package com.concours.repository;
+
+import com.concours.entity.DepotJournalier;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DepotJournalierRepository extends JpaRepository<DepotJournalier, Long> {
+
+    /**
+     * Ajoute delta au nombre de dépôts du jour, en créant la ligne si besoin (upsert atomique MySQL)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO depot_journalier (jour, concours_id, centre_examen_id, nombre)
+        VALUES (:jour, :concoursId, :centreId, :delta)
+        ON DUPLICATE KEY UPDATE nombre = nombre + :delta
+        """, nativeQuery = true)
+    int ajouter(@Param("jour") LocalDate jour, @Param("concoursId") Long concoursId,
+                @Param("centreId") Long centreId, @Param("delta") long delta);
+
+    /**
+     * Dépôts par jour sur une période, éventuellement filtrés par concours et/ou centre
+     */
+    @Query("""
+        SELECT d.jour AS jour, SUM(d.nombre) AS nombre FROM DepotJournalier d
+        WHERE d.jour BETWEEN :debut AND :fin
+          AND (:concoursId IS NULL OR d.concoursId = :concoursId)
+          AND (:centreId IS NULL OR d.centreExamenId = :centreId)
+        GROUP BY d.jour
+        ORDER BY d.jour
+        """)
+    List<DepotJour> sommeParJour(@Param("debut") LocalDate debut, @Param("fin") LocalDate fin,
+                                 @Param("concoursId") Long concoursId, @Param("centreId") Long centreId);
+
+    /**
+     * Recalcule en place les dépôts journaliers d'un concours à partir de la table candidature
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO depot_journalier (jour, concours_id, centre_examen_id, nombre)
+        SELECT c.date_depot, c.concours_id, c.centre_examen_id, COUNT(*)
+        FROM candidature c WHERE c.concours_id = :concoursId AND c.date_depot IS NOT NULL
+        GROUP BY c.date_depot, c.concours_id, c.centre_examen_id
+        ON DUPLICATE KEY UPDATE nombre = VALUES(nombre)
+        """, nativeQuery = true)
+    int reconcilier(@Param("concoursId") Long concoursId);
+
+    /**
+     * Retire les dépôts journaliers d'un concours qui ne correspondent plus à aucune candidature
+     */
+    @Modifying
+    @Query(value = """
+        DELETE FROM depot_journalier
+        WHERE concours_id = :concoursId
+        AND NOT EXISTS (SELECT 1 FROM candidature c
+            WHERE c.date_depot = depot_journalier.jour
+            AND c.concours_id = depot_journalier.concours_id
+            AND c.centre_examen_id = depot_journalier.centre_examen_id)
+        """, nativeQuery = true)
+    int retirerObsoletes(@Param("concoursId") Long concoursId);
+
+    interface DepotJour {
+        LocalDate getJour();
+        Long getNombre();
+    }
+}
@@ -0,0 +1,38 @@
+package com.concours.repository;
+
+import com.concours.entity.Diplome;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DiplomeRepository extends JpaRepository<Diplome, Long> {
+
+    Optional<Diplome> findByCode(String code);
+
+    /**
+     * Diplômes dont le code contient le fragment, à filtrer ensuite sur des mots entiers
+     * (le '_' du fragment, joker de LIKE, ne fait qu'élargir la sélection)
+     */
+    @Query("SELECT d FROM Diplome d WHERE d.code LIKE CONCAT('%', :fragment, '%')")
+    List<Diplome> findByCodeContenant(@Param("fragment") String fragment);
+
+    /**
+     * Crée le diplôme s'il n'existe pas ; dans les deux cas {@link #dernierIdentifiant()}
+     * retourne ensuite son identifiant (upsert atomique MySQL)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO diplome (code, libelle) VALUES (:code, :libelle)
+        ON DUPLICATE KEY UPDATE id = LAST_INSERT_ID(id)
+        """, nativeQuery = true)
+    int inserer(@Param("code") String code, @Param("libelle") String libelle);
+
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    Long dernierIdentifiant();
+}
@@ -0,0 +1,91 @@
+package com.concours.repository;
+
+import com.concours.entity.DocumentBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentBlobRepository extends JpaRepository<DocumentBlob, String> {
+
+    /**
+     * Ajoute des références à un blob, en le créant s'il n'existe pas (upsert atomique MySQL)
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO document_blob (blob_key, taille, taille_stockee, ref_count, date_creation, date_maj)
+        VALUES (:blobKey, :taille, :tailleStockee, :nombre, NOW(6), NOW(6))
+        ON DUPLICATE KEY UPDATE ref_count = ref_count + :nombre, date_maj = NOW(6)
+        """, nativeQuery = true)
+    int incrementer(@Param("blobKey") String blobKey, @Param("taille") long taille,
+                    @Param("tailleStockee") long tailleStockee, @Param("nombre") int nombre);
+
+    /**
+     * Retire des références à un blob
+     */
+    @Modifying
+    @Query("UPDATE DocumentBlob b SET b.refCount = b.refCount - :nombre, b.dateMaj = CURRENT_TIMESTAMP WHERE b.blobKey = :blobKey")
+    int decrementer(@Param("blobKey") String blobKey, @Param("nombre") int nombre);
+
+    /**
+     * Blobs sans référence depuis la date donnée
+     */
+    @Query("SELECT b.blobKey FROM DocumentBlob b WHERE b.refCount <= 0 AND b.dateMaj < :avant ORDER BY b.dateMaj")
+    List<String> findOrphelins(@Param("avant") LocalDateTime avant, Pageable pageable);
+
+    /**
+     * Verrouille un blob s'il est toujours sans référence (un upload concurrent
+     * du même contenu attend la fin de la suppression)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM DocumentBlob b WHERE b.blobKey = :blobKey AND b.refCount <= 0")
+    Optional<DocumentBlob> findOrphelinForUpdate(@Param("blobKey") String blobKey);
+
+    /**
+     * Nombre et taille totale des blobs référencés
+     */
+    @Query("""
+        SELECT COUNT(b) AS count, COALESCE(SUM(b.taille), 0) AS totalSize, COALESCE(SUM(b.tailleStockee), 0) AS storedSize
+        FROM DocumentBlob b WHERE b.refCount > 0
+        """)
+    BlobStats getBlobStats();
+
+    /**
+     * Recalcule les compteurs à partir de la table document
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO document_blob (blob_key, taille, taille_stockee, ref_count, date_creation, date_maj)
+        SELECT d.blob_key, MAX(d.taille), MAX(ROUND(d.taille * COALESCE(d.taux_compression, 1))), COUNT(*), NOW(6), NOW(6)
+        FROM document d WHERE d.blob_key IS NOT NULL
+        GROUP BY d.blob_key
+        ON DUPLICATE KEY UPDATE ref_count = VALUES(ref_count), date_maj = NOW(6)
+        """, nativeQuery = true)
+    int recalculerReferences();
+
+    /**
+     * Remet à zéro les blobs qui ne sont plus référencés par aucun document
+     */
+    @Modifying
+    @Query(value = """
+        UPDATE document_blob b SET b.ref_count = 0, b.date_maj = NOW(6)
+        WHERE b.ref_count <> 0
+          AND NOT EXISTS (SELECT 1 FROM document d WHERE d.blob_key = b.blob_key)
+        """, nativeQuery = true)
+    int marquerNonReferences();
+
+    interface BlobStats {
+        Long getCount();
+        Long getTotalSize();
+        Long getStoredSize();
+    }
+}
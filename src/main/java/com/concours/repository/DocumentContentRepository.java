@@ -0,0 +1,34 @@
+package com.concours.repository;
+
+import com.concours.entity.DocumentContent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface DocumentContentRepository extends JpaRepository<DocumentContent, Long> {
+
+    /**
+     * Identifiants des documents dont le contenu est encore en base
+     */
+    @Query("SELECT c.documentId FROM DocumentContent c ORDER BY c.documentId")
+    List<Long> findDocumentIds(Pageable pageable);
+
+    /**
+     * Lit uniquement le contenu binaire d'un document
+     */
+    @Query("SELECT c.contenu FROM DocumentContent c WHERE c.documentId = :documentId")
+    byte[] findContenuByDocumentId(@Param("documentId") Long documentId);
+
+    /**
+     * Supprime le contenu d'un document sans le charger
+     */
+    @Modifying
+    @Query("DELETE FROM DocumentContent c WHERE c.documentId = :documentId")
+    int deleteByDocumentId(@Param("documentId") Long documentId);
+}
@@ -3,11 +3,14 @@ package com.concours.repository;
 import com.concours.entity.Document;
 import com.concours.entity.Candidature;
 import com.concours.entity.TypeDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,6 +55,12 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     @Query("SELECT COALESCE(SUM(d.taille), 0) FROM Document d")
     Long getTotalDocumentsSize();
 
+    /**
+     * Taille totale des documents dont le contenu n'est pas encore dans le stockage
+     */
+    @Query("SELECT COALESCE(SUM(d.taille), 0) FROM Document d WHERE d.blobKey IS NULL AND d.segment IS NULL")
+    long getTotalSizeSansBlobKey();
+
     /**
      * Calcule la taille totale des documents par candidature
      */
@@ -82,17 +91,14 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
     long countByCandidatureAndType(Candidature candidature, TypeDocument type);
 
     /**
-     * Vérifie si une candidature a tous les documents requis
+     * Compte les types distincts parmi ceux donnés présents dans une candidature
      */
     @Query("""
-        SELECT CASE WHEN 
-            (SELECT COUNT(d) FROM Document d WHERE d.candidature = :candidature AND d.type = 'CV') > 0 AND
-            (SELECT COUNT(d) FROM Document d WHERE d.candidature = :candidature AND d.type = 'CIN') > 0 AND
-            (SELECT COUNT(d) FROM Document d WHERE d.candidature = :candidature AND d.type = 'DIPLOME') > 0
-        THEN true ELSE false END
-        FROM Document d WHERE d.candidature = :candidature
+        SELECT COUNT(DISTINCT d.type) FROM Document d
+        WHERE d.candidature = :candidature AND d.type IN :types
         """)
-    Boolean hasAllRequiredDocuments(@Param("candidature") Candidature candidature);
+    long countDistinctTypesByCandidature(@Param("candidature") Candidature candidature,
+                                         @Param("types") Collection<TypeDocument> types);
 
     /**
      * Trouve les documents avec un contenu plus grand qu'une taille donnée
@@ -199,9 +205,59 @@ public interface DocumentRepository extends JpaRepository<Document, Long> {
         }
     }
 
+    /**
+     * Nombre de documents d'une candidature par contenu partagé
+     */
+    @Query("""
+        SELECT d.blobKey AS blobKey, COUNT(d) AS nombre FROM Document d
+        WHERE d.candidature = :candidature AND d.blobKey IS NOT NULL
+        GROUP BY d.blobKey
+        """)
+    List<BlobReferences> countBlobReferencesByCandidature(@Param("candidature") Candidature candidature);
+
+    interface BlobReferences {
+        String getBlobKey();
+        Long getNombre();
+    }
+
+    /**
+     * Documents d'un concours encore dans le DocumentStore (à archiver)
+     */
+    @Query("""
+        SELECT d FROM Document d
+        WHERE d.candidature.concours.id = :concoursId AND d.blobKey IS NOT NULL
+        ORDER BY d.blobKey, d.id
+        """)
+    List<Document> findDocumentsAArchiver(@Param("concoursId") Long concoursId, Pageable pageable);
+
+    /**
+     * Nombre de documents d'un concours dont le contenu est encore en base (non migrés)
+     */
+    @Query("""
+        SELECT COUNT(d) FROM Document d
+        WHERE d.candidature.concours.id = :concoursId AND d.blobKey IS NULL AND d.segment IS NULL
+        """)
+    long countDocumentsNonMigresByConcours(@Param("concoursId") Long concoursId);
+
+    /**
+     * Fait pointer un document vers son emplacement d'archive
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.segment = :segment, d.segmentOffset = :offset, d.blobKey = NULL WHERE d.id = :id")
+    int marquerArchive(@Param("id") Long id, @Param("segment") String segment, @Param("offset") Long offset);
+
+    /**
+     * Enregistre la clé de stockage d'un document migré
+     */
+    @Modifying
+    @Query("UPDATE Document d SET d.blobKey = :blobKey, d.tauxCompression = :tauxCompression WHERE d.id = :id")
+    int updateBlobKey(@Param("id") Long id, @Param("blobKey") String blobKey,
+                      @Param("tauxCompression") Double tauxCompression);
+
     /**
      * Supprime les documents d'une candidature (pour le nettoyage)
      */
+    @Modifying
     @Query("DELETE FROM Document d WHERE d.candidature = :candidature")
-    void deleteByCandidature(@Param("candidature") Candidature candidature);
+    int deleteByCandidature(@Param("candidature") Candidature candidature);
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package com.concours.repository;
+
+import com.concours.entity.ExportJob;
+import com.concours.entity.StatutExport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExportJobRepository extends JpaRepository<ExportJob, String> {
+
+    List<ExportJob> findTop20ByDemandeurOrderByDateCreationDesc(String demandeur);
+
+    /**
+     * Exports dont le fichier a dépassé sa durée de conservation
+     */
+    List<ExportJob> findByDateExpirationBefore(LocalDateTime date);
+
+    /**
+     * Exports interrompus (arrêt de l'application pendant leur exécution)
+     */
+    @Modifying
+    @Query("UPDATE ExportJob e SET e.statut = com.concours.entity.StatutExport.ECHEC, " +
+            "e.erreur = :erreur, e.dateFin = :date WHERE e.statut IN :statuts")
+    int marquerInterrompus(@Param("statuts") Collection<StatutExport> statuts,
+                           @Param("erreur") String erreur,
+                           @Param("date") LocalDateTime date);
+}
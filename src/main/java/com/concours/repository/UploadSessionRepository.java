@@ -0,0 +1,30 @@
+package com.concours.repository;
+
+import com.concours.entity.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    /**
+     * Sessions abandonnées dont le délai d'expiration est dépassé
+     */
+    List<UploadSession> findByDateExpirationBefore(LocalDateTime date);
+
+    /**
+     * Verrouille la session jusqu'à la fin de la transaction (une finalisation
+     * concurrente attend, puis ne trouve plus la session)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") String id);
+}
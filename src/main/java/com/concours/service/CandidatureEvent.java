@@ -0,0 +1,30 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+
+/**
+ * Événement publié à chaque changement du cycle de vie d'une candidature
+ * (soumission, validation, rejet, suppression).
+ * L'ancien statut est null pour une soumission.
+ */
+public record CandidatureEvent(String numero, Long centreId, StatutCandidature ancienStatut, Type type) {
+
+    public enum Type {
+        SOUMISE,
+        VALIDEE,
+        REJETEE,
+        SUPPRIMEE
+    }
+
+    /**
+     * Statut de la candidature après l'événement, null après une suppression
+     */
+    public StatutCandidature nouveauStatut() {
+        return switch (type) {
+            case SOUMISE -> StatutCandidature.EN_ATTENTE;
+            case VALIDEE -> StatutCandidature.VALIDEE;
+            case REJETEE -> StatutCandidature.REJETEE;
+            case SUPPRIMEE -> null;
+        };
+    }
+}
@@ -0,0 +1,360 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Export des listes de candidatures filtrées (mêmes filtres que la liste paginée).
+ * <p>
+ * Les lignes sont lues par un curseur JDBC en avant seulement (projection scalaire,
+ * donc aucune entité dans le contexte de persistance) et écrites dans un classeur
+ * SXSSF : seules les {@code fenetre} dernières lignes restent en mémoire, les autres
+ * sont vidées dans un fichier temporaire compressé. Les largeurs de colonnes sont
+ * fixées une fois pour toutes (pas d'autoSizeColumn, qui relirait toutes les lignes).
+ * <p>
+ * Le flux NDJSON/CSV destiné aux intégrations parcourt les candidatures dans l'ordre
+ * (dateDepot, numero) et reprend après le dernier couple reçu (pagination par clé).
+ */
+@Service
+@Slf4j
+public class CandidatureExportService {
+
+    static final String[] COLONNES = {
+            "Numéro", "Date de dépôt", "Statut", "Nom", "Prénom", "CIN", "Email", "Téléphone",
+            "Diplôme", "Concours", "Spécialité", "Centre"
+    };
+
+    // Noms des champs NDJSON / en-têtes CSV, dans l'ordre des colonnes
+    static final String[] CHAMPS = {
+            "numero", "dateDepot", "statut", "nom", "prenom", "cin", "email", "telephone",
+            "diplome", "concours", "specialite", "centre"
+    };
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    // Largeurs en caractères, dans l'ordre des colonnes
+    private static final int[] LARGEURS = {20, 14, 12, 22, 22, 14, 32, 16, 30, 36, 30, 12};
+
+    private static final String FILTRES = """
+            FROM Candidature c
+            JOIN c.candidat ca
+            JOIN c.concours co
+            JOIN c.specialite s
+            JOIN c.centreExamen ce
+            WHERE (:concoursId IS NULL OR co.id = :concoursId)
+              AND (:specialiteId IS NULL OR s.id = :specialiteId)
+              AND (:centreId IS NULL OR ce.id = :centreId)
+              AND (:statut IS NULL OR c.statut = :statut)
+              AND (:diplome IS NULL OR LOWER(ca.diplome) LIKE LOWER(CONCAT('%', :diplome, '%')))
+            """;
+
+    private static final String SELECTION = """
+            SELECT c.numero, c.dateDepot, c.statut, ca.nom, ca.prenom, ca.cin, ca.email, ca.telephone,
+                   ca.diplome, co.titre, s.libelle, ce.code
+            """;
+
+    private static final String REQUETE_EXPORT = SELECTION + FILTRES + "ORDER BY c.numero";
+
+    private static final String REQUETE_FLUX = SELECTION + FILTRES + "ORDER BY c.dateDepot, c.numero";
+
+    // Candidatures strictement après la dernière reçue, dans l'ordre (dateDepot, numero)
+    private static final String REQUETE_FLUX_REPRISE = SELECTION + FILTRES + """
+              AND (c.dateDepot > :repriseDate OR (c.dateDepot = :repriseDate AND c.numero > :repriseNumero))
+            ORDER BY c.dateDepot, c.numero
+            """;
+
+    private static final String REQUETE_COMPTAGE = "SELECT COUNT(c) " + FILTRES;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.export.candidatures.fetch-size:1000}")
+    private int fetchSize;
+
+    // Nombre de lignes gardées en mémoire par le classeur SXSSF
+    @Value("${app.export.candidatures.fenetre:200}")
+    private int fenetre;
+
+    // Lignes NDJSON/CSV écrites entre deux envois au client
+    @Value("${app.export.candidatures.flux.lignes-par-envoi:500}")
+    private int lignesParEnvoi;
+
+    public enum FormatFlux {
+        NDJSON,
+        CSV
+    }
+
+    /**
+     * Écrit le classeur Excel des candidatures filtrées dans le flux donné
+     *
+     * @return nombre de candidatures exportées
+     */
+    @Transactional(readOnly = true)
+    public long exporterExcel(Long concoursId, Long specialiteId, Long centreId,
+                              StatutCandidature statut, String diplome, OutputStream out) throws IOException {
+        return exporterExcel(concoursId, specialiteId, centreId, statut, diplome, out, lignes -> { });
+    }
+
+    /**
+     * Comme {@link #exporterExcel(Long, Long, Long, StatutCandidature, String, OutputStream)},
+     * en signalant le nombre de lignes écrites à chaque ligne
+     */
+    @Transactional(readOnly = true)
+    public long exporterExcel(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut,
+                              String diplome, OutputStream out, LongConsumer progression) throws IOException {
+        long debut = System.currentTimeMillis();
+        SXSSFWorkbook workbook = new SXSSFWorkbook(fenetre);
+        workbook.setCompressTempFiles(true);
+        try {
+            SXSSFSheet sheet = workbook.createSheet("Candidatures");
+            for (int i = 0; i < LARGEURS.length; i++) {
+                sheet.setColumnWidth(i, LARGEURS[i] * 256);
+            }
+            sheet.createFreezePane(0, 1);
+
+            CellStyle headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("dd/mm/yyyy"));
+
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < COLONNES.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(COLONNES[i]);
+                cell.setCellStyle(headerStyle);
+            }
+
+            int[] rowNum = {1};
+            long nombre = parcourir(concoursId, specialiteId, centreId, statut, diplome, ligne -> {
+                Row row = sheet.createRow(rowNum[0]++);
+                for (int i = 0; i < ligne.length; i++) {
+                    Object valeur = ligne[i];
+                    if (valeur == null) {
+                        continue;
+                    }
+                    Cell cell = row.createCell(i);
+                    if (valeur instanceof LocalDate date) {
+                        cell.setCellValue(date);
+                        cell.setCellStyle(dateStyle);
+                    } else {
+                        cell.setCellValue(texte(valeur));
+                    }
+                }
+                progression.accept(rowNum[0] - 1);
+            });
+
+            workbook.write(out);
+            out.flush();
+            log.info("Export Excel de {} candidatures en {} ms", nombre, System.currentTimeMillis() - debut);
+            return nombre;
+        } finally {
+            // Supprime les fichiers temporaires des lignes vidées
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    /**
+     * Écrit les candidatures filtrées en NDJSON (un objet par ligne) ou en CSV, à mesure
+     * de leur lecture. Avec repriseDate/repriseNumero (dateDepot et numero de la dernière
+     * candidature reçue), le flux reprend juste après elle.
+     *
+     * @param limite nombre maximal de candidatures, null pour toutes
+     * @return nombre de candidatures écrites
+     */
+    @Transactional(readOnly = true)
+    public long exporterFlux(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut,
+                             String diplome, LocalDate repriseDate, String repriseNumero, Integer limite,
+                             FormatFlux format, OutputStream out) throws IOException {
+        boolean reprise = repriseDate != null && repriseNumero != null;
+        Query<Object[]> requete = requete(reprise ? REQUETE_FLUX_REPRISE : REQUETE_FLUX,
+                concoursId, specialiteId, centreId, statut, diplome);
+        if (reprise) {
+            requete.setParameter("repriseDate", repriseDate)
+                    .setParameter("repriseNumero", repriseNumero);
+        }
+        if (limite != null) {
+            requete.setMaxResults(limite);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        JsonGenerator json = format == FormatFlux.NDJSON ? JSON.createGenerator(writer) : null;
+        if (json != null) {
+            json.setRootValueSeparator(null);
+        } else {
+            ecrireLigneCsv(writer, CHAMPS);
+        }
+
+        long nombre;
+        try {
+            nombre = parcourir(requete, ligne -> {
+                try {
+                    if (json != null) {
+                        ecrireObjetJson(json, ligne);
+                    } else {
+                        ecrireLigneCsv(writer, ligne);
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, () -> {
+                // Envoi régulier au client : le flux reste en mémoire constante
+                try {
+                    if (json != null) {
+                        json.flush();
+                    }
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Client déconnecté en cours de flux
+            throw e.getCause();
+        }
+
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+        log.info("Flux {} de {} candidatures", format, nombre);
+        return nombre;
+    }
+
+    /**
+     * Nombre de candidatures correspondant aux filtres
+     */
+    @Transactional(readOnly = true)
+    public long compter(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut, String diplome) {
+        return entityManager.createQuery(REQUETE_COMPTAGE, Long.class)
+                .setParameter("concoursId", concoursId)
+                .setParameter("specialiteId", specialiteId)
+                .setParameter("centreId", centreId)
+                .setParameter("statut", statut)
+                .setParameter("diplome", normaliserDiplome(diplome))
+                .getSingleResult();
+    }
+
+    /**
+     * Parcourt les candidatures filtrées avec un curseur en avant seulement ; chaque
+     * ligne contient les valeurs des {@link #COLONNES}, dans l'ordre
+     *
+     * @return nombre de lignes parcourues
+     */
+    long parcourir(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut,
+                   String diplome, Consumer<Object[]> consommateur) {
+        return parcourir(requete(REQUETE_EXPORT, concoursId, specialiteId, centreId, statut, diplome),
+                consommateur, () -> { });
+    }
+
+    /**
+     * @param finDeLot appelé toutes les {@code lignesParEnvoi} lignes
+     */
+    private long parcourir(Query<Object[]> requete, Consumer<Object[]> consommateur, Runnable finDeLot) {
+        long nombre = 0;
+        try (ScrollableResults<Object[]> lignes = requete
+                .setReadOnly(true)
+                .setFetchSize(fetchSize)
+                .scroll(ScrollMode.FORWARD_ONLY)) {
+            while (lignes.next()) {
+                consommateur.accept(lignes.get());
+                if (++nombre % lignesParEnvoi == 0) {
+                    finDeLot.run();
+                }
+            }
+        }
+        return nombre;
+    }
+
+    private Query<Object[]> requete(String hql, Long concoursId, Long specialiteId, Long centreId,
+                                    StatutCandidature statut, String diplome) {
+        return entityManager.unwrap(Session.class).createQuery(hql, Object[].class)
+                .setParameter("concoursId", concoursId)
+                .setParameter("specialiteId", specialiteId)
+                .setParameter("centreId", centreId)
+                .setParameter("statut", statut)
+                .setParameter("diplome", normaliserDiplome(diplome));
+    }
+
+    private static void ecrireObjetJson(JsonGenerator json, Object[] ligne) throws IOException {
+        json.writeStartObject();
+        for (int i = 0; i < ligne.length; i++) {
+            if (ligne[i] == null) {
+                json.writeNullField(CHAMPS[i]);
+            } else {
+                json.writeStringField(CHAMPS[i], texte(ligne[i]));
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void ecrireLigneCsv(Writer writer, Object[] valeurs) throws IOException {
+        for (int i = 0; i < valeurs.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (valeurs[i] != null) {
+                writer.write(echapperCsv(texte(valeurs[i])));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Échappement RFC 4180 : guillemets autour des valeurs contenant un séparateur,
+     * un guillemet ou un saut de ligne. Une valeur qu'un tableur interpréterait comme
+     * une formule (=, +, -, @, tabulation ou retour chariot en tête) est préfixée d'une
+     * apostrophe pour rester du texte.
+     */
+    static String echapperCsv(String valeur) {
+        if (!valeur.isEmpty() && "=+-@\t\r".indexOf(valeur.charAt(0)) >= 0) {
+            valeur = "'" + valeur;
+        }
+        for (int i = 0; i < valeur.length(); i++) {
+            char c = valeur.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + valeur.replace("\"", "\"\"") + '"';
+            }
+        }
+        return valeur;
+    }
+
+    private static String texte(Object valeur) {
+        return valeur instanceof Enum<?> e ? e.name() : valeur.toString();
+    }
+
+    private static String normaliserDiplome(String diplome) {
+        return diplome == null || diplome.isBlank() ? null : diplome;
+    }
+}
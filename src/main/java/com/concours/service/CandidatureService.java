@@ -2,15 +2,21 @@ package com.concours.service;
 
 import com.concours.dto.CandidatureDTO;
 import com.concours.dto.CandidatureCreateDTO;
+import com.concours.dto.FacettesCandidaturesDTO;
+import com.concours.dto.PageCurseurDTO;
+import com.concours.dto.PlacesCentreDTO;
 import com.concours.dto.PlacesSpecialiteDTO;
 import com.concours.entity.*;
 import com.concours.exception.BusinessException;
 import com.concours.mapper.CandidatureMapper;
 import com.concours.repository.*;
+import com.concours.util.CurseurPagination;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,7 +24,13 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -27,6 +39,9 @@ import java.util.UUID;
 @Slf4j
 public class CandidatureService {
 
+    // Valeur de diplomeIds sans filtre diplôme : une liste IN ne peut pas être vide
+    private static final List<Long> AUCUN_DIPLOME = List.of(0L);
+
     private final CandidatureRepository candidatureRepository;
     private final CandidatRepository candidatRepository;
     private final ConcoursRepository concoursRepository;
@@ -38,6 +53,13 @@ public class CandidatureService {
     private final DocumentService documentService;
     private final EmailService emailService;
     private final DocumentRepository documentRepository;
+    private final DocumentStore documentStore;
+    private final DocumentBlobService documentBlobService;
+    private final CompteurCandidatureService compteurCandidatureService;
+    private final RechercheCandidatureService rechercheCandidatureService;
+    private final IndexFacettesService indexFacettesService;
+    private final DiplomeService diplomeService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public String soumettreCandiature(CandidatureCreateDTO candidatureDTO) {
         log.info("Début de soumission candidature pour CIN: {}", candidatureDTO.getCin());
@@ -79,10 +101,12 @@ public class CandidatureService {
 
             // Sauvegarde de la candidature AVANT les documents
             candidature = candidatureRepository.save(candidature);
+            compteurCandidatureService.changerStatut(candidature, null, StatutCandidature.EN_ATTENTE);
             log.info("Candidature créée avec numéro: {}", numeroCandidature);
 
             // Création des documents statiques (sans fichiers réels)
             creerDocumentsStatiques(candidature, candidat);
+            eventPublisher.publishEvent(new CandidatureEvent(numeroCandidature, centreExamen.getId(), null, CandidatureEvent.Type.SOUMISE));
 
             // Envoi de notification
             try {
@@ -101,25 +125,144 @@ public class CandidatureService {
         }
     }
 
-    public Page<CandidatureDTO> getCandidaturesWithFilters(Long concoursId, Long specialiteId,
-                                                           Long centreId, String statutStr,
-                                                           String diplome, Pageable pageable) {
-
-        // Conversion du statut string vers enum
+    /**
+     * Page d'une liste de candidatures parcourue par curseur sur (dateDepot, numero) :
+     * chaque page est lue dans l'index à partir de la dernière ligne vue, sans OFFSET,
+     * quelle que soit sa profondeur. La recherche texte, et le filtre diplôme sans diplôme
+     * canonique correspondant, passent par l'index plein texte, avec le même ordre et les
+     * mêmes curseurs.
+     *
+     * @param curseur   jeton {@link CurseurPagination} reçu de la page précédente, null pour la première page
+     * @param croissant dates de dépôt croissantes (files de traitement) plutôt que décroissantes
+     * @param modeTotal calcul du nombre total de lignes, à éviter sur les grandes listes
+     */
+    @Transactional(readOnly = true)
+    public PageCurseurDTO<CandidatureDTO> getCandidaturesParCurseur(String recherche, String diplome,
+                                                                    Long centreId, Long concoursId,
+                                                                    Long specialiteId, String statutStr,
+                                                                    String curseur, int taille, boolean croissant,
+                                                                    ModeTotal modeTotal) {
         StatutCandidature statut = null;
         if (statutStr != null && !statutStr.isEmpty()) {
             try {
                 statut = StatutCandidature.valueOf(statutStr);
             } catch (IllegalArgumentException e) {
                 log.warn("Statut invalide: {}", statutStr);
-                // Vous pouvez choisir de retourner une page vide ou de logger l'erreur
             }
         }
 
-        Page<Candidature> candidatures = candidatureRepository.findByFilters(
-                concoursId, specialiteId, centreId, statut, diplome, pageable);
+        CurseurPagination position = CurseurPagination.decoder(curseur);
+        boolean reculer = position != null && position.precedent();
+        // Page précédente : lecture dans l'ordre inverse à partir de la première ligne affichée
+        boolean lectureCroissante = croissant != reculer;
+        LocalDate dateDepot = position == null ? null : position.dateDepot();
+        String numero = position == null ? null : position.numero();
+
+        PageCurseurDTO<CandidatureDTO> page = new PageCurseurDTO<>();
+        page.setTaille(taille);
+        List<CandidatureDTO> lignes;
+        // Une ligne de plus que la taille demandée indique qu'il reste des lignes dans le sens de lecture
+        boolean auDela;
+
+        // Diplôme : filtre sur les diplômes canoniques qui contiennent l'intitulé saisi (« informatique »
+        // retient aussi « Licence informatique »), sinon recherche plein texte. Pendant la normalisation,
+        // des candidats ne sont pas encore rattachés à leur diplôme canonique : recherche plein texte.
+        List<Long> diplomeIds = diplomeService.isNormalisationEnCours() ? List.of() : diplomeService.trouver(diplome);
+        boolean filtreDiplome = !diplomeIds.isEmpty();
+        boolean texte = (recherche != null && !recherche.isBlank())
+                || (!filtreDiplome && diplome != null && !diplome.isBlank());
+        if (texte) {
+            RechercheCandidatureService.Resultat resultat = rechercheCandidatureService.rechercherApres(
+                    recherche, diplome, centreId, concoursId, specialiteId, statut,
+                    dateDepot, numero, lectureCroissante, taille + 1);
+            // Décidé sur les numéros de l'index : une candidature supprimée depuis son indexation
+            // manque au chargement, mais les lignes suivantes restent accessibles
+            List<String> numeros = resultat.numeros();
+            auDela = numeros.size() > taille;
+            lignes = new ArrayList<>(chargerDansLOrdre(auDela ? numeros.subList(0, taille) : numeros));
+            if (modeTotal != ModeTotal.AUCUN) {
+                page.setTotal(resultat.total());
+            }
+        } else {
+            Pageable limite = PageRequest.of(0, taille + 1);
+            List<Long> diplomes = filtreDiplome ? diplomeIds : AUCUN_DIPLOME;
+            List<CandidatureRepository.LigneCandidature> candidatures = lectureCroissante
+                    ? candidatureRepository.findPageCroissante(centreId, concoursId, specialiteId, statut,
+                            filtreDiplome, diplomes, dateDepot, numero, limite)
+                    : candidatureRepository.findPageDecroissante(centreId, concoursId, specialiteId, statut,
+                            filtreDiplome, diplomes, dateDepot, numero, limite);
+            lignes = new ArrayList<>(candidatures.stream().map(candidatureMapper::toDTO).toList());
+            auDela = lignes.size() > taille;
+            if (auDela) {
+                lignes.remove(lignes.size() - 1);
+            }
+            // Ni l'index des facettes ni les compteurs ne connaissent le diplôme : total exact
+            if (modeTotal == ModeTotal.EXACT || (modeTotal == ModeTotal.ESTIME && filtreDiplome)) {
+                page.setTotal(candidatureRepository.countByFiltres(centreId, concoursId, specialiteId, statut,
+                        filtreDiplome, diplomes));
+            } else if (modeTotal == ModeTotal.ESTIME) {
+                Long total = indexFacettesService.compter(concoursId, specialiteId, centreId, statut);
+                page.setTotal(total != null ? total
+                        : compteurCandidatureService.compter(concoursId, specialiteId, centreId, statut));
+                page.setTotalEstime(true);
+            }
+        }
+
+        if (reculer) {
+            Collections.reverse(lignes);
+        }
+        page.setContent(lignes);
+
+        if (!lignes.isEmpty()) {
+            CandidatureDTO premiere = lignes.get(0);
+            CandidatureDTO derniere = lignes.get(lignes.size() - 1);
+            boolean lignesApres = reculer || auDela;
+            boolean lignesAvant = reculer ? auDela : position != null;
+            if (lignesApres) {
+                page.setSuivant(CurseurPagination.apres(derniere.getDateDepot(), derniere.getNumero()).encoder());
+            }
+            if (lignesAvant) {
+                page.setPrecedent(CurseurPagination.avant(premiere.getDateDepot(), premiere.getNumero()).encoder());
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Répartition des candidatures correspondant aux filtres par statut, concours, spécialité
+     * et centre, lue dans l'index des facettes, avec les {@code apercu} plus récentes
+     */
+    @Transactional(readOnly = true)
+    public FacettesCandidaturesDTO getFacettes(Long concoursId, Long specialiteId, Long centreId,
+                                               StatutCandidature statut, int apercu) {
+        IndexFacettesService.Facettes facettes = indexFacettesService.getFacettes(
+                concoursId, specialiteId, centreId, statut, apercu);
+
+        FacettesCandidaturesDTO dto = new FacettesCandidaturesDTO();
+        dto.setTotal(facettes.total());
+        dto.setParStatut(facettes.parStatut());
+        dto.setParConcours(facettes.parConcours());
+        dto.setParSpecialite(facettes.parSpecialite());
+        dto.setParCentre(facettes.parCentre());
+        dto.setCandidatures(chargerDansLOrdre(facettes.numeros()));
+        return dto;
+    }
 
-        return candidatures.map(candidatureMapper::toDTO);
+    /**
+     * Lignes de liste des numéros donnés, chargées en une requête et remises dans l'ordre des numéros
+     */
+    private List<CandidatureDTO> chargerDansLOrdre(List<String> numeros) {
+        if (numeros.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Integer> rangs = new HashMap<>();
+        for (String numero : numeros) {
+            rangs.put(numero, rangs.size());
+        }
+        return candidatureRepository.findLignesByNumeroIn(numeros).stream()
+                .sorted(Comparator.comparing(ligne -> rangs.get(ligne.getNumero())))
+                .map(candidatureMapper::toDTO)
+                .toList();
     }
 
     private String genererNumeroCandidature() {
@@ -145,6 +288,13 @@ public class CandidatureService {
 
     private Candidat creerOuRecupererCandidat(CandidatureCreateDTO candidatureDTO) {
         return candidatRepository.findByCin(candidatureDTO.getCin())
+                .map(existant -> {
+                    // Candidat antérieur à la normalisation (ou non encore rattaché par celle-ci)
+                    if (existant.getDiplomeNormalise() == null && existant.getDiplome() != null) {
+                        existant.setDiplomeNormalise(diplomeService.resoudre(existant.getDiplome()));
+                    }
+                    return existant;
+                })
                 .orElseGet(() -> {
                     log.info("Création d'un nouveau candidat avec CIN: {}", candidatureDTO.getCin());
 
@@ -158,6 +308,7 @@ public class CandidatureService {
 
                     nouveauCandidat.setLieuNaissance(lieuNaissance);
                     nouveauCandidat.setVilleResidence(villeResidence);
+                    nouveauCandidat.setDiplomeNormalise(diplomeService.resoudre(nouveauCandidat.getDiplome()));
 
                     return candidatRepository.save(nouveauCandidat);
                 });
@@ -251,10 +402,10 @@ public class CandidatureService {
         Utilisateur utilisateur = utilisateurRepository.findById(utilisateurId)
                 .orElseThrow(() -> new BusinessException("Utilisateur non trouvé"));
 
-        candidature.setStatut(StatutCandidature.VALIDEE);
-        candidature.setUtilisateurTraitant(utilisateur);
-
-        candidatureRepository.save(candidature);
+        StatutCandidature ancienStatut = candidature.getStatut();
+        changerStatut(candidature, ancienStatut, StatutCandidature.VALIDEE, utilisateur);
+        eventPublisher.publishEvent(new CandidatureEvent(numero, candidature.getCentreExamen().getId(), ancienStatut,
+                CandidatureEvent.Type.VALIDEE));
 
         try {
             emailService.envoyerNotificationValidation(candidature.getCandidat().getEmail(), numero);
@@ -270,10 +421,10 @@ public class CandidatureService {
         Utilisateur utilisateur = utilisateurRepository.findById(utilisateurId)
                 .orElseThrow(() -> new BusinessException("Utilisateur non trouvé"));
 
-        candidature.setStatut(StatutCandidature.REJETEE);
-        candidature.setUtilisateurTraitant(utilisateur);
-
-        candidatureRepository.save(candidature);
+        StatutCandidature ancienStatut = candidature.getStatut();
+        changerStatut(candidature, ancienStatut, StatutCandidature.REJETEE, utilisateur);
+        eventPublisher.publishEvent(new CandidatureEvent(numero, candidature.getCentreExamen().getId(), ancienStatut,
+                CandidatureEvent.Type.REJETEE));
 
         try {
             emailService.envoyerNotificationRejet(candidature.getCandidat().getEmail(), numero, motif);
@@ -282,60 +433,21 @@ public class CandidatureService {
         }
     }
 
-    @Transactional(readOnly = true)
-    public long countCandidaturesValides() {
-        return candidatureRepository.countByStatut(StatutCandidature.VALIDEE);
-    }
-
     /**
-     * Récupère les candidatures d'un centre avec filtres
+     * Mise à jour conditionnelle du statut : si un autre gestionnaire a traité la
+     * candidature entre-temps, rien n'est modifié et les compteurs restent justes
      */
-    @Transactional(readOnly = true)
-    public Page<CandidatureDTO> getCandidaturesByCentreWithFilters(Long centreId,
-                                                                   Long concoursId,
-                                                                   Long specialiteId,
-                                                                   String statut,
-                                                                   String diplome,
-                                                                   Pageable pageable) {
-        try {
-            CentreExamen centre = centreExamenRepository.findById(centreId)
-                    .orElseThrow(() -> new BusinessException("Centre non trouvé"));
-
-            // Conversion du statut string vers enum
-            StatutCandidature statutEnum = null;
-            if (statut != null && !statut.isEmpty()) {
-                try {
-                    statutEnum = StatutCandidature.valueOf(statut);
-                } catch (IllegalArgumentException e) {
-                    log.warn("Statut invalide: {}", statut);
-                }
-            }
-
-            return candidatureRepository.findByCentreWithFilters(
-                            centre.getId(), concoursId, specialiteId, statutEnum, diplome, pageable)
-                    .map(candidature -> mapToDTO(candidature));
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la récupération des candidatures avec filtres", e);
-            throw new BusinessException("Erreur lors de la récupération des candidatures");
+    private void changerStatut(Candidature candidature, StatutCandidature ancien, StatutCandidature nouveau,
+                               Utilisateur utilisateur) {
+        if (candidatureRepository.changerStatut(candidature.getNumero(), ancien, nouveau, utilisateur) == 0) {
+            throw new BusinessException("La candidature a été traitée entre-temps, veuillez actualiser la page");
         }
+        compteurCandidatureService.changerStatut(candidature, ancien, nouveau);
     }
 
-    /**
-     * Récupère les candidatures d'un centre par statut
-     */
     @Transactional(readOnly = true)
-    public Page<CandidatureDTO> getCandidaturesByCentreAndStatut(Long centreId,
-                                                                 StatutCandidature statut,
-                                                                 Pageable pageable) {
-        try {
-            return candidatureRepository.findByCentreExamenIdAndStatut(centreId, statut, pageable)
-                    .map(candidature -> mapToDTO(candidature));
-
-        } catch (Exception e) {
-            log.error("Erreur lors de la récupération des candidatures par statut", e);
-            throw new BusinessException("Erreur lors de la récupération des candidatures");
-        }
+    public long countCandidaturesValides() {
+        return compteurCandidatureService.compterParStatut().get(StatutCandidature.VALIDEE);
     }
 
     /**
@@ -344,7 +456,8 @@ public class CandidatureService {
     @Transactional(readOnly = true)
     public long countCandidaturesByCentre(Long centreId) {
         try {
-            return candidatureRepository.countByCentreExamenId(centreId);
+            return compteurCandidatureService.compterParStatut(centreId).values().stream()
+                    .mapToLong(Long::longValue).sum();
         } catch (Exception e) {
             log.error("Erreur lors du comptage des candidatures par centre", e);
             return 0;
@@ -357,7 +470,7 @@ public class CandidatureService {
     @Transactional(readOnly = true)
     public long countCandidaturesValideesByCentre(Long centreId) {
         try {
-            return candidatureRepository.countByCentreExamenIdAndStatut(centreId, StatutCandidature.VALIDEE);
+            return compteurCandidatureService.compterParStatut(centreId).get(StatutCandidature.VALIDEE);
         } catch (Exception e) {
             log.error("Erreur lors du comptage des candidatures validées par centre", e);
             return 0;
@@ -365,24 +478,13 @@ public class CandidatureService {
     }
 
 
-
-    @Transactional(readOnly = true)
-    public long countCandidaturesRejeteesByCentre(Long centreId) {
-        try {
-            return candidatureRepository.countByCentreExamenIdAndStatut(centreId, StatutCandidature.REJETEE);
-        } catch (Exception e) {
-            log.error("Erreur lors du comptage des candidatures validées par centre", e);
-            return 0;
-        }
-    }
-
     /**
      * Compte le nombre de candidatures en attente par centre
      */
     @Transactional(readOnly = true)
     public long countCandidaturesEnAttenteByCentre(Long centreId) {
         try {
-            return candidatureRepository.countByCentreExamenIdAndStatut(centreId, StatutCandidature.EN_ATTENTE);
+            return compteurCandidatureService.compterParStatut(centreId).get(StatutCandidature.EN_ATTENTE);
         } catch (Exception e) {
             log.error("Erreur lors du comptage des candidatures en attente par centre", e);
             return 0;
@@ -398,27 +500,12 @@ public class CandidatureService {
             CentreExamen centre = centreExamenRepository.findById(centreId)
                     .orElseThrow(() -> new BusinessException("Centre non trouvé"));
 
-            List<PlacesSpecialiteDTO> result = new ArrayList<>();
+            // Une seule requête groupée (spécialité, statut) pour toutes les spécialités du centre
+            Map<Long, long[]> compteurs = compteurCandidatureService.compterParSpecialite(centreId);
 
-            // Récupérer toutes les spécialités disponibles dans le centre
+            List<PlacesSpecialiteDTO> result = new ArrayList<>();
             for (Specialite specialite : centre.getSpecialites()) {
-                PlacesSpecialiteDTO places = new PlacesSpecialiteDTO();
-                places.setSpecialiteId(specialite.getId());
-                places.setSpecialiteLibelle(specialite.getLibelle());
-                places.setSpecialiteCode(specialite.getCode());
-                places.setNbPostesTotaux(specialite.getNbPostes());
-
-                // Compter les candidatures validées pour cette spécialité dans ce centre
-                long candidaturesValidees = candidatureRepository
-                        .countByCentreExamenIdAndSpecialiteIdAndStatut(centreId, specialite.getId(), StatutCandidature.VALIDEE);
-                places.setNbCandidaturesValidees(candidaturesValidees);
-
-                // Compter les candidatures en attente pour cette spécialité dans ce centre
-                long candidaturesEnAttente = candidatureRepository
-                        .countByCentreExamenIdAndSpecialiteIdAndStatut(centreId, specialite.getId(), StatutCandidature.EN_ATTENTE);
-                places.setNbCandidaturesEnAttente(candidaturesEnAttente);
-
-                result.add(places);
+                result.add(places(specialite, compteurs.get(specialite.getId())));
             }
 
             return result;
@@ -429,6 +516,53 @@ public class CandidatureService {
         }
     }
 
+    /**
+     * Places par centre et par spécialité pour tous les centres d'un concours,
+     * en un nombre constant de requêtes (planification des capacités)
+     */
+    @Transactional(readOnly = true)
+    public List<PlacesCentreDTO> getPlacesParCentre(Long concoursId) {
+        Concours concours = concoursRepository.findById(concoursId)
+                .orElseThrow(() -> new BusinessException("Concours non trouvé"));
+
+        Set<Long> specialitesConcours = new HashSet<>();
+        concours.getSpecialites().forEach(specialite -> specialitesConcours.add(specialite.getId()));
+
+        Map<Long, Map<Long, long[]>> compteurs = compteurCandidatureService.compterParCentreEtSpecialite(concoursId);
+
+        List<PlacesCentreDTO> result = new ArrayList<>();
+        for (CentreExamen centre : centreExamenRepository.findByConcoursWithSpecialites(concoursId)) {
+            PlacesCentreDTO placesCentre = new PlacesCentreDTO();
+            placesCentre.setCentreId(centre.getId());
+            placesCentre.setCentreCode(centre.getCode());
+            placesCentre.setVilleNom(centre.getVille() != null ? centre.getVille().getNom() : null);
+            placesCentre.setCapacite(centre.getCapacite());
+
+            Map<Long, long[]> compteursCentre = compteurs.getOrDefault(centre.getId(), Map.of());
+            for (Specialite specialite : centre.getSpecialites()) {
+                // Seules les spécialités ouvertes par le concours
+                if (specialitesConcours.contains(specialite.getId())) {
+                    placesCentre.getSpecialites().add(places(specialite, compteursCentre.get(specialite.getId())));
+                }
+            }
+            result.add(placesCentre);
+        }
+        return result;
+    }
+
+    private PlacesSpecialiteDTO places(Specialite specialite, long[] compteurs) {
+        PlacesSpecialiteDTO places = new PlacesSpecialiteDTO();
+        places.setSpecialiteId(specialite.getId());
+        places.setSpecialiteLibelle(specialite.getLibelle());
+        places.setSpecialiteCode(specialite.getCode());
+        places.setNbPostesTotaux(specialite.getNbPostes());
+        if (compteurs != null) {
+            places.setNbCandidaturesValidees(compteurs[StatutCandidature.VALIDEE.ordinal()]);
+            places.setNbCandidaturesEnAttente(compteurs[StatutCandidature.EN_ATTENTE.ordinal()]);
+        }
+        return places;
+    }
+
     /**
      * Mapping manuel vers DTO (compatible avec votre structure)
      */
@@ -494,11 +628,15 @@ public class CandidatureService {
             Candidature candidature = candidatureRepository.findById(numero)
                     .orElseThrow(() -> new BusinessException("Candidature non trouvée avec le numéro: " + numero));
 
-            // Supprimer d'abord les documents associés
-            documentRepository.deleteAll(candidature.getDocuments());
+            // Supprimer d'abord les documents associés en masse, sans les charger
+            // (références aux contenus partagés décomptées par clé)
+            documentService.deleteDocumentsByCandidature(candidature);
 
             // Puis supprimer la candidature
             candidatureRepository.delete(candidature);
+            compteurCandidatureService.changerStatut(candidature, candidature.getStatut(), null);
+            eventPublisher.publishEvent(new CandidatureEvent(numero, candidature.getCentreExamen().getId(),
+                    candidature.getStatut(), CandidatureEvent.Type.SUPPRIMEE));
 
             log.info("Candidature {} supprimée avec succès", numero);
         } catch (DataAccessException e) {
@@ -514,15 +652,16 @@ public class CandidatureService {
         try {
             log.info("Création des documents statiques pour candidature: {}", candidature.getNumero());
 
-            // Contenu PDF statique minimal (header PDF)
+            // Contenu PDF statique minimal (header PDF), stocké une seule fois
             byte[] contenuPdfStatique = hexStringToByteArray("255044462D312E340A");
+            String blobKey = documentStore.store(contenuPdfStatique);
 
             // Document CV
             Document cv = new Document();
             cv.setType(TypeDocument.CV);
             cv.setNom(String.format("CV_%s_%s.pdf", candidat.getNom(), candidat.getPrenom()).replace(" ", "_"));
             cv.setContentType("application/pdf");
-            cv.setContenu(contenuPdfStatique);
+            cv.setBlobKey(blobKey);
             cv.setTaille((long) contenuPdfStatique.length);
             cv.setCandidature(candidature);
             cv.setDateUpload(java.time.LocalDateTime.now());
@@ -533,7 +672,7 @@ public class CandidatureService {
             cin.setType(TypeDocument.CIN);
             cin.setNom(String.format("CIN_%s.pdf", candidat.getCin()));
             cin.setContentType("application/pdf");
-            cin.setContenu(contenuPdfStatique);
+            cin.setBlobKey(blobKey);
             cin.setTaille((long) contenuPdfStatique.length);
             cin.setCandidature(candidature);
             cin.setDateUpload(java.time.LocalDateTime.now());
@@ -544,12 +683,15 @@ public class CandidatureService {
             diplome.setType(TypeDocument.DIPLOME);
             diplome.setNom(String.format("Diplome_%s.pdf", candidat.getDiplome().replace(" ", "_")));
             diplome.setContentType("application/pdf");
-            diplome.setContenu(contenuPdfStatique);
+            diplome.setBlobKey(blobKey);
             diplome.setTaille((long) contenuPdfStatique.length);
             diplome.setCandidature(candidature);
             diplome.setDateUpload(java.time.LocalDateTime.now());
             documentRepository.save(diplome);
 
+            // Les trois documents partagent le même contenu
+            documentBlobService.ajouterReferences(blobKey, contenuPdfStatique.length, 3);
+
             log.info("Documents statiques créés avec succès pour candidature: {}", candidature.getNumero());
 
         } catch (Exception e) {
@@ -570,4 +712,13 @@ public class CandidatureService {
         }
         return data;
     }
-}
\ No newline at end of file
+
+    /**
+     * Calcul du total d'une liste parcourue par curseur
+     */
+    public enum ModeTotal {
+        AUCUN,
+        ESTIME, // Index des facettes, ou compteurs de candidatures pendant sa construction (aucune lecture de la table)
+        EXACT   // COUNT(*) sur les filtres
+    }
+}
@@ -190,21 +190,4 @@ public class CentreExamenService {
     public List<CentreExamen> findAll() {
         return centreExamenRepository.findAll();
     }
-
-    /**
-     * Compte le nombre de spécialités disponibles dans un centre
-     */
-    @Transactional(readOnly = true)
-    public int countSpecialitesByCentre(Long centreExamenId) {
-        try {
-            CentreExamen centre = centreExamenRepository.findById(centreExamenId)
-                    .orElseThrow(() -> new BusinessException("Centre d'examen non trouvé"));
-
-            return centre.getSpecialites() != null ? centre.getSpecialites().size() : 0;
-
-        } catch (Exception e) {
-            log.error("Erreur lors du comptage des spécialités par centre", e);
-            return 0;
-        }
-    }
 }
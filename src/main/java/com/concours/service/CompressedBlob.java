@@ -0,0 +1,181 @@
+package com.concours.service;
+
+import org.springframework.core.io.AbstractResource;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Format des contenus compressés du {@link LocalDocumentStore} :
+ * en-tête {@code CDZ1} + taille d'origine (8 octets) puis flux deflate (zlib).
+ */
+final class CompressedBlob {
+
+    static final String EXTENSION = ".z";
+
+    private static final int MAGIC = 0x43445A31; // "CDZ1"
+
+    // Échantillons lus pour estimer le gain (début, milieu, fin)
+    private static final int SAMPLE_SIZE = 16 * 1024;
+    private static final long MIN_SIZE = 4 * 1024;
+
+    private CompressedBlob() {
+        // Classe utilitaire - constructeur privé
+    }
+
+    static Path path(Path raw) {
+        return raw.resolveSibling(raw.getFileName() + EXTENSION);
+    }
+
+    /**
+     * Estime sur quelques échantillons si la compression fait gagner au moins {@code gainMinimal}
+     */
+    static boolean vautLaCompression(Path source, double gainMinimal) throws IOException {
+        long size = Files.size(source);
+        if (size < MIN_SIZE) {
+            return false;
+        }
+
+        long[] positions = size <= 3L * SAMPLE_SIZE
+                ? new long[]{0}
+                : new long[]{0, size / 2 - SAMPLE_SIZE / 2, size - SAMPLE_SIZE};
+
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] sample = new byte[SAMPLE_SIZE];
+        byte[] scratch = new byte[SAMPLE_SIZE];
+        long lus = 0;
+        long compresses = 0;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            for (long position : positions) {
+                ByteBuffer buffer = ByteBuffer.wrap(sample);
+                int n;
+                do {
+                    n = channel.read(buffer, position + buffer.position());
+                } while (n > 0 && buffer.hasRemaining());
+
+                deflater.reset();
+                deflater.setInput(sample, 0, buffer.position());
+                deflater.finish();
+                while (!deflater.finished()) {
+                    deflater.deflate(scratch);
+                }
+                lus += deflater.getBytesRead();
+                compresses += deflater.getBytesWritten();
+            }
+        } finally {
+            deflater.end();
+        }
+
+        return lus > 0 && compresses <= lus * (1 - gainMinimal);
+    }
+
+    static void ecrire(Path source, Path target) throws IOException {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        try (OutputStream out = Files.newOutputStream(target)) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(MAGIC);
+            header.writeLong(Files.size(source));
+            header.flush();
+
+            try (DeflaterOutputStream deflated = new DeflaterOutputStream(out, deflater, 8192)) {
+                Files.copy(source, deflated);
+            }
+        } finally {
+            deflater.end();
+        }
+    }
+
+    static InputStream open(Path compressed) throws IOException {
+        InputStream in = Files.newInputStream(compressed);
+        try {
+            lireEntete(in);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+        return new InflaterInputStream(in, new Inflater(), 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inf.end();
+                }
+            }
+        };
+    }
+
+    static long tailleOrigine(Path compressed) throws IOException {
+        try (InputStream in = Files.newInputStream(compressed)) {
+            return lireEntete(in);
+        }
+    }
+
+    private static long lireEntete(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("En-tête de contenu compressé invalide");
+        }
+        return data.readLong();
+    }
+
+    /**
+     * Ressource décompressée à la lecture ; la taille annoncée est celle d'origine,
+     * ce qui permet à Spring MVC de servir les requêtes Range
+     */
+    static final class BlobResource extends AbstractResource {
+
+        private final Path path;
+
+        BlobResource(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return open(path);
+        }
+
+        @Override
+        public boolean exists() {
+            return Files.exists(path);
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return tailleOrigine(path);
+        }
+
+        @Override
+        public long lastModified() throws IOException {
+            return Files.getLastModifiedTime(path).toMillis();
+        }
+
+        @Override
+        public String getDescription() {
+            return "Contenu compressé [" + path + "]";
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof BlobResource that && path.equals(that.path));
+        }
+
+        @Override
+        public int hashCode() {
+            return path.hashCode();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.concours.service;
+
+import com.concours.entity.Candidature;
+import com.concours.entity.StatutCandidature;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.CompteurCandidatureRepository;
+import com.concours.repository.DepotJournalierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compteurs de candidatures par concours × spécialité × centre × statut,
+ * et dépôts journaliers par concours × centre (séries temporelles).
+ * Chaque changement d'état d'une candidature met à jour ses compteurs dans la
+ * même transaction ; la réconciliation recalcule les tables depuis les
+ * candidatures pour rattraper d'éventuelles dérives (suppressions en cascade,
+ * modifications directes en base).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CompteurCandidatureService {
+
+    private final CompteurCandidatureRepository compteurRepository;
+    private final DepotJournalierRepository depotJournalierRepository;
+    private final CandidatureRepository candidatureRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Déplace la candidature d'un statut à l'autre dans les compteurs.
+     * Un ancien statut null correspond à une création, un nouveau statut null à une suppression.
+     * L'appelant garantit que la candidature était bien dans l'ancien statut (mise à jour
+     * conditionnelle du statut), sans quoi un traitement concurrent serait compté deux fois.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changerStatut(Candidature candidature, StatutCandidature ancien, StatutCandidature nouveau) {
+        if (ancien == nouveau) {
+            return;
+        }
+        if (ancien != null) {
+            ajouter(candidature, ancien, -1);
+        }
+        if (nouveau != null) {
+            ajouter(candidature, nouveau, 1);
+        }
+
+        // Création ou suppression : le dépôt du jour concerné change
+        if ((ancien == null || nouveau == null) && candidature.getDateDepot() != null) {
+            depotJournalierRepository.ajouter(
+                    candidature.getDateDepot(),
+                    candidature.getConcours().getId(),
+                    candidature.getCentreExamen().getId(),
+                    ancien == null ? 1 : -1);
+        }
+    }
+
+    private void ajouter(Candidature candidature, StatutCandidature statut, long delta) {
+        compteurRepository.ajouter(
+                candidature.getConcours().getId(),
+                candidature.getSpecialite().getId(),
+                candidature.getCentreExamen().getId(),
+                statut.name(),
+                delta);
+    }
+
+    /**
+     * Nombre de candidatures par statut (tous les statuts sont présents dans la map)
+     */
+    @Transactional(readOnly = true)
+    public Map<StatutCandidature, Long> compterParStatut() {
+        return versMap(compteurRepository.sommeParStatut());
+    }
+
+    /**
+     * Nombre de candidatures par statut pour un centre
+     */
+    @Transactional(readOnly = true)
+    public Map<StatutCandidature, Long> compterParStatut(Long centreId) {
+        return versMap(compteurRepository.sommeParStatutPourCentre(centreId));
+    }
+
+    /**
+     * Nombre de candidatures correspondant aux filtres, lu dans les compteurs : exact
+     * aux dérives près rattrapées par la réconciliation
+     */
+    @Transactional(readOnly = true)
+    public long compter(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut) {
+        return compteurRepository.somme(concoursId, specialiteId, centreId, statut);
+    }
+
+    /**
+     * Compteurs par spécialité pour un centre :specialiteId -> nombre par statut (indice = ordinal)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, long[]> compterParSpecialite(Long centreId) {
+        Map<Long, long[]> resultat = new HashMap<>();
+        for (CompteurCandidatureRepository.CompteurSpecialite ligne : compteurRepository.sommeParSpecialitePourCentre(centreId)) {
+            ajouter(resultat, ligne.getSpecialiteId(), ligne);
+        }
+        return resultat;
+    }
+
+    /**
+     * Compteurs d'un concours : centreId -> specialiteId -> nombre par statut (indice = ordinal)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Map<Long, long[]>> compterParCentreEtSpecialite(Long concoursId) {
+        Map<Long, Map<Long, long[]>> resultat = new HashMap<>();
+        for (CompteurCandidatureRepository.CompteurSpecialite ligne : compteurRepository.sommeParCentreEtSpecialitePourConcours(concoursId)) {
+            ajouter(resultat.computeIfAbsent(ligne.getCentreId(), k -> new HashMap<>()), ligne.getSpecialiteId(), ligne);
+        }
+        return resultat;
+    }
+
+    private void ajouter(Map<Long, long[]> compteurs, Long specialiteId,
+                         CompteurCandidatureRepository.CompteurSpecialite ligne) {
+        if (ligne.getStatut() != null && ligne.getNombre() != null) {
+            compteurs.computeIfAbsent(specialiteId, k -> new long[StatutCandidature.values().length])
+                    [ligne.getStatut().ordinal()] += ligne.getNombre();
+        }
+    }
+
+    private Map<StatutCandidature, Long> versMap(List<CompteurCandidatureRepository.CompteurStatut> lignes) {
+        Map<StatutCandidature, Long> resultat = new EnumMap<>(StatutCandidature.class);
+        for (StatutCandidature statut : StatutCandidature.values()) {
+            resultat.put(statut, 0L);
+        }
+        for (CompteurCandidatureRepository.CompteurStatut ligne : lignes) {
+            if (ligne.getStatut() != null && ligne.getNombre() != null) {
+                resultat.put(ligne.getStatut(), ligne.getNombre());
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Tables créées vides (ddl-auto) alors que des candidatures existent : on les remplit
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if ((compteurRepository.count() == 0 || depotJournalierRepository.count() == 0)
+                && candidatureRepository.count() > 0) {
+            reconcilier();
+        }
+    }
+
+    /**
+     * Recalcule les compteurs à partir des candidatures, concours par concours : les lignes
+     * sont mises à jour en place dans une courte transaction par concours, les changements
+     * de statut des autres concours ne sont pas bloqués et les lectures voient toujours
+     * des compteurs complets
+     */
+    @Scheduled(cron = "${app.statistiques.compteurs.reconciliation-cron:0 0 3 * * *}")
+    public void reconcilier() {
+        long debut = System.currentTimeMillis();
+        List<Long> concoursIds = compteurRepository.findConcoursAReconcilier();
+        for (Long concoursId : concoursIds) {
+            transactionTemplate.executeWithoutResult(status -> {
+                compteurRepository.reconcilier(concoursId);
+                compteurRepository.retirerObsoletes(concoursId);
+                depotJournalierRepository.reconcilier(concoursId);
+                depotJournalierRepository.retirerObsoletes(concoursId);
+            });
+        }
+        log.info("Compteurs de candidatures réconciliés pour {} concours en {} ms",
+                concoursIds.size(), System.currentTimeMillis() - debut);
+    }
+}
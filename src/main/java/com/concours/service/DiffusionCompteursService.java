@@ -0,0 +1,354 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Diffusion en direct (Server-Sent Events) des variations des compteurs de
+ * candidatures vers les tableaux de bord ouverts.
+ * <p>
+ * Les événements du cycle de vie des candidatures sont cumulés par abonné dans
+ * un tableau de deltas par statut : la mémoire par client est constante, quel que
+ * soit le nombre d'événements reçus entre deux envois. Les deltas cumulés sont
+ * envoyés au plus {@code max-envois-par-seconde} fois par seconde ; un client lent
+ * n'a qu'un envoi en cours à la fois et ses deltas continuent de se cumuler.
+ * <p>
+ * À chaque abonnement (y compris les reconnexions automatiques d'EventSource), les
+ * compteurs complets sont d'abord envoyés (événement "etat") : les deltas perdus
+ * pendant une coupure sont ainsi rattrapés. Les événements sont numérotés et l'état
+ * porte le numéro du dernier événement qu'il inclut : les deltas des événements de
+ * numéro inférieur ou égal ne sont pas cumulés, ils ne sont donc pas comptés deux fois.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiffusionCompteursService {
+
+    private static final int NB_STATUTS = StatutCandidature.values().length;
+
+    private final CompteurCandidatureService compteurCandidatureService;
+
+    @Value("${app.statistiques.flux.max-abonnes:500}")
+    private int maxAbonnes;
+
+    @Value("${app.statistiques.flux.max-envois-par-seconde:2}")
+    private int maxEnvoisParSeconde;
+
+    @Value("${app.statistiques.flux.heartbeat-secondes:25}")
+    private long heartbeatSecondes;
+
+    @Value("${app.statistiques.flux.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${app.statistiques.flux.threads-envoi:4}")
+    private int threadsEnvoi;
+
+    private final Set<Abonne> abonnes = ConcurrentHashMap.newKeySet();
+    // Places réservées, abonnés en cours d'inscription compris
+    private final AtomicInteger nbAbonnes = new AtomicInteger();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final AtomicLong numeroEvenement = new AtomicLong();
+    // Partagé entre la numérotation d'un événement et sa prise en compte après le commit,
+    // exclusif pendant la lecture d'un état complet
+    private final ReentrantReadWriteLock verrouCommits = new ReentrantReadWriteLock();
+
+    private ScheduledExecutorService planificateur;
+    private ThreadPoolExecutor envois;
+
+    @PostConstruct
+    public void init() {
+        planificateur = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "compteurs-flux");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Au plus un envoi en attente par abonné : la file est bornée par le nombre d'abonnés
+        envois = new ThreadPoolExecutor(threadsEnvoi, threadsEnvoi, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, maxAbonnes)), runnable -> {
+            Thread thread = new Thread(runnable, "compteurs-envoi-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        envois.allowCoreThreadTimeOut(true);
+
+        long periode = Math.max(1, 1000L / Math.max(1, maxEnvoisParSeconde));
+        planificateur.scheduleAtFixedRate(this::diffuser, periode, periode, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        planificateur.shutdownNow();
+        envois.shutdownNow();
+        abonnes.forEach(abonne -> abonne.emitter.complete());
+        abonnes.clear();
+        nbAbonnes.set(0);
+    }
+
+    /**
+     * Abonne un tableau de bord aux variations de tous les centres (centreId null)
+     * ou d'un centre
+     *
+     * @return null si le nombre maximal d'abonnés est atteint
+     */
+    public SseEmitter abonner(Long centreId) {
+        if (nbAbonnes.incrementAndGet() > maxAbonnes) {
+            nbAbonnes.decrementAndGet();
+            log.warn("Flux des compteurs: nombre maximal d'abonnés atteint ({})", maxAbonnes);
+            return null;
+        }
+
+        SseEmitter emitter = new SseEmitter(TimeUnit.MINUTES.toMillis(timeoutMinutes));
+        Abonne abonne = new Abonne(emitter, centreId);
+        // Pas de delta envoyé avant l'état complet
+        abonne.envoiEnCours.set(true);
+        abonnes.add(abonne);
+        emitter.onCompletion(() -> retirer(abonne));
+        emitter.onTimeout(() -> retirer(abonne));
+        emitter.onError(e -> retirer(abonne));
+
+        try {
+            envoyerEtat(abonne);
+        } catch (Exception e) {
+            log.warn("Flux des compteurs: état initial non envoyé (centre {})", centreId, e);
+            retirer(abonne);
+            emitter.completeWithError(e);
+        } finally {
+            abonne.envoiEnCours.set(false);
+        }
+
+        log.debug("Flux des compteurs: nouvel abonné (centre {}), {} abonnés", centreId, nbAbonnes.get());
+        return emitter;
+    }
+
+    public int getNombreAbonnes() {
+        return nbAbonnes.get();
+    }
+
+    private void retirer(Abonne abonne) {
+        if (abonnes.remove(abonne)) {
+            nbAbonnes.decrementAndGet();
+        }
+    }
+
+    /**
+     * Compteurs complets de l'abonné, marqués du numéro du dernier événement qu'ils incluent.
+     * La lecture se fait sous le verrou exclusif : les événements déjà numérotés sont commités
+     * et pris en compte, aucun autre ne l'est avant la fin de la lecture. Les événements
+     * suivants attendent la fin de l'envoi.
+     */
+    private void envoyerEtat(Abonne abonne) throws IOException {
+        Map<StatutCandidature, Long> compteurs;
+        verrouCommits.writeLock().lock();
+        try {
+            compteurs = abonne.centreId == null
+                    ? compteurCandidatureService.compterParStatut()
+                    : compteurCandidatureService.compterParStatut(abonne.centreId);
+            abonne.marquerEtat(numeroEvenement.get());
+        } finally {
+            verrouCommits.writeLock().unlock();
+        }
+
+        Map<String, Long> parStatut = new LinkedHashMap<>();
+        long total = 0;
+        for (StatutCandidature statut : StatutCandidature.values()) {
+            long nombre = compteurs.getOrDefault(statut, 0L);
+            parStatut.put(statut.name(), nombre);
+            total += nombre;
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("centreId", abonne.centreId);
+        message.put("total", total);
+        message.put("compteurs", parStatut);
+        abonne.emitter.send(SseEmitter.event().name("etat").data(message, MediaType.APPLICATION_JSON));
+        abonne.dernierEnvoi = System.currentTimeMillis();
+    }
+
+    /**
+     * Numérote l'événement avant le commit de sa transaction et cumule ses deltas après.
+     * Le verrou partagé est tenu entre les deux : la lecture d'un état complet ne peut pas
+     * s'intercaler entre le commit et la prise en compte de l'événement.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onCandidatureEvent(CandidatureEvent event) {
+        if (event.ancienStatut() == event.nouveauStatut()) {
+            return;
+        }
+        verrouCommits.readLock().lock();
+        long numero = numeroEvenement.incrementAndGet();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Publication hors transaction : les modifications sont déjà en base
+            try {
+                cumuler(event, numero);
+            } finally {
+                verrouCommits.readLock().unlock();
+            }
+            return;
+        }
+        try {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    try {
+                        if (status == STATUS_COMMITTED) {
+                            cumuler(event, numero);
+                        }
+                    } finally {
+                        verrouCommits.readLock().unlock();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            verrouCommits.readLock().unlock();
+            throw e;
+        }
+    }
+
+    private void cumuler(CandidatureEvent event, long numero) {
+        for (Abonne abonne : abonnes) {
+            if (abonne.centreId == null || abonne.centreId.equals(event.centreId())) {
+                abonne.cumuler(event.ancienStatut(), event.nouveauStatut(), numero);
+            }
+        }
+    }
+
+    /**
+     * Envoie les deltas cumulés (ou un heartbeat) à chaque abonné qui n'a pas d'envoi en cours
+     */
+    private void diffuser() {
+        long maintenant = System.currentTimeMillis();
+        long heartbeatMs = TimeUnit.SECONDS.toMillis(heartbeatSecondes);
+
+        for (Abonne abonne : abonnes) {
+            if (!abonne.aEnvoyer() && maintenant - abonne.dernierEnvoi < heartbeatMs) {
+                continue;
+            }
+            if (!abonne.envoiEnCours.compareAndSet(false, true)) {
+                continue; // Client lent : les deltas restent cumulés pour le prochain envoi
+            }
+            try {
+                envois.execute(() -> envoyer(abonne));
+            } catch (RejectedExecutionException e) {
+                abonne.envoiEnCours.set(false);
+            }
+        }
+    }
+
+    private void envoyer(Abonne abonne) {
+        try {
+            long[] deltas = abonne.prendreDeltas();
+            if (deltas == null) {
+                abonne.emitter.send(SseEmitter.event().comment("ping"));
+            } else {
+                abonne.emitter.send(SseEmitter.event()
+                        .name("compteurs")
+                        .data(message(abonne.centreId, deltas), MediaType.APPLICATION_JSON));
+            }
+            abonne.dernierEnvoi = System.currentTimeMillis();
+        } catch (IOException | IllegalStateException e) {
+            // Connexion fermée par le client
+            log.debug("Flux des compteurs: abonné déconnecté ({})", e.getMessage());
+            retirer(abonne);
+            abonne.emitter.completeWithError(e);
+        } finally {
+            abonne.envoiEnCours.set(false);
+        }
+    }
+
+    private Map<String, Object> message(Long centreId, long[] deltas) {
+        Map<String, Long> parStatut = new LinkedHashMap<>();
+        long total = 0;
+        for (StatutCandidature statut : StatutCandidature.values()) {
+            long delta = deltas[statut.ordinal()];
+            if (delta != 0) {
+                parStatut.put(statut.name(), delta);
+            }
+            total += delta;
+        }
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("centreId", centreId);
+        message.put("total", total);
+        message.put("deltas", parStatut);
+        return message;
+    }
+
+    /**
+     * Tableau de bord connecté, avec ses deltas en attente d'envoi
+     */
+    private static final class Abonne {
+        private final SseEmitter emitter;
+        private final Long centreId;
+        private final long[] deltas = new long[NB_STATUTS];
+        private final AtomicBoolean envoiEnCours = new AtomicBoolean(false);
+        private boolean modifie;
+        // Numéro du dernier événement inclus dans l'état envoyé, aucun delta avant l'état
+        private long numeroEtat = Long.MAX_VALUE;
+        private volatile long dernierEnvoi = System.currentTimeMillis();
+
+        private Abonne(SseEmitter emitter, Long centreId) {
+            this.emitter = emitter;
+            this.centreId = centreId;
+        }
+
+        private synchronized void marquerEtat(long numero) {
+            numeroEtat = numero;
+        }
+
+        private synchronized void cumuler(StatutCandidature ancien, StatutCandidature nouveau, long numero) {
+            if (numero <= numeroEtat) {
+                return; // Déjà inclus dans l'état complet
+            }
+            if (ancien != null) {
+                deltas[ancien.ordinal()]--;
+            }
+            if (nouveau != null) {
+                deltas[nouveau.ordinal()]++;
+            }
+            modifie = true;
+        }
+
+        private synchronized boolean aEnvoyer() {
+            return modifie;
+        }
+
+        /**
+         * Deltas cumulés depuis le dernier envoi (remis à zéro), null s'il n'y en a pas
+         */
+        private synchronized long[] prendreDeltas() {
+            if (!modifie) {
+                return null;
+            }
+            long[] copie = deltas.clone();
+            Arrays.fill(deltas, 0);
+            modifie = false;
+            return copie;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.concours.service;
+
+import com.concours.entity.Diplome;
+import com.concours.repository.CandidatRepository;
+import com.concours.repository.DiplomeRepository;
+import com.concours.util.NormalisationDiplome;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dictionnaire des diplômes canoniques : chaque intitulé saisi librement est ramené à sa
+ * forme normalisée (voir {@link NormalisationDiplome}), dont le code identifie un
+ * {@link Diplome}, créé à la première occurrence. Le candidat reçoit son diplôme canonique
+ * à la soumission ; les candidats antérieurs sont rattachés par la normalisation lancée
+ * au démarrage.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DiplomeService {
+
+    private final DiplomeRepository diplomeRepository;
+    private final CandidatRepository candidatRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Intitulés distincts traités par transaction
+    @Value("${app.diplomes.normalisation.lot:200}")
+    private int lot;
+
+    // Forme normalisée -> identifiant, pour les diplômes déjà validés en base
+    private final Map<String, Long> identifiants = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean normalisationEnCours = new AtomicBoolean(false);
+
+    /**
+     * Diplôme canonique de l'intitulé, créé s'il n'existe pas encore
+     *
+     * @return null si l'intitulé ne contient aucun mot significatif
+     */
+    @Transactional
+    public Diplome resoudre(String intitule) {
+        String forme = NormalisationDiplome.normaliser(intitule);
+        if (forme.isEmpty()) {
+            return null;
+        }
+        return diplomeRepository.getReferenceById(identifiant(forme, intitule));
+    }
+
+    /**
+     * Identifiants des diplômes canoniques dont la forme contient celle de l'intitulé, en mots
+     * entiers : « informatique » retient INFORMATIQUE, LICENCE_INFORMATIQUE, MASTER_INFORMATIQUE...
+     * mais pas SYSTEMES_INFORMATIQUES
+     *
+     * @return liste vide si aucun diplôme ne correspond, ou si l'intitulé ne contient aucun mot significatif
+     */
+    @Transactional(readOnly = true)
+    public List<Long> trouver(String intitule) {
+        String forme = NormalisationDiplome.normaliser(intitule);
+        if (forme.isEmpty()) {
+            return List.of();
+        }
+        List<String> terme = List.of(forme);
+        return diplomeRepository.findByCodeContenant(NormalisationDiplome.code(forme)).stream()
+                .filter(diplome -> NormalisationDiplome.contientUnTerme(
+                        NormalisationDiplome.forme(diplome.getCode()), terme))
+                .map(Diplome::getId)
+                .toList();
+    }
+
+    /**
+     * Vrai tant que des candidats existants peuvent ne pas être rattachés à leur diplôme canonique
+     */
+    public boolean isNormalisationEnCours() {
+        return normalisationEnCours.get();
+    }
+
+    private Long identifiant(String forme, String intitule) {
+        Long id = identifiants.get(forme);
+        if (id != null) {
+            return id;
+        }
+
+        String code = NormalisationDiplome.code(forme);
+        Optional<Diplome> existant = diplomeRepository.findByCode(code);
+        if (existant.isPresent()) {
+            identifiants.put(forme, existant.get().getId());
+            return existant.get().getId();
+        }
+
+        // Création, ou identifiant du diplôme créé entre-temps par une autre transaction.
+        // Pas de mise en cache : la transaction courante peut encore être annulée.
+        diplomeRepository.inserer(code, intitule.trim());
+        return diplomeRepository.dernierIdentifiant();
+    }
+
+    /**
+     * Candidats avec un intitulé de diplôme sans diplôme canonique (saisis avant la
+     * normalisation, ou modifiés directement en base) : on les rattache
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (candidatRepository.existsByDiplomeIsNotNullAndDiplomeNormaliseIsNull()) {
+            lancerNormalisation();
+        }
+    }
+
+    /**
+     * Rattache en arrière-plan les candidats sans diplôme canonique, par lots d'intitulés distincts
+     *
+     * @return false si une normalisation est déjà en cours
+     */
+    public boolean lancerNormalisation() {
+        if (!normalisationEnCours.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(this::normaliserCandidats, "diplomes-normalisation");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void normaliserCandidats() {
+        long debut = System.currentTimeMillis();
+        long candidats = 0;
+        String apres = "";
+        try {
+            List<String> intitules;
+            do {
+                intitules = candidatRepository.findDiplomesANormaliser(apres, PageRequest.of(0, lot));
+                List<String> lotCourant = intitules;
+                Integer rattaches = transactionTemplate.execute(status -> {
+                    int nombre = 0;
+                    for (String intitule : lotCourant) {
+                        Diplome diplome = resoudre(intitule);
+                        if (diplome != null) {
+                            nombre += candidatRepository.rattacherDiplome(intitule, diplome);
+                        }
+                    }
+                    return nombre;
+                });
+                candidats += rattaches == null ? 0 : rattaches;
+                if (!intitules.isEmpty()) {
+                    apres = intitules.get(intitules.size() - 1);
+                }
+            } while (intitules.size() == lot);
+
+            log.info("Diplômes normalisés: {} candidats rattachés en {} ms",
+                    candidats, System.currentTimeMillis() - debut);
+        } catch (Exception e) {
+            // Un lot annulé a pu mettre en cache des diplômes créés dans sa transaction
+            identifiants.clear();
+            log.error("Normalisation des diplômes interrompue après {} candidats", candidats, e);
+        } finally {
+            normalisationEnCours.set(false);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.concours.service;
+
+import com.concours.repository.ConcoursRepository;
+import com.concours.repository.DocumentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Archive les documents des concours passés dans des segments (voir {@link SegmentStore}).
+ * Chaque lot est traité dans sa propre transaction ; un concours n'est marqué
+ * archivé que lorsque tous ses documents sont dans ses segments.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentArchiveJob {
+
+    private final ConcoursRepository concoursRepository;
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final SegmentStore segmentStore;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicBoolean enCours = new AtomicBoolean(false);
+
+    @Value("${app.archive.enabled:true}")
+    private boolean archivageActive;
+
+    // Délai après la date du concours avant archivage
+    @Value("${app.archive.delai-jours:30}")
+    private int delaiJours;
+
+    @Value("${app.archive.batch-size:50}")
+    private int tailleLot;
+
+    @Scheduled(cron = "${app.archive.cron:0 30 2 * * *}")
+    public void archivagePlanifie() {
+        if (archivageActive) {
+            lancer();
+        }
+    }
+
+    /**
+     * Lance l'archivage en arrière-plan
+     *
+     * @return false si un archivage est déjà en cours
+     */
+    public boolean lancer() {
+        if (!enCours.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(this::archiver, "document-archive");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isEnCours() {
+        return enCours.get();
+    }
+
+    private void archiver() {
+        try {
+            List<Long> concoursIds = concoursRepository.findIdsConcoursAArchiver(LocalDate.now().minusDays(delaiJours));
+            for (Long concoursId : concoursIds) {
+                archiverConcours(concoursId);
+            }
+        } catch (Exception e) {
+            log.error("Archivage des documents interrompu", e);
+        } finally {
+            enCours.set(false);
+        }
+    }
+
+    private void archiverConcours(Long concoursId) throws IOException {
+        long total = 0;
+        try (SegmentStore.SegmentWriter writer = segmentStore.ouvrir(concoursId)) {
+            Integer archives;
+            do {
+                archives = transactionTemplate.execute(status -> {
+                    try {
+                        return documentService.archiverLot(concoursId, writer, tailleLot);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                total += archives != null ? archives : 0;
+            } while (archives != null && archives > 0);
+        }
+
+        // Les anciens contenus en base doivent d'abord passer par la migration vers le stockage
+        long nonMigres = documentRepository.countDocumentsNonMigresByConcours(concoursId);
+        if (nonMigres > 0) {
+            log.warn("Concours {}: {} documents encore en base, archivage à reprendre après migration",
+                    concoursId, nonMigres);
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> concoursRepository.marquerArchive(concoursId));
+        log.info("Concours {} archivé: {} documents déplacés dans les segments", concoursId, total);
+    }
+}
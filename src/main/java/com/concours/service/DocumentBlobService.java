@@ -0,0 +1,110 @@
+package com.concours.service;
+
+import com.concours.exception.BusinessException;
+import com.concours.repository.DocumentBlobRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Comptage des références vers les contenus partagés du DocumentStore.
+ * Chaque document qui pointe vers un blob compte pour une référence ; les
+ * suppressions décrémentent et le collecteur supprime les blobs orphelins.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentBlobService {
+
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentStore documentStore;
+    private final TransactionTemplate transactionTemplate;
+
+    // Délai avant suppression d'un blob sans référence
+    @Value("${app.document.blob.gc-grace-minutes:60}")
+    private long delaiGraceMinutes;
+
+    @Value("${app.document.blob.gc-batch-size:500}")
+    private int tailleLotCollecte;
+
+    /**
+     * Ajoute des références vers un contenu qui vient d'être écrit dans le stockage
+     *
+     * @return la taille occupée par le contenu dans le stockage
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long ajouterReferences(String blobKey, long taille, int nombre) {
+        long tailleStockee;
+        try {
+            tailleStockee = documentStore.storedSize(blobKey);
+        } catch (IOException e) {
+            throw new BusinessException("Contenu introuvable dans le stockage: " + blobKey, e);
+        }
+        documentBlobRepository.incrementer(blobKey, taille, tailleStockee, nombre);
+
+        // Le collecteur a pu supprimer le fichier entre l'écriture et l'incrément
+        if (!documentStore.exists(blobKey)) {
+            throw new BusinessException("Contenu supprimé pendant l'enregistrement, veuillez réessayer");
+        }
+        return tailleStockee;
+    }
+
+    /**
+     * Retire des références (document supprimé ou remplacé)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void retirerReferences(String blobKey, int nombre) {
+        if (blobKey != null && nombre > 0) {
+            documentBlobRepository.decrementer(blobKey, nombre);
+        }
+    }
+
+    /**
+     * Recalcule tous les compteurs à partir des documents existants
+     */
+    @Transactional
+    public void recalculerReferences() {
+        int maj = documentBlobRepository.recalculerReferences();
+        int orphelins = documentBlobRepository.marquerNonReferences();
+        log.info("Références des contenus recalculées: {} lignes mises à jour, {} contenus orphelins", maj, orphelins);
+    }
+
+    /**
+     * Supprime les blobs orphelins depuis plus que le délai de grâce,
+     * chacun dans sa propre transaction
+     */
+    @Scheduled(fixedDelayString = "${app.document.blob.gc-interval-ms:3600000}")
+    public void collecterOrphelins() {
+        LocalDateTime avant = LocalDateTime.now().minusMinutes(delaiGraceMinutes);
+        List<String> orphelins = documentBlobRepository.findOrphelins(avant, PageRequest.of(0, tailleLotCollecte));
+
+        int supprimes = 0;
+        for (String blobKey : orphelins) {
+            Boolean supprime = transactionTemplate.execute(status ->
+                    documentBlobRepository.findOrphelinForUpdate(blobKey)
+                            .map(blob -> {
+                                documentStore.delete(blobKey);
+                                documentBlobRepository.delete(blob);
+                                return true;
+                            })
+                            .orElse(false));
+            if (Boolean.TRUE.equals(supprime)) {
+                supprimes++;
+            }
+        }
+
+        if (supprimes > 0) {
+            log.info("Collecte des contenus: {} contenus orphelins supprimés", supprimes);
+        }
+    }
+}
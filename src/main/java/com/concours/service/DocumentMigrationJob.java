@@ -0,0 +1,78 @@
+package com.concours.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Vide progressivement la table document_content (ancien stockage LONGBLOB)
+ * vers le DocumentStore. Chaque lot est traité dans sa propre transaction
+ * pour ne pas bloquer la table pendant toute la migration.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DocumentMigrationJob {
+
+    private final DocumentService documentService;
+
+    private final AtomicBoolean enCours = new AtomicBoolean(false);
+
+    @Value("${app.document.store.migration.enabled:true}")
+    private boolean migrationAuDemarrage;
+
+    @Value("${app.document.store.migration.batch-size:20}")
+    private int tailleLot;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (migrationAuDemarrage) {
+            lancer();
+        }
+    }
+
+    /**
+     * Lance la migration en arrière-plan
+     *
+     * @return false si une migration est déjà en cours
+     */
+    public boolean lancer() {
+        if (!enCours.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(this::migrer, "document-store-migration");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isEnCours() {
+        return enCours.get();
+    }
+
+    private void migrer() {
+        long total = 0;
+        try {
+            int migres;
+            do {
+                migres = documentService.migrerLotVersStore(tailleLot);
+                total += migres;
+                if (migres > 0) {
+                    log.info("Migration des documents: {} documents migrés vers le stockage", total);
+                }
+            } while (migres > 0);
+
+            log.info("Migration des documents terminée: {} documents migrés", total);
+        } catch (Exception e) {
+            log.error("Migration des documents interrompue après {} documents", total, e);
+        } finally {
+            enCours.set(false);
+        }
+    }
+}
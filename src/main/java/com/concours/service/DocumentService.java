@@ -4,15 +4,26 @@ import com.concours.entity.Candidature;
 import com.concours.entity.Document;
 import com.concours.entity.TypeDocument;
 import com.concours.exception.BusinessException;
+import com.concours.repository.DocumentBlobRepository;
+import com.concours.repository.DocumentContentRepository;
 import com.concours.repository.DocumentRepository;
+import com.concours.util.PdfUploadInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -22,43 +33,39 @@ import java.util.Optional;
 public class DocumentService {
 
     private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final DocumentBlobRepository documentBlobRepository;
+    private final DocumentStore documentStore;
+    private final DocumentBlobService documentBlobService;
+    private final SegmentStore segmentStore;
 
     // Taille maximale par fichier (10MB)
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
 
+    // Documents obligatoires d'une candidature
+    private static final EnumSet<TypeDocument> REQUIRED_TYPES =
+            EnumSet.of(TypeDocument.CV, TypeDocument.CIN, TypeDocument.DIPLOME);
+
     // Types MIME autorisés
     private static final String ALLOWED_CONTENT_TYPE = "application/pdf";
 
     /**
-     * Upload et sauvegarde d'un document en base de données
+     * Upload d'un document : le contenu part en flux dans le DocumentStore (taille,
+     * en-tête PDF et empreinte contrôlés au fil de l'eau), seules les métadonnées
+     * et la clé du contenu sont sauvegardées en base
      */
     public Document uploadDocument(Candidature candidature, MultipartFile file, TypeDocument type) {
         try {
-            log.info("Upload du document {} pour la candidature {}", type, candidature.getNumero());
-
             // Validation du fichier
             validateFile(file);
 
-            // Conversion en bytes
-            byte[] fileBytes = file.getBytes();
-
-            // Création du document
-            Document document = new Document(
-                    type,
-                    file.getOriginalFilename(),
-                    file.getContentType(),
-                    fileBytes,
-                    candidature
-            );
-
-            // Sauvegarde en base
-            Document savedDocument = documentRepository.save(document);
-
-            log.info("Document {} sauvegardé avec succès, ID: {}, Taille: {} bytes",
-                    type, savedDocument.getId(), fileBytes.length);
-
-            return savedDocument;
+            try (InputStream in = file.getInputStream()) {
+                return enregistrerDocument(candidature, in, file.getOriginalFilename(), type);
+            }
 
+        } catch (BusinessException e) {
+            log.warn("Document {} refusé pour la candidature {}: {}", type, candidature.getNumero(), e.getMessage());
+            throw e;
         } catch (IOException e) {
             log.error("Erreur lors de la lecture du fichier", e);
             throw new BusinessException("Erreur lors de la lecture du fichier: " + e.getMessage());
@@ -68,6 +75,35 @@ public class DocumentService {
         }
     }
 
+    /**
+     * Enregistre un document PDF lu depuis un flux (upload direct ou reprise d'upload)
+     */
+    public Document enregistrerDocument(Candidature candidature, InputStream contenu,
+                                        String nom, TypeDocument type) throws IOException {
+        log.info("Upload du document {} pour la candidature {}", type, candidature.getNumero());
+
+        // Écriture du contenu dans le stockage, interrompue dès qu'un contrôle échoue
+        String blobKey;
+        long taille;
+        try (PdfUploadInputStream in = new PdfUploadInputStream(contenu, MAX_FILE_SIZE)) {
+            blobKey = documentStore.store(in);
+            taille = in.getCount();
+        }
+
+        // Création du document
+        Document document = new Document(type, nom, ALLOWED_CONTENT_TYPE, blobKey, taille, candidature);
+
+        // Sauvegarde en base
+        long tailleStockee = documentBlobService.ajouterReferences(blobKey, taille, 1);
+        document.setTauxCompression(taille > 0 ? (double) tailleStockee / taille : 1.0);
+        Document savedDocument = documentRepository.save(document);
+
+        log.info("Document {} sauvegardé avec succès, ID: {}, Taille: {} bytes ({} stockés), Clé: {}",
+                type, savedDocument.getId(), taille, tailleStockee, blobKey);
+
+        return savedDocument;
+    }
+
     /**
      * Upload multiple documents (CV, CIN, Diplome)
      */
@@ -114,6 +150,119 @@ public class DocumentService {
                 .orElseThrow(() -> new BusinessException("Document non trouvé avec l'ID: " + id));
     }
 
+    /**
+     * Lit le contenu binaire d'un document, depuis le stockage ou
+     * depuis la table document_content s'il n'a pas encore été migré
+     */
+    @Transactional(readOnly = true)
+    public byte[] getContenu(Document document) {
+        if (document.getSegment() != null) {
+            try (InputStream in = getContenuResource(document).getInputStream()) {
+                return in.readAllBytes();
+            } catch (IOException e) {
+                throw new BusinessException("Erreur lors de la lecture du document: " + e.getMessage());
+            }
+        }
+        if (document.getBlobKey() == null) {
+            return documentContentRepository.findContenuByDocumentId(document.getId());
+        }
+        try {
+            return documentStore.read(document.getBlobKey());
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture du contenu du document {}", document.getId(), e);
+            throw new BusinessException("Erreur lors de la lecture du document: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Ressource lisible en flux sur le contenu d'un document, sans le charger en mémoire
+     * (sauf pour les anciens documents encore stockés en LONGBLOB)
+     */
+    @Transactional(readOnly = true)
+    public Resource getContenuResource(Document document) {
+        if (document.getSegment() != null) {
+            return segmentStore.lire(document.getSegment(), document.getSegmentOffset(), document.getTaille());
+        }
+        if (document.getBlobKey() == null) {
+            byte[] contenu = documentContentRepository.findContenuByDocumentId(document.getId());
+            if (contenu == null) {
+                throw new BusinessException("Le document " + document.getId() + " n'a pas de contenu");
+            }
+            return new ByteArrayResource(contenu);
+        }
+        try {
+            return documentStore.loadAsResource(document.getBlobKey());
+        } catch (IOException e) {
+            log.error("Erreur lors de l'ouverture du contenu du document {}", document.getId(), e);
+            throw new BusinessException("Erreur lors de la lecture du document: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Migre un lot de documents encore stockés dans document_content vers le DocumentStore.
+     * Les contenus sont lus un par un par projection (sans charger les entités)
+     * pour ne garder qu'un seul fichier en mémoire à la fois.
+     *
+     * @return le nombre de documents migrés dans ce lot
+     */
+    public int migrerLotVersStore(int tailleLot) {
+        List<Long> ids = documentContentRepository.findDocumentIds(PageRequest.of(0, tailleLot));
+
+        int migres = 0;
+        for (Long id : ids) {
+            byte[] contenu = documentContentRepository.findContenuByDocumentId(id);
+            if (contenu == null) {
+                continue;
+            }
+            try {
+                String blobKey = documentStore.store(contenu);
+                long tailleStockee = documentBlobService.ajouterReferences(blobKey, contenu.length, 1);
+                double taux = contenu.length > 0 ? (double) tailleStockee / contenu.length : 1.0;
+                documentRepository.updateBlobKey(id, blobKey, taux);
+                documentContentRepository.deleteByDocumentId(id);
+                migres++;
+            } catch (IOException e) {
+                log.error("Erreur lors de la migration du document {}", id, e);
+                throw new BusinessException("Erreur lors de la migration du document " + id);
+            }
+        }
+        return migres;
+    }
+
+    /**
+     * Archive un lot de documents d'un concours dans ses segments. Les segments
+     * sont synchronisés sur disque avant la mise à jour des documents ; les
+     * références vers les contenus du DocumentStore sont ensuite libérées.
+     * <p>
+     * Les contenus sont écrits décompressés : un document archivé est lu par une
+     * projection mémoire de {@code taille} octets à son offset, servie telle quelle
+     * (plages d'octets comprises), sans longueur stockée ni décompression à la lecture.
+     *
+     * @return le nombre de documents archivés dans ce lot
+     */
+    public int archiverLot(Long concoursId, SegmentStore.SegmentWriter writer, int tailleLot) throws IOException {
+        List<Document> documents = documentRepository.findDocumentsAArchiver(concoursId, PageRequest.of(0, tailleLot));
+
+        Map<Long, SegmentStore.Emplacement> emplacements = new LinkedHashMap<>();
+        for (Document document : documents) {
+            try (InputStream in = documentStore.open(document.getBlobKey())) {
+                emplacements.put(document.getId(),
+                        writer.ajouter(document.getId(), document.getBlobKey(), in, document.getTaille()));
+            }
+        }
+        writer.sync();
+
+        Map<String, Integer> references = new HashMap<>();
+        for (Document document : documents) {
+            SegmentStore.Emplacement emplacement = emplacements.get(document.getId());
+            documentRepository.marquerArchive(document.getId(), emplacement.segment(), emplacement.offset());
+            references.merge(document.getBlobKey(), 1, Integer::sum);
+        }
+        references.forEach(documentBlobService::retirerReferences);
+
+        return documents.size();
+    }
+
     /**
      * Récupère tous les documents d'une candidature
      */
@@ -137,6 +286,7 @@ public class DocumentService {
         try {
             Document document = getDocumentById(documentId);
             documentRepository.delete(document);
+            documentBlobService.retirerReferences(document.getBlobKey(), 1);
             log.info("Document {} supprimé avec succès", documentId);
         } catch (Exception e) {
             log.error("Erreur lors de la suppression du document {}", documentId, e);
@@ -149,11 +299,14 @@ public class DocumentService {
      */
     public void deleteDocumentsByCandidature(Candidature candidature) {
         try {
-            List<Document> documents = getDocumentsByCandidature(candidature);
-            if (!documents.isEmpty()) {
-                documentRepository.deleteAll(documents);
+            documentRepository.countBlobReferencesByCandidature(candidature).forEach(ref ->
+                    documentBlobService.retirerReferences(ref.getBlobKey(), ref.getNombre().intValue()));
+
+            // Suppression en masse : les contenus en base suivent par ON DELETE CASCADE
+            int supprimes = documentRepository.deleteByCandidature(candidature);
+            if (supprimes > 0) {
                 log.info("{} documents supprimés pour la candidature {}",
-                        documents.size(), candidature.getNumero());
+                        supprimes, candidature.getNumero());
             }
         } catch (Exception e) {
             log.error("Erreur lors de la suppression des documents de la candidature {}",
@@ -171,6 +324,7 @@ public class DocumentService {
             Optional<Document> existingDoc = getDocumentByCandidatureAndType(candidature, type);
             if (existingDoc.isPresent()) {
                 documentRepository.delete(existingDoc.get());
+                documentBlobService.retirerReferences(existingDoc.get().getBlobKey(), 1);
                 log.info("Ancien document {} supprimé", type);
             }
 
@@ -188,13 +342,8 @@ public class DocumentService {
      */
     @Transactional(readOnly = true)
     public boolean hasAllRequiredDocuments(Candidature candidature) {
-        List<Document> documents = getDocumentsByCandidature(candidature);
-
-        boolean hasCV = documents.stream().anyMatch(doc -> doc.getType() == TypeDocument.CV);
-        boolean hasCIN = documents.stream().anyMatch(doc -> doc.getType() == TypeDocument.CIN);
-        boolean hasDiplome = documents.stream().anyMatch(doc -> doc.getType() == TypeDocument.DIPLOME);
-
-        return hasCV && hasCIN && hasDiplome;
+        return documentRepository.countDistinctTypesByCandidature(candidature, REQUIRED_TYPES)
+                == REQUIRED_TYPES.size();
     }
 
     /**
@@ -202,9 +351,8 @@ public class DocumentService {
      */
     @Transactional(readOnly = true)
     public long getTotalDocumentsSize(Candidature candidature) {
-        return getDocumentsByCandidature(candidature).stream()
-                .mapToLong(Document::getTaille)
-                .sum();
+        Long total = documentRepository.getTotalSizeByCandidature(candidature);
+        return total != null ? total : 0L;
     }
 
     /**
@@ -255,7 +403,14 @@ public class DocumentService {
         Long totalSize = documentRepository.getTotalDocumentsSize();
         if (totalSize == null) totalSize = 0L;
 
-        return new DocumentStats(totalDocuments, totalSize);
+        // Chaque contenu partagé n'est compté qu'une fois, plus les anciens
+        // contenus encore en base (ni dédupliqués ni compressés)
+        DocumentBlobRepository.BlobStats blobStats = documentBlobRepository.getBlobStats();
+        long enBase = documentRepository.getTotalSizeSansBlobKey();
+        long uniqueSize = blobStats.getTotalSize() + enBase;
+        long storedSize = blobStats.getStoredSize() + enBase;
+
+        return new DocumentStats(totalDocuments, totalSize, blobStats.getCount(), uniqueSize, storedSize);
     }
 
     /**
@@ -264,17 +419,48 @@ public class DocumentService {
     public static class DocumentStats {
         private final long totalDocuments;
         private final long totalSize;
+        private final long totalBlobs;
+        private final long uniqueSize;
+        private final long storedSize;
 
-        public DocumentStats(long totalDocuments, long totalSize) {
+        public DocumentStats(long totalDocuments, long totalSize, long totalBlobs, long uniqueSize, long storedSize) {
             this.totalDocuments = totalDocuments;
             this.totalSize = totalSize;
+            this.totalBlobs = totalBlobs;
+            this.uniqueSize = uniqueSize;
+            this.storedSize = storedSize;
         }
 
         public long getTotalDocuments() { return totalDocuments; }
         public long getTotalSize() { return totalSize; }
+        public long getTotalBlobs() { return totalBlobs; }
+        public long getUniqueSize() { return uniqueSize; }
+        public long getStoredSize() { return storedSize; }
+
+        /**
+         * Taille logique / taille des contenus distincts (1.0 = aucun doublon)
+         */
+        public double getDedupRatio() {
+            return uniqueSize > 0 ? (double) totalSize / uniqueSize : 1.0;
+        }
+
+        /**
+         * Taille stockée / taille des contenus distincts (1.0 = aucun gain de compression)
+         */
+        public double getCompressionRatio() {
+            return uniqueSize > 0 ? (double) storedSize / uniqueSize : 1.0;
+        }
 
         public String getTotalSizeFormatted() {
-            double bytes = totalSize;
+            return formatSize(totalSize);
+        }
+
+        public String getStoredSizeFormatted() {
+            return formatSize(storedSize);
+        }
+
+        private static String formatSize(long size) {
+            double bytes = size;
             String[] units = {"B", "KB", "MB", "GB", "TB"};
             int unitIndex = 0;
 
@@ -0,0 +1,53 @@
+package com.concours.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Stockage des contenus binaires des documents, adressé par contenu.
+ * La clé retournée est l'empreinte SHA-256 (hexadécimale) des octets stockés :
+ * deux contenus identiques partagent donc la même clé.
+ */
+public interface DocumentStore {
+
+    /**
+     * Stocke le contenu lu depuis le flux et retourne sa clé
+     */
+    String store(InputStream in) throws IOException;
+
+    /**
+     * Stocke un contenu déjà en mémoire et retourne sa clé
+     */
+    String store(byte[] contenu) throws IOException;
+
+    /**
+     * Ouvre un flux de lecture sur le contenu associé à la clé
+     */
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Ressource lisible en flux (et par plages) sur le contenu associé à la clé
+     */
+    Resource loadAsResource(String key) throws IOException;
+
+    /**
+     * Lit l'intégralité du contenu associé à la clé
+     */
+    byte[] read(String key) throws IOException;
+
+    /**
+     * Taille en octets du contenu associé à la clé
+     */
+    long size(String key) throws IOException;
+
+    /**
+     * Taille occupée dans le stockage (après compression éventuelle)
+     */
+    long storedSize(String key) throws IOException;
+
+    boolean exists(String key);
+
+    boolean delete(String key);
+}
@@ -0,0 +1,319 @@
+package com.concours.service;
+
+import com.concours.dto.ExportJobDTO;
+import com.concours.dto.StatistiquesDTO;
+import com.concours.entity.ExportJob;
+import com.concours.entity.FormatExport;
+import com.concours.entity.StatutCandidature;
+import com.concours.entity.StatutExport;
+import com.concours.entity.TypeExport;
+import com.concours.exception.BusinessException;
+import com.concours.repository.ExportJobRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exports exécutés en arrière-plan, hors des threads de requête : un pool dédié et
+ * borné (threads et file d'attente) limite la charge des rapports lourds. Le fichier
+ * produit est conservé sur disque jusqu'à l'expiration de l'export, puis purgé. Il contient
+ * des données personnelles : son répertoire est hors de file.upload.dir (servi sans
+ * authentification) et il n'est téléchargeable que par {@code GET /api/exports/{id}/fichier}.
+ * <p>
+ * La progression des exports en cours est suivie en mémoire ; elle est enregistrée
+ * en base à la fin de l'export.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExportJobService {
+
+    private final ExportJobRepository exportJobRepository;
+    private final ExportService exportService;
+    private final StatistiquesService statistiquesService;
+    private final CandidatureExportService candidatureExportService;
+
+    // Progression (en %) des exports en cours d'exécution
+    private final Map<String, Integer> progressions = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    @Value("${app.export.dir:data/exports}")
+    private String repertoire;
+
+    @Value("${app.export.jobs.threads:2}")
+    private int threads;
+
+    @Value("${app.export.jobs.file-attente:20}")
+    private int tailleFileAttente;
+
+    @Value("${app.export.jobs.expiration-hours:24}")
+    private long expirationHeures;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(Paths.get(repertoire));
+        executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(tailleFileAttente), runnable -> {
+            Thread thread = new Thread(runnable, "export-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void arreter() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exports en cours lors du dernier arrêt : ils ne reprendront pas
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        int interrompus = exportJobRepository.marquerInterrompus(
+                List.of(StatutExport.EN_ATTENTE, StatutExport.EN_COURS),
+                "Export interrompu par un redémarrage de l'application", LocalDateTime.now());
+        if (interrompus > 0) {
+            log.warn("{} exports interrompus par le redémarrage", interrompus);
+        }
+    }
+
+    /**
+     * Enregistre un export et le place dans la file d'exécution
+     *
+     * @throws FileAttentePleineException si trop d'exports sont déjà en attente
+     */
+    public ExportJobDTO soumettre(TypeExport type, FormatExport format, Long concoursId, Long specialiteId,
+                                  Long centreId, StatutCandidature statutCandidature, String diplome,
+                                  String demandeur) {
+        if (type == TypeExport.CANDIDATURES && format != FormatExport.EXCEL) {
+            throw new BusinessException("Les listes de candidatures ne sont exportables qu'en Excel");
+        }
+
+        ExportJob job = new ExportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setType(type);
+        job.setFormat(format);
+        job.setDemandeur(demandeur);
+        job.setConcoursId(concoursId);
+        job.setSpecialiteId(specialiteId);
+        job.setCentreId(centreId);
+        job.setStatutCandidature(statutCandidature);
+        job.setDiplome(diplome == null || diplome.isBlank() ? null : diplome);
+        job.setDateExpiration(LocalDateTime.now().plusHours(expirationHeures));
+        exportJobRepository.save(job);
+
+        String id = job.getId();
+        try {
+            executor.execute(() -> executer(id));
+        } catch (RejectedExecutionException e) {
+            terminerEnEchec(job, "File d'attente des exports pleine");
+            throw new FileAttentePleineException();
+        }
+
+        log.info("Export {} {} soumis par {} ({})", type, format, demandeur, id);
+        return toDTO(job);
+    }
+
+    /**
+     * Export visible par l'utilisateur : le sien, ou n'importe lequel pour un administrateur
+     */
+    @Transactional(readOnly = true)
+    public ExportJobDTO getExport(String id, String username, boolean admin) {
+        return toDTO(trouver(id, username, admin));
+    }
+
+    @Transactional(readOnly = true)
+    public List<ExportJobDTO> getExports(String username) {
+        return exportJobRepository.findTop20ByDemandeurOrderByDateCreationDesc(username).stream()
+                .map(this::toDTO)
+                .toList();
+    }
+
+    /**
+     * Fichier d'un export terminé
+     */
+    @Transactional(readOnly = true)
+    public Path getFichier(String id, String username, boolean admin) {
+        ExportJob job = trouver(id, username, admin);
+        if (job.getStatut() != StatutExport.TERMINE) {
+            throw new BusinessException("L'export n'est pas terminé");
+        }
+        Path fichier = chemin(job.getId());
+        if (!Files.isReadable(fichier)) {
+            throw new BusinessException("Le fichier de l'export a expiré");
+        }
+        return fichier;
+    }
+
+    /**
+     * Purge des exports (et de leurs fichiers) dont la durée de conservation est dépassée
+     */
+    @Scheduled(fixedDelayString = "${app.export.jobs.cleanup-interval-ms:900000}")
+    @Transactional
+    public void purgerExportsExpires() {
+        List<ExportJob> expires = exportJobRepository.findByDateExpirationBefore(LocalDateTime.now());
+        for (ExportJob job : expires) {
+            if (progressions.containsKey(job.getId())) {
+                continue; // Encore en cours d'exécution
+            }
+            try {
+                Files.deleteIfExists(chemin(job.getId()));
+            } catch (IOException e) {
+                log.warn("Impossible de supprimer le fichier de l'export {}", job.getId(), e);
+            }
+            exportJobRepository.delete(job);
+        }
+        if (!expires.isEmpty()) {
+            log.info("{} exports expirés supprimés", expires.size());
+        }
+    }
+
+    private void executer(String id) {
+        ExportJob job = exportJobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return;
+        }
+
+        progressions.put(id, 0);
+        job.setStatut(StatutExport.EN_COURS);
+        exportJobRepository.save(job);
+
+        Path part = Paths.get(repertoire).resolve(UUID.fromString(id) + ".part");
+        long debut = System.currentTimeMillis();
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                if (job.getType() == TypeExport.CANDIDATURES) {
+                    exporterCandidatures(job, out);
+                } else {
+                    exporterStatistiques(job, out);
+                }
+            }
+            Path fichier = chemin(id);
+            Files.move(part, fichier, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setStatut(StatutExport.TERMINE);
+            job.setProgression(100);
+            job.setNomFichier(nomFichier(job));
+            job.setTaille(Files.size(fichier));
+            job.setDateFin(LocalDateTime.now());
+            exportJobRepository.save(job);
+            log.info("Export {} terminé en {} ms ({} octets)", id, System.currentTimeMillis() - debut, job.getTaille());
+
+        } catch (Exception e) {
+            log.error("Échec de l'export {}", id, e);
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ex) {
+                log.warn("Impossible de supprimer le fichier partiel de l'export {}", id, ex);
+            }
+            terminerEnEchec(job, e.getMessage());
+        } finally {
+            progressions.remove(id);
+        }
+    }
+
+    private void exporterStatistiques(ExportJob job, OutputStream out) throws IOException {
+        StatistiquesDTO stats = statistiquesService.getStatistiquesGlobales();
+        progressions.put(job.getId(), 50);
+
+        try (InputStream in = job.getFormat() == FormatExport.PDF
+                ? exportService.exportToPdf(stats)
+                : exportService.exportToExcel(stats)) {
+            in.transferTo(out);
+        }
+    }
+
+    private void exporterCandidatures(ExportJob job, OutputStream out) throws IOException {
+        long total = candidatureExportService.compter(job.getConcoursId(), job.getSpecialiteId(),
+                job.getCentreId(), job.getStatutCandidature(), job.getDiplome());
+
+        String id = job.getId();
+        candidatureExportService.exporterExcel(job.getConcoursId(), job.getSpecialiteId(), job.getCentreId(),
+                job.getStatutCandidature(), job.getDiplome(), out, lignes -> {
+                    // 99 % au plus tant que le classeur n'est pas écrit
+                    int pourcentage = total == 0 ? 99 : (int) Math.min(99, lignes * 100 / total);
+                    progressions.put(id, pourcentage);
+                });
+    }
+
+    private void terminerEnEchec(ExportJob job, String erreur) {
+        job.setStatut(StatutExport.ECHEC);
+        job.setErreur(erreur == null ? null : erreur.substring(0, Math.min(erreur.length(), 500)));
+        job.setDateFin(LocalDateTime.now());
+        exportJobRepository.save(job);
+    }
+
+    private ExportJob trouver(String id, String username, boolean admin) {
+        return exportJobRepository.findById(id)
+                .filter(job -> admin || job.getDemandeur().equals(username))
+                .orElseThrow(() -> new BusinessException("Export introuvable: " + id));
+    }
+
+    private Path chemin(String id) {
+        // L'identifiant est un UUID généré ici : pas de chemin arbitraire possible
+        return Paths.get(repertoire).resolve(UUID.fromString(id).toString());
+    }
+
+    private String nomFichier(ExportJob job) {
+        String prefixe = job.getType() == TypeExport.CANDIDATURES ? "candidatures_" : "statistiques_";
+        String extension = job.getFormat() == FormatExport.PDF ? ".pdf" : ".xlsx";
+        return prefixe + job.getDateCreation().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm")) + extension;
+    }
+
+    private ExportJobDTO toDTO(ExportJob job) {
+        ExportJobDTO dto = new ExportJobDTO();
+        dto.setId(job.getId());
+        dto.setType(job.getType());
+        dto.setFormat(job.getFormat());
+        dto.setStatut(job.getStatut());
+        dto.setProgression(progressions.getOrDefault(job.getId(), job.getProgression()));
+        dto.setNomFichier(job.getNomFichier());
+        dto.setTaille(job.getTaille());
+        dto.setErreur(job.getErreur());
+        dto.setDateCreation(job.getDateCreation());
+        dto.setDateFin(job.getDateFin());
+        dto.setDateExpiration(job.getDateExpiration());
+        return dto;
+    }
+
+    /**
+     * Trop d'exports en attente : le client doit réessayer plus tard
+     */
+    public static class FileAttentePleineException extends BusinessException {
+        public FileAttentePleineException() {
+            super("Trop d'exports en cours, veuillez réessayer dans quelques minutes");
+        }
+    }
+}
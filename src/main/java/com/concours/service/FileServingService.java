@@ -0,0 +1,462 @@
+package com.concours.service;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Service de diffusion des fichiers uploadés en NIO.
+ * <ul>
+ *     <li>sendfile de Tomcat quand le connecteur le supporte (copie zéro : le noyau envoie le fichier),</li>
+ *     <li>sinon {@link FileChannel#transferTo} vers la sortie de la réponse,</li>
+ *     <li>cache borné des canaux ouverts pour les fichiers consultés souvent,</li>
+ *     <li>cache des métadonnées (taille, date, empreinte) pour éviter les appels
+ *     système exists/isReadable à chaque téléchargement.</li>
+ * </ul>
+ * L'empreinte SHA-256 (ETag) est calculée à l'enregistrement du fichier et conservée
+ * dans un fichier voisin {@code <nom>.sha256} ; elle n'est recalculée au téléchargement
+ * que pour les fichiers déposés avant, ou si le fichier a changé depuis.
+ */
+@Slf4j
+@Service
+public class FileServingService {
+
+    // Attributs de requête du connecteur Tomcat pour l'envoi par sendfile
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    static final String SUFFIXE_EMPREINTE = ".sha256";
+
+    private static final int TAILLE_LECTURE = 64 * 1024;
+
+    @Value("${file.upload.dir}")
+    private String uploadDir;
+
+    @Value("${app.files.serving.metadata-ttl-seconds:30}")
+    private long metadataTtlSeconds;
+
+    @Value("${app.files.serving.metadata-cache-size:1000}")
+    private int metadataCacheSize;
+
+    @Value("${app.files.serving.handle-cache-size:64}")
+    private int handleCacheSize;
+
+    @Value("${app.files.serving.sendfile-min-size:49152}")
+    private long sendfileMinSize;
+
+    private final Map<Path, FileMetadata> metadataCache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileMetadata> eldest) {
+            return size() > metadataCacheSize;
+        }
+    };
+
+    private final Map<Path, FileHandle> handleCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, FileHandle> eldest) {
+            if (size() > handleCacheSize) {
+                eldest.getValue().evict();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Envoie le fichier dans la réponse, avec gestion de l'ETag (empreinte SHA-256)
+     * et d'une plage d'octets unique (Range)
+     */
+    public void serve(String relativePath, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path path = resolve(relativePath);
+        if (path == null || path.getFileName().toString().endsWith(SUFFIXE_EMPREINTE)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        FileMetadata metadata;
+        try {
+            metadata = getMetadata(path);
+        } catch (NoSuchFileException e) {
+            log.warn("Fichier non trouvé: {}", relativePath);
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + metadata.checksum + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, metadata.lastModified);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (correspondEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long[] range = parseRange(request.getHeader(HttpHeaders.RANGE), metadata.size);
+        if (range == null) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + metadata.size);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+        long start = range[0];
+        long length = range[1] - range[0] + 1;
+
+        if (length < metadata.size) {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + range[0] + "-" + range[1] + "/" + metadata.size);
+        }
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(path.getFileName().toString(), StandardCharsets.UTF_8).build().toString());
+        response.setContentLengthLong(length);
+
+        if (length == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && length >= sendfileMinSize) {
+            // Tomcat se charge de l'envoi après le retour du contrôleur, sans copie en espace utilisateur
+            request.setAttribute(SENDFILE_FILENAME, path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, start + length);
+            return;
+        }
+
+        transfer(path, start, length, response.getOutputStream());
+    }
+
+    /**
+     * Conserve l'empreinte SHA-256 (hexadécimale) d'un fichier qui vient d'être enregistré,
+     * calculée pendant l'écriture : le premier téléchargement n'a pas à relire le fichier
+     */
+    public void enregistrerEmpreinte(String relativePath, String checksum) throws IOException {
+        Path path = resolve(relativePath);
+        if (path == null) {
+            return;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        ecrireEmpreinte(path, new Empreinte(attributes.size(), attributes.lastModifiedTime().toMillis(), checksum));
+        synchronized (metadataCache) {
+            metadataCache.put(path, new FileMetadata(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    checksum, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Retire un fichier des caches (après suppression ou remplacement) avec son empreinte
+     */
+    public void invalidate(String relativePath) {
+        Path path = resolve(relativePath);
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(fichierEmpreinte(path));
+        } catch (IOException e) {
+            log.warn("Empreinte non supprimée pour {}", relativePath, e);
+        }
+        synchronized (metadataCache) {
+            metadataCache.remove(path);
+        }
+        synchronized (handleCache) {
+            FileHandle handle = handleCache.remove(path);
+            if (handle != null) {
+                handle.evict();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        synchronized (handleCache) {
+            handleCache.values().forEach(FileHandle::evict);
+            handleCache.clear();
+        }
+    }
+
+    private void transfer(Path path, long start, long length, OutputStream out) throws IOException {
+        FileHandle handle = acquire(path);
+        try {
+            WritableByteChannel target = Channels.newChannel(out);
+            long position = start;
+            long remaining = length;
+            while (remaining > 0) {
+                // transferTo positionnel : le canal peut être partagé entre plusieurs requêtes
+                long sent = handle.channel.transferTo(position, remaining, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+                remaining -= sent;
+            }
+            out.flush();
+        } finally {
+            release(handle);
+        }
+    }
+
+    private FileMetadata getMetadata(Path path) throws IOException {
+        long now = System.currentTimeMillis();
+        FileMetadata cached;
+        synchronized (metadataCache) {
+            cached = metadataCache.get(path);
+        }
+        if (cached != null && now - cached.verifiedAt < metadataTtlSeconds * 1000) {
+            return cached;
+        }
+
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+
+        FileMetadata metadata;
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            // Fichier inchangé : on garde l'empreinte déjà calculée
+            metadata = new FileMetadata(size, lastModified, cached.checksum, now);
+        } else {
+            Empreinte empreinte = lireEmpreinte(path);
+            if (empreinte == null || empreinte.size() != size || empreinte.lastModified() != lastModified) {
+                // Fichier déposé avant le calcul à l'enregistrement, ou modifié depuis
+                empreinte = new Empreinte(size, lastModified, checksum(path));
+                ecrireEmpreinte(path, empreinte);
+            }
+            metadata = new FileMetadata(size, lastModified, empreinte.checksum(), now);
+            if (cached != null) {
+                synchronized (handleCache) {
+                    FileHandle stale = handleCache.remove(path);
+                    if (stale != null) {
+                        stale.evict();
+                    }
+                }
+            }
+        }
+
+        synchronized (metadataCache) {
+            metadataCache.put(path, metadata);
+        }
+        return metadata;
+    }
+
+    /**
+     * Empreinte SHA-256 du fichier, lu par blocs dans un tampon réutilisé
+     * (pas de projection mémoire, dont la libération dépendrait du ramasse-miettes)
+     */
+    private static String checksum(Path path) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(TAILLE_LECTURE);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    private static Path fichierEmpreinte(Path path) {
+        return path.resolveSibling(path.getFileName() + SUFFIXE_EMPREINTE);
+    }
+
+    /**
+     * Empreinte conservée à côté du fichier : "taille date empreinte", null si absente ou illisible
+     */
+    private static Empreinte lireEmpreinte(Path path) {
+        try {
+            String[] valeurs = Files.readString(fichierEmpreinte(path), StandardCharsets.US_ASCII).trim().split(" ");
+            if (valeurs.length == 3) {
+                return new Empreinte(Long.parseLong(valeurs[0]), Long.parseLong(valeurs[1]), valeurs[2]);
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Empreinte absente ou illisible pour {}", path);
+        }
+        return null;
+    }
+
+    private static void ecrireEmpreinte(Path path, Empreinte empreinte) {
+        try {
+            Files.writeString(fichierEmpreinte(path),
+                    empreinte.size() + " " + empreinte.lastModified() + " " + empreinte.checksum(),
+                    StandardCharsets.US_ASCII);
+        } catch (IOException e) {
+            // Non bloquant : l'empreinte sera recalculée au prochain téléchargement
+            log.warn("Empreinte non enregistrée pour {}", path, e);
+        }
+    }
+
+    private FileHandle acquire(Path path) throws IOException {
+        synchronized (handleCache) {
+            FileHandle handle = handleCache.get(path);
+            if (handle == null || !handle.channel.isOpen()) {
+                handle = new FileHandle(FileChannel.open(path, StandardOpenOption.READ));
+                handleCache.put(path, handle);
+            }
+            handle.references++;
+            return handle;
+        }
+    }
+
+    private void release(FileHandle handle) {
+        synchronized (handleCache) {
+            handle.references--;
+            if (handle.evicted && handle.references == 0) {
+                handle.closeQuietly();
+            }
+        }
+    }
+
+    /**
+     * Chemin absolu du fichier, ou null s'il sort du répertoire d'upload
+     */
+    private Path resolve(String relativePath) {
+        Path root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path path = root.resolve(relativePath).normalize();
+        return path.startsWith(root) ? path : null;
+    }
+
+    /**
+     * Vrai si l'en-tête If-None-Match désigne l'ETag : "*", ou une liste d'ETags séparés
+     * par des virgules, comparés en mode faible (préfixe W/ ignoré)
+     */
+    static boolean correspondEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        String attendu = etagFort(etag);
+        for (String valeur : ifNoneMatch.split(",")) {
+            String candidat = valeur.trim();
+            if (candidat.equals("*") || etagFort(candidat).equals(attendu)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etagFort(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    /**
+     * Plage demandée [début, fin] (bornes incluses), le fichier entier si l'en-tête
+     * est absent ou multi-plages, null si la plage n'est pas satisfaisable
+     */
+    static long[] parseRange(String header, long size) {
+        long[] full = {0, size - 1};
+        if (header == null || !header.startsWith("bytes=") || header.contains(",")) {
+            return full;
+        }
+
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return full;
+        }
+
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffixe : les N derniers octets
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return null;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return null;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return full;
+        }
+    }
+
+    private record Empreinte(long size, long lastModified, String checksum) {
+    }
+
+    private static final class FileMetadata {
+        private final long size;
+        private final long lastModified;
+        private final String checksum;
+        private final long verifiedAt;
+
+        private FileMetadata(long size, long lastModified, String checksum, long verifiedAt) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+
+    /**
+     * Canal ouvert partagé, fermé quand il est sorti du cache et plus utilisé
+     */
+    private static final class FileHandle {
+        private final FileChannel channel;
+        private int references;
+        private boolean evicted;
+
+        private FileHandle(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void evict() {
+            evicted = true;
+            if (references == 0) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Erreur lors de la fermeture d'un canal", e);
+            }
+        }
+    }
+}
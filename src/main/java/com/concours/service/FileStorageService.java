@@ -6,6 +6,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.HexFormat;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -16,12 +20,16 @@ import java.util.UUID;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import java.net.MalformedURLException;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class FileStorageService {
 
+    private final FileServingService fileServingService;
+
     @Value("${file.upload.dir}")
     private String uploadDir;
 
@@ -60,11 +68,15 @@ public class FileStorageService {
             String uniqueFilename = UUID.randomUUID().toString() + extension;
             Path filePath = categoryPath.resolve(uniqueFilename);
 
-            // Sauvegarde du fichier
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            // Sauvegarde du fichier, avec calcul de son empreinte (ETag) pendant la copie
+            MessageDigest digest = FileServingService.sha256();
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                Files.copy(in, filePath, StandardCopyOption.REPLACE_EXISTING);
+            }
 
             // Retour du chemin relatif
             String relativePath = Paths.get(category, dateFolder, uniqueFilename).toString();
+            fileServingService.enregistrerEmpreinte(relativePath, HexFormat.of().formatHex(digest.digest()));
             log.info("Fichier sauvegardé: {}", relativePath);
 
             return relativePath;
@@ -82,7 +94,9 @@ public class FileStorageService {
     public boolean deleteFile(String relativePath) {
         try {
             Path filePath = getFilePath(relativePath);
-            return Files.deleteIfExists(filePath);
+            boolean supprime = Files.deleteIfExists(filePath);
+            fileServingService.invalidate(relativePath);
+            return supprime;
         } catch (IOException e) {
             log.error("Erreur lors de la suppression du fichier: {}", relativePath, e);
             return false;
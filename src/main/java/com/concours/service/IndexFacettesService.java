@@ -0,0 +1,359 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import com.concours.exception.BusinessException;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.CandidatureRepository.FacettesCandidature;
+import com.concours.util.BitmapCompresse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Index en mémoire des candidatures par facette : pour chaque concours, spécialité,
+ * centre et statut, le {@link BitmapCompresse} des numéros d'ordre des candidatures
+ * concernées. Un filtre combiné est une intersection de bitmaps et un comptage par
+ * facette une cardinalité d'intersection, sans requête SQL ; les numéros de
+ * candidature retrouvés sont ensuite chargés par {@link CandidatureRepository}.
+ * <p>
+ * Les numéros d'ordre sont denses et attribués dans l'ordre de dépôt : les plus grands
+ * sont les dépôts les plus récents. Une candidature supprimée laisse un trou, comblé à
+ * la reconstruction suivante (au démarrage, puis chaque nuit).
+ * L'index suit les {@link CandidatureEvent} après validation des transactions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexFacettesService {
+
+    private static final BitmapCompresse VIDE = new BitmapCompresse();
+
+    private final CandidatureRepository candidatureRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ReentrantReadWriteLock verrou = new ReentrantReadWriteLock();
+    private final AtomicBoolean reconstructionEnCours = new AtomicBoolean(false);
+
+    // Modifications reçues pendant une reconstruction, rejouées sur le nouvel index
+    private final List<Consumer<Index>> modificationsEnAttente = new ArrayList<>();
+
+    private Index index; // null tant que la première construction n'est pas terminée
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        lancerReconstruction();
+    }
+
+    /**
+     * Reconstruction périodique : rattrape les modifications faites hors de
+     * CandidatureService et compacte les numéros d'ordre
+     */
+    @Scheduled(cron = "${app.facettes.reconstruction-cron:0 30 3 * * *}")
+    public void reconstructionPlanifiee() {
+        lancerReconstruction();
+    }
+
+    /**
+     * Reconstruit l'index en arrière-plan ; l'index courant reste utilisable pendant ce temps
+     *
+     * @return false si une reconstruction est déjà en cours
+     */
+    public boolean lancerReconstruction() {
+        verrou.writeLock().lock();
+        try {
+            if (!reconstructionEnCours.compareAndSet(false, true)) {
+                return false;
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+
+        Thread thread = new Thread(this::reconstruire, "facettes-reconstruction");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    private void reconstruire() {
+        long debut = System.currentTimeMillis();
+        try {
+            Index nouvelIndex = new Index();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<FacettesCandidature> candidatures = candidatureRepository.streamFacettes()) {
+                    candidatures.forEach(facettes -> nouvelIndex.placer(facettes.getNumero(), ligne(facettes)));
+                }
+            });
+
+            verrou.writeLock().lock();
+            try {
+                modificationsEnAttente.forEach(modification -> modification.accept(nouvelIndex));
+                index = nouvelIndex;
+            } finally {
+                verrou.writeLock().unlock();
+            }
+            log.info("Index des facettes reconstruit: {} candidatures en {} ms",
+                    nouvelIndex.toutes.cardinalite(), System.currentTimeMillis() - debut);
+        } catch (Exception e) {
+            log.error("Reconstruction de l'index des facettes interrompue", e);
+        } finally {
+            verrou.writeLock().lock();
+            try {
+                modificationsEnAttente.clear();
+                reconstructionEnCours.set(false);
+            } finally {
+                verrou.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandidatureEvent(CandidatureEvent event) {
+        String numero = event.numero();
+        Consumer<Index> modification = switch (event.type()) {
+            case SOUMISE -> {
+                Ligne ligne = candidatureRepository.findFacettes(numero).map(this::ligne).orElse(null);
+                yield ligne == null ? null : idx -> idx.placer(numero, ligne);
+            }
+            case VALIDEE, REJETEE -> idx -> idx.changerStatut(numero, event.nouveauStatut());
+            case SUPPRIMEE -> idx -> idx.retirer(numero);
+        };
+        if (modification == null) {
+            return;
+        }
+
+        verrou.writeLock().lock();
+        try {
+            if (index != null) {
+                modification.accept(index);
+            }
+            if (reconstructionEnCours.get()) {
+                modificationsEnAttente.add(modification);
+            }
+        } finally {
+            verrou.writeLock().unlock();
+        }
+    }
+
+    public boolean estPret() {
+        verrou.readLock().lock();
+        try {
+            return index != null;
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Nombre de candidatures correspondant aux filtres non nuls
+     *
+     * @return null si l'index n'est pas encore construit
+     */
+    public Long compter(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut) {
+        verrou.readLock().lock();
+        try {
+            return index == null ? null : index.filtrer(concoursId, specialiteId, centreId, statut).cardinalite();
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    /**
+     * Candidatures correspondant aux filtres non nuls : leur nombre, leur répartition
+     * selon chaque facette (chaque comptage applique tous les filtres) et les numéros
+     * des {@code limite} plus récentes
+     *
+     * @throws IndexIndisponibleException tant que l'index n'est pas construit
+     */
+    public Facettes getFacettes(Long concoursId, Long specialiteId, Long centreId,
+                                StatutCandidature statut, int limite) {
+        verrou.readLock().lock();
+        try {
+            if (index == null) {
+                throw new IndexIndisponibleException();
+            }
+            BitmapCompresse filtre = index.filtrer(concoursId, specialiteId, centreId, statut);
+
+            Map<StatutCandidature, Long> parStatut = new EnumMap<>(StatutCandidature.class);
+            for (StatutCandidature valeur : StatutCandidature.values()) {
+                parStatut.put(valeur, index.compter(filtre, index.parStatut.getOrDefault(valeur, VIDE)));
+            }
+
+            List<String> numeros = new ArrayList<>(limite);
+            for (int ordinal : filtre.plusGrandes(limite)) {
+                numeros.add(index.numeros.get(ordinal));
+            }
+
+            return new Facettes(filtre.cardinalite(), parStatut,
+                    index.repartir(filtre, index.parConcours),
+                    index.repartir(filtre, index.parSpecialite),
+                    index.repartir(filtre, index.parCentre),
+                    numeros);
+        } finally {
+            verrou.readLock().unlock();
+        }
+    }
+
+    private Ligne ligne(FacettesCandidature facettes) {
+        return new Ligne(facettes.getConcoursId(), facettes.getSpecialiteId(), facettes.getCentreId(),
+                facettes.getStatut());
+    }
+
+    /**
+     * Résultat de {@link #getFacettes} : répartitions indexées par identifiant, sans les valeurs à zéro
+     */
+    public record Facettes(long total,
+                           Map<StatutCandidature, Long> parStatut,
+                           Map<Long, Long> parConcours,
+                           Map<Long, Long> parSpecialite,
+                           Map<Long, Long> parCentre,
+                           List<String> numeros) {
+    }
+
+    /**
+     * L'index n'est pas encore construit (démarrage de l'application)
+     */
+    public static class IndexIndisponibleException extends BusinessException {
+        public IndexIndisponibleException() {
+            super("Index des facettes en cours de construction, veuillez réessayer dans quelques instants");
+        }
+    }
+
+    private record Ligne(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut) {
+    }
+
+    /**
+     * Bitmaps par valeur de facette et correspondance numéro d'ordre ↔ numéro de candidature.
+     * Accès protégés par le verrou du service.
+     */
+    private static final class Index {
+        private final Map<String, Integer> ordinaux = new HashMap<>();
+        private final List<String> numeros = new ArrayList<>();
+        private final List<Ligne> lignes = new ArrayList<>();
+        private final BitmapCompresse toutes = new BitmapCompresse();
+        private final Map<Long, BitmapCompresse> parConcours = new HashMap<>();
+        private final Map<Long, BitmapCompresse> parSpecialite = new HashMap<>();
+        private final Map<Long, BitmapCompresse> parCentre = new HashMap<>();
+        private final Map<StatutCandidature, BitmapCompresse> parStatut = new EnumMap<>(StatutCandidature.class);
+
+        /**
+         * Ajoute la candidature, ou remplace ses facettes si elle est déjà indexée
+         */
+        void placer(String numero, Ligne ligne) {
+            Integer ordinal = ordinaux.get(numero);
+            if (ordinal == null) {
+                ordinal = numeros.size();
+                ordinaux.put(numero, ordinal);
+                numeros.add(numero);
+                lignes.add(null);
+                toutes.ajouter(ordinal);
+            } else {
+                marquer(ordinal, lignes.get(ordinal), false);
+            }
+            lignes.set(ordinal, ligne);
+            marquer(ordinal, ligne, true);
+        }
+
+        void changerStatut(String numero, StatutCandidature statut) {
+            Integer ordinal = ordinaux.get(numero);
+            if (ordinal != null) {
+                Ligne ligne = lignes.get(ordinal);
+                placer(numero, new Ligne(ligne.concoursId(), ligne.specialiteId(), ligne.centreId(), statut));
+            }
+        }
+
+        void retirer(String numero) {
+            Integer ordinal = ordinaux.remove(numero);
+            if (ordinal != null) {
+                marquer(ordinal, lignes.get(ordinal), false);
+                toutes.retirer(ordinal);
+                numeros.set(ordinal, null);
+                lignes.set(ordinal, null);
+            }
+        }
+
+        /**
+         * Intersection des filtres non nuls, de la plus petite cardinalité à la plus grande.
+         * Le bitmap retourné peut appartenir à l'index : il ne doit pas être modifié.
+         */
+        BitmapCompresse filtrer(Long concoursId, Long specialiteId, Long centreId, StatutCandidature statut) {
+            List<BitmapCompresse> criteres = new ArrayList<>(4);
+            if (concoursId != null) {
+                criteres.add(parConcours.getOrDefault(concoursId, VIDE));
+            }
+            if (specialiteId != null) {
+                criteres.add(parSpecialite.getOrDefault(specialiteId, VIDE));
+            }
+            if (centreId != null) {
+                criteres.add(parCentre.getOrDefault(centreId, VIDE));
+            }
+            if (statut != null) {
+                criteres.add(parStatut.getOrDefault(statut, VIDE));
+            }
+            if (criteres.isEmpty()) {
+                return toutes;
+            }
+
+            criteres.sort(Comparator.comparingLong(BitmapCompresse::cardinalite));
+            BitmapCompresse resultat = criteres.get(0);
+            for (int i = 1; i < criteres.size() && !resultat.estVide(); i++) {
+                resultat = resultat.et(criteres.get(i));
+            }
+            return resultat;
+        }
+
+        long compter(BitmapCompresse filtre, BitmapCompresse valeur) {
+            return filtre == toutes ? valeur.cardinalite() : filtre.cardinaliteEt(valeur);
+        }
+
+        Map<Long, Long> repartir(BitmapCompresse filtre, Map<Long, BitmapCompresse> facette) {
+            Map<Long, Long> repartition = new HashMap<>();
+            facette.forEach((valeur, bitmap) -> {
+                long nombre = compter(filtre, bitmap);
+                if (nombre > 0) {
+                    repartition.put(valeur, nombre);
+                }
+            });
+            return repartition;
+        }
+
+        private void marquer(int ordinal, Ligne ligne, boolean present) {
+            basculer(parConcours, ligne.concoursId(), ordinal, present);
+            basculer(parSpecialite, ligne.specialiteId(), ordinal, present);
+            basculer(parCentre, ligne.centreId(), ordinal, present);
+            basculer(parStatut, ligne.statut(), ordinal, present);
+        }
+
+        private static <K> void basculer(Map<K, BitmapCompresse> facette, K valeur, int ordinal, boolean present) {
+            if (valeur == null) {
+                return;
+            }
+            if (present) {
+                facette.computeIfAbsent(valeur, k -> new BitmapCompresse()).ajouter(ordinal);
+            } else {
+                BitmapCompresse bitmap = facette.get(valeur);
+                if (bitmap != null) {
+                    bitmap.retirer(ordinal);
+                    if (bitmap.estVide()) {
+                        facette.remove(valeur);
+                    }
+                }
+            }
+        }
+    }
+}
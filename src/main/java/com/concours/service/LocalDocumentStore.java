@@ -0,0 +1,209 @@
+package com.concours.service;
+
+import com.concours.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+
+/**
+ * Implémentation du {@link DocumentStore} sur le système de fichiers local.
+ * Les contenus sont rangés dans des répertoires partitionnés sur les deux premiers
+ * octets de l'empreinte (ab/cd/abcd...) pour éviter les répertoires géants.
+ * <p>
+ * Quand la compression est activée, un contenu dont quelques échantillons se
+ * compressent bien est écrit compressé (fichier {@code <clé>.z}, voir
+ * {@link CompressedBlob}) ; les autres (scans, images déjà compressées) restent bruts.
+ * La clé reste l'empreinte du contenu d'origine.
+ * <p>
+ * Le répertoire ne doit pas se trouver sous {@code file.upload.dir}, servi sans
+ * authentification : les contenus ne sont lus qu'à travers les contrôles de DocumentController.
+ */
+@Slf4j
+@Service
+public class LocalDocumentStore implements DocumentStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.document.store.dir:data/documents}")
+    private String storeDir;
+
+    @Value("${app.document.store.compression.enabled:true}")
+    private boolean compressionActivee;
+
+    // Gain minimal sur les échantillons pour compresser le contenu entier
+    @Value("${app.document.store.compression.min-gain:0.1}")
+    private double gainMinimal;
+
+    private Path root;
+    private Path tmpDir;
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(storeDir).toAbsolutePath().normalize();
+        tmpDir = root.resolve("tmp");
+        Files.createDirectories(tmpDir);
+        log.info("Stockage des documents initialisé dans {}", root);
+    }
+
+    @Override
+    public String store(InputStream in) throws IOException {
+        Path tmp = Files.createTempFile(tmpDir, "blob-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(tmp), digest)) {
+                in.transferTo(out);
+            }
+
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(key);
+            Path compressed = CompressedBlob.path(target);
+
+            // Contenu déjà présent : rien à écrire
+            if (Files.exists(target) || Files.exists(compressed)) {
+                log.debug("Contenu {} déjà présent dans le stockage", key);
+                return key;
+            }
+
+            Files.createDirectories(target.getParent());
+            if (compressionActivee && CompressedBlob.vautLaCompression(tmp, gainMinimal)) {
+                Path tmpCompressed = Files.createTempFile(tmpDir, "blob-", ".z.part");
+                try {
+                    CompressedBlob.ecrire(tmp, tmpCompressed);
+                    if (Files.size(tmpCompressed) < Files.size(tmp)) {
+                        moveAtomique(tmpCompressed, compressed, key);
+                        return key;
+                    }
+                } finally {
+                    Files.deleteIfExists(tmpCompressed);
+                }
+            }
+
+            moveAtomique(tmp, target, key);
+            return key;
+
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private void moveAtomique(Path source, Path target, String key) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Écriture concurrente du même contenu : le fichier existant est identique
+            log.debug("Contenu {} écrit en parallèle", key);
+        }
+    }
+
+    @Override
+    public String store(byte[] contenu) throws IOException {
+        return store(new ByteArrayInputStream(contenu));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = resolve(key);
+        Path compressed = CompressedBlob.path(path);
+        try {
+            if (Files.exists(compressed)) {
+                return CompressedBlob.open(compressed);
+            }
+            return Files.newInputStream(path);
+        } catch (NoSuchFileException e) {
+            throw new BusinessException("Contenu introuvable dans le stockage: " + key, e);
+        }
+    }
+
+    @Override
+    public Resource loadAsResource(String key) throws IOException {
+        Path path = resolve(key);
+        Path compressed = CompressedBlob.path(path);
+        if (Files.isReadable(compressed)) {
+            // Décompressé à la lecture, sans passer par la mémoire
+            return new CompressedBlob.BlobResource(compressed);
+        }
+        if (!Files.isReadable(path)) {
+            throw new BusinessException("Contenu introuvable dans le stockage: " + key);
+        }
+        return new FileSystemResource(path);
+    }
+
+    @Override
+    public byte[] read(String key) throws IOException {
+        try (InputStream in = open(key)) {
+            return in.readAllBytes();
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        Path path = resolve(key);
+        Path compressed = CompressedBlob.path(path);
+        if (Files.exists(compressed)) {
+            return CompressedBlob.tailleOrigine(compressed);
+        }
+        return Files.size(path);
+    }
+
+    @Override
+    public long storedSize(String key) throws IOException {
+        Path path = resolve(key);
+        Path compressed = CompressedBlob.path(path);
+        return Files.exists(compressed) ? Files.size(compressed) : Files.size(path);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        Path path = resolve(key);
+        return Files.exists(path) || Files.exists(CompressedBlob.path(path));
+    }
+
+    @Override
+    public boolean delete(String key) {
+        try {
+            Path path = resolve(key);
+            boolean compresse = Files.deleteIfExists(CompressedBlob.path(path));
+            return Files.deleteIfExists(path) || compresse;
+        } catch (IOException e) {
+            log.error("Erreur lors de la suppression du contenu {}", key, e);
+            return false;
+        }
+    }
+
+    /**
+     * Chemin du fichier associé à une clé : {racine}/ab/cd/abcd...
+     */
+    Path resolve(String key) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new BusinessException("Clé de stockage invalide: " + key);
+        }
+        return root.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.CandidatureRepository.DonneesRecherche;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.fr.FrenchAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.ElisionFilter;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * Index plein texte des candidatures (Lucene, sur disque local) : nom, prénom, CIN,
+ * email, téléphone et diplôme du candidat, numéro de candidature.
+ * <p>
+ * L'analyse retire les élisions françaises (l', d'...), passe en minuscules et
+ * supprime les accents : "Hélène" et "helene" sont équivalents. Chaque mot saisi est
+ * cherché comme préfixe. Le centre, le concours, la spécialité et le statut sont
+ * indexés comme filtres exacts ; la recherche retourne des numéros de candidature,
+ * triés par date de dépôt décroissante, à charger ensuite en une requête.
+ * <p>
+ * L'index est mis à jour après la validation des transactions de {@link CandidatureService}
+ * (événements {@link CandidatureEvent}) et reconstruit au démarrage s'il est vide. La
+ * reconstruction réécrit les documents sans vider l'index, puis retire ceux des générations
+ * précédentes ; les candidatures modifiées pendant ce temps sont relues à la fin.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RechercheCandidatureService {
+
+    private static final String NUMERO = "numero";
+    private static final String CENTRE = "centre";
+    private static final String CONCOURS = "concours";
+    private static final String SPECIALITE = "specialite";
+    private static final String STATUT = "statut";
+    private static final String DATE_DEPOT = "dateDepot";
+    private static final String TEXTE = "texte";
+    private static final String DIPLOME = "diplome";
+    private static final String GENERATION = "generation";
+
+    // Même ordre que les listes en base : (dateDepot, numero) décroissants
+    private static final Sort TRI = new Sort(
+            new SortField(DATE_DEPOT, SortField.Type.LONG, true),
+            new SortField(NUMERO, SortField.Type.STRING, true));
+    private static final Sort TRI_CROISSANT = new Sort(
+            new SortField(DATE_DEPOT, SortField.Type.LONG),
+            new SortField(NUMERO, SortField.Type.STRING));
+
+    private final CandidatureRepository candidatureRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Analyzer analyzer = new AnalyseurFrancais();
+    private final AtomicBoolean reconstructionEnCours = new AtomicBoolean(false);
+
+    // Ordonne les mises à jour par événement et la fin d'une reconstruction
+    private final Object verrou = new Object();
+
+    // Candidatures modifiées pendant une reconstruction, relues en base à la fin
+    private final Set<String> modifieesPendantReconstruction = new HashSet<>();
+
+    // Génération des documents écrits ; la reconstruction retire les générations précédentes
+    private volatile long generation;
+
+    @Value("${app.recherche.index.dir:index/candidatures}")
+    private String indexDir;
+
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+
+    @PostConstruct
+    public void init() throws IOException {
+        Path path = Paths.get(indexDir).toAbsolutePath().normalize();
+        Files.createDirectories(path);
+        directory = FSDirectory.open(path);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        searcherManager = new SearcherManager(writer, null);
+        generation = System.currentTimeMillis();
+        log.info("Index de recherche des candidatures ouvert dans {} ({} documents)",
+                path, writer.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void fermer() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Index vide (première installation, répertoire supprimé) alors que des candidatures existent
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (writer.getDocStats().numDocs == 0 && candidatureRepository.count() > 0) {
+            lancerReconstruction();
+        }
+    }
+
+    /**
+     * Reconstruit l'index en arrière-plan à partir des candidatures
+     *
+     * @return false si une reconstruction est déjà en cours
+     */
+    public boolean lancerReconstruction() {
+        if (!reconstructionEnCours.compareAndSet(false, true)) {
+            return false;
+        }
+
+        Thread thread = new Thread(this::reconstruire, "recherche-reconstruction");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public boolean isReconstructionEnCours() {
+        return reconstructionEnCours.get();
+    }
+
+    private void reconstruire() {
+        long debut = System.currentTimeMillis();
+        try {
+            // Les recherches continuent de voir l'index courant : chaque document est remplacé,
+            // ceux des candidatures disparues sont retirés à la fin
+            long nouvelleGeneration = Math.max(System.currentTimeMillis(), generation + 1);
+            synchronized (verrou) {
+                generation = nouvelleGeneration;
+            }
+            long nombre = transactionTemplate.execute(status -> {
+                long indexees = 0;
+                try (Stream<DonneesRecherche> candidatures = candidatureRepository.streamDonneesRecherche()) {
+                    for (DonneesRecherche donnees : (Iterable<DonneesRecherche>) candidatures::iterator) {
+                        writer.updateDocument(new Term(NUMERO, donnees.getNumero()), document(donnees));
+                        indexees++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return indexees;
+            });
+
+            synchronized (verrou) {
+                // Le flux a pu réécrire une version antérieure à un événement : on relit ces candidatures
+                for (String numero : modifieesPendantReconstruction) {
+                    indexer(numero);
+                }
+                writer.deleteDocuments(new BooleanQuery.Builder()
+                        .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                        .add(LongPoint.newExactQuery(GENERATION, nouvelleGeneration), BooleanClause.Occur.MUST_NOT)
+                        .build());
+                writer.commit();
+                searcherManager.maybeRefresh();
+            }
+            log.info("Index de recherche reconstruit: {} candidatures en {} ms",
+                    nombre, System.currentTimeMillis() - debut);
+        } catch (Exception e) {
+            log.error("Reconstruction de l'index de recherche interrompue", e);
+        } finally {
+            synchronized (verrou) {
+                modifieesPendantReconstruction.clear();
+                reconstructionEnCours.set(false);
+            }
+        }
+    }
+
+    /**
+     * Mise à jour de l'index après la validation de la transaction
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandidatureEvent(CandidatureEvent event) {
+        try {
+            synchronized (verrou) {
+                if (event.type() == CandidatureEvent.Type.SUPPRIMEE) {
+                    writer.deleteDocuments(new Term(NUMERO, event.numero()));
+                } else {
+                    indexer(event.numero());
+                }
+                if (reconstructionEnCours.get()) {
+                    modifieesPendantReconstruction.add(event.numero());
+                }
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            // L'index sera corrigé par la prochaine reconstruction
+            log.error("Erreur lors de la mise à jour de l'index de recherche pour {}", event.numero(), e);
+        }
+    }
+
+    /**
+     * Réécrit le document de la candidature à partir de la base, ou le retire si elle n'existe plus
+     */
+    private void indexer(String numero) throws IOException {
+        DonneesRecherche donnees = candidatureRepository.findDonneesRecherche(numero).orElse(null);
+        if (donnees == null) {
+            writer.deleteDocuments(new Term(NUMERO, numero));
+        } else {
+            writer.updateDocument(new Term(NUMERO, numero), document(donnees));
+        }
+    }
+
+    /**
+     * Rend durables les modifications de l'index (les recherches les voient déjà)
+     */
+    @Scheduled(fixedDelayString = "${app.recherche.commit-interval-ms:30000}")
+    public void committer() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            log.error("Erreur lors de l'enregistrement de l'index de recherche", e);
+        }
+    }
+
+    /**
+     * Recherche les candidatures dont les champs commencent par chacun des mots de
+     * {@code texte} (et de {@code diplome}), avec les filtres exacts non nuls : les
+     * {@code taille} résultats qui suivent la ligne (dateDepot, numero) dans l'ordre
+     * demandé, sans parcourir les pages précédentes
+     *
+     * @param dateDepot date de la dernière ligne lue, null pour la première page
+     * @return numéros dans l'ordre de lecture et nombre total de résultats
+     */
+    public Resultat rechercherApres(String texte, String diplome, Long centreId, Long concoursId,
+                                    Long specialiteId, StatutCandidature statut,
+                                    LocalDate dateDepot, String numero, boolean croissant, int taille) {
+        Query query = construireRequete(texte, diplome, centreId, concoursId, specialiteId, statut);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int total = searcher.count(query);
+                if (taille <= 0) {
+                    return new Resultat(List.of(), total);
+                }
+
+                Sort tri = croissant ? TRI_CROISSANT : TRI;
+                TopDocs docs;
+                if (dateDepot == null) {
+                    docs = searcher.search(query, taille, tri);
+                } else {
+                    // Le numéro est unique : seul le document de la position a les mêmes valeurs de tri,
+                    // et un identifiant maximal l'exclut sans avoir à le connaître
+                    FieldDoc position = new FieldDoc(searcher.getIndexReader().maxDoc() - 1, Float.NaN,
+                            new Object[]{dateDepot.toEpochDay(), new BytesRef(numero)});
+                    docs = searcher.searchAfter(position, query, taille, tri);
+                }
+
+                StoredFields stockes = searcher.storedFields();
+                List<String> numeros = new ArrayList<>(docs.scoreDocs.length);
+                for (ScoreDoc hit : docs.scoreDocs) {
+                    numeros.add(stockes.document(hit.doc, Set.of(NUMERO)).get(NUMERO));
+                }
+                return new Resultat(numeros, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Erreur lors de la recherche dans l'index", e);
+        }
+    }
+
+    private Query construireRequete(String texte, String diplome, Long centreId, Long concoursId,
+                                    Long specialiteId, StatutCandidature statut) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        boolean mots = ajouterPrefixes(builder, TEXTE, texte);
+        mots |= ajouterPrefixes(builder, DIPLOME, diplome);
+        if (!mots) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        }
+
+        if (centreId != null) {
+            builder.add(LongPoint.newExactQuery(CENTRE, centreId), BooleanClause.Occur.FILTER);
+        }
+        if (concoursId != null) {
+            builder.add(LongPoint.newExactQuery(CONCOURS, concoursId), BooleanClause.Occur.FILTER);
+        }
+        if (specialiteId != null) {
+            builder.add(LongPoint.newExactQuery(SPECIALITE, specialiteId), BooleanClause.Occur.FILTER);
+        }
+        if (statut != null) {
+            builder.add(new TermQuery(new Term(STATUT, statut.name())), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Un préfixe obligatoire par mot analysé
+     *
+     * @return false si la saisie ne contient aucun mot
+     */
+    private boolean ajouterPrefixes(BooleanQuery.Builder builder, String champ, String saisie) {
+        if (saisie == null || saisie.isBlank()) {
+            return false;
+        }
+        boolean mots = false;
+        try (TokenStream tokens = analyzer.tokenStream(champ, saisie)) {
+            CharTermAttribute terme = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                builder.add(new PrefixQuery(new Term(champ, terme.toString())), BooleanClause.Occur.MUST);
+                mots = true;
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return mots;
+    }
+
+    private Document document(DonneesRecherche donnees) {
+        Document doc = new Document();
+        doc.add(new StringField(NUMERO, donnees.getNumero(), Field.Store.YES));
+        doc.add(new SortedDocValuesField(NUMERO, new BytesRef(donnees.getNumero())));
+        doc.add(new LongPoint(GENERATION, generation));
+        doc.add(new LongPoint(CENTRE, donnees.getCentreId()));
+        doc.add(new LongPoint(CONCOURS, donnees.getConcoursId()));
+        doc.add(new LongPoint(SPECIALITE, donnees.getSpecialiteId()));
+        if (donnees.getStatut() != null) {
+            doc.add(new StringField(STATUT, donnees.getStatut().name(), Field.Store.NO));
+        }
+        long dateDepot = donnees.getDateDepot() != null ? donnees.getDateDepot().toEpochDay() : 0;
+        doc.add(new NumericDocValuesField(DATE_DEPOT, dateDepot));
+
+        StringBuilder texte = new StringBuilder(donnees.getNumero());
+        for (String valeur : new String[]{donnees.getNom(), donnees.getPrenom(), donnees.getCin(),
+                donnees.getEmail(), donnees.getTelephone(), donnees.getDiplome()}) {
+            if (valeur != null) {
+                texte.append(' ').append(valeur);
+            }
+        }
+        doc.add(new TextField(TEXTE, texte.toString(), Field.Store.NO));
+        if (donnees.getDiplome() != null) {
+            doc.add(new TextField(DIPLOME, donnees.getDiplome(), Field.Store.NO));
+        }
+        return doc;
+    }
+
+    /**
+     * Numéros d'une page de résultats, triés, et nombre total de résultats
+     */
+    public record Resultat(List<String> numeros, long total) {
+    }
+
+    /**
+     * Analyse française sans racinisation (noms propres, identifiants) :
+     * élisions retirées, minuscules, accents supprimés
+     */
+    static final class AnalyseurFrancais extends Analyzer {
+        @Override
+        protected TokenStreamComponents createComponents(String fieldName) {
+            StandardTokenizer source = new StandardTokenizer();
+            TokenStream result = new ElisionFilter(source, FrenchAnalyzer.DEFAULT_ARTICLES);
+            result = new LowerCaseFilter(result);
+            result = new ASCIIFoldingFilter(result);
+            return new TokenStreamComponents(source, result);
+        }
+
+        @Override
+        protected TokenStream normalize(String fieldName, TokenStream in) {
+            return new ASCIIFoldingFilter(new LowerCaseFilter(in));
+        }
+    }
+}
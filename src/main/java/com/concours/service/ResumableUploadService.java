@@ -0,0 +1,315 @@
+package com.concours.service;
+
+import com.concours.entity.Candidature;
+import com.concours.entity.Document;
+import com.concours.entity.StatutCandidature;
+import com.concours.entity.TypeDocument;
+import com.concours.entity.UploadSession;
+import com.concours.exception.BusinessException;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.UploadSessionRepository;
+import com.concours.util.ApplicationConstants;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uploads repris par morceaux (création / ajout d'un morceau à un offset / finalisation).
+ * Les morceaux sont ajoutés en fin de fichier .part dans un répertoire de travail, hors
+ * du répertoire d'upload servi sans authentification sous /uploads/** ;
+ * un morceau dont l'empreinte ne correspond pas est retiré avant d'être pris en compte.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ResumableUploadService {
+
+    private final UploadSessionRepository uploadSessionRepository;
+    private final CandidatureRepository candidatureRepository;
+    private final DocumentService documentService;
+
+    // Sessions dont un morceau ou la finalisation est en cours : une seule opération à la fois
+    private final Set<String> sessionsOccupees = ConcurrentHashMap.newKeySet();
+
+    @Value("${app.upload.resumable.dir:data/resumable}")
+    private String repertoire;
+
+    @Value("${app.upload.resumable.expiration-hours:24}")
+    private long expirationHeures;
+
+    @Value("${app.upload.resumable.max-chunk-size:2097152}")
+    private long tailleMaxMorceau;
+
+    /**
+     * Ouvre une session d'upload pour un document de la candidature
+     * (le couple numéro / CIN sert d'authentification, comme pour le suivi)
+     */
+    @Transactional
+    public UploadSession creerSession(String numero, String cin, TypeDocument type,
+                                      String nomFichier, long tailleTotale) {
+        Candidature candidature = candidatureRepository.findById(numero)
+                .orElseThrow(() -> new BusinessException("Numéro de candidature ou CIN incorrect"));
+        if (cin == null || !candidature.getCandidat().getCin().equalsIgnoreCase(cin.trim())) {
+            throw new BusinessException("Numéro de candidature ou CIN incorrect");
+        }
+        verifierModifiable(candidature.getStatut());
+        if (nomFichier == null || !nomFichier.toLowerCase().endsWith(".pdf")) {
+            throw new BusinessException("Le fichier doit avoir l'extension .pdf");
+        }
+        if (tailleTotale <= 0 || tailleTotale > ApplicationConstants.MAX_FILE_SIZE) {
+            throw new BusinessException(String.format("La taille du fichier doit être comprise entre 1 octet et %.1f MB",
+                    ApplicationConstants.MAX_FILE_SIZE / (1024.0 * 1024.0)));
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setCandidature(candidature);
+        session.setType(type);
+        session.setNomFichier(nomFichier);
+        session.setTailleTotale(tailleTotale);
+        session.setDateExpiration(LocalDateTime.now().plusHours(expirationHeures));
+
+        try {
+            Path part = cheminPart(session.getId());
+            Files.createDirectories(part.getParent());
+            Files.createFile(part);
+        } catch (IOException e) {
+            log.error("Erreur lors de la création de la session d'upload", e);
+            throw new BusinessException("Erreur lors de la création de la session d'upload");
+        }
+
+        log.info("Session d'upload {} créée pour le document {} de la candidature {} ({} octets)",
+                session.getId(), type, numero, tailleTotale);
+        return uploadSessionRepository.save(session);
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSession getSession(String id) {
+        UploadSession session = uploadSessionRepository.findById(id)
+                .orElseThrow(() -> new BusinessException("Session d'upload introuvable: " + id));
+        if (session.getDateExpiration().isBefore(LocalDateTime.now())) {
+            throw new BusinessException("Session d'upload expirée: " + id);
+        }
+        return session;
+    }
+
+    /**
+     * Ajoute un morceau à l'offset indiqué, qui doit être exactement le nombre
+     * d'octets déjà reçus. Si une empreinte SHA-256 est fournie et ne correspond
+     * pas, le morceau est retiré du fichier.
+     *
+     * Pas de transaction englobante : la connexion n'est pas retenue pendant
+     * la réception du morceau, qui peut être lente sur mobile.
+     *
+     * @return le nouvel offset
+     */
+    public long ajouterMorceau(String id, long offset, InputStream morceau, byte[] sha256Attendu) {
+        occuper(id);
+        try {
+            UploadSession session = getSession(id);
+            if (session.isComplet()) {
+                throw new BusinessException("Tous les octets ont déjà été reçus pour cette session");
+            }
+            if (offset != session.getOctetsRecus()) {
+                throw new OffsetInvalideException(session.getOctetsRecus());
+            }
+
+            long restant = session.getTailleTotale() - offset;
+            long maxOctets = Math.min(restant, tailleMaxMorceau);
+            MessageDigest digest = sha256();
+
+            Path part = cheminPart(id);
+            long recus = 0;
+            try (FileChannel channel = FileChannel.open(part, StandardOpenOption.WRITE)) {
+                // Le fichier peut contenir la fin d'un morceau interrompu : on repart de l'offset validé
+                channel.truncate(offset);
+                channel.position(offset);
+
+                byte[] buffer = new byte[8192];
+                int n;
+                while ((n = morceau.read(buffer)) != -1) {
+                    recus += n;
+                    if (recus > maxOctets) {
+                        channel.truncate(offset);
+                        throw new BusinessException("Le morceau dépasse la taille autorisée (" + maxOctets + " octets)");
+                    }
+                    digest.update(buffer, 0, n);
+                    ByteBuffer bb = ByteBuffer.wrap(buffer, 0, n);
+                    while (bb.hasRemaining()) {
+                        channel.write(bb);
+                    }
+                }
+
+                if (sha256Attendu != null && !MessageDigest.isEqual(sha256Attendu, digest.digest())) {
+                    channel.truncate(offset);
+                    throw new BusinessException("Empreinte du morceau invalide");
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                // Connexion coupée : les octets reçus non validés seront écrasés au prochain envoi
+                log.warn("Morceau interrompu pour la session {} à l'offset {}", id, offset);
+                throw new BusinessException("Morceau interrompu, reprendre à l'offset " + offset);
+            }
+
+            session.setOctetsRecus(offset + recus);
+            session.setDateExpiration(LocalDateTime.now().plusHours(expirationHeures));
+            uploadSessionRepository.save(session);
+            return session.getOctetsRecus();
+
+        } finally {
+            sessionsOccupees.remove(id);
+        }
+    }
+
+    /**
+     * Termine l'upload : le fichier reconstitué devient le document du type
+     * demandé de la candidature (l'éventuel document précédent est remplacé).
+     * La session reste verrouillée jusqu'à la validation de la transaction :
+     * une seconde finalisation attend, puis ne trouve plus la session.
+     *
+     * @param sha256Attendu empreinte hexadécimale du fichier complet, optionnelle
+     */
+    @Transactional
+    public Document finaliser(String id, String sha256Attendu) {
+        occuper(id);
+        try {
+            UploadSession session = uploadSessionRepository.findByIdForUpdate(id)
+                    .orElseThrow(() -> new BusinessException("Session d'upload introuvable: " + id));
+            if (session.getDateExpiration().isBefore(LocalDateTime.now())) {
+                throw new BusinessException("Session d'upload expirée: " + id);
+            }
+            if (!session.isComplet()) {
+                throw new BusinessException(String.format("Upload incomplet: %d/%d octets reçus",
+                        session.getOctetsRecus(), session.getTailleTotale()));
+            }
+
+            // Statut relu sous le verrou : la candidature a pu être traitée depuis la création de la session
+            Candidature candidature = session.getCandidature();
+            verifierModifiable(candidatureRepository.findStatutByNumero(candidature.getNumero())
+                    .orElseThrow(() -> new BusinessException("Candidature non trouvée")));
+            return enregistrer(session, candidature, sha256Attendu);
+        } finally {
+            sessionsOccupees.remove(id);
+        }
+    }
+
+    private Document enregistrer(UploadSession session, Candidature candidature, String sha256Attendu) {
+        String id = session.getId();
+        Path part = cheminPart(id);
+        try {
+            documentService.getDocumentByCandidatureAndType(candidature, session.getType())
+                    .ifPresent(ancien -> documentService.deleteDocument(ancien.getId()));
+
+            Document document;
+            try (InputStream in = Files.newInputStream(part)) {
+                document = documentService.enregistrerDocument(candidature, in, session.getNomFichier(), session.getType());
+            }
+
+            // La clé du stockage est l'empreinte SHA-256 du contenu
+            if (sha256Attendu != null && !sha256Attendu.equalsIgnoreCase(document.getBlobKey())) {
+                throw new BusinessException("Empreinte du fichier invalide");
+            }
+
+            uploadSessionRepository.delete(session);
+            Files.deleteIfExists(part);
+
+            log.info("Upload {} finalisé: document {} de la candidature {}",
+                    id, document.getId(), candidature.getNumero());
+            return document;
+
+        } catch (IOException e) {
+            log.error("Erreur lors de la finalisation de l'upload {}", id, e);
+            throw new BusinessException("Erreur lors de la finalisation de l'upload");
+        }
+    }
+
+    /**
+     * Abandon explicite par le client
+     */
+    @Transactional
+    public void annuler(String id) {
+        uploadSessionRepository.findById(id).ifPresent(this::supprimer);
+    }
+
+    /**
+     * Purge des sessions abandonnées
+     */
+    @Scheduled(fixedDelayString = "${app.upload.resumable.cleanup-interval-ms:900000}")
+    @Transactional
+    public void purgerSessionsExpirees() {
+        List<UploadSession> expirees = uploadSessionRepository.findByDateExpirationBefore(LocalDateTime.now());
+        expirees.forEach(this::supprimer);
+        if (!expirees.isEmpty()) {
+            log.info("{} sessions d'upload expirées supprimées", expirees.size());
+        }
+    }
+
+    private void supprimer(UploadSession session) {
+        try {
+            Files.deleteIfExists(cheminPart(session.getId()));
+        } catch (IOException e) {
+            log.warn("Impossible de supprimer le fichier de la session {}", session.getId(), e);
+        }
+        uploadSessionRepository.delete(session);
+    }
+
+    private void occuper(String id) {
+        if (!sessionsOccupees.add(id)) {
+            throw new BusinessException("Un envoi est déjà en cours pour cette session");
+        }
+    }
+
+    private void verifierModifiable(StatutCandidature statut) {
+        if (statut != StatutCandidature.EN_ATTENTE) {
+            throw new BusinessException("Les documents d'une candidature déjà traitée ne peuvent plus être modifiés");
+        }
+    }
+
+    private Path cheminPart(String id) {
+        // L'identifiant est un UUID généré ici : pas de chemin arbitraire possible
+        return Paths.get(repertoire).resolve(UUID.fromString(id) + ".part");
+    }
+
+    private MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 non disponible", e);
+        }
+    }
+
+    /**
+     * Offset envoyé différent des octets déjà reçus : le client doit reprendre à {@link #getOffsetAttendu()}
+     */
+    public static class OffsetInvalideException extends BusinessException {
+        private final long offsetAttendu;
+
+        public OffsetInvalideException(long offsetAttendu) {
+            super("Offset invalide, reprendre à l'offset " + offsetAttendu);
+            this.offsetAttendu = offsetAttendu;
+        }
+
+        public long getOffsetAttendu() {
+            return offsetAttendu;
+        }
+    }
+}
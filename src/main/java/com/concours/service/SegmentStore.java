@@ -0,0 +1,297 @@
+package com.concours.service;
+
+import com.concours.exception.BusinessException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Fichiers segments des concours archivés : les contenus des documents sont
+ * ajoutés bout à bout dans {racine}/concours-{id}/seg-NNNNN.dat, avec un index
+ * {@code .idx} (id du document, offset, longueur sur 3 x 8 octets) écrit à côté.
+ * La base reste la référence : une entrée d'index dont la transaction n'a pas
+ * abouti est simplement ignorée. Les lectures passent par une projection mémoire
+ * du segment.
+ * <p>
+ * Le répertoire ne doit pas se trouver sous {@code file.upload.dir}, servi sans
+ * authentification : les chemins des segments sont prévisibles.
+ */
+@Slf4j
+@Service
+public class SegmentStore {
+
+    private static final Pattern SEGMENT_PATTERN = Pattern.compile("concours-\\d+/seg-\\d{5}");
+    private static final int INDEX_ENTRY_SIZE = 24;
+
+    @Value("${app.archive.dir:data/archives}")
+    private String archiveDir;
+
+    @Value("${app.archive.segment-max-size:268435456}")
+    private long tailleMaxSegment;
+
+    @Value("${app.archive.mapped-segments:32}")
+    private int segmentsProjetesMax;
+
+    private Path root;
+
+    private final Map<String, MappedByteBuffer> segmentsProjetes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, MappedByteBuffer> eldest) {
+            // La projection est libérée par le GC une fois sortie du cache
+            return size() > segmentsProjetesMax;
+        }
+    };
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(archiveDir).toAbsolutePath().normalize();
+        Files.createDirectories(root);
+    }
+
+    /**
+     * Ouvre l'écriture des segments d'un concours, à la suite des segments existants
+     */
+    public SegmentWriter ouvrir(long concoursId) throws IOException {
+        Path dir = root.resolve("concours-" + concoursId);
+        Files.createDirectories(dir);
+
+        int numero;
+        try (Stream<Path> fichiers = Files.list(dir)) {
+            numero = fichiers
+                    .map(p -> p.getFileName().toString())
+                    .filter(nom -> nom.matches("seg-\\d{5}\\.dat"))
+                    .mapToInt(nom -> Integer.parseInt(nom.substring(4, 9)))
+                    .max()
+                    .orElse(1);
+        }
+        return new SegmentWriter(concoursId, numero);
+    }
+
+    /**
+     * Contenu d'un document archivé, lu depuis la projection mémoire du segment.
+     * Un emplacement hors du segment (base et segment désynchronisés) est journalisé
+     * et refusé, sans erreur technique pour l'appelant.
+     */
+    public Resource lire(String segment, long offset, long longueur) {
+        if (segment == null || !SEGMENT_PATTERN.matcher(segment).matches()) {
+            throw new BusinessException("Segment d'archive invalide: " + segment);
+        }
+        if (offset < 0 || longueur < 0 || offset > Integer.MAX_VALUE - longueur) {
+            log.error("Emplacement invalide dans le segment {}: offset {}, longueur {}", segment, offset, longueur);
+            throw new BusinessException("Emplacement d'archive invalide dans le segment " + segment);
+        }
+        try {
+            MappedByteBuffer buffer = projection(segment, offset + longueur);
+            if (offset + longueur > buffer.capacity()) {
+                log.error("Emplacement hors du segment {} ({} octets): offset {}, longueur {}",
+                        segment, buffer.capacity(), offset, longueur);
+                throw new BusinessException("Emplacement d'archive invalide dans le segment " + segment);
+            }
+            ByteBuffer slice = buffer.slice((int) offset, (int) longueur);
+            return new SegmentResource(segment, offset, slice);
+        } catch (IOException e) {
+            log.error("Erreur lors de la lecture du segment {}", segment, e);
+            throw new BusinessException("Erreur lors de la lecture de l'archive: " + e.getMessage());
+        }
+    }
+
+    private MappedByteBuffer projection(String segment, long tailleMinimale) throws IOException {
+        synchronized (segmentsProjetes) {
+            MappedByteBuffer buffer = segmentsProjetes.get(segment);
+            // Segment encore en cours d'écriture lors de la projection : on la refait
+            if (buffer == null || buffer.capacity() < tailleMinimale) {
+                try (FileChannel channel = FileChannel.open(root.resolve(segment + ".dat"), StandardOpenOption.READ)) {
+                    buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+                segmentsProjetes.put(segment, buffer);
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * Emplacement d'un contenu dans un segment
+     */
+    public record Emplacement(String segment, long offset, long longueur) {
+    }
+
+    /**
+     * Écriture en ajout seul ; un contenu déjà écrit par ce writer (même clé) n'est pas recopié
+     */
+    public class SegmentWriter implements Closeable {
+
+        private final long concoursId;
+        private final Map<String, Emplacement> dejaEcrits = new HashMap<>();
+        private int numero;
+        private FileChannel data;
+        private FileChannel index;
+
+        private SegmentWriter(long concoursId, int numero) throws IOException {
+            this.concoursId = concoursId;
+            this.numero = numero;
+            ouvrirSegment();
+        }
+
+        public Emplacement ajouter(long documentId, String blobKey, InputStream contenu, long taille) throws IOException {
+            Emplacement emplacement = dejaEcrits.get(blobKey);
+            if (emplacement == null) {
+                if (data.size() > 0 && data.size() + taille > tailleMaxSegment) {
+                    close();
+                    numero++;
+                    ouvrirSegment();
+                }
+
+                long offset = data.size();
+                ReadableByteChannel source = Channels.newChannel(contenu);
+                long ecrits = 0;
+                long n;
+                while (ecrits < taille && (n = data.transferFrom(source, offset + ecrits, taille - ecrits)) > 0) {
+                    ecrits += n;
+                }
+                if (ecrits != taille) {
+                    data.truncate(offset);
+                    throw new IOException("Contenu tronqué pour le document " + documentId
+                            + " (" + ecrits + "/" + taille + " octets)");
+                }
+                emplacement = new Emplacement(nomSegment(), offset, taille);
+                dejaEcrits.put(blobKey, emplacement);
+            }
+
+            ByteBuffer entree = ByteBuffer.allocate(INDEX_ENTRY_SIZE)
+                    .putLong(documentId)
+                    .putLong(emplacement.offset())
+                    .putLong(emplacement.longueur())
+                    .flip();
+            while (entree.hasRemaining()) {
+                index.write(entree);
+            }
+            return emplacement;
+        }
+
+        /**
+         * Force l'écriture sur disque avant de valider les documents en base
+         */
+        public void sync() throws IOException {
+            data.force(false);
+            index.force(false);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                sync();
+            } finally {
+                data.close();
+                index.close();
+            }
+        }
+
+        private void ouvrirSegment() throws IOException {
+            Path base = root.resolve(nomSegment());
+            data = FileChannel.open(base.resolveSibling(base.getFileName() + ".dat"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            index = FileChannel.open(base.resolveSibling(base.getFileName() + ".idx"),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        private String nomSegment() {
+            return String.format("concours-%d/seg-%05d", concoursId, numero);
+        }
+    }
+
+    /**
+     * Ressource sur une tranche de segment projeté en mémoire
+     */
+    private static final class SegmentResource extends AbstractResource {
+
+        private final String segment;
+        private final long offset;
+        private final ByteBuffer contenu;
+
+        private SegmentResource(String segment, long offset, ByteBuffer contenu) {
+            this.segment = segment;
+            this.offset = offset;
+            this.contenu = contenu;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer buffer = contenu.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int n = Math.min(len, buffer.remaining());
+                    buffer.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public long skip(long n) {
+                    int k = (int) Math.max(0, Math.min(n, buffer.remaining()));
+                    buffer.position(buffer.position() + k);
+                    return k;
+                }
+
+                @Override
+                public int available() {
+                    return buffer.remaining();
+                }
+            };
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return contenu.capacity();
+        }
+
+        @Override
+        public String getDescription() {
+            return "Archive [" + segment + "@" + offset + "]";
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return this == other || (other instanceof SegmentResource that
+                    && segment.equals(that.segment) && offset == that.offset);
+        }
+
+        @Override
+        public int hashCode() {
+            return segment.hashCode() * 31 + Long.hashCode(offset);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.concours.service;
+
+import com.concours.dto.SerieTemporelleDTO;
+import com.concours.dto.SerieTemporelleDTO.Granularite;
+import com.concours.exception.BusinessException;
+import com.concours.repository.DepotJournalierRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Séries temporelles des dépôts de candidatures, calculées sur la table des
+ * dépôts journaliers : une ligne par jour au plus, regroupée ensuite par
+ * jour, semaine (ISO, du lundi) ou mois, avec les intervalles vides à zéro.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class SerieTemporelleService {
+
+    private static final String[] MOIS = {"Jan", "Fév", "Mar", "Avr", "Mai", "Jun",
+            "Jul", "Aoû", "Sep", "Oct", "Nov", "Déc"};
+
+    private static final DateTimeFormatter FORMAT_JOUR = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final DepotJournalierRepository depotJournalierRepository;
+
+    // Période maximale d'une série, pour borner le nombre de points
+    @Value("${app.statistiques.serie.max-jours:1830}")
+    private long maxJours;
+
+    /**
+     * Dépôts de candidatures sur [debut, fin], filtrés par concours et/ou centre si précisés
+     */
+    public SerieTemporelleDTO getSerie(LocalDate debut, LocalDate fin, Granularite granularite,
+                                       Long concoursId, Long centreId) {
+        if (debut == null || fin == null || debut.isAfter(fin)) {
+            throw new BusinessException("Période invalide");
+        }
+        if (ChronoUnit.DAYS.between(debut, fin) >= maxJours) {
+            throw new BusinessException("Période trop longue (maximum " + maxJours + " jours)");
+        }
+        if (granularite == null) {
+            granularite = Granularite.JOUR;
+        }
+
+        SerieTemporelleDTO serie = new SerieTemporelleDTO();
+        serie.setGranularite(granularite);
+        serie.setDebut(debut);
+        serie.setFin(fin);
+        serie.setConcoursId(concoursId);
+        serie.setCentreId(centreId);
+
+        // Tous les intervalles de la période, dans l'ordre
+        for (LocalDate intervalle = aligner(debut, granularite); !intervalle.isAfter(fin);
+             intervalle = suivant(intervalle, granularite)) {
+            serie.getPoints().add(new SerieTemporelleDTO.Point(intervalle, libelle(intervalle, granularite), 0));
+        }
+
+        // Les jours arrivent triés : on avance dans les intervalles en une passe
+        List<DepotJournalierRepository.DepotJour> jours =
+                depotJournalierRepository.sommeParJour(debut, fin, concoursId, centreId);
+        int index = 0;
+        long total = 0;
+        for (DepotJournalierRepository.DepotJour jour : jours) {
+            while (index + 1 < serie.getPoints().size()
+                    && !jour.getJour().isBefore(serie.getPoints().get(index + 1).getDebut())) {
+                index++;
+            }
+            long nombre = jour.getNombre() != null ? jour.getNombre() : 0L;
+            SerieTemporelleDTO.Point point = serie.getPoints().get(index);
+            point.setNombre(point.getNombre() + nombre);
+            total += nombre;
+        }
+        serie.setTotal(total);
+
+        log.debug("Série {} du {} au {}: {} points, {} dépôts", granularite, debut, fin,
+                serie.getPoints().size(), total);
+        return serie;
+    }
+
+    private LocalDate aligner(LocalDate date, Granularite granularite) {
+        return switch (granularite) {
+            case JOUR -> date;
+            case SEMAINE -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MOIS -> date.withDayOfMonth(1);
+        };
+    }
+
+    private LocalDate suivant(LocalDate intervalle, Granularite granularite) {
+        return switch (granularite) {
+            case JOUR -> intervalle.plusDays(1);
+            case SEMAINE -> intervalle.plusWeeks(1);
+            case MOIS -> intervalle.plusMonths(1);
+        };
+    }
+
+    static String libelle(LocalDate intervalle, Granularite granularite) {
+        return switch (granularite) {
+            case JOUR -> intervalle.format(FORMAT_JOUR);
+            case SEMAINE -> "S" + intervalle.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR)
+                    + " " + intervalle.get(IsoFields.WEEK_BASED_YEAR);
+            case MOIS -> MOIS[intervalle.getMonthValue() - 1] + " " + intervalle.getYear();
+        };
+    }
+}
@@ -0,0 +1,33 @@
+package com.concours.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalide les caches des statistiques (globales et du centre concerné)
+ * quand une candidature change d'état.
+ * L'invalidation a lieu après le commit, les recalculs suivants voient donc la
+ * modification. Un recalcul commencé avant le commit peut encore remettre en cache
+ * des chiffres antérieurs après l'invalidation : ils restent servis jusqu'à
+ * l'événement suivant ou l'expiration du cache (app.cache.statistiques.ttl et
+ * app.cache.statistiques-local.ttl).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StatistiquesCacheListener {
+
+    private final StatistiquesService statistiquesService;
+    private final StatistiquesLocalService statistiquesLocalService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCandidatureEvent(CandidatureEvent event) {
+        log.debug("Candidature {} {} : invalidation des statistiques", event.numero(), event.type());
+        statistiquesService.invaliderCacheStatistiques();
+        if (event.centreId() != null) {
+            statistiquesLocalService.invaliderCache(event.centreId());
+        }
+    }
+}
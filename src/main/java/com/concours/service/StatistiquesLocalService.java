@@ -0,0 +1,79 @@
+package com.concours.service;
+
+import com.concours.config.CacheConfig;
+import com.concours.dto.StatistiquesLocalDTO;
+import com.concours.exception.BusinessException;
+import com.concours.repository.CentreExamenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Tableau de bord des gestionnaires locaux : toutes les valeurs d'un centre
+ * sont lues en une requête (compteurs par statut, capacité, ville, nombre de
+ * spécialités) et gardées en cache quelques secondes par centre.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Slf4j
+public class StatistiquesLocalService {
+
+    private final CentreExamenRepository centreExamenRepository;
+
+    @Cacheable(value = CacheConfig.STATISTIQUES_LOCAL, key = "#centreId")
+    public StatistiquesLocalDTO getStatistiquesLocal(Long centreId) {
+        List<CentreExamenRepository.StatistiqueLocale> lignes = centreExamenRepository.getStatistiquesLocales(centreId);
+        if (lignes.isEmpty()) {
+            throw new BusinessException("Centre d'examen non trouvé");
+        }
+
+        StatistiquesLocalDTO stats = new StatistiquesLocalDTO();
+        CentreExamenRepository.StatistiqueLocale premiere = lignes.get(0);
+        int capacite = premiere.getCapacite() != null ? premiere.getCapacite() : 0;
+
+        long total = 0;
+        for (CentreExamenRepository.StatistiqueLocale ligne : lignes) {
+            if (ligne.getStatut() == null || ligne.getNombre() == null) {
+                continue;
+            }
+            long nombre = ligne.getNombre();
+            total += nombre;
+            switch (ligne.getStatut()) {
+                case VALIDEE -> stats.setNbCandidaturesValidees(nombre);
+                case EN_ATTENTE -> stats.setNbCandidaturesEnAttente(nombre);
+                case REJETEE -> stats.setNbCandidaturesRejetees(nombre);
+            }
+        }
+
+        stats.setNbCandidatsCentre(total);
+        stats.setNbSpecialitesCentre(premiere.getNbSpecialites() != null ? premiere.getNbSpecialites() : 0);
+        stats.setNomCentre(premiere.getVille());
+        stats.setVilleCentre(premiere.getVille());
+        stats.setCapaciteTotale(capacite);
+
+        // Places restantes (capacité - candidatures validées)
+        long validees = stats.getNbCandidaturesValidees();
+        stats.setNbPlacesRestantes(Math.max(0, capacite - validees));
+
+        // Taux de remplissage
+        double tauxRemplissage = capacite > 0 ? (validees * 100.0) / capacite : 0;
+        stats.setTauxRemplissage((int) Math.min(100, Math.round(tauxRemplissage)));
+
+        log.debug("Statistiques du centre {} calculées: {} candidatures", centreId, total);
+        return stats;
+    }
+
+    /**
+     * Retire les statistiques d'un centre du cache
+     */
+    @CacheEvict(value = CacheConfig.STATISTIQUES_LOCAL, key = "#centreId")
+    public void invaliderCache(Long centreId) {
+        log.debug("Cache des statistiques du centre {} invalidé", centreId);
+    }
+}
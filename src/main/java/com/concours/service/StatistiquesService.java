@@ -1,5 +1,7 @@
 package com.concours.service;
 
+import com.concours.config.CacheConfig;
+import com.concours.dto.SerieTemporelleDTO;
 import com.concours.dto.StatistiquesDTO;
 import com.concours.entity.StatutCandidature;
 import com.concours.repository.CandidatureRepository;
@@ -8,11 +10,13 @@ import com.concours.repository.ConcoursRepository;
 import com.concours.repository.UtilisateurRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,6 +31,12 @@ public class StatistiquesService {
     private final ConcoursRepository concoursRepository;
     private final UtilisateurRepository utilisateurRepository;
     private final CentreExamenRepository centreExamenRepository;
+    private final CompteurCandidatureService compteurCandidatureService;
+    private final SerieTemporelleService serieTemporelleService;
+
+    // Nombre de mois affichés dans le graphique des dépôts
+    @Value("${app.statistiques.graphique-mois:12}")
+    private int nbMoisGraphique;
 
     /**
      * Statistiques optimisées pour la page d'accueil publique
@@ -35,8 +45,8 @@ public class StatistiquesService {
         StatistiquesDTO stats = new StatistiquesDTO();
 
         try {
-            // Utiliser des count optimisés
-            Long nbCandidaturesValidees = candidatureRepository.countByStatut(StatutCandidature.VALIDEE);
+            // Lecture des compteurs matérialisés
+            Long nbCandidaturesValidees = compteurCandidatureService.compterParStatut().get(StatutCandidature.VALIDEE);
             stats.setNbCandidatures(nbCandidaturesValidees != null ? nbCandidaturesValidees : 0L);
             stats.setTotalCandidatures(stats.getNbCandidatures()); // Synchronisation
 
@@ -52,39 +62,44 @@ public class StatistiquesService {
     }
 
     /**
-     * Statistiques globales pour le dashboard admin (avec cache pour performance)
+     * Statistiques globales pour le dashboard admin, en cache jusqu'au prochain
+     * changement d'état d'une candidature (voir {@link StatistiquesCacheListener}).
+     * Les valeurs de repli renvoyées après une erreur ne sont pas mises en cache.
+     * La clé contient le mois courant : la série des derniers mois glisse dès le 1er du mois.
      */
-    @Cacheable(value = "statistiques", key = "'globales'")
+    @Cacheable(value = CacheConfig.STATISTIQUES, key = "'globales-' + T(java.time.YearMonth).now()",
+            unless = "#result.parDefaut")
     public StatistiquesDTO getStatistiquesGlobales() {
         StatistiquesDTO stats = new StatistiquesDTO();
 
         try {
             log.info("Calcul des statistiques globales...");
 
-            // Calculs statistiques de base
-            long totalCandidatures = candidatureRepository.count();
-            long candidaturesValidees = candidatureRepository.countByStatut(StatutCandidature.VALIDEE);
-            long candidaturesEnAttente = candidatureRepository.countByStatut(StatutCandidature.EN_ATTENTE);
-            long candidaturesRejetees = candidatureRepository.countByStatut(StatutCandidature.REJETEE);
-            long nbConcours = concoursRepository.count();
-            long nbUtilisateurs = utilisateurRepository.count();
-            long nbCentres = centreExamenRepository.count();
+            // Une seule requête groupée sur les candidatures, repliée en une passe
+            AgregatStatistiques agregat = new AgregatStatistiques();
+            for (CandidatureRepository.AgregatCandidature ligne : candidatureRepository.agregerCandidatures()) {
+                agregat.ajouter(ligne);
+            }
+            long totalCandidatures = agregat.total;
+            ConcoursRepository.CompteursReferentiel referentiel = concoursRepository.compterReferentiel();
+            long nbConcours = referentiel.getNbConcours();
+            long nbUtilisateurs = referentiel.getNbUtilisateurs();
+            long nbCentres = referentiel.getNbCentres();
 
             // Assignation des valeurs
             stats.setTotalCandidatures(totalCandidatures);
             stats.setNbCandidatures(totalCandidatures); // Synchronisation
-            stats.setCandidaturesValidees(candidaturesValidees);
-            stats.setCandidaturesEnAttente(candidaturesEnAttente);
-            stats.setCandidaturesRejetees(candidaturesRejetees);
+            stats.setCandidaturesValidees(agregat.parStatut[StatutCandidature.VALIDEE.ordinal()]);
+            stats.setCandidaturesEnAttente(agregat.parStatut[StatutCandidature.EN_ATTENTE.ordinal()]);
+            stats.setCandidaturesRejetees(agregat.parStatut[StatutCandidature.REJETEE.ordinal()]);
             stats.setNbConcours(nbConcours);
             stats.setNbUtilisateurs(nbUtilisateurs);
             stats.setNbCentres(nbCentres);
 
-            // Calculer les statistiques détaillées avec gestion d'erreur
-            stats.setCandidaturesParConcours(getCandidaturesParConcoursSecure());
-            stats.setCandidaturesParSpecialite(getCandidaturesParSpecialiteSecure());
-            stats.setCandidaturesParCentre(getCandidaturesParCentreSecure());
-            stats.setCandidaturesParMois(getCandidaturesParMoisSecure());
+            stats.setCandidaturesParConcours(versMap(agregat.parConcours, generateDefaultConcoursData()));
+            stats.setCandidaturesParSpecialite(versMap(agregat.parSpecialite, generateDefaultSpecialiteData()));
+            stats.setCandidaturesParCentre(versMap(agregat.parCentre, generateDefaultCentreData()));
+            stats.setCandidaturesParMois(getCandidaturesParMois());
 
             log.info("Statistiques globales calculées avec succès: {} candidatures, {} concours",
                     totalCandidatures, nbConcours);
@@ -105,7 +120,8 @@ public class StatistiquesService {
 
         try {
             long nbConcours = concoursRepository.count();
-            long nbCandidatures = candidatureRepository.count();
+            Map<StatutCandidature, Long> parStatut = compteurCandidatureService.compterParStatut();
+            long nbCandidatures = total(parStatut);
             long nbUtilisateurs = utilisateurRepository.count();
             long nbCentres = centreExamenRepository.count();
 
@@ -116,9 +132,9 @@ public class StatistiquesService {
             stats.setNbCentres(nbCentres);
 
             // Statistiques par statut
-            stats.setCandidaturesValidees(candidatureRepository.countByStatut(StatutCandidature.VALIDEE));
-            stats.setCandidaturesEnAttente(candidatureRepository.countByStatut(StatutCandidature.EN_ATTENTE));
-            stats.setCandidaturesRejetees(candidatureRepository.countByStatut(StatutCandidature.REJETEE));
+            stats.setCandidaturesValidees(parStatut.get(StatutCandidature.VALIDEE));
+            stats.setCandidaturesEnAttente(parStatut.get(StatutCandidature.EN_ATTENTE));
+            stats.setCandidaturesRejetees(parStatut.get(StatutCandidature.REJETEE));
 
         } catch (Exception e) {
             log.error("Erreur lors du calcul des statistiques admin", e);
@@ -128,145 +144,68 @@ public class StatistiquesService {
         return stats;
     }
 
-    // Méthodes privées sécurisées pour calculer les statistiques détaillées
-
-    private Map<String, Long> getCandidaturesParConcoursSecure() {
-        try {
-            List<Map<String, Object>> results = candidatureRepository.getCandidaturesParConcours();
-            if (results == null || results.isEmpty()) {
-                log.debug("Aucune donnée trouvée pour candidatures par concours");
-                return generateDefaultConcoursData();
-            }
-
-            Map<String, Long> resultMap = new LinkedHashMap<>();
-            for (Map<String, Object> result : results) {
-                String concours = (String) result.get("concours");
-                Object countObj = result.get("count");
-
-                if (concours != null && countObj != null) {
-                    Long count = convertToLong(countObj);
-                    resultMap.put(concours, count);
-                }
+    /**
+     * Accumulateurs des statistiques globales : les compteurs sont des long[1]
+     * incrémentés sur place pour ne pas réallouer un Long à chaque ligne
+     */
+    private static final class AgregatStatistiques {
+        private long total;
+        private final long[] parStatut = new long[StatutCandidature.values().length];
+        private final Map<String, long[]> parConcours = new TreeMap<>();
+        private final Map<String, long[]> parSpecialite = new TreeMap<>();
+        private final Map<String, long[]> parCentre = new TreeMap<>();
+
+        private void ajouter(CandidatureRepository.AgregatCandidature ligne) {
+            long nombre = ligne.getNombre() != null ? ligne.getNombre() : 0L;
+            total += nombre;
+            if (ligne.getStatut() != null) {
+                parStatut[ligne.getStatut().ordinal()] += nombre;
             }
-
-            return resultMap.isEmpty() ? generateDefaultConcoursData() : resultMap;
-
-        } catch (Exception e) {
-            log.warn("Erreur lors du calcul des candidatures par concours", e);
-            return generateDefaultConcoursData();
+            incrementer(parConcours, ligne.getConcours(), nombre);
+            incrementer(parSpecialite, ligne.getSpecialite(), nombre);
+            incrementer(parCentre, ligne.getCentre(), nombre);
         }
-    }
-
-    private Map<String, Long> getCandidaturesParSpecialiteSecure() {
-        try {
-            List<Map<String, Object>> results = candidatureRepository.getCandidaturesParSpecialite();
-            if (results == null || results.isEmpty()) {
-                log.debug("Aucune donnée trouvée pour candidatures par spécialité");
-                return generateDefaultSpecialiteData();
-            }
-
-            Map<String, Long> resultMap = new LinkedHashMap<>();
-            for (Map<String, Object> result : results) {
-                String specialite = (String) result.get("specialite");
-                Object countObj = result.get("count");
 
-                if (specialite != null && countObj != null) {
-                    Long count = convertToLong(countObj);
-                    resultMap.put(specialite, count);
-                }
+        private static <K> void incrementer(Map<K, long[]> compteurs, K cle, long nombre) {
+            if (cle != null) {
+                compteurs.computeIfAbsent(cle, k -> new long[1])[0] += nombre;
             }
-
-            return resultMap.isEmpty() ? generateDefaultSpecialiteData() : resultMap;
-
-        } catch (Exception e) {
-            log.warn("Erreur lors du calcul des candidatures par spécialité", e);
-            return generateDefaultSpecialiteData();
         }
     }
 
-    private Map<String, Long> getCandidaturesParCentreSecure() {
-        try {
-            List<Map<String, Object>> results = candidatureRepository.getCandidaturesParCentre();
-            if (results == null || results.isEmpty()) {
-                log.debug("Aucune donnée trouvée pour candidatures par centre");
-                return generateDefaultCentreData();
-            }
-
-            Map<String, Long> resultMap = new LinkedHashMap<>();
-            for (Map<String, Object> result : results) {
-                String centre = (String) result.get("centre");
-                Object countObj = result.get("count");
-
-                if (centre != null && countObj != null) {
-                    Long count = convertToLong(countObj);
-                    resultMap.put(centre, count);
-                }
-            }
-
-            return resultMap.isEmpty() ? generateDefaultCentreData() : resultMap;
-
-        } catch (Exception e) {
-            log.warn("Erreur lors du calcul des candidatures par centre", e);
-            return generateDefaultCentreData();
+    private Map<String, Long> versMap(Map<String, long[]> compteurs, Map<String, Long> valeurParDefaut) {
+        if (compteurs.isEmpty()) {
+            return valeurParDefaut;
         }
+        Map<String, Long> resultMap = new LinkedHashMap<>();
+        compteurs.forEach((cle, nombre) -> resultMap.put(cle, nombre[0]));
+        return resultMap;
     }
 
-    private Map<String, Long> getCandidaturesParMoisSecure() {
-        try {
-            List<Map<String, Object>> results = candidatureRepository.getCandidaturesParMois();
-            if (results == null || results.isEmpty()) {
-                log.debug("Aucune donnée trouvée pour candidatures par mois");
-                return generateDefaultMoisData();
-            }
-
-            Map<String, Long> resultMap = new LinkedHashMap<>();
-            for (Map<String, Object> result : results) {
-                String mois = (String) result.get("mois");
-                Object countObj = result.get("count");
-
-                if (mois != null && countObj != null) {
-                    Long count = convertToLong(countObj);
-                    resultMap.put(formatMoisLabel(mois), count);
-                }
-            }
-
-            return resultMap.isEmpty() ? generateDefaultMoisData() : resultMap;
-
-        } catch (Exception e) {
-            log.warn("Erreur lors du calcul des candidatures par mois", e);
+    /**
+     * Dépôts des derniers mois (mois en cours compris), lus dans les dépôts journaliers
+     */
+    private Map<String, Long> getCandidaturesParMois() {
+        LocalDate fin = LocalDate.now();
+        LocalDate debut = fin.withDayOfMonth(1).minusMonths(nbMoisGraphique - 1L);
+        SerieTemporelleDTO serie = serieTemporelleService.getSerie(debut, fin,
+                SerieTemporelleDTO.Granularite.MOIS, null, null);
+        if (serie.getTotal() == 0) {
             return generateDefaultMoisData();
         }
+        Map<String, Long> resultMap = new LinkedHashMap<>();
+        serie.getPoints().forEach(point -> resultMap.put(point.getLibelle(), point.getNombre()));
+        return resultMap;
     }
 
     // Méthodes utilitaires
 
-    private Long convertToLong(Object obj) {
-        if (obj instanceof Long) {
-            return (Long) obj;
-        } else if (obj instanceof Integer) {
-            return ((Integer) obj).longValue();
-        } else if (obj instanceof Number) {
-            return ((Number) obj).longValue();
-        }
-        return 0L;
-    }
-
-    private String formatMoisLabel(String moisStr) {
-        try {
-            String[] parts = moisStr.split("-");
-            if (parts.length == 2) {
-                int mois = Integer.parseInt(parts[0]);
-                String annee = parts[1];
-                String[] moisNoms = {"Jan", "Fév", "Mar", "Avr", "Mai", "Jun",
-                        "Jul", "Aoû", "Sep", "Oct", "Nov", "Déc"};
-                if (mois >= 1 && mois <= 12) {
-                    return moisNoms[mois - 1] + " " + annee;
-                }
-            }
-        } catch (Exception e) {
-            log.debug("Erreur lors du formatage du mois: {}", moisStr);
+    private long total(Map<StatutCandidature, Long> parStatut) {
+        long total = 0;
+        for (long nombre : parStatut.values()) {
+            total += nombre;
         }
-        return moisStr;
+        return total;
     }
 
     private Map<String, Long> generateDefaultConcoursData() {
@@ -307,12 +246,13 @@ public class StatistiquesService {
         stats.setCandidaturesParSpecialite(generateDefaultSpecialiteData());
         stats.setCandidaturesParCentre(generateDefaultCentreData());
         stats.setCandidaturesParMois(generateDefaultMoisData());
+        stats.setParDefaut(true);
     }
 
     /**
      * Méthode pour invalider le cache des statistiques
      */
-    @CacheEvict(value = "statistiques", allEntries = true)
+    @CacheEvict(value = CacheConfig.STATISTIQUES, allEntries = true)
     public void invaliderCacheStatistiques() {
         log.info("Cache des statistiques invalidé");
     }
@@ -2,16 +2,35 @@ package com.concours.service;
 
 import com.concours.entity.*;
 import com.concours.exception.ValidationException;
+import com.concours.util.NormalisationDiplome;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Service
 public class ValidationService {
 
+    // Règles d'exemple : termes de la spécialité -> termes acceptés dans le diplôme
+    private static final List<RegleAdequation> REGLES_ADEQUATION = List.of(
+            RegleAdequation.of(List.of("comptabilité", "comptable"), List.of("comptabilité", "gestion", "finance")),
+            RegleAdequation.of(List.of("informatique", "réseaux"), List.of("informatique", "réseaux", "systèmes")),
+            RegleAdequation.of(List.of("génie civil", "btp"), List.of("génie civil", "btp", "construction")));
+
+    /**
+     * Termes mis sous forme normalisée une fois pour toutes
+     */
+    private record RegleAdequation(List<String> specialites, List<String> diplomes) {
+        static RegleAdequation of(List<String> specialites, List<String> diplomes) {
+            return new RegleAdequation(
+                    specialites.stream().map(NormalisationDiplome::normaliser).toList(),
+                    diplomes.stream().map(NormalisationDiplome::normaliser).toList());
+        }
+    }
+
     public void validerCandidature(Candidat candidat, Concours concours, Specialite specialite) {
         Map<String, String> erreurs = new HashMap<>();
 
@@ -53,26 +72,14 @@ public class ValidationService {
             return false;
         }
 
-        String diplomeNormalise = diplome.toLowerCase().trim();
-        String specialiteNormalisee = specialite.toLowerCase().trim();
-
-        // Règles d'exemple
-        if (specialiteNormalisee.contains("comptabilité") || specialiteNormalisee.contains("comptable")) {
-            return diplomeNormalise.contains("comptabilité") ||
-                    diplomeNormalise.contains("gestion") ||
-                    diplomeNormalise.contains("finance");
-        }
-
-        if (specialiteNormalisee.contains("informatique") || specialiteNormalisee.contains("réseaux")) {
-            return diplomeNormalise.contains("informatique") ||
-                    diplomeNormalise.contains("réseaux") ||
-                    diplomeNormalise.contains("systèmes");
-        }
+        String diplomeNormalise = NormalisationDiplome.normaliser(diplome);
+        String specialiteNormalisee = NormalisationDiplome.normaliser(specialite);
 
-        if (specialiteNormalisee.contains("génie civil") || specialiteNormalisee.contains("btp")) {
-            return diplomeNormalise.contains("génie civil") ||
-                    diplomeNormalise.contains("btp") ||
-                    diplomeNormalise.contains("construction");
+        // Première règle dont la spécialité relève
+        for (RegleAdequation regle : REGLES_ADEQUATION) {
+            if (NormalisationDiplome.contientUnTerme(specialiteNormalisee, regle.specialites())) {
+                return NormalisationDiplome.contientUnTerme(diplomeNormalise, regle.diplomes());
+            }
         }
 
         // Par défaut, accepter si aucune règle spécifique
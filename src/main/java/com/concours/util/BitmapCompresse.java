@@ -0,0 +1,419 @@
+package com.concours.util;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble d'entiers positifs compressé, sur le principe des bitmaps "roaring" : les
+ * valeurs sont réparties par blocs de 65536 selon leurs 16 bits de poids fort, et chaque
+ * bloc est stocké selon sa densité, en tableau trié des 16 bits de poids faible (jusqu'à
+ * 4096 valeurs) ou en bitmap de 65536 bits. Un bloc n'occupe donc jamais plus de 8 Ko,
+ * et les intersections et comptages se font bloc par bloc, sans décompresser.
+ * <p>
+ * Non synchronisé : l'appelant protège les accès concurrents.
+ */
+public final class BitmapCompresse {
+
+    // Au-delà, un tableau de valeurs 16 bits occupe plus que le bitmap de 8 Ko
+    private static final int TAILLE_MAX_TABLEAU = 4096;
+
+    private char[] cles = new char[0];
+    private Bloc[] blocs = new Bloc[0];
+    private int nombreBlocs;
+
+    public void ajouter(int valeur) {
+        verifier(valeur);
+        char cle = (char) (valeur >>> 16);
+        int i = chercher(cle);
+        if (i >= 0) {
+            blocs[i] = blocs[i].ajouter((char) valeur);
+        } else {
+            inserer(-i - 1, cle, new BlocTableau().ajouter((char) valeur));
+        }
+    }
+
+    public void retirer(int valeur) {
+        verifier(valeur);
+        int i = chercher((char) (valeur >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Bloc bloc = blocs[i].retirer((char) valeur);
+        if (bloc.cardinalite() == 0) {
+            supprimer(i);
+        } else {
+            blocs[i] = bloc;
+        }
+    }
+
+    public boolean contient(int valeur) {
+        if (valeur < 0) {
+            return false;
+        }
+        int i = chercher((char) (valeur >>> 16));
+        return i >= 0 && blocs[i].contient((char) valeur);
+    }
+
+    public long cardinalite() {
+        long total = 0;
+        for (int i = 0; i < nombreBlocs; i++) {
+            total += blocs[i].cardinalite();
+        }
+        return total;
+    }
+
+    public boolean estVide() {
+        return nombreBlocs == 0;
+    }
+
+    /**
+     * Intersection, dans un nouveau bitmap
+     */
+    public BitmapCompresse et(BitmapCompresse autre) {
+        BitmapCompresse resultat = new BitmapCompresse();
+        int i = 0;
+        int j = 0;
+        while (i < nombreBlocs && j < autre.nombreBlocs) {
+            if (cles[i] < autre.cles[j]) {
+                i++;
+            } else if (cles[i] > autre.cles[j]) {
+                j++;
+            } else {
+                Bloc bloc = blocs[i].et(autre.blocs[j]);
+                if (bloc.cardinalite() > 0) {
+                    resultat.inserer(resultat.nombreBlocs, cles[i], bloc);
+                }
+                i++;
+                j++;
+            }
+        }
+        return resultat;
+    }
+
+    /**
+     * Cardinalité de l'intersection, sans la construire
+     */
+    public long cardinaliteEt(BitmapCompresse autre) {
+        long total = 0;
+        int i = 0;
+        int j = 0;
+        while (i < nombreBlocs && j < autre.nombreBlocs) {
+            if (cles[i] < autre.cles[j]) {
+                i++;
+            } else if (cles[i] > autre.cles[j]) {
+                j++;
+            } else {
+                total += blocs[i].cardinaliteEt(autre.blocs[j]);
+                i++;
+                j++;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Au plus {@code limite} valeurs, de la plus grande à la plus petite
+     */
+    public int[] plusGrandes(int limite) {
+        int[] resultat = new int[(int) Math.min(limite, cardinalite())];
+        int n = 0;
+        for (int i = nombreBlocs - 1; i >= 0 && n < resultat.length; i--) {
+            n = blocs[i].decroissantes(cles[i] << 16, resultat, n);
+        }
+        return resultat;
+    }
+
+    public BitmapCompresse copie() {
+        BitmapCompresse copie = new BitmapCompresse();
+        copie.cles = Arrays.copyOf(cles, nombreBlocs);
+        copie.blocs = new Bloc[nombreBlocs];
+        for (int i = 0; i < nombreBlocs; i++) {
+            copie.blocs[i] = blocs[i].copie();
+        }
+        copie.nombreBlocs = nombreBlocs;
+        return copie;
+    }
+
+    private static void verifier(int valeur) {
+        if (valeur < 0) {
+            throw new IllegalArgumentException("Valeur négative: " + valeur);
+        }
+    }
+
+    private int chercher(char cle) {
+        return Arrays.binarySearch(cles, 0, nombreBlocs, cle);
+    }
+
+    private void inserer(int position, char cle, Bloc bloc) {
+        if (nombreBlocs == cles.length) {
+            int capacite = Math.max(4, nombreBlocs * 2);
+            cles = Arrays.copyOf(cles, capacite);
+            blocs = Arrays.copyOf(blocs, capacite);
+        }
+        System.arraycopy(cles, position, cles, position + 1, nombreBlocs - position);
+        System.arraycopy(blocs, position, blocs, position + 1, nombreBlocs - position);
+        cles[position] = cle;
+        blocs[position] = bloc;
+        nombreBlocs++;
+    }
+
+    private void supprimer(int position) {
+        System.arraycopy(cles, position + 1, cles, position, nombreBlocs - position - 1);
+        System.arraycopy(blocs, position + 1, blocs, position, nombreBlocs - position - 1);
+        nombreBlocs--;
+        blocs[nombreBlocs] = null;
+    }
+
+    /**
+     * Valeurs (16 bits de poids faible) d'un bloc. Les opérations de modification
+     * retournent le bloc à conserver, qui change de représentation selon la densité.
+     */
+    private abstract static sealed class Bloc permits BlocTableau, BlocBitmap {
+        abstract int cardinalite();
+
+        abstract boolean contient(char valeur);
+
+        abstract Bloc ajouter(char valeur);
+
+        abstract Bloc retirer(char valeur);
+
+        abstract Bloc et(Bloc autre);
+
+        abstract int cardinaliteEt(Bloc autre);
+
+        /**
+         * Copie les valeurs (augmentées de {@code base}) dans l'ordre décroissant à partir
+         * de {@code resultat[n]}, tant qu'il reste de la place
+         *
+         * @return nouvelle position dans {@code resultat}
+         */
+        abstract int decroissantes(int base, int[] resultat, int n);
+
+        abstract Bloc copie();
+    }
+
+    private static final class BlocTableau extends Bloc {
+        private char[] valeurs = new char[4];
+        private int taille;
+
+        @Override
+        int cardinalite() {
+            return taille;
+        }
+
+        @Override
+        boolean contient(char valeur) {
+            return Arrays.binarySearch(valeurs, 0, taille, valeur) >= 0;
+        }
+
+        @Override
+        Bloc ajouter(char valeur) {
+            int i = Arrays.binarySearch(valeurs, 0, taille, valeur);
+            if (i >= 0) {
+                return this;
+            }
+            if (taille == TAILLE_MAX_TABLEAU) {
+                return enBitmap().ajouter(valeur);
+            }
+            i = -i - 1;
+            if (taille == valeurs.length) {
+                valeurs = Arrays.copyOf(valeurs, Math.min(TAILLE_MAX_TABLEAU, taille * 2));
+            }
+            System.arraycopy(valeurs, i, valeurs, i + 1, taille - i);
+            valeurs[i] = valeur;
+            taille++;
+            return this;
+        }
+
+        @Override
+        Bloc retirer(char valeur) {
+            int i = Arrays.binarySearch(valeurs, 0, taille, valeur);
+            if (i >= 0) {
+                System.arraycopy(valeurs, i + 1, valeurs, i, taille - i - 1);
+                taille--;
+            }
+            return this;
+        }
+
+        @Override
+        Bloc et(Bloc autre) {
+            BlocTableau resultat = new BlocTableau();
+            resultat.valeurs = new char[Math.max(1, Math.min(taille, autre.cardinalite()))];
+            if (autre instanceof BlocTableau tableau) {
+                int i = 0;
+                int j = 0;
+                while (i < taille && j < tableau.taille) {
+                    if (valeurs[i] < tableau.valeurs[j]) {
+                        i++;
+                    } else if (valeurs[i] > tableau.valeurs[j]) {
+                        j++;
+                    } else {
+                        resultat.valeurs[resultat.taille++] = valeurs[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < taille; i++) {
+                    if (autre.contient(valeurs[i])) {
+                        resultat.valeurs[resultat.taille++] = valeurs[i];
+                    }
+                }
+            }
+            return resultat;
+        }
+
+        @Override
+        int cardinaliteEt(Bloc autre) {
+            int total = 0;
+            if (autre instanceof BlocTableau tableau) {
+                int i = 0;
+                int j = 0;
+                while (i < taille && j < tableau.taille) {
+                    if (valeurs[i] < tableau.valeurs[j]) {
+                        i++;
+                    } else if (valeurs[i] > tableau.valeurs[j]) {
+                        j++;
+                    } else {
+                        total++;
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < taille; i++) {
+                    if (autre.contient(valeurs[i])) {
+                        total++;
+                    }
+                }
+            }
+            return total;
+        }
+
+        @Override
+        int decroissantes(int base, int[] resultat, int n) {
+            for (int i = taille - 1; i >= 0 && n < resultat.length; i--) {
+                resultat[n++] = base | valeurs[i];
+            }
+            return n;
+        }
+
+        @Override
+        Bloc copie() {
+            BlocTableau copie = new BlocTableau();
+            copie.valeurs = Arrays.copyOf(valeurs, Math.max(1, taille));
+            copie.taille = taille;
+            return copie;
+        }
+
+        private BlocBitmap enBitmap() {
+            BlocBitmap bitmap = new BlocBitmap();
+            for (int i = 0; i < taille; i++) {
+                bitmap.mots[valeurs[i] >>> 6] |= 1L << valeurs[i];
+            }
+            bitmap.cardinalite = taille;
+            return bitmap;
+        }
+    }
+
+    private static final class BlocBitmap extends Bloc {
+        private final long[] mots = new long[1024];
+        private int cardinalite;
+
+        @Override
+        int cardinalite() {
+            return cardinalite;
+        }
+
+        @Override
+        boolean contient(char valeur) {
+            return (mots[valeur >>> 6] & (1L << valeur)) != 0;
+        }
+
+        @Override
+        Bloc ajouter(char valeur) {
+            long avant = mots[valeur >>> 6];
+            long apres = avant | (1L << valeur);
+            if (avant != apres) {
+                mots[valeur >>> 6] = apres;
+                cardinalite++;
+            }
+            return this;
+        }
+
+        @Override
+        Bloc retirer(char valeur) {
+            long avant = mots[valeur >>> 6];
+            long apres = avant & ~(1L << valeur);
+            if (avant != apres) {
+                mots[valeur >>> 6] = apres;
+                cardinalite--;
+                if (cardinalite <= TAILLE_MAX_TABLEAU) {
+                    return enTableau();
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Bloc et(Bloc autre) {
+            if (autre instanceof BlocTableau) {
+                return autre.et(this);
+            }
+            BlocBitmap bitmap = (BlocBitmap) autre;
+            BlocBitmap resultat = new BlocBitmap();
+            for (int i = 0; i < mots.length; i++) {
+                resultat.mots[i] = mots[i] & bitmap.mots[i];
+                resultat.cardinalite += Long.bitCount(resultat.mots[i]);
+            }
+            return resultat.cardinalite <= TAILLE_MAX_TABLEAU ? resultat.enTableau() : resultat;
+        }
+
+        @Override
+        int cardinaliteEt(Bloc autre) {
+            if (autre instanceof BlocTableau) {
+                return autre.cardinaliteEt(this);
+            }
+            BlocBitmap bitmap = (BlocBitmap) autre;
+            int total = 0;
+            for (int i = 0; i < mots.length; i++) {
+                total += Long.bitCount(mots[i] & bitmap.mots[i]);
+            }
+            return total;
+        }
+
+        @Override
+        int decroissantes(int base, int[] resultat, int n) {
+            for (int i = mots.length - 1; i >= 0 && n < resultat.length; i--) {
+                long mot = mots[i];
+                while (mot != 0 && n < resultat.length) {
+                    int bit = 63 - Long.numberOfLeadingZeros(mot);
+                    resultat[n++] = base | (i << 6) | bit;
+                    mot &= ~(1L << bit);
+                }
+            }
+            return n;
+        }
+
+        @Override
+        Bloc copie() {
+            BlocBitmap copie = new BlocBitmap();
+            System.arraycopy(mots, 0, copie.mots, 0, mots.length);
+            copie.cardinalite = cardinalite;
+            return copie;
+        }
+
+        private BlocTableau enTableau() {
+            BlocTableau tableau = new BlocTableau();
+            tableau.valeurs = new char[Math.max(1, cardinalite)];
+            for (int i = 0; i < mots.length; i++) {
+                long mot = mots[i];
+                while (mot != 0) {
+                    int bit = Long.numberOfTrailingZeros(mot);
+                    tableau.valeurs[tableau.taille++] = (char) ((i << 6) | bit);
+                    mot &= mot - 1;
+                }
+            }
+            return tableau;
+        }
+    }
+}
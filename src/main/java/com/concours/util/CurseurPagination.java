@@ -0,0 +1,53 @@
+package com.concours.util;
+
+import com.concours.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position dans une liste de candidatures triée par (dateDepot, numero) : la ligne
+ * à partir de laquelle lire et le sens de lecture. Transmise aux pages et à l'API
+ * sous forme d'un jeton opaque (base64 URL) que le client renvoie tel quel.
+ *
+ * @param precedent true pour lire la page qui précède la ligne, false pour celle qui la suit
+ */
+public record CurseurPagination(boolean precedent, LocalDate dateDepot, String numero) {
+
+    private static final char SEPARATEUR = '|';
+
+    public static CurseurPagination apres(LocalDate dateDepot, String numero) {
+        return new CurseurPagination(false, dateDepot, numero);
+    }
+
+    public static CurseurPagination avant(LocalDate dateDepot, String numero) {
+        return new CurseurPagination(true, dateDepot, numero);
+    }
+
+    public String encoder() {
+        String valeur = (precedent ? "P" : "S") + SEPARATEUR + dateDepot + SEPARATEUR + numero;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valeur.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return null pour un jeton absent (première page)
+     * @throws BusinessException si le jeton n'a pas été produit par {@link #encoder()}
+     */
+    public static CurseurPagination decoder(String jeton) {
+        if (jeton == null || jeton.isBlank()) {
+            return null;
+        }
+        try {
+            String valeur = new String(Base64.getUrlDecoder().decode(jeton), StandardCharsets.UTF_8);
+            String[] parties = valeur.split("\\" + SEPARATEUR, 3);
+            if (parties.length != 3 || !(parties[0].equals("P") || parties[0].equals("S")) || parties[2].isEmpty()) {
+                throw new BusinessException("Curseur de pagination invalide");
+            }
+            return new CurseurPagination(parties[0].equals("P"), LocalDate.parse(parties[1]), parties[2]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.concours.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Forme normalisée d'un intitulé de diplôme saisi librement : minuscules sans accents
+ * ni ponctuation, abréviations et synonymes remplacés par leur forme de référence,
+ * mots vides retirés. « Diplôme d'Ingénieur en Génie-Civil » et « ing génie civil »
+ * ont la même forme, « ingenieur genie civil », et donc le même code canonique.
+ */
+public final class NormalisationDiplome {
+
+    private NormalisationDiplome() {
+        // Classe utilitaire - constructeur privé
+    }
+
+    // Longueur de la colonne diplome.code
+    public static final int LONGUEUR_CODE = 100;
+
+    private static final Pattern DIACRITIQUES = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATEURS = Pattern.compile("[^a-z0-9]+");
+
+    private static final Set<String> MOTS_VIDES = Set.of(
+            "a", "au", "aux", "d", "de", "des", "du", "en", "et", "l", "la", "le", "les",
+            "diplome", "option", "filiere");
+
+    // Abréviations et variantes d'un mot, remplacées mot à mot
+    private static final Map<String, String> SYNONYMES_MOTS = Map.ofEntries(
+            Map.entry("info", "informatique"),
+            Map.entry("compta", "comptabilite"),
+            Map.entry("eco", "economie"),
+            Map.entry("ing", "ingenieur"),
+            Map.entry("ingenieurs", "ingenieur"),
+            Map.entry("lic", "licence"),
+            Map.entry("lp", "licence professionnelle"),
+            Map.entry("gc", "genie civil"),
+            Map.entry("ts", "technicien specialise"),
+            Map.entry("reseau", "reseaux"),
+            Map.entry("systeme", "systemes"));
+
+    // Intitulés développés remplacés par leur sigle, après retrait des mots vides
+    private static final Map<String, String> SYNONYMES_EXPRESSIONS = Map.of(
+            "universitaire technologie", "dut",
+            "brevet technicien superieur", "bts",
+            "etudes universitaires generales", "deug",
+            "etudes superieures specialisees", "dess",
+            "etudes approfondies", "dea");
+
+    /**
+     * @return la forme normalisée, vide si l'intitulé ne contient aucun mot significatif
+     */
+    public static String normaliser(String intitule) {
+        if (intitule == null || intitule.isBlank()) {
+            return "";
+        }
+        String sansAccents = DIACRITIQUES.matcher(Normalizer.normalize(intitule, Normalizer.Form.NFD)).replaceAll("");
+
+        List<String> mots = new ArrayList<>();
+        for (String mot : SEPARATEURS.split(sansAccents.toLowerCase(Locale.ROOT))) {
+            if (!mot.isEmpty() && !MOTS_VIDES.contains(mot)) {
+                mots.add(SYNONYMES_MOTS.getOrDefault(mot, mot));
+            }
+        }
+
+        String forme = " " + String.join(" ", mots) + " ";
+        for (Map.Entry<String, String> synonyme : SYNONYMES_EXPRESSIONS.entrySet()) {
+            forme = forme.replace(" " + synonyme.getKey() + " ", " " + synonyme.getValue() + " ");
+        }
+        return forme.trim();
+    }
+
+    /**
+     * Code canonique d'une forme normalisée : INGENIEUR_GENIE_CIVIL
+     */
+    public static String code(String forme) {
+        String code = forme.toUpperCase(Locale.ROOT).replace(' ', '_');
+        return code.length() > LONGUEUR_CODE ? code.substring(0, LONGUEUR_CODE) : code;
+    }
+
+    /**
+     * Forme normalisée d'un code canonique (inverse de {@link #code})
+     */
+    public static String forme(String code) {
+        return code.toLowerCase(Locale.ROOT).replace('_', ' ');
+    }
+
+    /**
+     * Vrai si la forme normalisée contient l'un des termes (déjà normalisés) comme suite de mots entiers
+     */
+    public static boolean contientUnTerme(String forme, Collection<String> termes) {
+        String mots = " " + forme + " ";
+        for (String terme : termes) {
+            if (!terme.isEmpty() && mots.contains(" " + terme + " ")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,199 @@
+package com.concours.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * PDF d'une page construit une seule fois, dont seul le flux de contenu varie.
+ * <p>
+ * Le flux de contenu (objet 4) est placé en dernier : les objets fixes (catalogue,
+ * pages, page, police) ont donc des offsets constants et la table xref est calculée
+ * une fois pour toutes. À chaque rendu, seuls les champs variables sont écrits
+ * (échappés, en WinAnsi) dans un tampon réutilisé par thread, puis la longueur du
+ * flux et startxref sont complétés.
+ * <p>
+ * Les champs sont notés {0}, {1}... dans le modèle du flux de contenu.
+ */
+public final class PdfTemplate {
+
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\d+)}");
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    // Tampon de travail réutilisé par les threads du serveur
+    private static final ThreadLocal<byte[][]> BUFFER = ThreadLocal.withInitial(() -> new byte[][]{new byte[INITIAL_BUFFER_SIZE]});
+
+    // %PDF ... objets 1, 2, 3 et 5 ... "4 0 obj\n<< /Length "
+    private final byte[] prefix;
+    // ">>\nstream\n"
+    private final byte[] beforeContent;
+    // "\nendstream\nendobj\n"
+    private final byte[] afterContent;
+    // "xref ... trailer ... startxref\n"
+    private final byte[] xref;
+    // "\n%%EOF\n"
+    private final byte[] eof;
+
+    private final byte[][] segments;
+    private final int[] fieldIndexes;
+
+    private PdfTemplate(byte[] prefix, byte[] beforeContent, byte[] afterContent, byte[] xref, byte[] eof,
+                        byte[][] segments, int[] fieldIndexes) {
+        this.prefix = prefix;
+        this.beforeContent = beforeContent;
+        this.afterContent = afterContent;
+        this.xref = xref;
+        this.eof = eof;
+        this.segments = segments;
+        this.fieldIndexes = fieldIndexes;
+    }
+
+    /**
+     * Prépare un modèle à partir des opérateurs du flux de contenu (BT ... ET)
+     */
+    public static PdfTemplate compile(String contentTemplate) {
+        String[] objects = {
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 612 792] /Contents 4 0 R /Resources << /Font << /F1 5 0 R >> >> >>",
+                null, // flux de contenu, écrit en dernier
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>"
+        };
+
+        // En-tête avec commentaire binaire pour que le fichier soit traité comme binaire
+        StringBuilder head = new StringBuilder("%PDF-1.4\n%âãÏÓ\n");
+        long[] offsets = new long[objects.length + 1];
+        for (int number : new int[]{1, 2, 3, 5}) {
+            offsets[number] = head.length();
+            head.append(number).append(" 0 obj\n").append(objects[number - 1]).append("\nendobj\n");
+        }
+        offsets[4] = head.length();
+        head.append("4 0 obj\n<< /Length ");
+
+        StringBuilder table = new StringBuilder("xref\n0 ").append(objects.length + 1).append('\n');
+        table.append("0000000000 65535 f \n");
+        for (int number = 1; number <= objects.length; number++) {
+            table.append(String.format("%010d 00000 n \n", offsets[number]));
+        }
+        table.append("trailer\n<< /Size ").append(objects.length + 1).append(" /Root 1 0 R >>\nstartxref\n");
+
+        // Découpage du modèle du flux de contenu autour des champs
+        List<byte[]> segments = new ArrayList<>();
+        List<Integer> fields = new ArrayList<>();
+        Matcher matcher = PLACEHOLDER.matcher(contentTemplate);
+        int last = 0;
+        while (matcher.find()) {
+            segments.add(latin1(contentTemplate.substring(last, matcher.start())));
+            fields.add(Integer.parseInt(matcher.group(1)));
+            last = matcher.end();
+        }
+        segments.add(latin1(contentTemplate.substring(last)));
+
+        return new PdfTemplate(
+                latin1(head.toString()),
+                latin1(" >>\nstream\n"),
+                latin1("\nendstream\nendobj\n"),
+                latin1(table.toString()),
+                latin1("\n%%EOF\n"),
+                segments.toArray(new byte[0][]),
+                fields.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Produit le PDF avec les valeurs données pour les champs {0}, {1}...
+     */
+    public byte[] render(String... values) {
+        byte[][] holder = BUFFER.get();
+        byte[] buffer = holder[0];
+        int length = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            buffer = ensureCapacity(holder, buffer, length + segments[i].length);
+            System.arraycopy(segments[i], 0, buffer, length, segments[i].length);
+            length += segments[i].length;
+
+            if (i < fieldIndexes.length) {
+                int field = fieldIndexes[i];
+                String value = field < values.length && values[field] != null ? values[field] : "";
+                // Pire cas : chaque caractère échappé
+                buffer = ensureCapacity(holder, buffer, length + 2 * value.length());
+                length = writeEscaped(value, buffer, length);
+            }
+        }
+
+        int startxref = prefix.length + digits(length) + beforeContent.length + length + afterContent.length;
+        int total = startxref + xref.length + digits(startxref) + eof.length;
+
+        byte[] pdf = new byte[total];
+        int pos = copy(prefix, pdf, 0);
+        pos = writeNumber(length, pdf, pos);
+        pos = copy(beforeContent, pdf, pos);
+        System.arraycopy(buffer, 0, pdf, pos, length);
+        pos += length;
+        pos = copy(afterContent, pdf, pos);
+        pos = copy(xref, pdf, pos);
+        pos = writeNumber(startxref, pdf, pos);
+        copy(eof, pdf, pos);
+        return pdf;
+    }
+
+    /**
+     * Échappe une chaîne littérale PDF ; les caractères hors WinAnsi/Latin-1 deviennent '?'
+     */
+    private static int writeEscaped(String value, byte[] buffer, int pos) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                buffer[pos++] = '\\';
+                buffer[pos++] = (byte) c;
+            } else if (c < 0x20) {
+                buffer[pos++] = ' ';
+            } else if (c > 0xFF) {
+                buffer[pos++] = '?';
+            } else {
+                buffer[pos++] = (byte) c;
+            }
+        }
+        return pos;
+    }
+
+    private static byte[] ensureCapacity(byte[][] holder, byte[] buffer, int required) {
+        if (required <= buffer.length) {
+            return buffer;
+        }
+        byte[] larger = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        holder[0] = larger;
+        return larger;
+    }
+
+    private static int copy(byte[] source, byte[] target, int pos) {
+        System.arraycopy(source, 0, target, pos, source.length);
+        return pos + source.length;
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        while (value >= 10) {
+            value /= 10;
+            digits++;
+        }
+        return digits;
+    }
+
+    private static int writeNumber(int value, byte[] target, int pos) {
+        int end = pos + digits(value);
+        for (int i = end - 1; i >= pos; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return end;
+    }
+
+    private static byte[] latin1(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+}
@@ -0,0 +1,103 @@
+package com.concours.util;
+
+import com.concours.exception.BusinessException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Flux d'upload contrôlé au fil de la lecture : vérifie l'en-tête PDF dès les
+ * premiers octets et interrompt la lecture dès que la taille maximale est dépassée,
+ * sans jamais garder le fichier en mémoire.
+ */
+public class PdfUploadInputStream extends FilterInputStream {
+
+    private static final byte[] PDF_MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+
+    private final long maxSize;
+    private long count;
+
+    public PdfUploadInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    private static final int TAILLE_SAUT = 8192;
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) {
+            verifier(new byte[]{(byte) b}, 0, 1);
+        } else {
+            verifierFin();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            verifier(b, off, n);
+        } else if (n < 0) {
+            verifierFin();
+        }
+        return n;
+    }
+
+    /**
+     * Les octets sautés sont lus et contrôlés comme les autres (en-tête, taille, fin prématurée)
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        byte[] tampon = new byte[(int) Math.min(TAILLE_SAUT, n)];
+        long sautes = 0;
+        while (sautes < n) {
+            int lus = read(tampon, 0, (int) Math.min(tampon.length, n - sautes));
+            if (lus < 0) {
+                break;
+            }
+            sautes += lus;
+        }
+        return sautes;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Nombre d'octets lus jusqu'ici
+     */
+    public long getCount() {
+        return count;
+    }
+
+    private void verifierFin() {
+        if (count < PDF_MAGIC.length) {
+            throw new BusinessException("Le fichier n'est pas un PDF valide");
+        }
+    }
+
+    private void verifier(byte[] b, int off, int n) {
+        // En-tête vérifié octet par octet : il peut arriver sur plusieurs lectures
+        for (int i = 0; i < n && count + i < PDF_MAGIC.length; i++) {
+            if (b[off + i] != PDF_MAGIC[(int) count + i]) {
+                throw new BusinessException("Le fichier n'est pas un PDF valide");
+            }
+        }
+
+        count += n;
+        if (count > maxSize) {
+            throw new BusinessException(String.format(
+                    "Le fichier dépasse la taille maximale autorisée (%.1f MB)", maxSize / (1024.0 * 1024.0)));
+        }
+    }
+}
@@ -0,0 +1,4 @@
+CREATE INDEX idx_candidature_centre_specialite_statut ON candidature (centre_examen_id, specialite_id, statut);
+
+DROP INDEX idx_compteur_candidature_centre ON compteur_candidature;
+CREATE INDEX idx_compteur_candidature_centre ON compteur_candidature (centre_examen_id, specialite_id, statut);
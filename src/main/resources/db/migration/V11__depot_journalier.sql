@@ -0,0 +1,16 @@
+CREATE TABLE depot_journalier (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    jour DATE NOT NULL,
+    concours_id BIGINT NOT NULL,
+    centre_examen_id BIGINT NOT NULL,
+    nombre BIGINT NOT NULL,
+    CONSTRAINT uk_depot_journalier UNIQUE (jour, concours_id, centre_examen_id)
+);
+
+CREATE INDEX idx_depot_journalier_concours ON depot_journalier (concours_id, jour);
+CREATE INDEX idx_depot_journalier_centre ON depot_journalier (centre_examen_id, jour);
+
+INSERT INTO depot_journalier (jour, concours_id, centre_examen_id, nombre)
+SELECT date_depot, concours_id, centre_examen_id, COUNT(*)
+FROM candidature WHERE date_depot IS NOT NULL
+GROUP BY date_depot, concours_id, centre_examen_id;
@@ -0,0 +1,22 @@
+CREATE TABLE export_job (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    type VARCHAR(20) NOT NULL,
+    format VARCHAR(10) NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    demandeur VARCHAR(50) NOT NULL,
+    concours_id BIGINT NULL,
+    specialite_id BIGINT NULL,
+    centre_examen_id BIGINT NULL,
+    statut_candidature VARCHAR(20) NULL,
+    diplome VARCHAR(100) NULL,
+    progression INT NOT NULL DEFAULT 0,
+    nom_fichier VARCHAR(255) NULL,
+    taille BIGINT NULL,
+    erreur VARCHAR(500) NULL,
+    date_creation DATETIME(6) NOT NULL,
+    date_fin DATETIME(6) NULL,
+    date_expiration DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_export_job_demandeur ON export_job (demandeur, date_creation);
+CREATE INDEX idx_export_job_expiration ON export_job (date_expiration);
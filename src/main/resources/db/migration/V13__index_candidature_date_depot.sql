@@ -0,0 +1 @@
+CREATE INDEX idx_candidature_date_depot_numero ON candidature (date_depot, numero);
@@ -0,0 +1 @@
+CREATE INDEX idx_candidature_centre_date_depot ON candidature (centre_examen_id, date_depot, numero);
@@ -0,0 +1,12 @@
+CREATE TABLE diplome (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    code VARCHAR(100) NOT NULL,
+    libelle VARCHAR(100) NOT NULL,
+    CONSTRAINT uk_diplome_code UNIQUE (code)
+);
+
+-- Renseigné à la soumission, et pour les candidats existants par la normalisation
+-- lancée au démarrage (DiplomeService)
+ALTER TABLE candidat ADD COLUMN diplome_id BIGINT NULL;
+ALTER TABLE candidat ADD CONSTRAINT fk_candidat_diplome FOREIGN KEY (diplome_id) REFERENCES diplome (id);
+CREATE INDEX idx_candidat_diplome ON candidat (diplome_id);
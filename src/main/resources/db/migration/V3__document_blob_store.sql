@@ -0,0 +1,3 @@
+ALTER TABLE document ADD COLUMN blob_key VARCHAR(64);
+ALTER TABLE document MODIFY contenu LONGBLOB NULL;
+CREATE INDEX idx_document_blob_key ON document (blob_key);
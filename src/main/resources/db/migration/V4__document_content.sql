@@ -0,0 +1,10 @@
+CREATE TABLE document_content (
+    document_id BIGINT NOT NULL PRIMARY KEY,
+    contenu LONGBLOB NOT NULL,
+    CONSTRAINT fk_document_content_document FOREIGN KEY (document_id) REFERENCES document (id) ON DELETE CASCADE
+);
+
+INSERT INTO document_content (document_id, contenu)
+SELECT id, contenu FROM document WHERE contenu IS NOT NULL AND blob_key IS NULL;
+
+ALTER TABLE document DROP COLUMN contenu;
@@ -0,0 +1,13 @@
+CREATE TABLE upload_session (
+    id VARCHAR(36) NOT NULL PRIMARY KEY,
+    candidature_id VARCHAR(255) NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    nom_fichier VARCHAR(255) NOT NULL,
+    taille_totale BIGINT NOT NULL,
+    octets_recus BIGINT NOT NULL DEFAULT 0,
+    date_creation DATETIME(6) NOT NULL,
+    date_expiration DATETIME(6) NOT NULL,
+    CONSTRAINT fk_upload_session_candidature FOREIGN KEY (candidature_id) REFERENCES candidature (numero) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_upload_session_expiration ON upload_session (date_expiration);
@@ -0,0 +1,14 @@
+CREATE TABLE document_blob (
+    blob_key VARCHAR(64) NOT NULL PRIMARY KEY,
+    taille BIGINT NOT NULL,
+    ref_count INT NOT NULL,
+    date_creation DATETIME(6) NOT NULL,
+    date_maj DATETIME(6) NOT NULL
+);
+
+CREATE INDEX idx_document_blob_ref_count ON document_blob (ref_count, date_maj);
+
+INSERT INTO document_blob (blob_key, taille, ref_count, date_creation, date_maj)
+SELECT blob_key, MAX(taille), COUNT(*), NOW(6), NOW(6)
+FROM document WHERE blob_key IS NOT NULL
+GROUP BY blob_key;
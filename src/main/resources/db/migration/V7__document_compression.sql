@@ -0,0 +1,3 @@
+ALTER TABLE document ADD COLUMN taux_compression DOUBLE;
+ALTER TABLE document_blob ADD COLUMN taille_stockee BIGINT NOT NULL DEFAULT 0;
+UPDATE document_blob SET taille_stockee = taille;
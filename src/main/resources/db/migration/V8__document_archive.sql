@@ -0,0 +1,3 @@
+ALTER TABLE concours ADD COLUMN date_archivage DATETIME(6);
+ALTER TABLE document ADD COLUMN segment VARCHAR(40);
+ALTER TABLE document ADD COLUMN segment_offset BIGINT;
@@ -0,0 +1,16 @@
+CREATE TABLE compteur_candidature (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    concours_id BIGINT NOT NULL,
+    specialite_id BIGINT NOT NULL,
+    centre_examen_id BIGINT NOT NULL,
+    statut VARCHAR(20) NOT NULL,
+    nombre BIGINT NOT NULL,
+    CONSTRAINT uk_compteur_candidature UNIQUE (concours_id, specialite_id, centre_examen_id, statut)
+);
+
+CREATE INDEX idx_compteur_candidature_centre ON compteur_candidature (centre_examen_id, statut);
+
+INSERT INTO compteur_candidature (concours_id, specialite_id, centre_examen_id, statut, nombre)
+SELECT concours_id, specialite_id, centre_examen_id, statut, COUNT(*)
+FROM candidature
+GROUP BY concours_id, specialite_id, centre_examen_id, statut;
@@ -0,0 +1,48 @@
+/*
+ * Mise à jour en direct des compteurs de candidatures d'un tableau de bord.
+ * Le flux SSE (attribut data-flux du script) envoie d'abord les compteurs complets
+ * (événement "etat", renvoyé à chaque reconnexion), puis des variations par statut ;
+ * elles sont appliquées aux éléments marqués data-compteur="TOTAL|EN_ATTENTE|VALIDEE|REJETEE".
+ */
+(function () {
+    var script = document.currentScript;
+    var url = script && script.getAttribute('data-flux');
+    if (!url || !window.EventSource) {
+        return;
+    }
+
+    function ajouter(statut, delta) {
+        if (!delta) {
+            return;
+        }
+        document.querySelectorAll('[data-compteur="' + statut + '"]').forEach(function (element) {
+            var valeur = parseInt(element.textContent.replace(/\s/g, ''), 10) || 0;
+            element.textContent = Math.max(0, valeur + delta);
+        });
+    }
+
+    function fixer(statut, valeur) {
+        document.querySelectorAll('[data-compteur="' + statut + '"]').forEach(function (element) {
+            element.textContent = valeur;
+        });
+    }
+
+    var source = new EventSource(url);
+    source.addEventListener('etat', function (event) {
+        var message = JSON.parse(event.data);
+        fixer('TOTAL', message.total);
+        Object.keys(message.compteurs || {}).forEach(function (statut) {
+            fixer(statut, message.compteurs[statut]);
+        });
+    });
+    source.addEventListener('compteurs', function (event) {
+        var message = JSON.parse(event.data);
+        ajouter('TOTAL', message.total);
+        Object.keys(message.deltas || {}).forEach(function (statut) {
+            ajouter(statut, message.deltas[statut]);
+        });
+    });
+    window.addEventListener('beforeunload', function () {
+        source.close();
+    });
+})();
@@ -0,0 +1,74 @@
+/*
+ * Exports en arrière-plan depuis les pages de reporting.
+ * Un clic sur un lien marqué data-export-type / data-export-format soumet l'export
+ * (POST data-exports), suit sa progression puis lance le téléchargement. Si la
+ * soumission échoue, le lien garde son comportement (export direct).
+ */
+(function () {
+    var script = document.currentScript;
+    var base = script && script.getAttribute('data-exports');
+    if (!base || !window.fetch) {
+        return;
+    }
+    var csrfHeader = script.getAttribute('data-csrf-header');
+    var csrfToken = script.getAttribute('data-csrf-token');
+
+    function suivre(lien, libelle, id) {
+        fetch(base + '/' + id, {credentials: 'same-origin'})
+            .then(function (reponse) {
+                return reponse.json();
+            })
+            .then(function (exportJob) {
+                if (exportJob.statut === 'TERMINE') {
+                    lien.innerHTML = libelle;
+                    lien.classList.remove('disabled');
+                    window.location = base + '/' + id + '/fichier';
+                } else if (exportJob.statut === 'ECHEC') {
+                    lien.innerHTML = libelle;
+                    lien.classList.remove('disabled');
+                    alert('Échec de l\'export : ' + (exportJob.erreur || 'erreur inconnue'));
+                } else {
+                    lien.textContent = 'Export en cours... ' + exportJob.progression + ' %';
+                    setTimeout(function () {
+                        suivre(lien, libelle, id);
+                    }, 1000);
+                }
+            });
+    }
+
+    document.querySelectorAll('[data-export-type]').forEach(function (lien) {
+        lien.addEventListener('click', function (event) {
+            if (lien.classList.contains('disabled')) {
+                event.preventDefault();
+                return;
+            }
+            event.preventDefault();
+
+            var parametres = new URLSearchParams();
+            parametres.append('type', lien.getAttribute('data-export-type'));
+            parametres.append('format', lien.getAttribute('data-export-format'));
+            var entetes = {};
+            if (csrfHeader && csrfToken) {
+                entetes[csrfHeader] = csrfToken;
+            }
+
+            var libelle = lien.innerHTML;
+            lien.classList.add('disabled');
+            fetch(base, {method: 'POST', body: parametres, headers: entetes, credentials: 'same-origin'})
+                .then(function (reponse) {
+                    if (reponse.status !== 202) {
+                        throw new Error('Soumission refusée: ' + reponse.status);
+                    }
+                    return reponse.json();
+                })
+                .then(function (exportJob) {
+                    suivre(lien, libelle, exportJob.id);
+                })
+                .catch(function () {
+                    // Export direct en repli
+                    lien.classList.remove('disabled');
+                    window.location = lien.href;
+                });
+        });
+    });
+})();
@@ -0,0 +1,181 @@
+package com.concours.service;
+
+import com.concours.entity.*;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Flux NDJSON / CSV des intégrations : échappement, format et reprise après la dernière ligne reçue
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CandidatureExportService.class)
+class CandidatureExportServiceTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private CandidatureExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeEach
+    void setUp() {
+        Ville ville = new Ville();
+        ville.setNom("Rabat");
+        entityManager.persist(ville);
+
+        Concours concours = new Concours();
+        concours.setTitre("Concours A");
+        concours.setDateOuverture(LocalDate.of(2025, 1, 1));
+        concours.setDateCloture(LocalDate.of(2025, 6, 30));
+        concours.setDateConcours(LocalDate.of(2025, 9, 1));
+        entityManager.persist(concours);
+
+        Specialite specialite = new Specialite();
+        specialite.setLibelle("Informatique");
+        specialite.setCode("INF");
+        entityManager.persist(specialite);
+
+        CentreExamen centre = new CentreExamen();
+        centre.setCode("RBT");
+        centre.setVille(ville);
+        entityManager.persist(centre);
+
+        candidature(1, "=1+1", StatutCandidature.EN_ATTENTE, JOUR, concours, specialite, centre);
+        candidature(2, "Bennani", StatutCandidature.VALIDEE, JOUR.plusDays(1), concours, specialite, centre);
+        candidature(3, "Nom, 3", StatutCandidature.EN_ATTENTE, JOUR, concours, specialite, centre);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void echappementCsv() {
+        assertEquals("Alaoui", CandidatureExportService.echapperCsv("Alaoui"));
+        assertEquals("\"Rabat, Agdal\"", CandidatureExportService.echapperCsv("Rabat, Agdal"));
+        assertEquals("\"dit \"\"Momo\"\"\"", CandidatureExportService.echapperCsv("dit \"Momo\""));
+        assertEquals("\"ligne 1\nligne 2\"", CandidatureExportService.echapperCsv("ligne 1\nligne 2"));
+        assertEquals("a=b", CandidatureExportService.echapperCsv("a=b"));
+        assertEquals("", CandidatureExportService.echapperCsv(""));
+
+        // Valeurs qu'un tableur évaluerait comme des formules
+        assertEquals("'=1+1", CandidatureExportService.echapperCsv("=1+1"));
+        assertEquals("\"'=HYPERLINK(\"\"http://x\"\",\"\"y\"\")\"",
+                CandidatureExportService.echapperCsv("=HYPERLINK(\"http://x\",\"y\")"));
+        assertEquals("'+212600000000", CandidatureExportService.echapperCsv("+212600000000"));
+        assertEquals("'-2+3", CandidatureExportService.echapperCsv("-2+3"));
+        assertEquals("'@SUM(A1)", CandidatureExportService.echapperCsv("@SUM(A1)"));
+        assertEquals("'\tx", CandidatureExportService.echapperCsv("\tx"));
+        assertEquals("\"'\rx\"", CandidatureExportService.echapperCsv("\rx"));
+    }
+
+    @Test
+    void fluxNdjson() throws IOException {
+        List<JsonNode> lignes = ndjson(flux(null, null, null));
+
+        // Ordre (dateDepot, numero)
+        assertEquals(List.of("CAND-1", "CAND-3", "CAND-2"), numeros(lignes));
+        JsonNode premiere = lignes.get(0);
+        assertEquals(CandidatureExportService.CHAMPS.length, premiere.size());
+        assertEquals(JOUR.toString(), premiere.get("dateDepot").asText());
+        assertEquals("EN_ATTENTE", premiere.get("statut").asText());
+        // Pas de préfixe en JSON : la valeur est transmise telle quelle
+        assertEquals("=1+1", premiere.get("nom").asText());
+        assertEquals("RBT", premiere.get("centre").asText());
+        assertTrue(premiere.get("telephone").isNull());
+    }
+
+    @Test
+    void fluxCsv() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long nombre = exportService.exporterFlux(null, null, null, StatutCandidature.EN_ATTENTE, null,
+                null, null, null, CandidatureExportService.FormatFlux.CSV, out);
+
+        String[] lignes = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, nombre);
+        assertEquals(3, lignes.length);
+        assertEquals(String.join(",", CandidatureExportService.CHAMPS), lignes[0]);
+        assertEquals("CAND-1," + JOUR + ",EN_ATTENTE,'=1+1,Prenom1,CIN1,candidat1@exemple.ma,,,Concours A,Informatique,RBT",
+                lignes[1]);
+        assertEquals("CAND-3," + JOUR + ",EN_ATTENTE,\"Nom, 3\",Prenom3,CIN3,candidat3@exemple.ma,,,Concours A,Informatique,RBT",
+                lignes[2]);
+    }
+
+    @Test
+    void repriseApresLaDerniereLigneRecue() throws IOException {
+        List<JsonNode> premierLot = ndjson(flux(null, null, 1));
+        assertEquals(List.of("CAND-1"), numeros(premierLot));
+
+        // Reprise après (dateDepot, numero) de la dernière ligne reçue
+        JsonNode derniere = premierLot.get(0);
+        List<JsonNode> suite = ndjson(flux(LocalDate.parse(derniere.get("dateDepot").asText()),
+                derniere.get("numero").asText(), null));
+        assertEquals(List.of("CAND-3", "CAND-2"), numeros(suite));
+
+        assertEquals(List.of(), numeros(ndjson(flux(JOUR.plusDays(1), "CAND-2", null))));
+    }
+
+    private String flux(LocalDate repriseDate, String repriseNumero, Integer limite) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exporterFlux(null, null, null, null, null, repriseDate, repriseNumero, limite,
+                CandidatureExportService.FormatFlux.NDJSON, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private List<JsonNode> ndjson(String contenu) throws IOException {
+        List<JsonNode> lignes = new ArrayList<>();
+        for (String ligne : contenu.split("\n")) {
+            if (!ligne.isEmpty()) {
+                lignes.add(objectMapper.readTree(ligne));
+            }
+        }
+        return lignes;
+    }
+
+    private static List<String> numeros(List<JsonNode> lignes) {
+        return lignes.stream().map(ligne -> ligne.get("numero").asText()).toList();
+    }
+
+    private void candidature(int numero, String nom, StatutCandidature statut, LocalDate dateDepot,
+                             Concours concours, Specialite specialite, CentreExamen centre) {
+        Candidat candidat = new Candidat();
+        candidat.setCin("CIN" + numero);
+        candidat.setNom(nom);
+        candidat.setPrenom("Prenom" + numero);
+        candidat.setEmail("candidat" + numero + "@exemple.ma");
+        entityManager.persist(candidat);
+
+        Candidature candidature = new Candidature();
+        candidature.setNumero("CAND-" + numero);
+        candidature.setCandidat(candidat);
+        candidature.setConcours(concours);
+        candidature.setSpecialite(specialite);
+        candidature.setCentreExamen(centre);
+        candidature.setStatut(statut);
+        candidature.setDateDepot(dateDepot);
+        entityManager.persist(candidature);
+    }
+}
@@ -0,0 +1,239 @@
+package com.concours.service;
+
+import com.concours.dto.CandidatureDTO;
+import com.concours.dto.PageCurseurDTO;
+import com.concours.entity.*;
+import com.concours.mapper.CandidatureMapperImpl;
+import com.concours.mapper.DocumentMapperImpl;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie que les pages des listes de candidatures sont lues avec un nombre de requêtes
+ * constant, quelle que soit leur taille : chaque ligne a son propre candidat, concours,
+ * spécialité, centre, ville et utilisateur traitant, qu'aucune requête par ligne ne doit charger.
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, DiplomeService.class, CandidatureMapperImpl.class, DocumentMapperImpl.class})
+class CandidatureListeQueryCountTest {
+
+    private static final int CANDIDATURES = 60;
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private DocumentService documentService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private DocumentStore documentStore;
+
+    @MockitoBean
+    private DocumentBlobService documentBlobService;
+
+    @MockitoBean
+    private CompteurCandidatureService compteurCandidatureService;
+
+    @MockitoBean
+    private RechercheCandidatureService rechercheCandidatureService;
+
+    @MockitoBean
+    private IndexFacettesService indexFacettesService;
+
+    private Statistics statistics;
+    private final List<String> numeros = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        for (int i = 0; i < CANDIDATURES; i++) {
+            candidature(i);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void pagesEnNombreDeRequetesConstant() {
+        long requetesPetitePage = requetesPourUnePage(null, 5);
+        long requetesGrandePage = requetesPourUnePage(null, 50);
+
+        assertEquals(1, requetesPetitePage);
+        assertEquals(requetesPetitePage, requetesGrandePage);
+    }
+
+    @Test
+    void resultatsDeRechercheEnNombreDeRequetesConstant() {
+        when(rechercheCandidatureService.rechercherApres(eq("nom"), any(), any(), any(), any(), any(),
+                any(), any(), anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int taille = invocation.getArgument(9);
+                    return new RechercheCandidatureService.Resultat(
+                            numeros.subList(0, Math.min(taille, numeros.size())), numeros.size());
+                });
+
+        long requetesPetitePage = requetesPourUnePage("nom", 5);
+        long requetesGrandePage = requetesPourUnePage("nom", 50);
+
+        assertEquals(1, requetesPetitePage);
+        assertEquals(requetesPetitePage, requetesGrandePage);
+    }
+
+    @Test
+    void pageSuivanteMalgreUneCandidatureSupprimeeDeLaBase() {
+        // L'index contient encore une candidature supprimée depuis son indexation
+        List<String> resultats = List.of(numeros.get(0), "CAND-SUPPRIMEE", numeros.get(1), numeros.get(2));
+        when(rechercheCandidatureService.rechercherApres(eq("nom"), any(), any(), any(), any(), any(),
+                any(), any(), anyBoolean(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int taille = invocation.getArgument(9);
+                    return new RechercheCandidatureService.Resultat(resultats.subList(0, taille), resultats.size());
+                });
+
+        PageCurseurDTO<CandidatureDTO> page = candidatureService.getCandidaturesParCurseur("nom", null,
+                null, null, null, null, null, 2, false, CandidatureService.ModeTotal.AUCUN);
+
+        assertEquals(List.of(numeros.get(0)), numeros(page));
+        assertNotNull(page.getSuivant());
+    }
+
+    @Test
+    void parcoursParCurseurDansLesDeuxSens() {
+        List<String> attendus = numeros.stream()
+                .sorted(Comparator.comparing((String numero) -> dateDepot(numero)).thenComparing(numero -> numero)
+                        .reversed())
+                .toList();
+
+        // En avant jusqu'à la dernière page, en suivant les curseurs "suivant"
+        List<List<String>> pages = new ArrayList<>();
+        PageCurseurDTO<CandidatureDTO> page = page(null);
+        assertNull(page.getPrecedent());
+        pages.add(numeros(page));
+        while (page.getSuivant() != null) {
+            page = page(page.getSuivant());
+            pages.add(numeros(page));
+        }
+        assertEquals(attendus, pages.stream().flatMap(List::stream).toList());
+
+        // Puis en arrière jusqu'à la première, en retrouvant les mêmes pages
+        for (int i = pages.size() - 2; i >= 0; i--) {
+            assertNotNull(page.getPrecedent());
+            page = page(page.getPrecedent());
+            assertEquals(pages.get(i), numeros(page));
+        }
+        assertNull(page.getPrecedent());
+        assertNotNull(page.getSuivant());
+    }
+
+    private PageCurseurDTO<CandidatureDTO> page(String curseur) {
+        return candidatureService.getCandidaturesParCurseur(null, null, null, null, null, null, curseur,
+                7, false, CandidatureService.ModeTotal.AUCUN);
+    }
+
+    private static List<String> numeros(PageCurseurDTO<CandidatureDTO> page) {
+        return page.getContent().stream().map(CandidatureDTO::getNumero).toList();
+    }
+
+    private static LocalDate dateDepot(String numero) {
+        return LocalDate.of(2025, 3, 1).plusDays(Integer.parseInt(numero.substring(5)) % 10);
+    }
+
+    private long requetesPourUnePage(String recherche, int taille) {
+        entityManager.clear();
+        statistics.clear();
+        PageCurseurDTO<CandidatureDTO> page = candidatureService.getCandidaturesParCurseur(recherche, null,
+                null, null, null, null, null, taille, false, CandidatureService.ModeTotal.AUCUN);
+        long requetes = statistics.getPrepareStatementCount();
+
+        assertEquals(taille, page.getContent().size());
+        for (CandidatureDTO dto : page.getContent()) {
+            assertNotNull(dto.getCandidatNom());
+            assertNotNull(dto.getConcoursTitre());
+            assertNotNull(dto.getSpecialiteLibelle());
+            assertNotNull(dto.getCentreVille());
+            assertNotNull(dto.getUtilisateurTraitant());
+        }
+        return requetes;
+    }
+
+    private void candidature(int numero) {
+        Ville ville = new Ville();
+        ville.setNom("Ville" + numero);
+        entityManager.persist(ville);
+
+        Concours concours = new Concours();
+        concours.setReference("CONC-" + numero); // Référence générée à la milliseconde : doublons possibles
+        concours.setTitre("Concours" + numero);
+        concours.setDateOuverture(LocalDate.of(2025, 1, 1));
+        concours.setDateCloture(LocalDate.of(2025, 6, 30));
+        concours.setDateConcours(LocalDate.of(2025, 9, 1));
+        entityManager.persist(concours);
+
+        Specialite specialite = new Specialite();
+        specialite.setLibelle("Specialite" + numero);
+        specialite.setCode("S" + numero);
+        entityManager.persist(specialite);
+
+        CentreExamen centre = new CentreExamen();
+        centre.setCode("C" + numero);
+        centre.setVille(ville);
+        entityManager.persist(centre);
+
+        Utilisateur utilisateur = new Utilisateur();
+        utilisateur.setUsername("gestionnaire" + numero);
+        utilisateur.setPassword("secret");
+        utilisateur.setRole(RoleUtilisateur.ROLE_GESTIONNAIRE_LOCAL);
+        entityManager.persist(utilisateur);
+
+        Candidat candidat = new Candidat();
+        candidat.setCin("CIN" + numero);
+        candidat.setNom("Nom" + numero);
+        candidat.setPrenom("Prenom" + numero);
+        candidat.setEmail("candidat" + numero + "@exemple.ma");
+        entityManager.persist(candidat);
+
+        Candidature candidature = new Candidature();
+        candidature.setNumero(String.format("CAND-%03d", numero));
+        candidature.setCandidat(candidat);
+        candidature.setConcours(concours);
+        candidature.setSpecialite(specialite);
+        candidature.setCentreExamen(centre);
+        candidature.setUtilisateurTraitant(utilisateur);
+        candidature.setDateDepot(LocalDate.of(2025, 3, 1).plusDays(numero % 10));
+        entityManager.persist(candidature);
+        numeros.add(candidature.getNumero());
+    }
+}
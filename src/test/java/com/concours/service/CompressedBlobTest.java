@@ -0,0 +1,68 @@
+package com.concours.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Format CDZ1 : relecture, taille d'origine, en-tête invalide et estimation du gain
+ */
+class CompressedBlobTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ecritureEtRelecture() throws IOException {
+        byte[] contenu = "%PDF-1.4 ligne répétée\n".repeat(2000).getBytes(StandardCharsets.UTF_8);
+        Path source = Files.write(dir.resolve("blob"), contenu);
+        Path compresse = CompressedBlob.path(source);
+
+        CompressedBlob.ecrire(source, compresse);
+
+        assertEquals(dir.resolve("blob" + CompressedBlob.EXTENSION), compresse);
+        assertTrue(Files.size(compresse) < contenu.length / 10);
+        assertEquals(contenu.length, CompressedBlob.tailleOrigine(compresse));
+        try (InputStream in = CompressedBlob.open(compresse)) {
+            assertArrayEquals(contenu, in.readAllBytes());
+        }
+
+        CompressedBlob.BlobResource resource = new CompressedBlob.BlobResource(compresse);
+        assertTrue(resource.exists());
+        assertEquals(contenu.length, resource.contentLength());
+        try (InputStream in = resource.getInputStream()) {
+            assertArrayEquals(contenu, in.readAllBytes());
+        }
+    }
+
+    @Test
+    void enTeteInvalide() throws IOException {
+        Path invalide = Files.write(dir.resolve("invalide.z"), "%PDF-1.4 non compressé".getBytes(StandardCharsets.US_ASCII));
+
+        assertThrows(IOException.class, () -> CompressedBlob.open(invalide));
+        assertThrows(IOException.class, () -> CompressedBlob.tailleOrigine(invalide));
+    }
+
+    @Test
+    void estimationDuGain() throws IOException {
+        byte[] aleatoire = new byte[200 * 1024];
+        new Random(42).nextBytes(aleatoire);
+        Path incompressible = Files.write(dir.resolve("aleatoire"), aleatoire);
+        Path repetitif = Files.write(dir.resolve("repetitif"),
+                "0123456789".repeat(20 * 1024).getBytes(StandardCharsets.US_ASCII));
+        Path petit = Files.write(dir.resolve("petit"), "0".repeat(1024).getBytes(StandardCharsets.US_ASCII));
+
+        assertFalse(CompressedBlob.vautLaCompression(incompressible, 0.1));
+        assertTrue(CompressedBlob.vautLaCompression(repetitif, 0.1));
+        // Sous la taille minimale, même très compressible
+        assertFalse(CompressedBlob.vautLaCompression(petit, 0.1));
+    }
+}
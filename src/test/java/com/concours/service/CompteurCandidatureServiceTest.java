@@ -0,0 +1,142 @@
+package com.concours.service;
+
+import com.concours.entity.*;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.CompteurCandidatureRepository;
+import com.concours.repository.DepotJournalierRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Changement de statut conditionnel et réconciliation en place des compteurs
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(CompteurCandidatureService.class)
+class CompteurCandidatureServiceTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private CompteurCandidatureService compteurCandidatureService;
+
+    @Autowired
+    private CompteurCandidatureRepository compteurRepository;
+
+    @Autowired
+    private DepotJournalierRepository depotJournalierRepository;
+
+    @Autowired
+    private CandidatureRepository candidatureRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void changementDeStatutConditionnel() {
+        Referentiel ref = referentiel();
+        Candidature candidature = candidature(1, ref, StatutCandidature.EN_ATTENTE);
+        entityManager.flush();
+
+        assertEquals(1, candidatureRepository.changerStatut(candidature.getNumero(),
+                StatutCandidature.EN_ATTENTE, StatutCandidature.VALIDEE, null));
+        // Second traitement à partir du même statut lu : rien ne change
+        assertEquals(0, candidatureRepository.changerStatut(candidature.getNumero(),
+                StatutCandidature.EN_ATTENTE, StatutCandidature.REJETEE, null));
+
+        entityManager.clear();
+        assertEquals(StatutCandidature.VALIDEE, candidatureRepository.findStatutByNumero(candidature.getNumero()).orElseThrow());
+    }
+
+    @Test
+    void reconciliationEnPlace() {
+        Referentiel ref = referentiel();
+        for (int numero = 1; numero <= 3; numero++) {
+            candidature(numero, ref, StatutCandidature.EN_ATTENTE);
+        }
+        candidature(4, ref, StatutCandidature.VALIDEE);
+        entityManager.flush();
+
+        // Dérives : compteur faux, compteur sans candidature, compteur manquant (VALIDEE)
+        compteurRepository.ajouter(ref.concours.getId(), ref.specialite.getId(), ref.centre.getId(), "EN_ATTENTE", 5);
+        compteurRepository.ajouter(ref.concours.getId(), ref.specialite.getId(), ref.centre.getId(), "REJETEE", 2);
+        depotJournalierRepository.ajouter(JOUR, ref.concours.getId(), ref.centre.getId(), 1);
+        depotJournalierRepository.ajouter(JOUR.minusDays(1), ref.concours.getId(), ref.centre.getId(), 3);
+
+        compteurCandidatureService.reconcilier();
+        entityManager.clear();
+
+        Map<StatutCandidature, Long> parStatut = compteurCandidatureService.compterParStatut(ref.centre.getId());
+        assertEquals(3L, parStatut.get(StatutCandidature.EN_ATTENTE));
+        assertEquals(1L, parStatut.get(StatutCandidature.VALIDEE));
+        assertEquals(0L, parStatut.get(StatutCandidature.REJETEE));
+        assertEquals(2, compteurRepository.count());
+
+        var depots = depotJournalierRepository.sommeParJour(JOUR.minusDays(7), JOUR, null, null);
+        assertEquals(1, depots.size());
+        assertEquals(JOUR, depots.get(0).getJour());
+        assertEquals(4L, depots.get(0).getNombre());
+
+        // Réconciliation répétée : mêmes compteurs
+        compteurCandidatureService.reconcilier();
+        entityManager.clear();
+        assertEquals(4L, compteurCandidatureService.compter(ref.concours.getId(), null, null, null));
+    }
+
+    private record Referentiel(Concours concours, Specialite specialite, CentreExamen centre) {
+    }
+
+    private Referentiel referentiel() {
+        Ville ville = new Ville();
+        ville.setNom("Rabat");
+        entityManager.persist(ville);
+
+        Concours concours = new Concours();
+        concours.setTitre("Concours A");
+        concours.setDateOuverture(LocalDate.of(2025, 1, 1));
+        concours.setDateCloture(LocalDate.of(2025, 6, 30));
+        concours.setDateConcours(LocalDate.of(2025, 9, 1));
+        entityManager.persist(concours);
+
+        Specialite specialite = new Specialite();
+        specialite.setLibelle("Informatique");
+        specialite.setCode("INF");
+        entityManager.persist(specialite);
+
+        CentreExamen centre = new CentreExamen();
+        centre.setCode("RBT");
+        centre.setVille(ville);
+        entityManager.persist(centre);
+        return new Referentiel(concours, specialite, centre);
+    }
+
+    private Candidature candidature(int numero, Referentiel ref, StatutCandidature statut) {
+        Candidat candidat = new Candidat();
+        candidat.setCin("CIN" + numero);
+        candidat.setNom("Nom" + numero);
+        candidat.setPrenom("Prenom" + numero);
+        candidat.setEmail("candidat" + numero + "@exemple.ma");
+        entityManager.persist(candidat);
+
+        Candidature candidature = new Candidature();
+        candidature.setNumero("CAND-" + numero);
+        candidature.setCandidat(candidat);
+        candidature.setConcours(ref.concours);
+        candidature.setSpecialite(ref.specialite);
+        candidature.setCentreExamen(ref.centre);
+        candidature.setStatut(statut);
+        candidature.setDateDepot(JOUR);
+        return entityManager.persist(candidature);
+    }
+}
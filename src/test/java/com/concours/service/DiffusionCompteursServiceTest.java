@@ -0,0 +1,200 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Limite d'abonnés, état complet à l'abonnement, envoi des deltas cumulés et événements
+ * déjà inclus dans l'état complet
+ */
+class DiffusionCompteursServiceTest {
+
+    private static final long CENTRE = 7L;
+
+    private DiffusionCompteursService service;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        CompteurCandidatureService compteurs = mock(CompteurCandidatureService.class);
+        when(compteurs.compterParStatut(CENTRE)).thenReturn(compteurs(4, 3, 1));
+        when(compteurs.compterParStatut()).thenReturn(compteurs(40, 30, 10));
+
+        service = new DiffusionCompteursService(compteurs);
+        ReflectionTestUtils.setField(service, "maxAbonnes", 3);
+        ReflectionTestUtils.setField(service, "maxEnvoisParSeconde", 10);
+        ReflectionTestUtils.setField(service, "heartbeatSecondes", 25L);
+        ReflectionTestUtils.setField(service, "timeoutMinutes", 1L);
+        ReflectionTestUtils.setField(service, "threadsEnvoi", 2);
+        service.init();
+
+        mockMvc = MockMvcBuilders.standaloneSetup(new FluxController(service)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.arreter();
+    }
+
+    @Test
+    void limiteDAbonnesSousConcurrence() throws Exception {
+        int demandes = 20;
+        ExecutorService executor = Executors.newFixedThreadPool(demandes);
+        CountDownLatch depart = new CountDownLatch(1);
+        List<Future<SseEmitter>> resultats = new ArrayList<>();
+        for (int i = 0; i < demandes; i++) {
+            Callable<SseEmitter> abonnement = () -> {
+                depart.await();
+                return service.abonner(CENTRE);
+            };
+            resultats.add(executor.submit(abonnement));
+        }
+        depart.countDown();
+
+        List<SseEmitter> acceptes = new ArrayList<>();
+        for (Future<SseEmitter> resultat : resultats) {
+            acceptes.add(resultat.get());
+        }
+        executor.shutdown();
+
+        assertEquals(3, acceptes.stream().filter(Objects::nonNull).count());
+        assertEquals(3, service.getNombreAbonnes());
+        assertNull(service.abonner(null));
+    }
+
+    @Test
+    void placeLibereeALaDeconnexion() throws Exception {
+        MvcResult premier = mockMvc.perform(get("/flux").param("centreId", String.valueOf(CENTRE)))
+                .andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(get("/flux")).andExpect(request().asyncStarted());
+        mockMvc.perform(get("/flux")).andExpect(request().asyncStarted());
+        assertNull(service.abonner(null));
+
+        premier.getRequest().getAsyncContext().complete();
+
+        assertEquals(2, service.getNombreAbonnes());
+        assertNotNull(service.abonner(null));
+    }
+
+    @Test
+    void etatCompletPuisDeltas() throws Exception {
+        MvcResult resultat = mockMvc.perform(get("/flux").param("centreId", String.valueOf(CENTRE)))
+                .andExpect(request().asyncStarted()).andReturn();
+
+        String etat = resultat.getResponse().getContentAsString();
+        assertTrue(etat.startsWith("event:etat\n"), etat);
+        assertTrue(etat.contains("\"total\":8"), etat);
+        assertTrue(etat.contains("\"EN_ATTENTE\":4"), etat);
+
+        // Un autre centre, puis deux événements du centre cumulés en un seul envoi
+        service.onCandidatureEvent(new CandidatureEvent("C-0", 99L, StatutCandidature.EN_ATTENTE,
+                CandidatureEvent.Type.VALIDEE));
+        service.onCandidatureEvent(new CandidatureEvent("C-1", CENTRE, StatutCandidature.EN_ATTENTE,
+                CandidatureEvent.Type.VALIDEE));
+        service.onCandidatureEvent(new CandidatureEvent("C-2", CENTRE, null, CandidatureEvent.Type.SOUMISE));
+
+        String contenu = attendreEvenement(resultat, "event:compteurs");
+        String deltas = contenu.substring(contenu.indexOf("event:compteurs"));
+        assertTrue(deltas.contains("\"total\":1"), deltas);
+        assertTrue(deltas.contains("\"VALIDEE\":1"), deltas);
+        assertFalse(deltas.contains("EN_ATTENTE"), deltas);
+    }
+
+    @Test
+    void evenementCommiteAvantLEtatNonCompteDeuxFois() throws Exception {
+        // Transaction au moment du commit : l'événement est numéroté, sa prise en compte
+        // n'a lieu qu'après le commit
+        TransactionSynchronizationManager.initSynchronization();
+        List<TransactionSynchronization> synchronisations;
+        try {
+            service.onCandidatureEvent(new CandidatureEvent("C-1", CENTRE, StatutCandidature.EN_ATTENTE,
+                    CandidatureEvent.Type.VALIDEE));
+            synchronisations = TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<MvcResult> abonnement = executor.submit(() -> mockMvc
+                .perform(get("/flux").param("centreId", String.valueOf(CENTRE)))
+                .andExpect(request().asyncStarted()).andReturn());
+        // L'état complet attend la fin du commit en cours
+        assertThrows(TimeoutException.class, () -> abonnement.get(200, TimeUnit.MILLISECONDS));
+
+        synchronisations.forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        MvcResult resultat = abonnement.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        // L'événement est inclus dans l'état lu : son delta n'est pas envoyé
+        service.onCandidatureEvent(new CandidatureEvent("C-2", CENTRE, null, CandidatureEvent.Type.SOUMISE));
+        String contenu = attendreEvenement(resultat, "event:compteurs");
+        String deltas = contenu.substring(contenu.indexOf("event:compteurs"));
+        assertTrue(deltas.contains("\"total\":1"), deltas);
+        assertTrue(deltas.contains("\"EN_ATTENTE\":1"), deltas);
+        assertFalse(deltas.contains("VALIDEE"), deltas);
+    }
+
+    private static String attendreEvenement(MvcResult resultat, String evenement) throws Exception {
+        long limite = System.currentTimeMillis() + 5000;
+        String contenu = resultat.getResponse().getContentAsString();
+        while (!contenu.contains(evenement) && System.currentTimeMillis() < limite) {
+            Thread.sleep(20);
+            contenu = resultat.getResponse().getContentAsString();
+        }
+        assertTrue(contenu.contains(evenement), contenu);
+        return contenu;
+    }
+
+    private static Map<StatutCandidature, Long> compteurs(long enAttente, long validees, long rejetees) {
+        Map<StatutCandidature, Long> compteurs = new EnumMap<>(StatutCandidature.class);
+        compteurs.put(StatutCandidature.EN_ATTENTE, enAttente);
+        compteurs.put(StatutCandidature.VALIDEE, validees);
+        compteurs.put(StatutCandidature.REJETEE, rejetees);
+        return compteurs;
+    }
+
+    @RestController
+    static class FluxController {
+        private final DiffusionCompteursService service;
+
+        FluxController(DiffusionCompteursService service) {
+            this.service = service;
+        }
+
+        @GetMapping("/flux")
+        SseEmitter flux(@RequestParam(required = false) Long centreId) {
+            return service.abonner(centreId);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.concours.service;
+
+import com.concours.dto.CandidatureCreateDTO;
+import com.concours.dto.CandidatureDTO;
+import com.concours.dto.PageCurseurDTO;
+import com.concours.entity.*;
+import com.concours.mapper.CandidatureMapperImpl;
+import com.concours.mapper.DocumentMapperImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Filtre des listes sur les diplômes canoniques : intitulés apparentés, recherche plein texte
+ * pendant la normalisation et rattachement des candidats existants
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CandidatureService.class, DiplomeService.class, CandidatureMapperImpl.class, DocumentMapperImpl.class})
+class DiplomeServiceTest {
+
+    @Autowired
+    private DiplomeService diplomeService;
+
+    @Autowired
+    private CandidatureService candidatureService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockitoBean
+    private DocumentService documentService;
+
+    @MockitoBean
+    private EmailService emailService;
+
+    @MockitoBean
+    private DocumentStore documentStore;
+
+    @MockitoBean
+    private DocumentBlobService documentBlobService;
+
+    @MockitoBean
+    private CompteurCandidatureService compteurCandidatureService;
+
+    @MockitoBean
+    private RechercheCandidatureService rechercheCandidatureService;
+
+    @MockitoBean
+    private IndexFacettesService indexFacettesService;
+
+    private Diplome informatique;
+    private Diplome licenceInformatique;
+    private Diplome systemesInformatiques;
+    private Ville ville;
+    private int compteur;
+
+    @BeforeEach
+    void setUp() {
+        informatique = diplome("INFORMATIQUE");
+        licenceInformatique = diplome("LICENCE_INFORMATIQUE");
+        systemesInformatiques = diplome("SYSTEMES_INFORMATIQUES");
+        ville = new Ville();
+        ville.setNom("Rabat");
+        entityManager.persist(ville);
+    }
+
+    @Test
+    void diplomesApparentesSurDesMotsEntiers() {
+        assertEquals(List.of(informatique.getId(), licenceInformatique.getId()),
+                trier(diplomeService.trouver("Informatique")));
+        // Synonymes appliqués à la saisie
+        assertEquals(List.of(informatique.getId(), licenceInformatique.getId()), trier(diplomeService.trouver("info")));
+        assertEquals(List.of(licenceInformatique.getId()), diplomeService.trouver("Lic. Info"));
+        assertEquals(List.of(), diplomeService.trouver("inform"));
+        assertEquals(List.of(), diplomeService.trouver("Diplôme de"));
+        assertEquals(List.of(), diplomeService.trouver(null));
+    }
+
+    @Test
+    void filtreDeListeSurLesDiplomesApparentes() {
+        String c1 = candidature(informatique);
+        String c2 = candidature(licenceInformatique);
+        candidature(systemesInformatiques);
+        entityManager.flush();
+        entityManager.clear();
+
+        PageCurseurDTO<CandidatureDTO> page = candidatureService.getCandidaturesParCurseur(null, "informatique",
+                null, null, null, null, null, 10, false, CandidatureService.ModeTotal.ESTIME);
+
+        assertEquals(List.of(c1, c2), page.getContent().stream().map(CandidatureDTO::getNumero).sorted().toList());
+        assertEquals(2L, page.getTotal());
+        verifyNoInteractions(rechercheCandidatureService);
+    }
+
+    @Test
+    void recherchePleinTextePendantLaNormalisation() {
+        when(rechercheCandidatureService.rechercherApres(any(), any(), any(), any(), any(), any(), any(), any(),
+                anyBoolean(), anyInt())).thenReturn(new RechercheCandidatureService.Resultat(List.of(), 0));
+        ((AtomicBoolean) ReflectionTestUtils.getField(diplomeService, "normalisationEnCours")).set(true);
+        try {
+            candidatureService.getCandidaturesParCurseur(null, "informatique", null, null, null, null, null, 10,
+                    false, CandidatureService.ModeTotal.AUCUN);
+        } finally {
+            ((AtomicBoolean) ReflectionTestUtils.getField(diplomeService, "normalisationEnCours")).set(false);
+        }
+
+        verify(rechercheCandidatureService).rechercherApres(isNull(), eq("informatique"), any(), any(), any(),
+                any(), any(), any(), anyBoolean(), anyInt());
+    }
+
+    @Test
+    void candidatExistantRattacheASonDiplome() {
+        Candidat existant = candidat("Licence en Info");
+        entityManager.flush();
+        CandidatureCreateDTO dto = new CandidatureCreateDTO();
+        dto.setCin(existant.getCin());
+
+        CandidatureService cible = AopTestUtils.getTargetObject(candidatureService);
+        Candidat candidat = ReflectionTestUtils.invokeMethod(cible, "creerOuRecupererCandidat", dto);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals(existant.getId(), candidat.getId());
+        assertEquals(licenceInformatique.getId(),
+                entityManager.find(Candidat.class, existant.getId()).getDiplomeNormalise().getId());
+    }
+
+    private Diplome diplome(String code) {
+        Diplome diplome = new Diplome();
+        diplome.setCode(code);
+        diplome.setLibelle(code);
+        return entityManager.persist(diplome);
+    }
+
+    private Candidat candidat(String diplome) {
+        compteur++;
+        Candidat candidat = new Candidat();
+        candidat.setCin("CIN" + compteur);
+        candidat.setNom("Nom" + compteur);
+        candidat.setPrenom("Prenom" + compteur);
+        candidat.setEmail("candidat" + compteur + "@exemple.ma");
+        candidat.setDiplome(diplome);
+        return entityManager.persist(candidat);
+    }
+
+    private String candidature(Diplome diplome) {
+        Candidat candidat = candidat(diplome.getLibelle());
+        candidat.setDiplomeNormalise(diplome);
+
+        Concours concours = new Concours();
+        concours.setReference("CONC-" + compteur);
+        concours.setTitre("Concours" + compteur);
+        concours.setDateOuverture(LocalDate.of(2025, 1, 1));
+        concours.setDateCloture(LocalDate.of(2025, 6, 30));
+        concours.setDateConcours(LocalDate.of(2025, 9, 1));
+        entityManager.persist(concours);
+
+        Specialite specialite = new Specialite();
+        specialite.setLibelle("Specialite" + compteur);
+        specialite.setCode("S" + compteur);
+        entityManager.persist(specialite);
+
+        CentreExamen centre = new CentreExamen();
+        centre.setCode("C" + compteur);
+        centre.setVille(ville);
+        entityManager.persist(centre);
+
+        Candidature candidature = new Candidature();
+        candidature.setNumero("CAND-" + compteur);
+        candidature.setCandidat(candidat);
+        candidature.setConcours(concours);
+        candidature.setSpecialite(specialite);
+        candidature.setCentreExamen(centre);
+        candidature.setDateDepot(LocalDate.of(2025, 3, compteur));
+        entityManager.persist(candidature);
+        return candidature.getNumero();
+    }
+
+    private static List<Long> trier(List<Long> identifiants) {
+        return identifiants.stream().sorted().toList();
+    }
+}
@@ -0,0 +1,136 @@
+package com.concours.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plages d'octets, requêtes conditionnelles et empreinte calculée à l'enregistrement
+ */
+class FileServingServiceTest {
+
+    private static final byte[] CONTENU = "0123456789".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path uploadDir;
+
+    private FileServingService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = new FileServingService();
+        ReflectionTestUtils.setField(service, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(service, "metadataTtlSeconds", 30L);
+        ReflectionTestUtils.setField(service, "metadataCacheSize", 10);
+        ReflectionTestUtils.setField(service, "handleCacheSize", 4);
+        ReflectionTestUtils.setField(service, "sendfileMinSize", Long.MAX_VALUE);
+        Files.createDirectories(uploadDir.resolve("cv"));
+        Files.write(uploadDir.resolve("cv/fichier.pdf"), CONTENU);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void parseRange() {
+        assertArrayEquals(new long[]{0, 9}, FileServingService.parseRange(null, 10));
+        assertArrayEquals(new long[]{2, 5}, FileServingService.parseRange("bytes=2-5", 10));
+        assertArrayEquals(new long[]{2, 9}, FileServingService.parseRange("bytes=2-", 10));
+        assertArrayEquals(new long[]{7, 9}, FileServingService.parseRange("bytes=-3", 10));
+        assertArrayEquals(new long[]{0, 9}, FileServingService.parseRange("bytes=-30", 10));
+        assertArrayEquals(new long[]{4, 9}, FileServingService.parseRange("bytes=4-100", 10));
+        // Multi-plages et en-têtes invalides : fichier entier
+        assertArrayEquals(new long[]{0, 9}, FileServingService.parseRange("bytes=0-1,3-4", 10));
+        assertArrayEquals(new long[]{0, 9}, FileServingService.parseRange("items=0-1", 10));
+        assertArrayEquals(new long[]{0, 9}, FileServingService.parseRange("bytes=a-b", 10));
+        // Non satisfaisables
+        assertNull(FileServingService.parseRange("bytes=10-", 10));
+        assertNull(FileServingService.parseRange("bytes=5-2", 10));
+        assertNull(FileServingService.parseRange("bytes=-0", 10));
+    }
+
+    @Test
+    void plagePartielle() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.RANGE, "bytes=2-5");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        service.serve("cv/fichier.pdf", request, response);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 2-5/10", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals("2345", response.getContentAsString());
+    }
+
+    @Test
+    void requeteConditionnelle() throws Exception {
+        MockHttpServletResponse premiere = new MockHttpServletResponse();
+        service.serve("cv/fichier.pdf", new MockHttpServletRequest(), premiere);
+        String etag = premiere.getHeader(HttpHeaders.ETAG);
+        assertEquals(200, premiere.getStatus());
+        assertEquals("\"" + sha256(CONTENU) + "\"", etag);
+
+        assertEquals(304, statutAvecIfNoneMatch(etag));
+        assertEquals(304, statutAvecIfNoneMatch("\"autre\", " + etag));
+        assertEquals(304, statutAvecIfNoneMatch("W/" + etag));
+        assertEquals(304, statutAvecIfNoneMatch("*"));
+        assertEquals(200, statutAvecIfNoneMatch("\"autre\""));
+    }
+
+    @Test
+    void empreinteCalculeeALEnregistrement() throws Exception {
+        FileStorageService storage = new FileStorageService(service);
+        ReflectionTestUtils.setField(storage, "uploadDir", uploadDir.toString());
+        byte[] pdf = "%PDF-1.4 contenu".getBytes(StandardCharsets.US_ASCII);
+
+        String chemin = storage.storeFile(new MockMultipartFile("file", "cv.pdf", "application/pdf", pdf), "cv");
+
+        Path fichier = uploadDir.resolve(chemin);
+        Path empreinte = fichier.resolveSibling(fichier.getFileName() + FileServingService.SUFFIXE_EMPREINTE);
+        assertTrue(Files.readString(empreinte).endsWith(" " + sha256(pdf)));
+
+        // Servie depuis l'empreinte conservée, pas depuis le contenu
+        Files.writeString(empreinte, Files.size(fichier) + " " + Files.getLastModifiedTime(fichier).toMillis()
+                + " conservee");
+        FileServingService autreInstance = new FileServingService();
+        ReflectionTestUtils.setField(autreInstance, "uploadDir", uploadDir.toString());
+        ReflectionTestUtils.setField(autreInstance, "metadataCacheSize", 10);
+        ReflectionTestUtils.setField(autreInstance, "handleCacheSize", 4);
+        ReflectionTestUtils.setField(autreInstance, "sendfileMinSize", Long.MAX_VALUE);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        autreInstance.serve(chemin, new MockHttpServletRequest(), response);
+        autreInstance.close();
+        assertEquals("\"conservee\"", response.getHeader(HttpHeaders.ETAG));
+
+        storage.deleteFile(chemin);
+        assertFalse(Files.exists(empreinte));
+    }
+
+    private int statutAvecIfNoneMatch(String valeur) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, valeur);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve("cv/fichier.pdf", request, response);
+        return response.getStatus();
+    }
+
+    private static String sha256(byte[] contenu) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenu));
+    }
+}
@@ -0,0 +1,139 @@
+package com.concours.service;
+
+import com.concours.entity.StatutCandidature;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.CandidatureRepository.DonneesRecherche;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Analyse (accents, élisions, préfixes) et reconstruction de l'index pendant les mises à jour
+ */
+class RechercheCandidatureServiceTest {
+
+    @TempDir
+    Path indexDir;
+
+    private CandidatureRepository candidatureRepository;
+    private RechercheCandidatureService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        candidatureRepository = mock(CandidatureRepository.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        service = new RechercheCandidatureService(candidatureRepository, transactionTemplate);
+        ReflectionTestUtils.setField(service, "indexDir", indexDir.toString());
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        service.fermer();
+    }
+
+    @Test
+    void accentsEtMajusculesIgnores() {
+        indexer(donnees("C1", "Hélène", "Lefèvre", "Diplôme d'Ingénieur", StatutCandidature.EN_ATTENTE));
+        indexer(donnees("C2", "Helena", "Martin", "Licence", StatutCandidature.EN_ATTENTE));
+
+        assertEquals(List.of("C1"), numeros("helene"));
+        assertEquals(List.of("C1"), numeros("HÉLÈNE LEFEVRE"));
+        assertEquals(List.of("C1"), numeros("lefèvre"));
+        // Élision retirée : "d'Ingénieur" est indexé comme "ingenieur"
+        assertEquals(List.of("C1"), numerosParDiplome("ingenieur"));
+    }
+
+    @Test
+    void chaqueMotEstUnPrefixe() {
+        indexer(donnees("C1", "Hélène", "Lefèvre", "Licence informatique", StatutCandidature.EN_ATTENTE));
+        indexer(donnees("C2", "Helena", "Martin", "Master informatique", StatutCandidature.VALIDEE));
+
+        assertEquals(List.of("C2", "C1"), numeros("hel"));
+        assertEquals(List.of("C1"), numeros("hel lef"));
+        assertEquals(List.of(), numeros("hel dupont"));
+        assertEquals(List.of("C2", "C1"), numerosParDiplome("info"));
+        assertEquals(List.of("C1"), numerosParDiplome("lic info"));
+        // Filtre exact sur le statut
+        assertEquals(List.of("C2"), service.rechercherApres("hel", null, null, null, null,
+                StatutCandidature.VALIDEE, null, null, false, 10).numeros());
+    }
+
+    @Test
+    void reconstructionRelitLesCandidaturesModifieesEtRetireLesDisparues() {
+        DonneesRecherche ancienne = donnees("C1", "Hélène", "Lefèvre", "Licence", StatutCandidature.EN_ATTENTE);
+        DonneesRecherche validee = donnees("C1", "Hélène", "Lefèvre", "Licence", StatutCandidature.VALIDEE);
+        indexer(ancienne);
+        indexer(donnees("C9", "Supprimée", "Hors base", "Licence", StatutCandidature.EN_ATTENTE));
+
+        // Le flux lit C1 avant sa validation, dont l'événement arrive pendant la reconstruction
+        when(candidatureRepository.findDonneesRecherche("C1")).thenReturn(Optional.of(validee));
+        when(candidatureRepository.streamDonneesRecherche()).thenReturn(Stream.of(ancienne).peek(d ->
+                service.onCandidatureEvent(new CandidatureEvent("C1", 1L, StatutCandidature.EN_ATTENTE,
+                        CandidatureEvent.Type.VALIDEE))));
+        ((AtomicBoolean) ReflectionTestUtils.getField(service, "reconstructionEnCours")).set(true);
+
+        ReflectionTestUtils.invokeMethod(service, "reconstruire");
+
+        assertEquals(List.of("C1"), service.rechercherApres(null, null, null, null, null,
+                null, null, null, false, 10).numeros());
+        assertEquals(List.of("C1"), service.rechercherApres(null, null, null, null, null,
+                StatutCandidature.VALIDEE, null, null, false, 10).numeros());
+        assertEquals(false, service.isReconstructionEnCours());
+    }
+
+    private void indexer(DonneesRecherche donnees) {
+        when(candidatureRepository.findDonneesRecherche(donnees.getNumero())).thenReturn(Optional.of(donnees));
+        service.onCandidatureEvent(new CandidatureEvent(donnees.getNumero(), 1L, null, CandidatureEvent.Type.SOUMISE));
+    }
+
+    private List<String> numeros(String texte) {
+        return service.rechercherApres(texte, null, null, null, null, null, null, null, false, 10).numeros();
+    }
+
+    private List<String> numerosParDiplome(String diplome) {
+        return service.rechercherApres(null, diplome, null, null, null, null, null, null, false, 10).numeros();
+    }
+
+    private static DonneesRecherche donnees(String numero, String prenom, String nom, String diplome,
+                                            StatutCandidature statut) {
+        // Numéros croissants avec la date de dépôt : l'ordre des résultats est prévisible
+        LocalDate dateDepot = LocalDate.of(2025, 3, 1).plusDays(Integer.parseInt(numero.substring(1)));
+        return new Donnees(numero, statut, dateDepot, nom, prenom, diplome);
+    }
+
+    private record Donnees(String numero, StatutCandidature statut, LocalDate dateDepot, String nom,
+                           String prenom, String diplome) implements DonneesRecherche {
+        public String getNumero() { return numero; }
+        public Long getCentreId() { return 1L; }
+        public Long getConcoursId() { return 1L; }
+        public Long getSpecialiteId() { return 1L; }
+        public StatutCandidature getStatut() { return statut; }
+        public LocalDate getDateDepot() { return dateDepot; }
+        public String getNom() { return nom; }
+        public String getPrenom() { return prenom; }
+        public String getCin() { return null; }
+        public String getEmail() { return null; }
+        public String getTelephone() { return null; }
+        public String getDiplome() { return diplome; }
+    }
+}
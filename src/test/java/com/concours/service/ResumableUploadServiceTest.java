@@ -0,0 +1,158 @@
+package com.concours.service;
+
+import com.concours.entity.Candidat;
+import com.concours.entity.Candidature;
+import com.concours.entity.Document;
+import com.concours.entity.StatutCandidature;
+import com.concours.entity.TypeDocument;
+import com.concours.entity.UploadSession;
+import com.concours.exception.BusinessException;
+import com.concours.repository.CandidatureRepository;
+import com.concours.repository.UploadSessionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Ordre des morceaux, taille maximale d'un morceau, statut de la candidature et double finalisation
+ */
+class ResumableUploadServiceTest {
+
+    private static final byte[] PDF = "%PDF-1.4 contenu du fichier".getBytes(StandardCharsets.US_ASCII);
+
+    @TempDir
+    Path repertoire;
+
+    private final Map<String, UploadSession> sessions = new HashMap<>();
+    private UploadSessionRepository uploadSessionRepository;
+    private CandidatureRepository candidatureRepository;
+    private DocumentService documentService;
+    private ResumableUploadService service;
+    private Candidature candidature;
+
+    @BeforeEach
+    void setUp() {
+        uploadSessionRepository = mock(UploadSessionRepository.class);
+        when(uploadSessionRepository.save(any())).thenAnswer(inv -> {
+            UploadSession session = inv.getArgument(0);
+            sessions.put(session.getId(), session);
+            return session;
+        });
+        when(uploadSessionRepository.findById(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(sessions.get(inv.<String>getArgument(0))));
+        when(uploadSessionRepository.findByIdForUpdate(anyString()))
+                .thenAnswer(inv -> Optional.ofNullable(sessions.get(inv.<String>getArgument(0))));
+        doAnswer(inv -> sessions.remove(inv.<UploadSession>getArgument(0).getId()))
+                .when(uploadSessionRepository).delete(any());
+
+        Candidat candidat = new Candidat();
+        candidat.setCin("AB123456");
+        candidature = new Candidature();
+        candidature.setNumero("CAND-1");
+        candidature.setCandidat(candidat);
+        candidatureRepository = mock(CandidatureRepository.class);
+        when(candidatureRepository.findById("CAND-1")).thenReturn(Optional.of(candidature));
+        when(candidatureRepository.findStatutByNumero("CAND-1"))
+                .thenAnswer(inv -> Optional.of(candidature.getStatut()));
+
+        documentService = mock(DocumentService.class);
+        when(documentService.getDocumentByCandidatureAndType(any(), any())).thenReturn(Optional.empty());
+
+        service = new ResumableUploadService(uploadSessionRepository, candidatureRepository, documentService);
+        ReflectionTestUtils.setField(service, "repertoire", repertoire.toString());
+        ReflectionTestUtils.setField(service, "expirationHeures", 24L);
+        ReflectionTestUtils.setField(service, "tailleMaxMorceau", 10L);
+    }
+
+    @Test
+    void morceauxDansLOrdre() throws Exception {
+        String id = session(PDF.length).getId();
+
+        assertEquals(10, service.ajouterMorceau(id, 0, morceau(0, 10), null));
+
+        // Morceau rejoué ou en avance : le client doit reprendre à l'offset reçu
+        ResumableUploadService.OffsetInvalideException rejoue = assertThrows(
+                ResumableUploadService.OffsetInvalideException.class,
+                () -> service.ajouterMorceau(id, 0, morceau(0, 10), null));
+        assertEquals(10, rejoue.getOffsetAttendu());
+        assertThrows(ResumableUploadService.OffsetInvalideException.class,
+                () -> service.ajouterMorceau(id, 20, morceau(20, PDF.length), null));
+
+        assertEquals(20, service.ajouterMorceau(id, 10, morceau(10, 20), null));
+        assertEquals(PDF.length, service.ajouterMorceau(id, 20, morceau(20, PDF.length), null));
+        assertArrayEquals(PDF, Files.readAllBytes(fichierPart(id)));
+    }
+
+    @Test
+    void morceauTropGrand() throws Exception {
+        String id = session(PDF.length).getId();
+        service.ajouterMorceau(id, 0, morceau(0, 5), null);
+
+        assertThrows(BusinessException.class, () -> service.ajouterMorceau(id, 5, morceau(5, 16), null));
+
+        // Rien n'est conservé du morceau refusé
+        assertEquals(5, sessions.get(id).getOctetsRecus());
+        assertEquals(5, Files.size(fichierPart(id)));
+    }
+
+    @Test
+    void doubleFinalisation() throws Exception {
+        String id = sessionComplete();
+        Document document = new Document();
+        when(documentService.enregistrerDocument(eq(candidature), any(InputStream.class), anyString(),
+                eq(TypeDocument.CV))).thenReturn(document);
+
+        assertSame(document, service.finaliser(id, null));
+        assertThrows(BusinessException.class, () -> service.finaliser(id, null));
+
+        verify(documentService, times(1)).enregistrerDocument(any(), any(), any(), any());
+        assertFalse(Files.exists(fichierPart(id)));
+    }
+
+    @Test
+    void candidatureDejaTraitee() throws Exception {
+        String id = sessionComplete();
+        candidature.setStatut(StatutCandidature.VALIDEE);
+
+        assertThrows(BusinessException.class, () -> service.finaliser(id, null));
+        assertThrows(BusinessException.class,
+                () -> service.creerSession("CAND-1", "AB123456", TypeDocument.CV, "cv.pdf", PDF.length));
+        verify(documentService, never()).enregistrerDocument(any(), any(), any(), any());
+    }
+
+    private UploadSession session(long taille) {
+        return service.creerSession("CAND-1", "ab123456", TypeDocument.CV, "cv.pdf", taille);
+    }
+
+    private String sessionComplete() {
+        String id = session(PDF.length).getId();
+        for (int offset = 0; offset < PDF.length; offset += 10) {
+            service.ajouterMorceau(id, offset, morceau(offset, Math.min(offset + 10, PDF.length)), null);
+        }
+        return id;
+    }
+
+    private static InputStream morceau(int debut, int fin) {
+        return new ByteArrayInputStream(PDF, debut, fin - debut);
+    }
+
+    private Path fichierPart(String id) {
+        return repertoire.resolve(id + ".part");
+    }
+}
@@ -0,0 +1,118 @@
+package com.concours.service;
+
+import com.concours.exception.BusinessException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Écriture en ajout seul, relecture depuis la projection et emplacements invalides
+ */
+class SegmentStoreTest {
+
+    @TempDir
+    Path archiveDir;
+
+    private SegmentStore store;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new SegmentStore();
+        ReflectionTestUtils.setField(store, "archiveDir", archiveDir.toString());
+        ReflectionTestUtils.setField(store, "tailleMaxSegment", 16L);
+        ReflectionTestUtils.setField(store, "segmentsProjetesMax", 4);
+        store.init();
+    }
+
+    @Test
+    void ecritureEtRelecture() throws IOException {
+        SegmentStore.Emplacement premier;
+        SegmentStore.Emplacement doublon;
+        SegmentStore.Emplacement second;
+        try (SegmentStore.SegmentWriter writer = store.ouvrir(7)) {
+            premier = writer.ajouter(1, "cle-a", flux("0123456789"), 10);
+            doublon = writer.ajouter(2, "cle-a", flux("0123456789"), 10);
+            // Ne tient plus dans le segment courant : segment suivant
+            second = writer.ajouter(3, "cle-b", flux("abcdefghij"), 10);
+        }
+
+        assertEquals(new SegmentStore.Emplacement("concours-7/seg-00001", 0, 10), premier);
+        assertEquals(premier, doublon);
+        assertEquals(new SegmentStore.Emplacement("concours-7/seg-00002", 0, 10), second);
+        assertEquals(10, Files.size(archiveDir.resolve("concours-7/seg-00001.dat")));
+        assertEquals(2 * 24, Files.size(archiveDir.resolve("concours-7/seg-00001.idx")));
+
+        assertEquals("0123456789", contenu(store.lire(premier.segment(), 0, 10)));
+        assertEquals("3456", contenu(store.lire(premier.segment(), 3, 4)));
+        assertEquals("abcdefghij", contenu(store.lire(second.segment(), 0, 10)));
+        assertEquals(4, store.lire(premier.segment(), 3, 4).contentLength());
+    }
+
+    @Test
+    void repriseALaSuiteDuDernierSegment() throws IOException {
+        try (SegmentStore.SegmentWriter writer = store.ouvrir(7)) {
+            writer.ajouter(1, "cle-a", flux("0123456789"), 10);
+            writer.ajouter(2, "cle-b", flux("abcdefghij"), 10);
+        }
+        try (SegmentStore.SegmentWriter writer = store.ouvrir(7)) {
+            SegmentStore.Emplacement suite = writer.ajouter(3, "cle-c", flux("xyz"), 3);
+            assertEquals(new SegmentStore.Emplacement("concours-7/seg-00002", 10, 3), suite);
+        }
+
+        ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(archiveDir.resolve("concours-7/seg-00002.idx")));
+        assertEquals(2, index.getLong());
+        assertEquals(0, index.getLong());
+        assertEquals(10, index.getLong());
+        assertEquals(3, index.getLong());
+        assertEquals(10, index.getLong());
+        assertEquals(3, index.getLong());
+    }
+
+    @Test
+    void contenuTronque() throws IOException {
+        try (SegmentStore.SegmentWriter writer = store.ouvrir(7)) {
+            writer.ajouter(1, "cle-a", flux("0123"), 4);
+            assertThrows(IOException.class, () -> writer.ajouter(2, "cle-b", flux("abc"), 8));
+            // Les octets partiels sont retirés
+            assertEquals(new SegmentStore.Emplacement("concours-7/seg-00001", 4, 2),
+                    writer.ajouter(3, "cle-c", flux("xy"), 2));
+        }
+        assertEquals("0123xy", contenu(store.lire("concours-7/seg-00001", 0, 6)));
+    }
+
+    @Test
+    void emplacementInvalide() throws IOException {
+        try (SegmentStore.SegmentWriter writer = store.ouvrir(7)) {
+            writer.ajouter(1, "cle-a", flux("0123456789"), 10);
+        }
+
+        assertThrows(BusinessException.class, () -> store.lire("concours-7/seg-00001", 8, 5));
+        assertThrows(BusinessException.class, () -> store.lire("concours-7/seg-00001", -1, 5));
+        assertThrows(BusinessException.class, () -> store.lire("concours-7/seg-00001", 0, Long.MAX_VALUE));
+        assertThrows(BusinessException.class, () -> store.lire("../concours-7/seg-00001", 0, 5));
+        // Le segment reste lisible
+        assertEquals("89", contenu(store.lire("concours-7/seg-00001", 8, 2)));
+    }
+
+    private static InputStream flux(String contenu) {
+        return new ByteArrayInputStream(contenu.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static String contenu(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.US_ASCII);
+        }
+    }
+}
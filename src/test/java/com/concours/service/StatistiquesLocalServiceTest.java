@@ -0,0 +1,140 @@
+package com.concours.service;
+
+import com.concours.config.CacheConfig;
+import com.concours.dto.StatistiquesLocalDTO;
+import com.concours.entity.CentreExamen;
+import com.concours.entity.Specialite;
+import com.concours.entity.StatutCandidature;
+import com.concours.entity.Ville;
+import com.concours.repository.CompteurCandidatureRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tableau de bord local : une requête par centre, puis lecture du cache
+ * jusqu'au prochain changement d'état d'une candidature du centre
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatistiquesLocalService.class, StatistiquesCacheListener.class, CacheConfig.class})
+class StatistiquesLocalServiceTest {
+
+    @Autowired
+    private StatistiquesLocalService statistiquesLocalService;
+
+    @Autowired
+    private StatistiquesCacheListener statistiquesCacheListener;
+
+    @Autowired
+    private CompteurCandidatureRepository compteurRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private StatistiquesService statistiquesService;
+
+    private Statistics statistics;
+    private CentreExamen rabat;
+    private CentreExamen casablanca;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<Specialite> specialites = List.of(specialite("Informatique"), specialite("Finance"));
+        rabat = centre("RBT", "Rabat", 10, specialites);
+        casablanca = centre("CAS", "Casablanca", 5, specialites.subList(0, 1));
+
+        compter(rabat, StatutCandidature.EN_ATTENTE, 4);
+        compter(rabat, StatutCandidature.VALIDEE, 3);
+        compter(rabat, StatutCandidature.REJETEE, 1);
+        compter(casablanca, StatutCandidature.VALIDEE, 2);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void uneSeuleRequete() {
+        statistics.clear();
+        StatistiquesLocalDTO stats = statistiquesLocalService.getStatistiquesLocal(rabat.getId());
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(8, stats.getNbCandidatsCentre());
+        assertEquals(4, stats.getNbCandidaturesEnAttente());
+        assertEquals(3, stats.getNbCandidaturesValidees());
+        assertEquals(1, stats.getNbCandidaturesRejetees());
+        assertEquals(2, stats.getNbSpecialitesCentre());
+        assertEquals("Rabat", stats.getVilleCentre());
+        assertEquals(7, stats.getNbPlacesRestantes());
+        assertEquals(30, stats.getTauxRemplissage());
+    }
+
+    @Test
+    void cacheInvalideParCentre() {
+        statistiquesLocalService.getStatistiquesLocal(rabat.getId());
+        statistiquesLocalService.getStatistiquesLocal(casablanca.getId());
+
+        statistics.clear();
+        statistiquesLocalService.getStatistiquesLocal(rabat.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+
+        // Validation d'une candidature de Rabat
+        compter(rabat, StatutCandidature.EN_ATTENTE, -1);
+        compter(rabat, StatutCandidature.VALIDEE, 1);
+        statistiquesCacheListener.onCandidatureEvent(new CandidatureEvent("CAND-1", rabat.getId(),
+                StatutCandidature.EN_ATTENTE, CandidatureEvent.Type.VALIDEE));
+
+        statistics.clear();
+        StatistiquesLocalDTO stats = statistiquesLocalService.getStatistiquesLocal(rabat.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(4, stats.getNbCandidaturesValidees());
+        assertEquals(3, stats.getNbCandidaturesEnAttente());
+
+        // Les autres centres restent en cache
+        statistics.clear();
+        statistiquesLocalService.getStatistiquesLocal(casablanca.getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    private Specialite specialite(String libelle) {
+        Specialite specialite = new Specialite();
+        specialite.setLibelle(libelle);
+        specialite.setCode(libelle.substring(0, 3).toUpperCase());
+        return entityManager.persist(specialite);
+    }
+
+    private CentreExamen centre(String code, String nomVille, int capacite, List<Specialite> specialites) {
+        Ville ville = new Ville();
+        ville.setNom(nomVille);
+        entityManager.persist(ville);
+
+        CentreExamen centre = new CentreExamen();
+        centre.setCode(code);
+        centre.setVille(ville);
+        centre.setCapacite(capacite);
+        centre.setSpecialites(specialites);
+        return entityManager.persist(centre);
+    }
+
+    private void compter(CentreExamen centre, StatutCandidature statut, long delta) {
+        compteurRepository.ajouter(1L, 1L, centre.getId(), statut.name(), delta);
+    }
+}
@@ -0,0 +1,174 @@
+package com.concours.service;
+
+import com.concours.dto.SerieTemporelleDTO;
+import com.concours.dto.StatistiquesDTO;
+import com.concours.entity.*;
+import com.concours.repository.DepotJournalierRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vérifie que les statistiques globales sont calculées avec un nombre de requêtes
+ * constant (une requête groupée sur les candidatures, les comptages du référentiel
+ * et la série mensuelle des dépôts journaliers),
+ * quel que soit le nombre de concours, spécialités, centres ou mois.
+ */
+@DataJpaTest
+@ActiveProfiles("h2test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({StatistiquesService.class, SerieTemporelleService.class})
+class StatistiquesServiceQueryCountTest {
+
+    private static final long REQUETES_MAX = 4;
+
+    @Autowired
+    private StatistiquesService statistiquesService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DepotJournalierRepository depotJournalierRepository;
+
+    @MockitoBean
+    private CompteurCandidatureService compteurCandidatureService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void statistiquesGlobalesEnNombreDeRequetesConstant() {
+        Ville ville = new Ville();
+        ville.setNom("Rabat");
+        entityManager.persist(ville);
+
+        List<Concours> concours = List.of(concours("Concours A"), concours("Concours B"));
+        List<Specialite> specialites = List.of(specialite("Informatique"), specialite("Finance"), specialite("Droit"));
+        List<CentreExamen> centres = List.of(centre("RBT", ville), centre("CAS", ville));
+
+        LocalDate aujourdhui = LocalDate.now();
+        LocalDate moisCourant = aujourdhui.withDayOfMonth(1);
+        StatutCandidature[] statuts = StatutCandidature.values();
+        int numero = 0;
+        for (Concours c : concours) {
+            for (Specialite s : specialites) {
+                for (CentreExamen centre : centres) {
+                    for (int mois = 0; mois < 3; mois++) {
+                        candidature(++numero, c, s, centre, statuts[numero % statuts.length],
+                                depot(moisCourant.minusMonths(mois).plusDays(numero % 7), aujourdhui));
+                    }
+                }
+            }
+        }
+        entityManager.flush();
+        concours.forEach(c -> depotJournalierRepository.reconcilier(c.getId()));
+        entityManager.clear();
+
+        statistics.clear();
+        StatistiquesDTO stats = statistiquesService.getStatistiquesGlobales();
+        long requetes = statistics.getPrepareStatementCount();
+
+        assertTrue(requetes <= REQUETES_MAX, "Nombre de requêtes: " + requetes);
+
+        assertEquals(numero, stats.getTotalCandidatures());
+        assertEquals(numero, stats.getCandidaturesValidees() + stats.getCandidaturesEnAttente()
+                + stats.getCandidaturesRejetees());
+        assertEquals(2, stats.getNbConcours());
+        assertEquals(2L, stats.getNbCentres());
+        assertEquals(numero / 2, stats.getCandidaturesParConcours().get("Concours A"));
+        assertEquals(numero / 3, stats.getCandidaturesParSpecialite().get("Finance"));
+        assertEquals(numero / 2, stats.getCandidaturesParCentre().get("CAS"));
+        // Série mensuelle complète, mois sans dépôt compris
+        assertEquals(12, stats.getCandidaturesParMois().size());
+        for (int mois = 0; mois < 12; mois++) {
+            String libelle = SerieTemporelleService.libelle(moisCourant.minusMonths(mois),
+                    SerieTemporelleDTO.Granularite.MOIS);
+            assertEquals(mois < 3 ? numero / 3 : 0L, stats.getCandidaturesParMois().get(libelle));
+        }
+    }
+
+    @Test
+    void statistiquesGlobalesSansCandidature() {
+        statistics.clear();
+        StatistiquesDTO stats = statistiquesService.getStatistiquesGlobales();
+
+        assertTrue(statistics.getPrepareStatementCount() <= REQUETES_MAX);
+        assertEquals(0, stats.getTotalCandidatures());
+        assertEquals(0L, stats.getCandidaturesParConcours().get("Aucun concours disponible"));
+        assertEquals(0L, stats.getCandidaturesParMois().get("Aucune donnée mensuelle"));
+    }
+
+    /**
+     * Jour de dépôt, ramené à aujourd'hui en début de mois (pas de dépôt futur)
+     */
+    private static LocalDate depot(LocalDate jour, LocalDate aujourdhui) {
+        return jour.isAfter(aujourdhui) ? aujourdhui : jour;
+    }
+
+    private Concours concours(String titre) {
+        Concours concours = new Concours();
+        concours.setReference("CONC-" + titre); // Référence générée à la milliseconde : doublons possibles
+        concours.setTitre(titre);
+        concours.setDateOuverture(LocalDate.of(2025, 1, 1));
+        concours.setDateCloture(LocalDate.of(2025, 6, 30));
+        concours.setDateConcours(LocalDate.of(2025, 9, 1));
+        return entityManager.persist(concours);
+    }
+
+    private Specialite specialite(String libelle) {
+        Specialite specialite = new Specialite();
+        specialite.setLibelle(libelle);
+        specialite.setCode(libelle.substring(0, 3).toUpperCase());
+        return entityManager.persist(specialite);
+    }
+
+    private CentreExamen centre(String code, Ville ville) {
+        CentreExamen centre = new CentreExamen();
+        centre.setCode(code);
+        centre.setVille(ville);
+        return entityManager.persist(centre);
+    }
+
+    private void candidature(int numero, Concours concours, Specialite specialite, CentreExamen centre,
+                             StatutCandidature statut, LocalDate dateDepot) {
+        Candidat candidat = new Candidat();
+        candidat.setCin("CIN" + numero);
+        candidat.setNom("Nom" + numero);
+        candidat.setPrenom("Prenom" + numero);
+        candidat.setEmail("candidat" + numero + "@exemple.ma");
+        entityManager.persist(candidat);
+
+        Candidature candidature = new Candidature();
+        candidature.setNumero("CAND-" + numero);
+        candidature.setCandidat(candidat);
+        candidature.setConcours(concours);
+        candidature.setSpecialite(specialite);
+        candidature.setCentreExamen(centre);
+        candidature.setStatut(statut);
+        candidature.setDateDepot(dateDepot);
+        entityManager.persist(candidature);
+    }
+}
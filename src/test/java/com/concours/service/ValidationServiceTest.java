@@ -0,0 +1,100 @@
+package com.concours.service;
+
+import com.concours.entity.Candidat;
+import com.concours.entity.Concours;
+import com.concours.entity.Specialite;
+import com.concours.exception.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Règles d'adéquation diplôme / spécialité sur les formes normalisées, âge et dates du concours
+ */
+class ValidationServiceTest {
+
+    private final ValidationService validationService = new ValidationService();
+
+    @Test
+    void diplomeAdapteALaSpecialite() {
+        assertValide("Licence en Compta", "Comptabilité");
+        assertValide("Master Finance", "Comptabilité générale");
+        assertValide("Ing. Systèmes et Réseaux", "Informatique");
+        assertValide("BTS Réseau", "Réseaux et télécoms");
+        assertValide("ing GC", "Génie Civil");
+        assertValide("Licence BTP", "Génie-Civil");
+    }
+
+    @Test
+    void diplomeInadapte() {
+        assertEquals(Map.of("diplome", "Le diplôme ne correspond pas à la spécialité choisie"),
+                erreurs("Licence informatique", "Comptabilité"));
+        assertEquals(Map.of("diplome", "Le diplôme ne correspond pas à la spécialité choisie"),
+                erreurs("Licence géologie", "Génie civil"));
+        // Termes comparés sur des mots entiers : « Bioinformatique » n'est pas « informatique »
+        assertEquals(Map.of("diplome", "Le diplôme ne correspond pas à la spécialité choisie"),
+                erreurs("Master bioinformatique", "Informatique"));
+        assertEquals(Map.of("diplome", "Le diplôme ne correspond pas à la spécialité choisie"),
+                erreurs(null, "Informatique"));
+    }
+
+    @Test
+    void specialiteSansRegle() {
+        assertValide("Licence biologie", "Biologie");
+        // La spécialité ne relève d'aucune règle tant qu'elle ne contient pas un terme entier
+        assertValide("Licence biologie", "Bioinformatique");
+    }
+
+    @Test
+    void ageEtDatesDuConcours() {
+        Candidat candidat = candidat("Licence informatique");
+        candidat.setDateNaissance(LocalDate.now().minusYears(45));
+        Concours concours = concoursOuvert();
+        concours.setDateCloture(LocalDate.now().minusDays(1));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> validationService.validerCandidature(candidat, concours, specialite("Informatique")));
+        assertEquals(Map.of(
+                "age", "L'âge ne doit pas dépasser 40 ans",
+                "concours", "Les candidatures sont fermées"), e.getErrors());
+
+        candidat.setDateNaissance(LocalDate.now().minusYears(17));
+        concours.setDateCloture(LocalDate.now().plusDays(10));
+        e = assertThrows(ValidationException.class,
+                () -> validationService.validerCandidature(candidat, concours, specialite("Informatique")));
+        assertEquals(Map.of("age", "L'âge doit être d'au moins 18 ans"), e.getErrors());
+    }
+
+    private void assertValide(String diplome, String specialite) {
+        assertDoesNotThrow(() -> validationService.validerCandidature(
+                candidat(diplome), concoursOuvert(), specialite(specialite)), diplome + " / " + specialite);
+    }
+
+    private Map<String, String> erreurs(String diplome, String specialite) {
+        return assertThrows(ValidationException.class, () -> validationService.validerCandidature(
+                candidat(diplome), concoursOuvert(), specialite(specialite))).getErrors();
+    }
+
+    private static Candidat candidat(String diplome) {
+        Candidat candidat = new Candidat();
+        candidat.setDiplome(diplome);
+        candidat.setDateNaissance(LocalDate.now().minusYears(25));
+        return candidat;
+    }
+
+    private static Concours concoursOuvert() {
+        Concours concours = new Concours();
+        concours.setDateOuverture(LocalDate.now().minusDays(10));
+        concours.setDateCloture(LocalDate.now().plusDays(10));
+        return concours;
+    }
+
+    private static Specialite specialite(String libelle) {
+        Specialite specialite = new Specialite();
+        specialite.setLibelle(libelle);
+        return specialite;
+    }
+}
@@ -0,0 +1,228 @@
+package com.concours.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ajout, retrait, changement de représentation des blocs, intersections et comparaison
+ * aléatoire avec {@link BitSet}
+ */
+class BitmapCompresseTest {
+
+    private static final int BLOC = 1 << 16;
+
+    @Test
+    void ajouterEtRetirer() {
+        BitmapCompresse bitmap = new BitmapCompresse();
+        assertTrue(bitmap.estVide());
+
+        bitmap.ajouter(3);
+        bitmap.ajouter(3);
+        bitmap.ajouter(BLOC + 1);
+        bitmap.ajouter(Integer.MAX_VALUE);
+        assertEquals(3, bitmap.cardinalite());
+        assertTrue(bitmap.contient(3));
+        assertTrue(bitmap.contient(BLOC + 1));
+        assertTrue(bitmap.contient(Integer.MAX_VALUE));
+        assertFalse(bitmap.contient(4));
+        assertFalse(bitmap.contient(1));
+        assertFalse(bitmap.contient(-1));
+
+        bitmap.retirer(4);
+        bitmap.retirer(2 * BLOC);
+        assertEquals(3, bitmap.cardinalite());
+
+        bitmap.retirer(BLOC + 1);
+        assertFalse(bitmap.contient(BLOC + 1));
+        assertEquals(2, blocs(bitmap));
+        bitmap.retirer(3);
+        bitmap.retirer(Integer.MAX_VALUE);
+        assertTrue(bitmap.estVide());
+        assertEquals(0, bitmap.cardinalite());
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.ajouter(-1));
+        assertThrows(IllegalArgumentException.class, () -> bitmap.retirer(-1));
+    }
+
+    @Test
+    void conversionTableauBitmapA4096Valeurs() {
+        BitmapCompresse bitmap = new BitmapCompresse();
+        for (int i = 0; i < 4096; i++) {
+            bitmap.ajouter(i * 2);
+        }
+        assertEquals("BlocTableau", typeBloc(bitmap));
+
+        // Une valeur déjà présente ne convertit pas le bloc
+        bitmap.ajouter(0);
+        assertEquals("BlocTableau", typeBloc(bitmap));
+
+        bitmap.ajouter(1);
+        assertEquals("BlocBitmap", typeBloc(bitmap));
+        assertEquals(4097, bitmap.cardinalite());
+
+        bitmap.retirer(1);
+        assertEquals("BlocTableau", typeBloc(bitmap));
+        assertEquals(4096, bitmap.cardinalite());
+        for (int v = 0; v < 8192; v++) {
+            assertEquals(v % 2 == 0, bitmap.contient(v), "valeur " + v);
+        }
+        assertArrayEquals(new int[]{8190, 8188, 8186}, bitmap.plusGrandes(3));
+    }
+
+    @Test
+    void intersectionsEntreTypesDeBlocs() {
+        BitmapCompresse pairsDense = plage(0, 20_000, 2);       // bitmap : 10000 valeurs
+        BitmapCompresse multiplesDe3Dense = plage(0, 30_000, 3); // bitmap : 10000 valeurs
+        BitmapCompresse multiplesDe5 = plage(0, 20_000, 5);     // tableau : 4000 valeurs
+        BitmapCompresse multiplesDe7 = plage(0, 20_000, 7);     // tableau : 2858 valeurs
+        assertEquals("BlocBitmap", typeBloc(pairsDense));
+        assertEquals("BlocTableau", typeBloc(multiplesDe5));
+
+        verifierIntersection(multiplesDe5, multiplesDe7, 0, 20_000);   // tableau ∩ tableau
+        verifierIntersection(multiplesDe5, pairsDense, 0, 20_000);     // tableau ∩ bitmap
+        verifierIntersection(pairsDense, multiplesDe7, 0, 20_000);     // bitmap ∩ tableau
+        verifierIntersection(pairsDense, multiplesDe3Dense, 0, 30_000); // bitmap ∩ bitmap, résultat en tableau
+
+        BitmapCompresse dense = plage(0, 60_000, 1);
+        BitmapCompresse intersection = dense.et(pairsDense);
+        assertEquals("BlocBitmap", typeBloc(intersection));
+        assertEquals(10_000, intersection.cardinalite());
+
+        // Blocs sans clé commune
+        BitmapCompresse ailleurs = plage(3 * BLOC, 3 * BLOC + 100, 1);
+        assertTrue(pairsDense.et(ailleurs).estVide());
+        assertEquals(0, pairsDense.cardinaliteEt(ailleurs));
+        assertTrue(pairsDense.et(new BitmapCompresse()).estVide());
+    }
+
+    @Test
+    void plusGrandes() {
+        BitmapCompresse bitmap = new BitmapCompresse();
+        assertArrayEquals(new int[0], bitmap.plusGrandes(5));
+
+        bitmap.ajouter(1);
+        bitmap.ajouter(BLOC + 5);
+        bitmap.ajouter(BLOC + 2);
+        for (int v = 2 * BLOC; v < 2 * BLOC + 5000; v++) {
+            bitmap.ajouter(v); // bloc en bitmap
+        }
+
+        assertArrayEquals(new int[]{2 * BLOC + 4999, 2 * BLOC + 4998}, bitmap.plusGrandes(2));
+        assertArrayEquals(new int[0], bitmap.plusGrandes(0));
+
+        int[] toutes = bitmap.plusGrandes(10_000);
+        assertEquals(5003, toutes.length);
+        assertArrayEquals(new int[]{2 * BLOC, BLOC + 5, BLOC + 2, 1},
+                new int[]{toutes[4999], toutes[5000], toutes[5001], toutes[5002]});
+    }
+
+    @Test
+    void copieIndependante() {
+        BitmapCompresse original = plage(0, 10_000, 1);
+        BitmapCompresse copie = original.copie();
+        copie.retirer(5);
+        copie.ajouter(BLOC);
+
+        assertTrue(original.contient(5));
+        assertFalse(original.contient(BLOC));
+        assertEquals(10_000, original.cardinalite());
+        assertEquals(10_000, copie.cardinalite());
+    }
+
+    @Test
+    void comparaisonAleatoireAvecBitSet() {
+        Random aleatoire = new Random(20250310);
+        for (int tour = 0; tour < 20; tour++) {
+            // Alternance de valeurs éparses (blocs en tableau) et denses (blocs en bitmap)
+            int borne = tour % 2 == 0 ? 4 * BLOC : 20_000;
+            BitmapCompresse a = new BitmapCompresse();
+            BitmapCompresse b = new BitmapCompresse();
+            BitSet attenduA = new BitSet();
+            BitSet attenduB = new BitSet();
+
+            for (int i = 0; i < 30_000; i++) {
+                int v = aleatoire.nextInt(borne);
+                if (aleatoire.nextInt(4) == 0) {
+                    a.retirer(v);
+                    attenduA.clear(v);
+                } else {
+                    a.ajouter(v);
+                    attenduA.set(v);
+                }
+                int w = aleatoire.nextInt(borne);
+                b.ajouter(w);
+                attenduB.set(w);
+            }
+
+            assertEquals(attenduA.cardinality(), a.cardinalite(), "tour " + tour);
+            for (int v = 0; v < borne; v++) {
+                assertEquals(attenduA.get(v), a.contient(v), "tour " + tour + ", valeur " + v);
+            }
+
+            BitSet attenduEt = (BitSet) attenduA.clone();
+            attenduEt.and(attenduB);
+            BitmapCompresse et = a.et(b);
+            assertEquals(attenduEt.cardinality(), et.cardinalite(), "tour " + tour);
+            assertEquals(attenduEt.cardinality(), a.cardinaliteEt(b), "tour " + tour);
+            assertEquals(attenduEt.cardinality(), b.cardinaliteEt(a), "tour " + tour);
+            assertArrayEquals(plusGrandes(attenduEt, 25), et.plusGrandes(25), "tour " + tour);
+            assertArrayEquals(plusGrandes(attenduA, attenduA.cardinality()),
+                    a.plusGrandes(Integer.MAX_VALUE), "tour " + tour);
+
+            BitmapCompresse copie = a.copie();
+            attenduA.stream().forEach(copie::retirer);
+            assertTrue(copie.estVide(), "tour " + tour);
+            assertEquals(attenduA.cardinality(), a.cardinalite(), "tour " + tour);
+        }
+    }
+
+    private static void verifierIntersection(BitmapCompresse a, BitmapCompresse b, int debut, int fin) {
+        BitmapCompresse et = a.et(b);
+        long attendu = 0;
+        for (int v = debut; v < fin; v++) {
+            boolean dansLesDeux = a.contient(v) && b.contient(v);
+            assertEquals(dansLesDeux, et.contient(v), "valeur " + v);
+            if (dansLesDeux) {
+                attendu++;
+            }
+        }
+        assertEquals(attendu, et.cardinalite());
+        assertEquals(attendu, a.cardinaliteEt(b));
+        assertEquals(attendu, b.cardinaliteEt(a));
+    }
+
+    private static BitmapCompresse plage(int debut, int fin, int pas) {
+        BitmapCompresse bitmap = new BitmapCompresse();
+        for (int v = debut; v < fin; v += pas) {
+            bitmap.ajouter(v);
+        }
+        return bitmap;
+    }
+
+    private static int[] plusGrandes(BitSet valeurs, int limite) {
+        int[] resultat = new int[Math.min(limite, valeurs.cardinality())];
+        int v = valeurs.length();
+        for (int n = 0; n < resultat.length; n++) {
+            v = valeurs.previousSetBit(v - 1);
+            resultat[n] = v;
+        }
+        return resultat;
+    }
+
+    private static int blocs(BitmapCompresse bitmap) {
+        return (int) ReflectionTestUtils.getField(bitmap, "nombreBlocs");
+    }
+
+    /**
+     * Représentation du premier bloc
+     */
+    private static String typeBloc(BitmapCompresse bitmap) {
+        Object[] blocs = (Object[]) ReflectionTestUtils.getField(bitmap, "blocs");
+        return blocs[0].getClass().getSimpleName();
+    }
+}
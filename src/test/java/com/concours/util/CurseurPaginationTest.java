@@ -0,0 +1,63 @@
+package com.concours.util;
+
+import com.concours.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Jeton de curseur : aller-retour, sens de lecture et jetons altérés
+ */
+class CurseurPaginationTest {
+
+    private static final LocalDate JOUR = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void allerRetour() {
+        CurseurPagination suivant = CurseurPagination.apres(JOUR, "CAND-2025-000042");
+        CurseurPagination precedent = CurseurPagination.avant(JOUR, "CAND-2025-000042");
+
+        assertEquals(suivant, CurseurPagination.decoder(suivant.encoder()));
+        assertEquals(precedent, CurseurPagination.decoder(precedent.encoder()));
+        // Le séparateur peut apparaître dans le numéro, seul le dernier champ le contient
+        CurseurPagination separateur = CurseurPagination.apres(JOUR, "A|B");
+        assertEquals(separateur, CurseurPagination.decoder(separateur.encoder()));
+        // Jeton utilisable tel quel dans une URL
+        assertTrue(suivant.encoder().matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void sensDeLecture() {
+        assertFalse(CurseurPagination.decoder(CurseurPagination.apres(JOUR, "N1").encoder()).precedent());
+        assertTrue(CurseurPagination.decoder(CurseurPagination.avant(JOUR, "N1").encoder()).precedent());
+        assertNotEquals(CurseurPagination.apres(JOUR, "N1").encoder(), CurseurPagination.avant(JOUR, "N1").encoder());
+    }
+
+    @Test
+    void jetonAbsent() {
+        assertNull(CurseurPagination.decoder(null));
+        assertNull(CurseurPagination.decoder(" "));
+    }
+
+    @Test
+    void jetonAltere() {
+        assertInvalide("pas du base64 !");
+        assertInvalide(jeton("X|2025-03-10|N1"));
+        assertInvalide(jeton("S|2025-13-40|N1"));
+        assertInvalide(jeton("S|2025-03-10|"));
+        assertInvalide(jeton("S|2025-03-10"));
+    }
+
+    private static void assertInvalide(String jeton) {
+        BusinessException e = assertThrows(BusinessException.class, () -> CurseurPagination.decoder(jeton));
+        assertEquals("Curseur de pagination invalide", e.getMessage());
+    }
+
+    private static String jeton(String valeur) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valeur.getBytes(StandardCharsets.UTF_8));
+    }
+}
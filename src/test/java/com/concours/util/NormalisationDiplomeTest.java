@@ -0,0 +1,69 @@
+package com.concours.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Forme normalisée des intitulés de diplôme, code canonique et recherche de termes
+ */
+class NormalisationDiplomeTest {
+
+    @Test
+    void accentsPonctuationEtMotsVides() {
+        assertEquals("ingenieur genie civil", NormalisationDiplome.normaliser("Diplôme d'Ingénieur en Génie-Civil"));
+        assertEquals("bac 2", NormalisationDiplome.normaliser("Bac+2"));
+        assertEquals("master finance", NormalisationDiplome.normaliser("  MASTER   de la Finance. "));
+        assertEquals("", NormalisationDiplome.normaliser(null));
+        assertEquals("", NormalisationDiplome.normaliser("   "));
+        assertEquals("", NormalisationDiplome.normaliser("Diplôme de la"));
+    }
+
+    @Test
+    void synonymesDeMots() {
+        assertEquals("ingenieur genie civil", NormalisationDiplome.normaliser("ing GC"));
+        assertEquals("licence informatique", NormalisationDiplome.normaliser("Lic. Info"));
+        assertEquals("licence professionnelle reseaux", NormalisationDiplome.normaliser("LP Réseau"));
+        assertEquals("technicien specialise comptabilite", NormalisationDiplome.normaliser("TS compta"));
+        assertEquals("ingenieur systemes", NormalisationDiplome.normaliser("Ingénieurs Système"));
+    }
+
+    @Test
+    void expressionsRemplaceesParLeurSigle() {
+        assertEquals("dut informatique",
+                NormalisationDiplome.normaliser("Diplôme Universitaire de Technologie en informatique"));
+        assertEquals("bts", NormalisationDiplome.normaliser("Brevet de Technicien Supérieur"));
+        assertEquals("dess finance", NormalisationDiplome.normaliser("Diplôme d'Études Supérieures Spécialisées, finance"));
+        assertEquals("deug economie", NormalisationDiplome.normaliser("Études Universitaires Générales - éco"));
+        assertEquals("dea", NormalisationDiplome.normaliser("Diplôme d'études approfondies"));
+        // Expression remplacée sur des mots entiers seulement
+        assertEquals("universitaire technologies", NormalisationDiplome.normaliser("Universitaire Technologies"));
+    }
+
+    @Test
+    void codeCanonique() {
+        assertEquals("INGENIEUR_GENIE_CIVIL", NormalisationDiplome.code("ingenieur genie civil"));
+        assertEquals("ingenieur genie civil", NormalisationDiplome.forme("INGENIEUR_GENIE_CIVIL"));
+
+        String longue = "master " + "informatique ".repeat(20).trim();
+        String code = NormalisationDiplome.code(longue);
+        assertEquals(NormalisationDiplome.LONGUEUR_CODE, code.length());
+        assertTrue(code.startsWith("MASTER_INFORMATIQUE_"));
+        assertEquals("BTS", NormalisationDiplome.code("bts"));
+    }
+
+    @Test
+    void contientUnTermeSurDesMotsEntiers() {
+        assertTrue(NormalisationDiplome.contientUnTerme("licence informatique", List.of("informatique")));
+        assertTrue(NormalisationDiplome.contientUnTerme("ingenieur genie civil", List.of("btp", "genie civil")));
+        assertTrue(NormalisationDiplome.contientUnTerme("informatique", List.of("informatique")));
+
+        assertFalse(NormalisationDiplome.contientUnTerme("bioinformatique", List.of("informatique")));
+        assertFalse(NormalisationDiplome.contientUnTerme("systemes informatiques", List.of("informatique")));
+        assertFalse(NormalisationDiplome.contientUnTerme("genie civil", List.of("civil genie")));
+        assertFalse(NormalisationDiplome.contientUnTerme("licence", List.of("")));
+        assertFalse(NormalisationDiplome.contientUnTerme("licence", List.of()));
+    }
+}
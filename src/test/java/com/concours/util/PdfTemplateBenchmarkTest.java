@@ -0,0 +1,102 @@
+package com.concours.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vérifie la structure du PDF produit par {@link PdfTemplate} et compare
+ * l'allocation par requête avec l'ancienne génération par String.format.
+ */
+class PdfTemplateBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private static final PdfTemplate TEMPLATE = PdfTemplate.compile(
+            "BT\n/F1 12 Tf\n100 700 Td\n(Document ID: {0}) Tj\n0 -20 Td\n(Document de test genere automatiquement) Tj\nET");
+
+    @Test
+    void xrefPointsToEachObject() {
+        byte[] pdf = TEMPLATE.render("12345 (copie) \\ été");
+        String content = new String(pdf, StandardCharsets.ISO_8859_1);
+
+        assertTrue(content.startsWith("%PDF-1.4\n"));
+        assertTrue(content.endsWith("%%EOF\n"));
+
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(content);
+        assertTrue(startxref.find());
+        int xrefOffset = Integer.parseInt(startxref.group(1));
+        assertTrue(content.startsWith("xref\n", xrefOffset));
+
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n \n").matcher(content.substring(xrefOffset));
+        int number = 1;
+        while (entries.find()) {
+            int offset = Integer.parseInt(entries.group(1));
+            assertTrue(content.startsWith(number + " 0 obj\n", offset), "offset de l'objet " + number);
+            number++;
+        }
+        assertEquals(6, number);
+
+        Matcher length = Pattern.compile("/Length (\\d+) >>\nstream\n").matcher(content);
+        assertTrue(length.find());
+        int streamStart = length.end();
+        int declared = Integer.parseInt(length.group(1));
+        assertTrue(content.startsWith("\nendstream", streamStart + declared));
+
+        // Champs échappés et encodés en WinAnsi
+        assertTrue(content.contains("(Document ID: 12345 \\(copie\\) \\\\ été) Tj"));
+    }
+
+    @Test
+    void allocatesLessPerRequestThanStringFormat() {
+        long template = allocationParRequete(() -> TEMPLATE.render(String.valueOf(42L)));
+        long legacy = allocationParRequete(() -> legacyPdf(42L));
+
+        // Le seul tableau alloué par rendu est le PDF final (~700 octets)
+        assertTrue(template < legacy / 2, "modèle: " + template + " octets, String.format: " + legacy + " octets");
+    }
+
+    private long allocationParRequete(Supplier<byte[]> generation) {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            sink += generation.get().length;
+        }
+
+        long avant = bean.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += generation.get().length;
+        }
+        long apres = bean.getThreadAllocatedBytes(tid);
+
+        assertTrue(sink > 0);
+        return (apres - avant) / ITERATIONS;
+    }
+
+    /**
+     * Ancienne génération de DocumentController.generateStaticPDF, conservée pour comparaison
+     */
+    private static byte[] legacyPdf(long documentId) {
+        return String.format(
+                "%%PDF-1.4\n1 0 obj\n<<\n/Type /Catalog\n/Pages 2 0 R\n>>\nendobj\n2 0 obj\n<<\n/Type /Pages\n" +
+                        "/Kids [3 0 R]\n/Count 1\n>>\nendobj\n3 0 obj\n<<\n/Type /Page\n/Parent 2 0 R\n" +
+                        "/MediaBox [0 0 612 792]\n/Contents 4 0 R\n/Resources <<\n/Font <<\n/F1 5 0 R\n>>\n>>\n>>\n" +
+                        "endobj\n4 0 obj\n<<\n/Length 100\n>>\nstream\nBT\n/F1 12 Tf\n100 700 Td\n(Document ID: %d) Tj\n" +
+                        "0 -20 Td\n(Document de test genere automatiquement) Tj\nET\nendstream\nendobj\n5 0 obj\n<<\n" +
+                        "/Type /Font\n/Subtype /Type1\n/BaseFont /Helvetica\n>>\nendobj\nxref\n0 6\n" +
+                        "0000000000 65535 f \n0000000010 00000 n \n0000000053 00000 n \n0000000109 00000 n \n" +
+                        "0000000158 00000 n \n0000000369 00000 n \ntrailer\n<<\n/Size 6\n/Root 1 0 R\n>>\n" +
+                        "startxref\n456\n%%%%EOF",
+                documentId).getBytes();
+    }
+}
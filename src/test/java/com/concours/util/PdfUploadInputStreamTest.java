@@ -0,0 +1,58 @@
+package com.concours.util;
+
+import com.concours.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contrôles appliqués au fil de la lecture, y compris aux octets sautés
+ */
+class PdfUploadInputStreamTest {
+
+    private static PdfUploadInputStream flux(String contenu, long maxSize) {
+        return new PdfUploadInputStream(
+                new ByteArrayInputStream(contenu.getBytes(StandardCharsets.US_ASCII)), maxSize);
+    }
+
+    @Test
+    void skipCompteLesOctetsSautes() throws IOException {
+        PdfUploadInputStream in = flux("%PDF-1.4 contenu", 100);
+
+        assertEquals(9, in.skip(9));
+        assertEquals(9, in.getCount());
+        assertEquals('c', in.read());
+        assertEquals(6, in.skip(100));
+        assertEquals(0, in.skip(10));
+        assertEquals(16, in.getCount());
+    }
+
+    @Test
+    void skipVerifieLEnTete() {
+        PdfUploadInputStream in = flux("<html>pas un pdf</html>", 100);
+
+        assertThrows(BusinessException.class, () -> in.skip(10));
+    }
+
+    @Test
+    void skipVerifieLaTaille() {
+        PdfUploadInputStream in = flux("%PDF-1.4 " + "x".repeat(50), 20);
+
+        assertThrows(BusinessException.class, () -> in.skip(1000));
+    }
+
+    @Test
+    void finAvantLEnTete() throws IOException {
+        PdfUploadInputStream parBloc = flux("%PD", 100);
+        assertThrows(BusinessException.class, () -> parBloc.skip(10));
+
+        PdfUploadInputStream parOctet = flux("%P", 100);
+        assertEquals('%', parOctet.read());
+        assertEquals('P', parOctet.read());
+        assertThrows(BusinessException.class, parOctet::read);
+    }
+}